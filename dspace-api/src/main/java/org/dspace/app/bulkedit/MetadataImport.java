@@ -14,7 +14,6 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +24,7 @@ import javax.annotation.Nullable;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.Logger;
+import org.dspace.app.util.BulkLookupCache;
 import org.dspace.app.util.RelationshipUtils;
 import org.dspace.authority.AuthorityValue;
 import org.dspace.authority.factory.AuthorityServiceFactory;
@@ -34,7 +34,6 @@ import org.dspace.content.Collection;
 import org.dspace.content.DSpaceObject;
 import org.dspace.content.Entity;
 import org.dspace.content.Item;
-import org.dspace.content.MetadataField;
 import org.dspace.content.MetadataSchemaEnum;
 import org.dspace.content.MetadataValue;
 import org.dspace.content.Relationship;
@@ -47,8 +46,6 @@ import org.dspace.content.service.EntityService;
 import org.dspace.content.service.EntityTypeService;
 import org.dspace.content.service.InstallItemService;
 import org.dspace.content.service.ItemService;
-import org.dspace.content.service.MetadataFieldService;
-import org.dspace.content.service.MetadataValueService;
 import org.dspace.content.service.RelationshipService;
 import org.dspace.content.service.RelationshipTypeService;
 import org.dspace.content.service.WorkspaceItemService;
@@ -135,6 +132,13 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
      */
     protected Integer rowCount = 1;
 
+    /**
+     * Handles, item references and items of the CSV, resolved in bulk before the import.
+     *
+     * @see #loadLookupCache(Context)
+     */
+    protected BulkLookupCache lookupCache;
+
     private boolean useTemplate = false;
     private String filename = null;
     private boolean useWorkflow = false;
@@ -356,6 +360,8 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         Context.Mode originalMode = c.getCurrentMode();
         c.setMode(Context.Mode.BATCH_EDIT);
 
+        loadLookupCache(c);
+
         // Process each change
         rowCount = 1;
         for (DSpaceCSVLine line : toImport) {
@@ -377,7 +383,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
             // Is this an existing item?
             if (id != null) {
                 // Get the item
-                item = itemService.find(c, id);
+                item = lookupCache.findItem(c, id);
                 if (item == null) {
                     throw new MetadataImportException("Unknown item ID " + id);
                 }
@@ -430,6 +436,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                         // Remove the item
 
                         if (change) {
+                            lookupCache.invalidateReferences(item);
                             itemService.delete(c, item);
                         }
 
@@ -459,6 +466,9 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                 // Only record if changes have been made
                 if (whatHasChanged.hasChanges()) {
                     changes.add(whatHasChanged);
+                    if (change) {
+                        invalidateReferences(item, whatHasChanged);
+                    }
                 }
             } else {
                 // This is marked as a new item, so no need to compare
@@ -505,7 +515,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                 for (String handle : collections) {
                     try {
                         // Resolve the handle to the collection
-                        collection = (Collection) handleService.resolveToObject(c, handle);
+                        collection = (Collection) resolveHandle(c, handle);
 
                         // Check it resolved OK
                         if (collection == null) {
@@ -532,7 +542,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                 // Record the addition to collections
                 boolean first = true;
                 for (String handle : collections) {
-                    Collection extra = (Collection) handleService.resolveToObject(c, handle);
+                    Collection extra = (Collection) resolveHandle(c, handle);
                     if (first) {
                         whatHasChanged.setOwningCollection(extra);
                     } else {
@@ -545,7 +555,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                 if (change) {
                     // Create the item
                     String collectionHandle = line.get("collection").get(0);
-                    collection = (Collection) handleService.resolveToObject(c, collectionHandle);
+                    collection = (Collection) resolveHandle(c, collectionHandle);
                     wsItem = workspaceItemService.create(c, collection, useTemplate);
                     item = wsItem.getItem();
 
@@ -586,12 +596,13 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                     if (line.get("collection").size() > 0) {
                         for (int i = 1; i < collections.size(); i++) {
                             String handle = collections.get(i);
-                            Collection extra = (Collection) handleService.resolveToObject(c, handle);
+                            Collection extra = (Collection) resolveHandle(c, handle);
                             collectionService.addItem(c, extra, item);
                         }
                     }
 
                     whatHasChanged.setItem(item);
+                    invalidateReferences(item, whatHasChanged);
                 }
 
                 // Record the changes
@@ -610,6 +621,8 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         }
 
         c.setMode(originalMode);
+        log.debug("Lookup cache: " + lookupCache.getHitCount() + " hits, " + lookupCache.getMissCount()
+                      + " misses");
 
 
         // Return the changes
@@ -619,6 +632,69 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         return changes;
     }
 
+    /**
+     * Collect the collection handles, item references and item IDs of the CSV, and resolve them in bulk into the
+     * {@link #lookupCache}, so the import doesn't query them one row at a time.
+     *
+     * @param c The DSpace context
+     * @throws SQLException if a database error occurs
+     */
+    protected void loadLookupCache(Context c) throws SQLException {
+        lookupCache = new BulkLookupCache(configurationService.getIntProperty("bulkedit.lookup-cache.size", 100000));
+        for (DSpaceCSVLine line : toImport) {
+            lookupCache.addItem(line.getID());
+            for (String key : line.keys()) {
+                if ("collection".equals(key)) {
+                    for (String handle : line.get(key)) {
+                        lookupCache.addHandle(handle);
+                    }
+                } else if (key.split("\\.")[0].equalsIgnoreCase("relation")) {
+                    for (String reference : line.get(key)) {
+                        // only the metadata value references are looked up in the database
+                        if (reference != null && reference.contains(":") && !reference.contains("::virtual::")
+                            && !reference.startsWith("rowName:")) {
+                            lookupCache.addReference(reference);
+                        }
+                    }
+                }
+            }
+        }
+        lookupCache.load(c);
+    }
+
+    /**
+     * Let the later rows resolve the references to the metadata values a row has modified, or removed, from the
+     * database rather than from the {@link #lookupCache}.
+     *
+     * @param item           The item of the row
+     * @param whatHasChanged The changes of the row
+     */
+    protected void invalidateReferences(Item item, BulkEditChange whatHasChanged) {
+        for (BulkEditMetadataValue dcv : whatHasChanged.getRemoves()) {
+            String field = dcv.getSchema() + "." + dcv.getElement()
+                + (StringUtils.isBlank(dcv.getQualifier()) ? "" : "." + dcv.getQualifier());
+            lookupCache.invalidateReference(field, dcv.getValue());
+        }
+        if (!whatHasChanged.isDeleted()) {
+            lookupCache.invalidateReferences(item);
+        }
+    }
+
+    /**
+     * Resolve a handle from the {@link #lookupCache}, if loaded.
+     *
+     * @param c      The DSpace context
+     * @param handle The handle
+     * @return The object the handle maps to, or null
+     * @throws SQLException if a database error occurs
+     */
+    protected DSpaceObject resolveHandle(Context c, String handle) throws SQLException {
+        if (lookupCache == null) {
+            return handleService.resolveToObject(c, handle);
+        }
+        return lookupCache.resolveHandle(c, handle);
+    }
+
     /**
      * Compare an item metadata with a line from CSV, and optionally update the item.
      *
@@ -956,7 +1032,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         String oldOwner = item.getOwningCollection().getHandle();
         String newOwner = collections.get(0);
         // Resolve the handle to the collection
-        Collection newCollection = (Collection) handleService.resolveToObject(c, newOwner);
+        Collection newCollection = (Collection) resolveHandle(c, newOwner);
 
         // Check it resolved OK
         if (newCollection == null) {
@@ -967,7 +1043,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         if (!oldOwner.equals(newOwner)) {
             // Register the old and new owning collections
             bechange.changeOwningCollection(item.getOwningCollection(),
-                                            (Collection) handleService.resolveToObject(c, newOwner));
+                                            (Collection) resolveHandle(c, newOwner));
         }
 
         // Second, loop through the strings from the CSV of mapped collections
@@ -987,7 +1063,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                 }
 
                 // Was it found?
-                DSpaceObject dso = handleService.resolveToObject(c, csvcollection);
+                DSpaceObject dso = resolveHandle(c, csvcollection);
                 if ((dso == null) || (dso.getType() != Constants.COLLECTION)) {
                     throw new MetadataImportException("Collection defined for item " + item.getID() +
                                                           " (" + item.getHandle() + ") is not a collection");
@@ -1524,27 +1600,22 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         if (reference.contains("::virtual::")) {
             return UUID.fromString(StringUtils.substringBefore(reference, "::virtual::"));
         } else if (!reference.startsWith("rowName:")) { // Not a rowName ref; so it's a metadata value reference
-            MetadataValueService metadataValueService = ContentServiceFactory.getInstance().getMetadataValueService();
-            MetadataFieldService metadataFieldService =
-                ContentServiceFactory.getInstance().getMetadataFieldService();
             int i = reference.indexOf(":");
-            String mfValue = reference.substring(i + 1);
             String mf[] = reference.substring(0, i).split("\\.");
             if (mf.length < 2) {
                 throw new MetadataImportException("Error in CSV row " + rowCount + ":\n" +
                                                       "Bad metadata field in reference: '" + reference
                                                       + "' (expected syntax is schema.element[.qualifier])");
             }
-            String schema = mf[0];
-            String element = mf[1];
-            String qualifier = mf.length == 2 ? null : mf[2];
             try {
-                MetadataField mfo = metadataFieldService.findByElement(context, schema, element, qualifier);
-                Iterator<MetadataValue> mdv = metadataValueService.findByFieldAndValue(context, mfo, mfValue);
-                if (mdv.hasNext()) {
-                    MetadataValue mdvVal = mdv.next();
-                    uuid = mdvVal.getDSpaceObject().getID();
-                    if (mdv.hasNext()) {
+                if (lookupCache == null) {
+                    lookupCache = new BulkLookupCache(
+                        configurationService.getIntProperty("bulkedit.lookup-cache.size", 100000));
+                }
+                List<UUID> matches = lookupCache.findItemsByReference(context, reference);
+                if (!matches.isEmpty()) {
+                    uuid = matches.get(0);
+                    if (matches.size() > 1) {
                         throw new MetadataImportException("Error in CSV row " + rowCount + ":\n" +
                                                           "Ambiguous reference; multiple matches in db: " + reference);
                     }
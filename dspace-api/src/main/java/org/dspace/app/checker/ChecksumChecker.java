@@ -38,6 +38,8 @@ import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.content.service.BitstreamService;
 import org.dspace.core.Context;
 import org.dspace.core.Utils;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
 
 /**
  * Command line access to the checksum checker. Options are listed in the
@@ -79,6 +81,10 @@ public final class ChecksumChecker {
      * <dd>Report only errors in the logs</dd>
      * <dt>-p</dt>
      * <dd>Don't prune results before running checker</dd>
+     * <dt>-t [threads]</dt>
+     * <dd>number of threads calculating checksums</dd>
+     * <dt>-r [bytes]</dt>
+     * <dd>maximum number of bytes checked per second</dd>
      * </dl>
      *
      * @param args the command line arguments given
@@ -100,6 +106,8 @@ public final class ChecksumChecker {
         options.addOption("c", "count", true, "Check count");
         options.addOption("a", "handle", true, "Specify a handle to check");
         options.addOption("v", "verbose", false, "Report all processing");
+        options.addOption("t", "threads", true, "Number of threads calculating checksums");
+        options.addOption("r", "max-rate", true, "Maximum number of bytes checked per second (0 for no limit)");
 
         Option option;
 
@@ -207,10 +215,19 @@ public final class ChecksumChecker {
                 checker.setReportVerbose(true);
             }
 
+            ConfigurationService configurationService
+                = DSpaceServicesFactory.getInstance().getConfigurationService();
+            checker.setThreads(line.hasOption('t') ? Integer.parseInt(line.getOptionValue('t'))
+                                   : configurationService.getIntProperty("checker.threads", 1));
+            checker.setMaxBytesPerSecond(line.hasOption('r') ? Long.parseLong(line.getOptionValue('r'))
+                                   : configurationService.getLongProperty("checker.max-bytes-per-second", 0));
+            checker.setBatchSize(configurationService.getIntProperty("checker.batch-size", 100));
+
             checker.setProcessStartDate(processStart);
             checker.setDispatcher(dispatcher);
             checker.setCollector(logger);
             checker.process();
+            System.out.println(checker.getThroughputReport());
             context.complete();
             context = null;
         } finally {
@@ -238,6 +255,8 @@ public final class ChecksumChecker {
                                + "ChecksumChecker -l");
         System.out.println("\nLoop continuously through all bitstreams: ChecksumChecker -L");
         System.out.println("\nCheck a defined number of bitstreams: ChecksumChecker -c 10");
+        System.out.println("\nCheck with 4 threads, reading at most 50MB per second: "
+                               + "ChecksumChecker -l -t 4 -r 52428800");
         System.out.println("\nReport all processing (verbose)(default reports only errors): ChecksumChecker -v");
         System.out.println("\nDefault (no arguments) is equivalent to '-c 1'");
         System.exit(0);
@@ -36,6 +36,8 @@ import org.dspace.eperson.service.EPersonService;
 import org.dspace.handle.factory.HandleServiceFactory;
 import org.dspace.handle.service.HandleService;
 import org.dspace.scripts.DSpaceRunnable;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.utils.DSpace;
 
 /**
@@ -71,6 +73,7 @@ public class ItemImport extends DSpaceRunnable<ItemImportScriptConfiguration> {
     protected boolean useWorkflow = false;
     protected boolean useWorkflowSendEmail = false;
     protected boolean isQuiet = false;
+    protected int threads = 1;
     protected boolean commandLineCollections = false;
     protected boolean zip = false;
     protected String zipfilename = null;
@@ -84,6 +87,8 @@ public class ItemImport extends DSpaceRunnable<ItemImportScriptConfiguration> {
             EPersonServiceFactory.getInstance().getEPersonService();
     protected static final HandleService handleService =
             HandleServiceFactory.getInstance().getHandleService();
+    protected static final ConfigurationService configurationService =
+            DSpaceServicesFactory.getInstance().getConfigurationService();
 
     @Override
     public ItemImportScriptConfiguration getScriptConfiguration() {
@@ -139,6 +144,15 @@ public class ItemImport extends DSpaceRunnable<ItemImportScriptConfiguration> {
             isQuiet = true;
         }
 
+        threads = configurationService.getIntProperty("org.dspace.app.batchitemimport.threads", 1);
+        if (commandLine.hasOption('T')) {
+            try {
+                threads = Integer.parseInt(commandLine.getOptionValue('T'));
+            } catch (NumberFormatException e) {
+                throw new ParseException("Invalid number of threads: " + commandLine.getOptionValue('T'));
+            }
+        }
+
         setZip();
     }
 
@@ -208,6 +222,9 @@ public class ItemImport extends DSpaceRunnable<ItemImportScriptConfiguration> {
             itemImportService.setUseWorkflow(useWorkflow);
             itemImportService.setUseWorkflowSendEmail(useWorkflowSendEmail);
             itemImportService.setQuiet(isQuiet);
+            itemImportService.setThreads(threads);
+            itemImportService.setBatchSize(
+                configurationService.getIntProperty("org.dspace.app.batchitemimport.batch.size", 100));
             itemImportService.setHandler(handler);
 
             try {
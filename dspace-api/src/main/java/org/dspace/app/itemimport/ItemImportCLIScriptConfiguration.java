@@ -64,6 +64,9 @@ public class ItemImportCLIScriptConfiguration extends ItemImportScriptConfigurat
         options.addOption(Option.builder("q").longOpt("quiet")
                 .desc("don't display metadata")
                 .hasArg(false).required(false).build());
+        options.addOption(Option.builder("T").longOpt("threads")
+                .desc("number of threads importing items in parallel (add only)")
+                .hasArg().required(false).build());
 
         options.addOption(Option.builder("h").longOpt("help")
                 .desc("help")
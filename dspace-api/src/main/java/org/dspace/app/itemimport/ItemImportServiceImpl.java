@@ -28,7 +28,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -38,12 +41,21 @@ import java.util.Enumeration;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import javax.mail.MessagingException;
@@ -64,6 +76,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.logging.log4j.Logger;
 import org.dspace.app.itemimport.service.ItemImportService;
+import org.dspace.app.util.BulkLookupCache;
 import org.dspace.app.util.LocalSchemaFilenameFilter;
 import org.dspace.app.util.RelationshipUtils;
 import org.dspace.authorize.AuthorizeException;
@@ -107,6 +120,7 @@ import org.dspace.eperson.service.GroupService;
 import org.dspace.handle.service.HandleService;
 import org.dspace.scripts.handler.DSpaceRunnableHandler;
 import org.dspace.services.ConfigurationService;
+import org.dspace.util.UUIDUtils;
 import org.dspace.workflow.WorkflowItem;
 import org.dspace.workflow.WorkflowService;
 import org.springframework.beans.factory.InitializingBean;
@@ -185,10 +199,15 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
     protected boolean useWorkflow = false;
     protected boolean useWorkflowSendEmail = false;
     protected boolean isQuiet = false;
+    protected int threads = 1;
+    protected int batchSize = 100;
 
     //remember which folder item was imported from
     Map<String, Item> itemFolderMap = null;
 
+    //references of the relationship manifests, resolved in bulk while adding relationships
+    BulkLookupCache lookupCache = null;
+
     @Override
     public void afterPropertiesSet() throws Exception {
         tempWorkDir = configurationService.getProperty("org.dspace.app.batchitemimport.work.dir");
@@ -280,6 +299,15 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
 
             Arrays.sort(dircontents, ComparatorUtils.naturalComparator());
 
+            if (threads > 1 && !isTest) {
+                addItemsParallel(c, mycollections, sourceDir, dircontents, skipItems, mapOut, template);
+                mapOut.close();
+                sortMapFile(mapFile);
+                //now that all items are imported, iterate again to link relationships
+                addRelationships(c, sourceDir);
+                return;
+            }
+
             for (int i = 0; i < dircontents.length; i++) {
                 if (skipItems.containsKey(dircontents[i])) {
                     logInfo("Skipping import of " + dircontents[i]);
@@ -328,6 +356,256 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         }
     }
 
+    /**
+     * Add the items of the given directories on a pool of {@link #threads} workers. Each worker imports items in
+     * its own Context, committed every {@link #batchSize} items; the metadata files of the next items are parsed by
+     * the calling thread while the workers create the items and copy their bitstreams.
+     * <P>
+     * The mapfile lines of the items of a batch are only written once the batch is committed, so an interrupted
+     * import can be resumed from the mapfile. If an item fails, the batch of its worker is rolled back, the other
+     * workers commit their current batch and no further item is imported.
+     *
+     * @param c             current Context, used for the skipped items and the collections files
+     * @param mycollections add items to these Collections, or null to read the collections file of each item
+     * @param sourceDir     directory containing the item directories
+     * @param dircontents   the item directories, in import order
+     * @param skipItems     the items already imported (resume), by directory
+     * @param mapOut        mapfile we're writing
+     * @param template      whether to use collection template item as starting point
+     * @throws Exception if an item can't be imported
+     */
+    protected void addItemsParallel(Context c, List<Collection> mycollections, String sourceDir,
+                                    String[] dircontents, Map<String, String> skipItems, PrintWriter mapOut,
+                                    boolean template) throws Exception {
+        List<UUID> collectionIDs = mycollections == null ? null : toIDs(mycollections);
+        UUID userID = c.getCurrentUser() == null ? null : c.getCurrentUser().getID();
+        boolean ignoreAuthorization = c.ignoreAuthorization();
+
+        BlockingQueue<ParsedItem> queue = new ArrayBlockingQueue<>(threads * 2);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Map<String, UUID> importedItems = new ConcurrentHashMap<>();
+        boolean hasRelationships = false;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    importParsedItems(queue, failure, importedItems, userID, ignoreAuthorization, sourceDir,
+                                      mapOut, template);
+                    return null;
+                }));
+            }
+
+            try {
+                for (int i = 0; i < dircontents.length && failure.get() == null; i++) {
+                    String path = sourceDir + File.separatorChar + dircontents[i];
+                    hasRelationships |= new File(path, "relationships").exists();
+                    if (skipItems.containsKey(dircontents[i])) {
+                        logInfo("Skipping import of " + dircontents[i]);
+
+                        //we still need the item in the map for relationship linking
+                        String skippedHandle = skipItems.get(dircontents[i]);
+                        Item skippedItem = (Item) handleService.resolveToObject(c, skippedHandle);
+                        itemFolderMap.put(dircontents[i], skippedItem);
+                        continue;
+                    }
+
+                    List<UUID> clist = collectionIDs;
+                    if (clist == null) {
+                        try {
+                            List<Collection> cols = processCollectionFile(c, path, "collections");
+                            if (cols == null) {
+                                logError("No collections specified for item " + dircontents[i] + ". Skipping.");
+                                continue;
+                            }
+                            clist = toIDs(cols);
+                        } catch (IllegalArgumentException e) {
+                            logError(e.getMessage() + " Skipping.");
+                            continue;
+                        }
+                    }
+
+                    ParsedItem parsedItem = new ParsedItem(i, dircontents[i], clist);
+                    try {
+                        parsedItem.metadata = parseMetadata(path + File.separatorChar);
+                    } catch (Exception e) {
+                        // reported by the worker importing the item
+                        parsedItem.error = e;
+                    }
+                    queue.put(parsedItem);
+                }
+            } finally {
+                // the workers keep taking items until they get their end marker, even after a failure
+                for (int t = 0; t < workers.size(); t++) {
+                    queue.put(ParsedItem.END);
+                }
+            }
+
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause() instanceof Exception ? (Exception) e.getCause()
+                        : new Exception(e.getCause()));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        if (hasRelationships) {
+            for (Map.Entry<String, UUID> importedItem : importedItems.entrySet()) {
+                Item item = itemService.find(c, importedItem.getValue());
+                itemFolderMap.put(importedItem.getKey(), item);
+                c.uncacheEntity(item);
+            }
+        }
+    }
+
+    /**
+     * Import the items parsed by {@link #addItemsParallel}, until the end marker, in a Context of the current
+     * thread. If the worker itself fails, the failure is recorded and the items handed to it are skipped, up to the
+     * end marker, so the thread parsing the items never blocks on the queue.
+     */
+    protected void importParsedItems(BlockingQueue<ParsedItem> queue, AtomicReference<Exception> failure,
+                                     Map<String, UUID> importedItems, UUID userID, boolean ignoreAuthorization,
+                                     String sourceDir, PrintWriter mapOut, boolean template)
+        throws InterruptedException {
+        Context c = null;
+        // mapfile lines of the items not committed yet
+        StringWriter batchMap = new StringWriter();
+        PrintWriter batchMapOut = new PrintWriter(batchMap);
+        int batchCount = 0;
+        boolean ended = false;
+        try {
+            c = new Context(Context.Mode.BATCH_EDIT);
+            if (ignoreAuthorization) {
+                c.turnOffAuthorisationSystem();
+            }
+            if (userID != null) {
+                c.setCurrentUser(ePersonService.find(c, userID));
+            }
+
+            ParsedItem parsedItem;
+            while ((parsedItem = queue.take()) != ParsedItem.END) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    if (parsedItem.error != null) {
+                        throw parsedItem.error;
+                    }
+                    List<Collection> clist = new ArrayList<>();
+                    for (UUID collectionID : parsedItem.collections) {
+                        clist.add(collectionService.find(c, collectionID));
+                    }
+
+                    Item item = addItem(c, clist, sourceDir, parsedItem.folder, batchMapOut, template,
+                                        parsedItem.metadata);
+                    importedItems.put(parsedItem.folder, item.getID());
+                    c.uncacheEntity(item);
+                    logInfo(parsedItem.index + " " + parsedItem.folder);
+
+                    if (++batchCount >= batchSize) {
+                        commitBatch(c, batchMap, mapOut);
+                        batchCount = 0;
+                    }
+                } catch (Exception e) {
+                    logError("Unable to import " + parsedItem.folder + ", rolling back its batch", e);
+                    failure.compareAndSet(null, e);
+                    c.rollback();
+                    batchMap.getBuffer().setLength(0);
+                    batchCount = 0;
+                }
+            }
+            ended = true;
+            if (batchCount > 0) {
+                commitBatch(c, batchMap, mapOut);
+            }
+            c.complete();
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Throwable t) {
+            logError("Item import worker failed, stopping the import", t);
+            failure.compareAndSet(null, t instanceof Exception ? (Exception) t : new Exception(t));
+        } finally {
+            if (c != null && c.isValid()) {
+                c.abort();
+            }
+        }
+        // the items handed to a failed worker are skipped, up to the end marker
+        while (!ended) {
+            ended = queue.take() == ParsedItem.END;
+        }
+    }
+
+    /**
+     * Commit a batch of imported items, then write their lines to the mapfile.
+     */
+    private void commitBatch(Context c, StringWriter batchMap, PrintWriter mapOut) throws SQLException {
+        c.commit();
+        synchronized (mapOut) {
+            mapOut.print(batchMap);
+            mapOut.flush();
+        }
+        batchMap.getBuffer().setLength(0);
+    }
+
+    /**
+     * Sort the lines of a mapfile in the order of the item directories, as the workers of a parallel import write
+     * them as their batches are committed.
+     *
+     * @param mapFile the mapfile
+     * @throws Exception if the mapfile can't be read or written
+     */
+    protected void sortMapFile(String mapFile) throws Exception {
+        Map<String, String> lines = new TreeMap<>(ComparatorUtils.naturalComparator());
+        lines.putAll(readMapFile(mapFile));
+
+        File sorted = new File(mapFile + ".tmp");
+        try (PrintWriter out = new PrintWriter(new FileWriter(sorted))) {
+            for (Map.Entry<String, String> line : lines.entrySet()) {
+                out.println(line.getKey() + " " + line.getValue());
+            }
+        }
+        Files.move(sorted.toPath(), new File(mapFile).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<UUID> toIDs(List<Collection> collections) {
+        List<UUID> ids = new ArrayList<>(collections.size());
+        for (Collection collection : collections) {
+            ids.add(collection.getID());
+        }
+        return ids;
+    }
+
+    /**
+     * An item directory to import in parallel, with its parsed metadata files.
+     */
+    protected static class ParsedItem {
+        /**
+         * Marks the end of the items, for each worker
+         */
+        static final ParsedItem END = new ParsedItem(-1, null, null);
+
+        final int index;
+        final String folder;
+        final List<UUID> collections;
+        Map<String, Document> metadata;
+        Exception error;
+
+        ParsedItem(int index, String folder, List<UUID> collections) {
+            this.index = index;
+            this.folder = folder;
+            this.collections = collections;
+        }
+    }
+
      /**
       * Add relationships from a 'relationships' manifest file.
       * 
@@ -337,38 +615,88 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
       */
     protected void addRelationships(Context c, String sourceDir) throws Exception {
 
-        for (Map.Entry<String, Item> itemEntry : itemFolderMap.entrySet()) {
-
-            String folderName = itemEntry.getKey();
+        //read all 'relationship' manifests first, to resolve the items they refer to in bulk
+        Map<String, Map<String, List<String>>> manifests = new LinkedHashMap<>();
+        lookupCache = new BulkLookupCache(configurationService.getIntProperty("bulkedit.lookup-cache.size", 100000));
+        for (String folderName : itemFolderMap.keySet()) {
             String path = sourceDir + File.separatorChar + folderName;
-            Item item = itemEntry.getValue();
-
-            //look for a 'relationship' manifest
             Map<String, List<String>> relationships = processRelationshipFile(path, "relationships");
             if (!relationships.isEmpty()) {
+                manifests.put(folderName, relationships);
+                for (List<String> identifierList : relationships.values()) {
+                    for (String itemIdentifier : identifierList) {
+                        collectRelatedItem(itemIdentifier);
+                    }
+                }
+            }
+        }
+
+        try {
+            //adding relationships doesn't modify the metadata values, so the references resolved now stay valid
+            if (!isTest) {
+                lookupCache.load(c);
+            }
+            addRelationships(c, manifests);
+        } finally {
+            lookupCache = null;
+        }
+    }
 
-                for (Map.Entry<String, List<String>> relEntry : relationships.entrySet()) {
+    /**
+     * Collect the identifier of a related item into the {@link #lookupCache}.
+     *
+     * @param itemIdentifier the identifier found in the relationships manifest
+     */
+    private void collectRelatedItem(String itemIdentifier) {
+        if (itemIdentifier.startsWith("folderName:") || itemIdentifier.startsWith("rowName:")) {
+            //folder of this import, already known
+            return;
+        }
+        if (itemIdentifier.contains(":")) {
+            lookupCache.addReference(itemIdentifier);
+        } else if (itemIdentifier.indexOf('/') != -1) {
+            lookupCache.addHandle(itemIdentifier);
+        } else {
+            //legacy ids are left to the lookup
+            lookupCache.addItem(UUIDUtils.fromString(itemIdentifier));
+        }
+    }
 
-                    String relationshipType = relEntry.getKey();
-                    List<String> identifierList = relEntry.getValue();
+    /**
+     * Add the relationships of the given 'relationship' manifests.
+     *
+     * @param c Context
+     * @param manifests The relationships of the manifests, by item folder name
+     * @throws Exception
+     */
+    private void addRelationships(Context c, Map<String, Map<String, List<String>>> manifests) throws Exception {
 
-                    for (String itemIdentifier : identifierList) {
+        for (Map.Entry<String, Map<String, List<String>>> manifest : manifests.entrySet()) {
 
-                        if (isTest) {
-                            logInfo("\tAdding relationship (type: " + relationshipType +
-                                ") from " + folderName + " to " + itemIdentifier);
-                            continue;
-                        }
+            String folderName = manifest.getKey();
+            Item item = itemFolderMap.get(folderName);
 
-                        //find referenced item
-                        Item relationItem = resolveRelatedItem(c, itemIdentifier);
-                        if (null == relationItem) {
-                            throw new Exception("Could not find item for " + itemIdentifier);
-                        }
+            Map<String, List<String>> relationships = manifest.getValue();
+            for (Map.Entry<String, List<String>> relEntry : relationships.entrySet()) {
+
+                String relationshipType = relEntry.getKey();
+                List<String> identifierList = relEntry.getValue();
 
-                        addRelationship(c, item, relationItem, relationshipType);
+                for (String itemIdentifier : identifierList) {
+
+                    if (isTest) {
+                        logInfo("\tAdding relationship (type: " + relationshipType +
+                            ") from " + folderName + " to " + itemIdentifier);
+                        continue;
                     }
 
+                    //find referenced item
+                    Item relationItem = resolveRelatedItem(c, itemIdentifier);
+                    if (null == relationItem) {
+                        throw new Exception("Could not find item for " + itemIdentifier);
+                    }
+
+                    addRelationship(c, item, relationItem, relationshipType);
                 }
 
             }
@@ -579,10 +907,17 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
             throws IllegalStateException, SQLException {
         if (itemIdentifier.indexOf('/') != -1) {
             // resolve by handle
+            if (lookupCache != null) {
+                return (Item) lookupCache.resolveHandle(c, itemIdentifier);
+            }
             return (Item) handleService.resolveToObject(c, itemIdentifier);
         }
 
         // resolve by UUID
+        UUID uuid = UUIDUtils.fromString(itemIdentifier);
+        if (lookupCache != null && uuid != null) {
+            return lookupCache.findItem(c, uuid);
+        }
         return itemService.findByIdOrLegacyId(c, itemIdentifier);
     }
 
@@ -608,15 +943,25 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         String element = mf[1];
         String qualifier = mf.length == 2 ? null : mf[2];
         try {
-            MetadataField mfo = metadataFieldService.findByElement(c, schema, element, qualifier);
-            Iterator<MetadataValue> mdv = metadataValueService.findByFieldAndValue(c, mfo, metaValue);
-            if (mdv.hasNext()) {
-                MetadataValue mdvVal = mdv.next();
-                UUID uuid = mdvVal.getDSpaceObject().getID();
-                if (mdv.hasNext()) {
+            if (lookupCache != null) {
+                List<UUID> matches = lookupCache.findItemsByReference(c, metaKey + ":" + metaValue);
+                if (matches.size() > 1) {
                     throw new Exception("Ambiguous reference; multiple matches in db: " + metaKey);
                 }
-                item = itemService.find(c, uuid);
+                if (!matches.isEmpty()) {
+                    item = itemService.find(c, matches.get(0));
+                }
+            } else {
+                MetadataField mfo = metadataFieldService.findByElement(c, schema, element, qualifier);
+                Iterator<MetadataValue> mdv = metadataValueService.findByFieldAndValue(c, mfo, metaValue);
+                if (mdv.hasNext()) {
+                    MetadataValue mdvVal = mdv.next();
+                    UUID uuid = mdvVal.getDSpaceObject().getID();
+                    if (mdv.hasNext()) {
+                        throw new Exception("Ambiguous reference; multiple matches in db: " + metaKey);
+                    }
+                    item = itemService.find(c, uuid);
+                }
             }
         } catch (SQLException e) {
             throw new Exception("Error looking up item by metadata reference: " + metaKey, e);
@@ -726,6 +1071,25 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
      */
     protected Item addItem(Context c, List<Collection> mycollections, String path,
                            String itemname, PrintWriter mapOut, boolean template) throws Exception {
+        return addItem(c, mycollections, path, itemname, mapOut, template, null);
+    }
+
+    /**
+     * item? try and add it to the archive, from its already parsed metadata files.
+     *
+     * @param c             current Context
+     * @param mycollections - add item to these Collections.
+     * @param path          - directory containing the item directories.
+     * @param itemname      handle - non-null means we have a pre-defined handle already
+     * @param mapOut        - mapfile we're writing
+     * @param template      whether to use collection template item as starting point
+     * @param metadata      the parsed metadata files of the item (see {@link #parseMetadata(String)}), or null to
+     *                      parse them now
+     * @return Item
+     * @throws Exception if error occurs
+     */
+    protected Item addItem(Context c, List<Collection> mycollections, String path, String itemname,
+                           PrintWriter mapOut, boolean template, Map<String, Document> metadata) throws Exception {
         String mapOutputString = null;
 
         logDebug("adding item from directory " + itemname);
@@ -741,8 +1105,12 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         }
 
         // now fill out dublin core for item
-        loadMetadata(c, myitem, path + File.separatorChar + itemname
-            + File.separatorChar);
+        if (metadata == null) {
+            loadMetadata(c, myitem, path + File.separatorChar + itemname
+                + File.separatorChar);
+        } else {
+            loadMetadata(c, myitem, metadata);
+        }
 
         // and the bitstreams from the contents file
         // process contents file, add bistreams and bundles, return any
@@ -892,21 +1260,49 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
     protected void loadMetadata(Context c, Item myitem, String path)
         throws SQLException, IOException, ParserConfigurationException,
         SAXException, TransformerException, AuthorizeException, XPathExpressionException {
+        loadMetadata(c, myitem, parseMetadata(path));
+    }
+
+    // Load already parsed metadata files into the item.
+    protected void loadMetadata(Context c, Item myitem, Map<String, Document> metadata)
+        throws SQLException, TransformerException, AuthorizeException, XPathExpressionException {
+        for (Map.Entry<String, Document> file : metadata.entrySet()) {
+            loadDublinCore(c, myitem, file.getKey(), file.getValue());
+        }
+    }
+
+    /**
+     * Parse the metadata files of an item directory: dublin_core.xml, then any additional metadata schemas.
+     *
+     * @param path the item directory, ending with a separator
+     * @return the parsed files by file name, in load order
+     * @throws IOException if a file can't be read
+     * @throws ParserConfigurationException if the XML parser can't be created
+     * @throws SAXException if a file isn't valid XML
+     */
+    protected Map<String, Document> parseMetadata(String path)
+        throws IOException, ParserConfigurationException, SAXException {
+        Map<String, Document> metadata = new LinkedHashMap<>();
         // Load the dublin core metadata
-        loadDublinCore(c, myitem, path + "dublin_core.xml");
+        metadata.put(path + "dublin_core.xml", loadXML(path + "dublin_core.xml"));
 
         // Load any additional metadata schemas
         File folder = new File(path);
         File file[] = folder.listFiles(metadataFileFilter);
         for (int i = 0; i < file.length; i++) {
-            loadDublinCore(c, myitem, file[i].getAbsolutePath());
+            metadata.put(file[i].getAbsolutePath(), loadXML(file[i].getAbsolutePath()));
         }
+        return metadata;
     }
 
     protected void loadDublinCore(Context c, Item myitem, String filename)
         throws SQLException, IOException, ParserConfigurationException,
         SAXException, TransformerException, AuthorizeException, XPathExpressionException {
-        Document document = loadXML(filename);
+        loadDublinCore(c, myitem, filename, loadXML(filename));
+    }
+
+    protected void loadDublinCore(Context c, Item myitem, String filename, Document document)
+        throws SQLException, TransformerException, AuthorizeException, XPathExpressionException {
 
         // Get the schema, for backward compatibility we will default to the
         // dublin core schema if the schema name is not available in the import
@@ -2362,6 +2758,16 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         this.isQuiet = isQuiet;
     }
 
+    @Override
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     @Override
     public void setHandler(DSpaceRunnableHandler handler) {
         this.handler = handler;
@@ -2422,7 +2828,7 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         logError(message, null);
     }
 
-    private void logError(String message, Exception e) {
+    private void logError(String message, Throwable e) {
         if (handler != null) {
             if (e != null) {
                 handler.logError(message, e);
@@ -237,6 +237,20 @@ public interface ItemImportService {
      */
     public void setQuiet(boolean isQuiet);
 
+    /**
+     * Set the number of threads importing items in parallel (add only)
+     *
+     * @param threads number of threads, 1 to import items one at a time in the given Context
+     */
+    public void setThreads(int threads);
+
+    /**
+     * Set the number of items committed at once by each thread of a parallel import
+     *
+     * @param batchSize number of items
+     */
+    public void setBatchSize(int batchSize);
+
     /**
      * Set the DSpace Runnable Handler
      * @param handler
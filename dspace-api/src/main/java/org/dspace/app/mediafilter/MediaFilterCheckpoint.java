@@ -0,0 +1,97 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.mediafilter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Persistent record of the bitstreams already processed by each media filter, allowing an interrupted filter-media
+ * run to resume where it stopped.
+ * <p>
+ * The record is a text file with one "&lt;bitstream uuid&gt; &lt;filter&gt;" line per processed bitstream, appended
+ * once the results of the filter are committed. Bitstreams which were skipped or could not be filtered are recorded
+ * as well, so they are not tried again; delete the file to start over.
+ */
+public class MediaFilterCheckpoint implements Closeable {
+
+    private final Set<String> processed = new HashSet<>();
+
+    private final BufferedWriter writer;
+
+    /**
+     * Open a checkpoint, reading the bitstreams it already records.
+     *
+     * @param file the checkpoint file, created if it doesn't exist
+     * @throws IOException if the file can't be read or written
+     */
+    public MediaFilterCheckpoint(File file) throws IOException {
+        if (file.exists()) {
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (StringUtils.isNotBlank(line)) {
+                    processed.add(line.trim());
+                }
+            }
+        }
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                                         StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @param bitstreamId the bitstream
+     * @param filter      the name of the filter
+     * @return whether the bitstream was already processed by the filter
+     */
+    public synchronized boolean isProcessed(UUID bitstreamId, String filter) {
+        return processed.contains(key(bitstreamId, filter));
+    }
+
+    /**
+     * Record that a bitstream was processed by a filter.
+     *
+     * @param bitstreamId the bitstream
+     * @param filter      the name of the filter
+     * @throws IOException if the checkpoint file can't be written
+     */
+    public synchronized void markProcessed(UUID bitstreamId, String filter) throws IOException {
+        String key = key(bitstreamId, filter);
+        if (processed.add(key)) {
+            writer.write(key);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    /**
+     * @return the number of processed bitstreams recorded
+     */
+    public synchronized int size() {
+        return processed.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private String key(UUID bitstreamId, String filter) {
+        return bitstreamId + " " + filter.trim();
+    }
+}
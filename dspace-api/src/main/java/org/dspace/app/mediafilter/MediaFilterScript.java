@@ -7,6 +7,7 @@
  */
 package org.dspace.app.mediafilter;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -38,7 +39,9 @@ import org.dspace.utils.DSpace;
  * bitstreams to be processed, even if they have been before; -n noindex does not
  * recreate index after processing bitstreams; -i [identifier] limits processing
  * scope to a community, collection or item; and -m [max] limits processing to a
- * maximum number of items.
+ * maximum number of items; -t [threads] runs each filter on a number of threads; and
+ * -c [file] records the processed bitstreams in a checkpoint file, to resume an
+ * interrupted run.
  */
 public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfiguration> {
 
@@ -57,6 +60,8 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
     private boolean isForce = false; // default to not forced
     private String identifier = null; // object scope limiter
     private int max2Process = Integer.MAX_VALUE;
+    private int threads = 0;
+    private File checkpoint = null;
     private String[] filterNames;
     private String[] skipIds = null;
     private Map<String, List<String>> filterFormats = new HashMap<>();
@@ -97,6 +102,19 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
             }
         }
 
+        if (commandLine.hasOption('t')) {
+            threads = Integer.parseInt(commandLine.getOptionValue('t'));
+            if (threads < 1) {
+                handler.logWarning("Invalid number of threads '" +
+                                           commandLine.getOptionValue('t') + "' - ignoring");
+                threads = 0;
+            }
+        }
+
+        if (commandLine.hasOption('c')) {
+            checkpoint = new File(commandLine.getOptionValue('c'));
+        }
+
         if (commandLine.hasOption('p')) {
             //specified which media filter plugins we are using
             filterNames = commandLine.getOptionValues('p');
@@ -127,6 +145,8 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
         mediaFilterService.setQuiet(isQuiet);
         mediaFilterService.setVerbose(isVerbose);
         mediaFilterService.setMax2Process(max2Process);
+        mediaFilterService.setThreads(threads);
+        mediaFilterService.setCheckpoint(checkpoint);
 
         //initialize an array of our enabled filters
         List<FormatFilter> filterList = new ArrayList<>();
@@ -54,6 +54,10 @@ public class MediaFilterScriptConfiguration<T extends MediaFilterScript> extends
         options.addOption("f", "force", false, "force all bitstreams to be processed");
         options.addOption("i", "identifier", true, "ONLY process bitstreams belonging to identifier");
         options.addOption("m", "maximum", true, "process no more than maximum items");
+        options.addOption("t", "threads", true,
+                          "number of threads running each filter (unless configured per filter in dspace.cfg)");
+        options.addOption("c", "checkpoint", true,
+                          "file recording the processed bitstreams, to resume an interrupted run");
         options.addOption("h", "help", false, "help");
 
         Option pluginOption = Option.builder("p")
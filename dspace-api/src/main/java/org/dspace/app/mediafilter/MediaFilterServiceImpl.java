@@ -7,13 +7,33 @@
  */
 package org.dspace.app.mediafilter;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.dspace.app.mediafilter.service.MediaFilterService;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.content.Bitstream;
@@ -47,8 +67,16 @@ import org.springframework.beans.factory.annotation.Autowired;
  * recreate index after processing bitstreams; -i [identifier] limits processing
  * scope to a community, collection or item; and -m [max] limits processing to a
  * maximum number of items.
+ * <p>
+ * In parallel mode (a number of threads or a checkpoint is set), the items in scope are first listed, then the
+ * filters themselves ({@link FormatFilter#getDestinationStream}) run on a pool of worker threads per filter class,
+ * while the main thread reads and stores the bitstreams. The results are committed whenever no filter runs (at
+ * least every few items) and, when a checkpoint is set, the processed bitstreams are recorded in it once committed,
+ * so an interrupted run resumes where it stopped.
  */
 public class MediaFilterServiceImpl implements MediaFilterService, InitializingBean {
+    private static final Logger log = LogManager.getLogger(MediaFilterServiceImpl.class);
+
     @Autowired(required = true)
     protected AuthorizeService authorizeService;
     @Autowired(required = true)
@@ -88,6 +116,12 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     protected boolean isQuiet = false;
     protected boolean isForce = false; // default to not forced
 
+    protected int threads = 0; // default number of threads per filter class, 0 for the serial mode
+
+    protected File checkpointFile = null; // file recording the processed bitstreams, if any
+
+    private List<UUID> queuedItems = null; // items in scope, listed before being filtered in parallel mode
+
     protected MediaFilterServiceImpl() {
 
     }
@@ -106,6 +140,9 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
 
     @Override
     public void applyFiltersAllItems(Context context) throws Exception {
+        if (applyFiltersInParallel(context, () -> applyFiltersAllItems(context))) {
+            return;
+        }
         if (skipList != null) {
             //if a skip-list exists, we need to filter community-by-community
             //so we can respect what is in the skip-list
@@ -126,6 +163,9 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     @Override
     public void applyFiltersCommunity(Context context, Community community)
         throws Exception {   //only apply filters if community not in skip-list
+        if (applyFiltersInParallel(context, () -> applyFiltersCommunity(context, community))) {
+            return;
+        }
         if (!inSkipList(community.getHandle())) {
             List<Community> subcommunities = community.getSubcommunities();
             for (Community subcommunity : subcommunities) {
@@ -142,6 +182,9 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     @Override
     public void applyFiltersCollection(Context context, Collection collection)
         throws Exception {
+        if (applyFiltersInParallel(context, () -> applyFiltersCollection(context, collection))) {
+            return;
+        }
         //only apply filters if collection not in skip-list
         if (!inSkipList(collection.getHandle())) {
             Iterator<Item> itemIterator = itemService.findAllByCollection(context, collection);
@@ -153,8 +196,17 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
 
     @Override
     public void applyFiltersItem(Context c, Item item) throws Exception {
+        if (applyFiltersInParallel(c, () -> applyFiltersItem(c, item))) {
+            return;
+        }
         //only apply filters if item not in skip-list
-        if (!inSkipList(item.getHandle())) {
+        if (queuedItems != null) {
+            // listing the items in scope for the parallel mode
+            if (!inSkipList(item.getHandle())) {
+                queuedItems.add(item.getID());
+            }
+            c.uncacheEntity(item);
+        } else if (!inSkipList(item.getHandle())) {
             //cache this item in MediaFilterManager
             //so it can be accessed by MediaFilters as necessary
             currentItem = item;
@@ -193,24 +245,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
         // iterate through filter classes. A single format may be actioned
         // by more than one filter
         for (FormatFilter filterClass : filterClasses) {
-            //List fmts = (List)filterFormats.get(filterClasses[i].getClass().getName());
-            String pluginName = null;
-
-            //if this filter class is a SelfNamedPlugin,
-            //its list of supported formats is different for
-            //differently named "plugin"
-            if (SelfNamedPlugin.class.isAssignableFrom(filterClass.getClass())) {
-                //get plugin instance name for this media filter
-                pluginName = ((SelfNamedPlugin) filterClass).getPluginInstanceName();
-            }
-
-            //Get list of supported formats for the filter (and possibly named plugin)
-            //For SelfNamedPlugins, map key is:
-            //  <class-name><separator><plugin-name>
-            //For other MediaFilters, map key is just:
-            //  <class-name>
-            List<String> fmts = filterFormats.get(filterClass.getClass().getName() +
-                                                      (pluginName != null ? FILTER_PLUGIN_SEPARATOR + pluginName : ""));
+            List<String> fmts = getInputFormats(filterClass);
 
             if (fmts.contains(myBitstream.getFormat(context).getShortDescription())) {
                 try {
@@ -221,67 +256,13 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
                         filtered = true;
                     }
                 } catch (Exception e) {
-                    String handle = myItem.getHandle();
-                    List<Bundle> bundles = myBitstream.getBundles();
-                    long size = myBitstream.getSizeBytes();
-                    String checksum = myBitstream.getChecksum() + " (" + myBitstream.getChecksumAlgorithm() + ")";
-                    int assetstore = myBitstream.getStoreNumber();
-
-                    // Printout helpful information to find the errored bitstream.
-                    StringBuilder sb = new StringBuilder("ERROR filtering, skipping bitstream:\n");
-                    sb.append("\tItem Handle: ").append(handle);
-                    for (Bundle bundle : bundles) {
-                        sb.append("\tBundle Name: ").append(bundle.getName());
-                    }
-                    sb.append("\tFile Size: ").append(size);
-                    sb.append("\tChecksum: ").append(checksum);
-                    sb.append("\tAsset Store: ").append(assetstore);
-                    logError(sb.toString());
-                    logError(e.getMessage(), e);
+                    logFilterError(myItem, myBitstream, e);
                 }
             } else if (filterClass instanceof SelfRegisterInputFormats) {
                 // Filter implements self registration, so check to see if it should be applied
                 // given the formats it claims to support
-                SelfRegisterInputFormats srif = (SelfRegisterInputFormats) filterClass;
-                boolean applyFilter = false;
-
-                // Check MIME type
-                String[] mimeTypes = srif.getInputMIMETypes();
-                if (mimeTypes != null) {
-                    for (String mimeType : mimeTypes) {
-                        if (mimeType.equalsIgnoreCase(myBitstream.getFormat(context).getMIMEType())) {
-                            applyFilter = true;
-                        }
-                    }
-                }
-
-                // Check description
-                if (!applyFilter) {
-                    String[] descriptions = srif.getInputDescriptions();
-                    if (descriptions != null) {
-                        for (String desc : descriptions) {
-                            if (desc.equalsIgnoreCase(myBitstream.getFormat(context).getShortDescription())) {
-                                applyFilter = true;
-                            }
-                        }
-                    }
-                }
-
-                // Check extensions
-                if (!applyFilter) {
-                    String[] extensions = srif.getInputExtensions();
-                    if (extensions != null) {
-                        for (String ext : extensions) {
-                            List<String> formatExtensions = myBitstream.getFormat(context).getExtensions();
-                            if (formatExtensions != null && formatExtensions.contains(ext)) {
-                                applyFilter = true;
-                            }
-                        }
-                    }
-                }
-
                 // Filter claims to handle this type of file, so attempt to apply it
-                if (applyFilter) {
+                if (isSelfRegisteredFormat(context, myBitstream, (SelfRegisterInputFormats) filterClass)) {
                     try {
                         // only update item if bitstream not skipped
                         if (processBitstream(context, myItem, myBitstream, filterClass)) {
@@ -314,23 +295,10 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
         String newName = formatFilter.getFilteredName(source.getName());
 
         // check if destination bitstream exists
-        Bundle existingBundle = null;
-        Bitstream existingBitstream = null;
         List<Bundle> bundles = itemService.getBundles(item, formatFilter.getBundleName());
-
-        if (bundles.size() > 0) {
-            // only finds the last match (FIXME?)
-            for (Bundle bundle : bundles) {
-                List<Bitstream> bitstreams = bundle.getBitstreams();
-
-                for (Bitstream bitstream : bitstreams) {
-                    if (bitstream.getName().trim().equals(newName.trim())) {
-                        existingBundle = bundle;
-                        existingBitstream = bitstream;
-                    }
-                }
-            }
-        }
+        Pair<Bundle, Bitstream> existing = findDerivative(bundles, newName);
+        Bundle existingBundle = existing == null ? null : existing.getLeft();
+        Bitstream existingBitstream = existing == null ? null : existing.getRight();
 
         // if exists and overwrite = false, exit
         if (!overWrite && (existingBitstream != null)) {
@@ -365,44 +333,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
                 return false;
             }
 
-            Bundle targetBundle; // bundle we're modifying
-            if (bundles.size() < 1) {
-                // create new bundle if needed
-                targetBundle = bundleService.create(context, item, formatFilter.getBundleName());
-            } else {
-                // take the first match as we already looked out for the correct bundle name
-                targetBundle = bundles.get(0);
-            }
-
-            // create bitstream to store the filter result
-            Bitstream b = bitstreamService.create(context, targetBundle, destStream);
-            // set the name, source and description of the bitstream
-            b.setName(context, newName);
-            b.setSource(context, "Written by FormatFilter " + formatFilter.getClass().getName() +
-                    " on " + DCDate.getCurrent() + " (GMT).");
-            b.setDescription(context, formatFilter.getDescription());
-            // Set the format of the bitstream
-            BitstreamFormat bf = bitstreamFormatService.findByShortDescription(context,
-                    formatFilter.getFormatString());
-            bitstreamService.setFormat(context, b, bf);
-            bitstreamService.update(context, b);
-
-            //Set permissions on the derivative bitstream
-            //- First remove any existing policies
-            authorizeService.removeAllPolicies(context, b);
-
-            //- Determine if this is a public-derivative format
-            if (publicFiltersClasses.contains(formatFilter.getClass().getSimpleName())) {
-                //- Set derivative bitstream to be publicly accessible
-                Group anonymous = groupService.findByName(context, Group.ANONYMOUS);
-                authorizeService.addPolicy(context, b, Constants.READ, anonymous);
-            } else {
-                //- Inherit policies from the source bitstream
-                authorizeService.inheritPolicies(context, source, b);
-            }
-
-            //do post-processing of the generated bitstream
-            formatFilter.postProcessBitstream(context, item, b);
+            createDerivative(context, item, source, formatFilter, newName, destStream, bundles);
 
         } catch (OutOfMemoryError oome) {
             logError("!!! OutOfMemoryError !!!");
@@ -422,6 +353,470 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
         return true;
     }
 
+    /**
+     * Find the bitstream previously generated by a filter.
+     *
+     * @param bundles the bundles of the item receiving the bitstreams generated by the filter
+     * @param newName the name of the generated bitstream
+     * @return the bundle and the bitstream, null if not found
+     */
+    protected Pair<Bundle, Bitstream> findDerivative(List<Bundle> bundles, String newName) {
+        Pair<Bundle, Bitstream> existing = null;
+        // only finds the last match (FIXME?)
+        for (Bundle bundle : bundles) {
+            List<Bitstream> bitstreams = bundle.getBitstreams();
+
+            for (Bitstream bitstream : bitstreams) {
+                if (bitstream.getName().trim().equals(newName.trim())) {
+                    existing = Pair.of(bundle, bitstream);
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Store the bitstream generated by a filter, with its permissions.
+     *
+     * @param context      context
+     * @param item         item containing the source bitstream
+     * @param source       the source bitstream
+     * @param formatFilter the filter
+     * @param newName      the name of the generated bitstream
+     * @param destStream   the content of the generated bitstream
+     * @param bundles      the bundles of the item receiving the bitstreams generated by the filter
+     * @throws Exception if error
+     */
+    protected void createDerivative(Context context, Item item, Bitstream source, FormatFilter formatFilter,
+                                    String newName, InputStream destStream, List<Bundle> bundles) throws Exception {
+        Bundle targetBundle; // bundle we're modifying
+        if (bundles.size() < 1) {
+            // create new bundle if needed
+            targetBundle = bundleService.create(context, item, formatFilter.getBundleName());
+        } else {
+            // take the first match as we already looked out for the correct bundle name
+            targetBundle = bundles.get(0);
+        }
+
+        // create bitstream to store the filter result
+        Bitstream b = bitstreamService.create(context, targetBundle, destStream);
+        // set the name, source and description of the bitstream
+        b.setName(context, newName);
+        b.setSource(context, "Written by FormatFilter " + formatFilter.getClass().getName() +
+                " on " + DCDate.getCurrent() + " (GMT).");
+        b.setDescription(context, formatFilter.getDescription());
+        // Set the format of the bitstream
+        BitstreamFormat bf = bitstreamFormatService.findByShortDescription(context,
+                formatFilter.getFormatString());
+        bitstreamService.setFormat(context, b, bf);
+        bitstreamService.update(context, b);
+
+        //Set permissions on the derivative bitstream
+        //- First remove any existing policies
+        authorizeService.removeAllPolicies(context, b);
+
+        //- Determine if this is a public-derivative format
+        if (publicFiltersClasses.contains(formatFilter.getClass().getSimpleName())) {
+            //- Set derivative bitstream to be publicly accessible
+            Group anonymous = groupService.findByName(context, Group.ANONYMOUS);
+            authorizeService.addPolicy(context, b, Constants.READ, anonymous);
+        } else {
+            //- Inherit policies from the source bitstream
+            authorizeService.inheritPolicies(context, source, b);
+        }
+
+        //do post-processing of the generated bitstream
+        formatFilter.postProcessBitstream(context, item, b);
+    }
+
+    /**
+     * Walk through the items in scope, listing them to filter them in parallel mode, unless in serial mode or the
+     * items are already being listed.
+     *
+     * @param context context
+     * @param walk    the walk through the items in scope
+     * @return whether the items were filtered in parallel mode
+     * @throws Exception if error
+     */
+    protected boolean applyFiltersInParallel(Context context, ItemWalk walk) throws Exception {
+        if (queuedItems != null || (threads <= 0 && checkpointFile == null)) {
+            return false;
+        }
+        List<UUID> itemIds = new ArrayList<>();
+        queuedItems = itemIds;
+        try {
+            walk.run();
+        } finally {
+            queuedItems = null;
+        }
+        processQueuedItems(context, itemIds);
+        return true;
+    }
+
+    /**
+     * Filter the given items, running the filters on a pool of threads per filter class.
+     *
+     * @param context context
+     * @param itemIds the items to filter
+     * @throws Exception if error
+     */
+    protected void processQueuedItems(Context context, List<UUID> itemIds) throws Exception {
+        MediaFilterCheckpoint checkpoint = checkpointFile == null ? null : new MediaFilterCheckpoint(checkpointFile);
+        if (checkpoint != null && checkpoint.size() > 0) {
+            logInfo("Resuming from checkpoint " + checkpointFile + ": " + checkpoint.size()
+                        + " bitstreams already processed");
+        }
+        BlockingQueue<Future<FilterTask>> completed = new LinkedBlockingQueue<>();
+        Map<String, ExecutorService> executors = new HashMap<>();
+        Map<String, CompletionService<FilterTask>> completionServices = new HashMap<>();
+        Map<String, FilterStatistics> statistics = new LinkedHashMap<>();
+        Set<UUID> filteredItems = new HashSet<>();
+        // items whose bitstreams may still be filtered: they stay in the session, uncommitted, until then
+        List<Item> inFlight = new ArrayList<>();
+        int window = 0;
+        int pending = 0;
+        long start = System.nanoTime();
+        try {
+            for (FormatFilter filterClass : filterClasses) {
+                String className = filterClass.getClass().getName();
+                statistics.put(getFilterName(filterClass), new FilterStatistics());
+                if (!executors.containsKey(className)) {
+                    int poolSize = Math.max(1, configurationService.getIntProperty("filter." + className + ".threads",
+                                                                                   threads));
+                    ExecutorService executor = createExecutor(filterClass, poolSize);
+                    executors.put(className, executor);
+                    completionServices.put(className, new ExecutorCompletionService<>(executor, completed));
+                    window += poolSize;
+                }
+            }
+            // keep the threads busy while the main thread reads and stores the bitstreams,
+            // without opening too many source streams at once
+            window *= 2;
+
+            for (UUID itemId : itemIds) {
+                if (max2Process != Integer.MAX_VALUE) {
+                    // only the finished items count towards the maximum
+                    for (; pending > 0; pending--) {
+                        finish(context, completed.take().get(), statistics, checkpoint, filteredItems);
+                    }
+                }
+                if (processed >= max2Process) {
+                    break;
+                }
+                Item item = itemService.find(context, itemId);
+                if (item == null) {
+                    continue;
+                }
+                for (Bundle bundle : itemService.getBundles(item, "ORIGINAL")) {
+                    for (Bitstream bitstream : bundle.getBitstreams()) {
+                        for (FormatFilter filterClass : filterClasses) {
+                            if (!isApplicable(context, bitstream, filterClass)) {
+                                continue;
+                            }
+                            String filterName = getFilterName(filterClass);
+                            FilterStatistics stats = statistics.get(filterName);
+                            if (checkpoint != null && checkpoint.isProcessed(bitstream.getID(), filterName)) {
+                                stats.skipped++;
+                                continue;
+                            }
+                            FilterTask task;
+                            try {
+                                task = prepare(context, item, bitstream, filterClass);
+                            } catch (Exception e) {
+                                stats.failed++;
+                                logFilterError(item, bitstream, e);
+                                continue;
+                            }
+                            if (task == null) {
+                                stats.skipped++;
+                                markProcessed(context, checkpoint, bitstream.getID(), filterName);
+                                continue;
+                            }
+                            for (; pending >= window; pending--) {
+                                finish(context, completed.take().get(), statistics, checkpoint, filteredItems);
+                            }
+                            completionServices.get(filterClass.getClass().getName()).submit(task);
+                            pending++;
+                        }
+                    }
+                }
+                inFlight.add(item);
+                for (Future<FilterTask> future = completed.poll(); future != null; future = completed.poll()) {
+                    finish(context, future.get(), statistics, checkpoint, filteredItems);
+                    pending--;
+                }
+                if (pending > 0 && inFlight.size() >= window) {
+                    for (; pending > 0; pending--) {
+                        finish(context, completed.take().get(), statistics, checkpoint, filteredItems);
+                    }
+                }
+                if (pending == 0) {
+                    // commit as soon as no filter runs, so an interrupted run keeps its results
+                    commit(context, inFlight);
+                }
+            }
+            for (; pending > 0; pending--) {
+                finish(context, completed.take().get(), statistics, checkpoint, filteredItems);
+            }
+            commit(context, inFlight);
+        } finally {
+            for (ExecutorService executor : executors.values()) {
+                executor.shutdownNow();
+            }
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        }
+        logStatistics(statistics, System.nanoTime() - start);
+    }
+
+    /**
+     * Commit the results stored so far, then remove the given items from the session. Only called when no filter
+     * runs: the workers use the items of their tasks, which must not be detached or evicted meanwhile.
+     */
+    private void commit(Context context, List<Item> items) throws SQLException {
+        context.commit();
+        for (Item item : items) {
+            context.uncacheEntity(item);
+        }
+        items.clear();
+    }
+
+    /**
+     * Prepare a bitstream to be filtered, on the main thread: pre-process it, check whether it was already
+     * filtered and open its content.
+     *
+     * @return the filtering task, null if the bitstream is skipped
+     */
+    private FilterTask prepare(Context context, Item item, Bitstream source, FormatFilter formatFilter)
+        throws Exception {
+        //do pre-processing of this bitstream, and if it fails, skip this bitstream!
+        if (!formatFilter.preProcessBitstream(context, item, source, isVerbose)) {
+            return null;
+        }
+        String newName = formatFilter.getFilteredName(source.getName());
+        if (!isForce && findDerivative(itemService.getBundles(item, formatFilter.getBundleName()), newName) != null) {
+            if (!isQuiet) {
+                logInfo("SKIPPED: bitstream " + source.getID()
+                            + " (item: " + item.getHandle() + ") because '" + newName + "' already exists");
+            }
+            return null;
+        }
+        if (isVerbose) {
+            logInfo("PROCESSING: bitstream " + source.getID() + " (item: " + item.getHandle() + ")");
+        }
+        // load the handle now, the filters may use it outside of the database session
+        item.getHandle();
+        return new FilterTask(item, source, formatFilter, getFilterName(formatFilter), newName,
+                              bitstreamService.retrieve(context, source), isVerbose);
+    }
+
+    /**
+     * Store the result of a filtering task, on the main thread.
+     */
+    private void finish(Context context, FilterTask task, Map<String, FilterStatistics> statistics,
+                        MediaFilterCheckpoint checkpoint, Set<UUID> filteredItems) throws Exception {
+        FilterStatistics stats = statistics.get(task.filterName);
+        stats.nanos += task.nanos;
+        Item item = itemService.find(context, task.itemId);
+        Bitstream source = bitstreamService.find(context, task.sourceId);
+        try (InputStream srcStream = task.source; InputStream destStream = task.result) {
+            if (task.error != null) {
+                stats.failed++;
+                if (task.error instanceof OutOfMemoryError) {
+                    logError("!!! OutOfMemoryError !!!");
+                }
+                logFilterError(item, source, task.error);
+            } else if (destStream == null) {
+                stats.skipped++;
+                if (!isQuiet) {
+                    logInfo("SKIPPED: bitstream " + task.sourceId
+                                + " (item: " + item.getHandle() + ") because filtering was unsuccessful");
+                }
+            } else {
+                logInfo("File: " + task.newName);
+                List<Bundle> bundles = itemService.getBundles(item, task.formatFilter.getBundleName());
+                Pair<Bundle, Bitstream> existing = findDerivative(bundles, task.newName);
+                createDerivative(context, item, source, task.formatFilter, task.newName, destStream, bundles);
+                // we are overwriting, so remove old bitstream
+                if (existing != null) {
+                    bundleService.removeBitstream(context, existing.getLeft(), existing.getRight());
+                }
+                itemService.update(context, item); // Make sure new bitstream has a sequence number
+                stats.filtered++;
+                stats.bytes += source.getSizeBytes();
+                if (filteredItems.add(task.itemId)) {
+                    ++processed;
+                }
+                if (!isQuiet) {
+                    logInfo("FILTERED: bitstream " + task.sourceId
+                                + " (item: " + item.getHandle() + ") and created '" + task.newName + "'");
+                }
+            }
+        } catch (Exception e) {
+            stats.failed++;
+            logFilterError(item, source, e);
+            return;
+        }
+        markProcessed(context, checkpoint, task.sourceId, task.filterName);
+    }
+
+    /**
+     * Record a bitstream as processed in the checkpoint, once the current transaction is committed.
+     */
+    private void markProcessed(Context context, MediaFilterCheckpoint checkpoint, UUID bitstreamId,
+                               String filterName) {
+        if (checkpoint == null) {
+            return;
+        }
+        context.addCommitAction(() -> {
+            try {
+                checkpoint.markProcessed(bitstreamId, filterName);
+            } catch (IOException e) {
+                log.error("Unable to update the checkpoint " + checkpointFile, e);
+            }
+        });
+    }
+
+    private ExecutorService createExecutor(FormatFilter formatFilter, int poolSize) {
+        String name = "media-filter-" + formatFilter.getClass().getSimpleName() + "-";
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, name + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void logStatistics(Map<String, FilterStatistics> statistics, long elapsedNanos) {
+        double elapsed = elapsedNanos / 1e9;
+        logInfo(String.format("Processed %d items in %.1f s", processed, elapsed));
+        for (Map.Entry<String, FilterStatistics> entry : statistics.entrySet()) {
+            FilterStatistics stats = entry.getValue();
+            int total = stats.filtered + stats.failed;
+            logInfo(String.format("%s: %d filtered (%s), %d skipped, %d failed; %.1f s filtering, "
+                                      + "%.2f s per bitstream, %.2f bitstreams/s",
+                                  entry.getKey(), stats.filtered, FileUtils.byteCountToDisplaySize(stats.bytes),
+                                  stats.skipped, stats.failed, stats.nanos / 1e9,
+                                  total == 0 ? 0 : stats.nanos / 1e9 / total,
+                                  elapsed == 0 ? 0 : total / elapsed));
+        }
+    }
+
+    /**
+     * @param context     context
+     * @param bitstream   the bitstream
+     * @param formatFilter the filter
+     * @return whether the filter applies to the format of the bitstream
+     * @throws Exception if error
+     */
+    protected boolean isApplicable(Context context, Bitstream bitstream, FormatFilter formatFilter)
+        throws Exception {
+        if (getInputFormats(formatFilter).contains(bitstream.getFormat(context).getShortDescription())) {
+            return true;
+        }
+        return formatFilter instanceof SelfRegisterInputFormats
+            && isSelfRegisteredFormat(context, bitstream, (SelfRegisterInputFormats) formatFilter);
+    }
+
+    /**
+     * @param context   context
+     * @param bitstream the bitstream
+     * @param srif      the filter registering its own input formats
+     * @return whether the filter claims to support the format of the bitstream
+     * @throws Exception if error
+     */
+    protected boolean isSelfRegisteredFormat(Context context, Bitstream bitstream, SelfRegisterInputFormats srif)
+        throws Exception {
+        BitstreamFormat format = bitstream.getFormat(context);
+
+        // Check MIME type
+        String[] mimeTypes = srif.getInputMIMETypes();
+        if (mimeTypes != null) {
+            for (String mimeType : mimeTypes) {
+                if (mimeType.equalsIgnoreCase(format.getMIMEType())) {
+                    return true;
+                }
+            }
+        }
+
+        // Check description
+        String[] descriptions = srif.getInputDescriptions();
+        if (descriptions != null) {
+            for (String desc : descriptions) {
+                if (desc.equalsIgnoreCase(format.getShortDescription())) {
+                    return true;
+                }
+            }
+        }
+
+        // Check extensions
+        String[] extensions = srif.getInputExtensions();
+        List<String> formatExtensions = format.getExtensions();
+        if (extensions != null && formatExtensions != null) {
+            for (String ext : extensions) {
+                if (formatExtensions.contains(ext)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param formatFilter the filter
+     * @return the name of the filter, i.e. its class name followed by its plugin name for SelfNamedPlugins
+     */
+    protected String getFilterName(FormatFilter formatFilter) {
+        String pluginName = null;
+
+        //if this filter class is a SelfNamedPlugin,
+        //its list of supported formats is different for
+        //differently named "plugin"
+        if (SelfNamedPlugin.class.isAssignableFrom(formatFilter.getClass())) {
+            //get plugin instance name for this media filter
+            pluginName = ((SelfNamedPlugin) formatFilter).getPluginInstanceName();
+        }
+        return formatFilter.getClass().getName() + (pluginName != null ? FILTER_PLUGIN_SEPARATOR + pluginName : "");
+    }
+
+    /**
+     * @param formatFilter the filter
+     * @return the configured input formats of the filter
+     */
+    protected List<String> getInputFormats(FormatFilter formatFilter) {
+        //Get list of supported formats for the filter (and possibly named plugin)
+        //For SelfNamedPlugins, map key is:
+        //  <class-name><separator><plugin-name>
+        //For other MediaFilters, map key is just:
+        //  <class-name>
+        List<String> fmts = filterFormats.get(getFilterName(formatFilter));
+        return fmts != null ? fmts : List.of();
+    }
+
+    /**
+     * Log helpful information to find a bitstream which could not be filtered.
+     */
+    protected void logFilterError(Item item, Bitstream bitstream, Throwable e) throws SQLException {
+        String handle = item.getHandle();
+        List<Bundle> bundles = bitstream.getBundles();
+        long size = bitstream.getSizeBytes();
+        String checksum = bitstream.getChecksum() + " (" + bitstream.getChecksumAlgorithm() + ")";
+        int assetstore = bitstream.getStoreNumber();
+
+        // Printout helpful information to find the errored bitstream.
+        StringBuilder sb = new StringBuilder("ERROR filtering, skipping bitstream:\n");
+        sb.append("\tItem Handle: ").append(handle);
+        for (Bundle bundle : bundles) {
+            sb.append("\tBundle Name: ").append(bundle.getName());
+        }
+        sb.append("\tFile Size: ").append(size);
+        sb.append("\tChecksum: ").append(checksum);
+        sb.append("\tAsset Store: ").append(assetstore);
+        logError(sb.toString());
+        logError(e.getMessage(), e);
+    }
+
     @Override
     public Item getCurrentItem() {
         return currentItem;
@@ -453,7 +848,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
             System.out.println(message);
         }
     }
-    private void logError(String message, Exception e) {
+    private void logError(String message, Throwable e) {
         if (handler != null) {
             handler.logError(message, e);
         } else {
@@ -500,4 +895,76 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     public void setLogHandler(DSpaceRunnableHandler handler) {
         this.handler = handler;
     }
+    @Override
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public void setCheckpoint(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * A walk through the items in scope, see {@link #applyFiltersInParallel(Context, ItemWalk)}
+     */
+    @FunctionalInterface
+    protected interface ItemWalk {
+        void run() throws Exception;
+    }
+
+    /**
+     * Statistics of a filter over a run
+     */
+    private static class FilterStatistics {
+        private int filtered = 0;
+        private int skipped = 0;
+        private int failed = 0;
+        private long bytes = 0;
+        private long nanos = 0;
+    }
+
+    /**
+     * A bitstream to filter on a worker thread; the worker only runs the filter, all database access stays on the
+     * main thread. The item is handed to the filter as is, so it stays in the session, without any commit, until
+     * the task is finished.
+     */
+    private static class FilterTask implements Callable<FilterTask> {
+        private final Item item;
+        private final UUID itemId;
+        private final UUID sourceId;
+        private final FormatFilter formatFilter;
+        private final String filterName;
+        private final String newName;
+        private final InputStream source;
+        private final boolean verbose;
+        private InputStream result;
+        private Throwable error;
+        private long nanos;
+
+        FilterTask(Item item, Bitstream source, FormatFilter formatFilter, String filterName, String newName,
+                   InputStream sourceStream, boolean verbose) {
+            this.item = item;
+            this.itemId = item.getID();
+            this.sourceId = source.getID();
+            this.formatFilter = formatFilter;
+            this.filterName = filterName;
+            this.newName = newName;
+            this.source = sourceStream;
+            this.verbose = verbose;
+        }
+
+        @Override
+        public FilterTask call() {
+            long start = System.nanoTime();
+            try {
+                // this is the hard work
+                result = formatFilter.getDestinationStream(item, source, verbose);
+            } catch (Exception | OutOfMemoryError e) {
+                error = e;
+            }
+            nanos = System.nanoTime() - start;
+            return this;
+        }
+    }
 }
@@ -7,6 +7,7 @@
  */
 package org.dspace.app.mediafilter.service;
 
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 
@@ -126,6 +127,19 @@ public interface MediaFilterService {
 
     public void setFilterFormats(Map<String, List<String>> filterFormats);
 
+    /**
+     * Set the default number of threads running each filter class. A value of 0 (the default) filters the
+     * bitstreams one after the other, unless a checkpoint is set.
+     * @param threads number of threads per filter class
+     */
+    public void setThreads(int threads);
+
+    /**
+     * Set the file recording the bitstreams already processed, to resume an interrupted run.
+     * @param checkpointFile the checkpoint file, null for none
+     */
+    public void setCheckpoint(File checkpointFile);
+
     /**
      * Set the log handler used in the DSpace scripts and processes framework
      * @param handler
@@ -7,12 +7,16 @@
  */
 package org.dspace.app.sitemap;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Date;
+import java.util.List;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -33,6 +37,19 @@ import java.util.zip.GZIPOutputStream;
  *   }
  *   g.finish();
  * </pre>
+ * <P>
+ * A sitemap may also be written in shards (see {@link GenerateSitemaps#generateSitemapsIncremental}), each written
+ * to its own range of file numbers, so a shard can be written again without the others:
+ * <pre>
+ *   g.startShard(firstNumber);
+ *   while (...) {
+ *     g.addURL(url, date);
+ *   }
+ *   int files = g.finishShard();
+ *   ...
+ *   g.finish(numbers, lastModified);
+ * </pre>
+ * Files are written to a temporary file, renamed once complete, so a file being written is never served.
  *
  * @author Robert Tansley
  */
@@ -62,6 +79,21 @@ public abstract class AbstractGenerator {
      */
     protected PrintStream currentOutput;
 
+    /**
+     * Current output file, renamed to its final name once closed
+     */
+    private File currentFile;
+
+    /**
+     * Number of the first file of the current shard
+     */
+    private int shardStart = 0;
+
+    /**
+     * Size of the buffer of the output streams
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     /**
      * Size in bytes of trailing boilerplate
      */
@@ -89,14 +121,8 @@ public abstract class AbstractGenerator {
     protected void startNewFile() throws IOException {
         String lbp = getLeadingBoilerPlate();
 
-        OutputStream fo = new FileOutputStream(new File(outputDir,
-                                                        getFilename(fileCount)));
-
-        if (useCompression()) {
-            fo = new GZIPOutputStream(fo);
-        }
-
-        currentOutput = new PrintStream(fo);
+        currentFile = new File(outputDir, getFilename(fileCount) + ".tmp");
+        currentOutput = openOutput(currentFile, useCompression());
         currentOutput.print(lbp);
         bytesWritten = lbp.length();
         urlsWritten = 0;
@@ -138,9 +164,79 @@ public abstract class AbstractGenerator {
     protected void closeCurrentFile() throws IOException {
         currentOutput.print(getTrailingBoilerPlate());
         currentOutput.close();
+        if (currentOutput.checkError()) {
+            throw new IOException("Unable to write the sitemap file " + currentFile);
+        }
+        replace(currentFile, new File(outputDir, getFilename(fileCount)));
         fileCount++;
     }
 
+    /**
+     * Start writing the files of a shard of the sitemap, numbered from the given number. The URLs added until
+     * {@link #finishShard()} is called are written to these files.
+     *
+     * @param firstNumber the number of the first file of the shard
+     * @throws IOException if IO error
+     *                     if an error occurs writing the previous shard
+     */
+    public void startShard(int firstNumber) throws IOException {
+        finishShard();
+        fileCount = firstNumber;
+        shardStart = firstNumber;
+    }
+
+    /**
+     * Complete writing the files of the current shard.
+     *
+     * @return number of sitemap files written for the shard.
+     * @throws IOException if IO error
+     *                     if an error occurs writing
+     */
+    public int finishShard() throws IOException {
+        if (null != currentOutput) {
+            closeCurrentFile();
+            currentOutput = null;
+        }
+        return fileCount - shardStart;
+    }
+
+    /**
+     * Write the index file of a sitemap written in shards. This is invoked once all shards have been written, and
+     * invalidates the generator. The index is never compressed.
+     *
+     * @param numbers      numbers of the sitemap files, of all shards
+     * @param lastModified dates the sitemap files were last written, in the same order
+     * @throws IOException if IO error
+     *                     if an error occurs writing
+     */
+    public void finish(List<Integer> numbers, List<Date> lastModified) throws IOException {
+        finishShard();
+
+        File indexFile = new File(outputDir, getIndexFilename() + ".tmp");
+        PrintStream out = openOutput(indexFile, false);
+        writeIndex(out, numbers, lastModified);
+        out.close();
+        if (out.checkError()) {
+            throw new IOException("Unable to write the sitemap index " + indexFile);
+        }
+        replace(indexFile, new File(outputDir, getIndexFilename()));
+    }
+
+    private PrintStream openOutput(File file, boolean compress) throws IOException {
+        OutputStream fo = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+
+        if (compress) {
+            fo = new GZIPOutputStream(fo, BUFFER_SIZE);
+        }
+
+        return new PrintStream(fo, false, "UTF-8");
+    }
+
+    private static void replace(File source, File target) throws IOException {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
     /**
      * Complete writing sitemap files and write the index files. This is invoked
      * when all calls to {@link AbstractGenerator#addURL(String, Date)} have
@@ -155,16 +251,14 @@ public abstract class AbstractGenerator {
             closeCurrentFile();
         }
 
-        OutputStream fo = new FileOutputStream(new File(outputDir,
-                                                        getIndexFilename()));
-
-        if (useCompression()) {
-            fo = new GZIPOutputStream(fo);
-        }
-
-        PrintStream out = new PrintStream(fo);
+        File indexFile = new File(outputDir, getIndexFilename() + ".tmp");
+        PrintStream out = openOutput(indexFile, useCompression());
         writeIndex(out, fileCount);
         out.close();
+        if (out.checkError()) {
+            throw new IOException("Unable to write the sitemap index " + indexFile);
+        }
+        replace(indexFile, new File(outputDir, getIndexFilename()));
 
         return fileCount;
     }
@@ -243,4 +337,16 @@ public abstract class AbstractGenerator {
      */
     public abstract void writeIndex(PrintStream output, int sitemapCount)
         throws IOException;
+
+    /**
+     * Write the index file of a sitemap written in shards.
+     *
+     * @param output       stream to write the index to
+     * @param numbers      numbers of the sitemap files
+     * @param lastModified dates the sitemap files were last written, in the same order
+     * @throws IOException if IO error
+     *                     if an IO error occurs
+     */
+    public abstract void writeIndex(PrintStream output, List<Integer> numbers, List<Date> lastModified)
+        throws IOException;
 }
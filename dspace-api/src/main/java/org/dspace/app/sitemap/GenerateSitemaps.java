@@ -17,9 +17,18 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -69,6 +78,29 @@ public class GenerateSitemaps {
         DSpaceServicesFactory.getInstance().getConfigurationService();
     private static final SearchService searchService = SearchUtils.getSearchService();
 
+    /**
+     * Range of file numbers of each shard of an incremental sitemap: the files of shard N are numbered from
+     * N * FILES_PER_SHARD
+     */
+    private static final int FILES_PER_SHARD = 1000;
+
+    /**
+     * Maximum number of items of a shard, so its files fit in its range of file numbers whatever the generator
+     */
+    private static final int MAX_SHARD_ITEMS = FILES_PER_SHARD * 1000;
+
+    /**
+     * Items modified shortly before the last run are checked again, in case the clocks of the servers modifying
+     * items differ slightly
+     */
+    private static final long MODIFICATION_MARGIN = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Names of the sitemap files, which are removed when a sitemap is written in shards from scratch unless they
+     * belong to the new sitemap
+     */
+    private static final Pattern SITEMAP_FILE = Pattern.compile("sitemap\\d+\\.(html|xml|xml\\.gz)(\\.tmp)?");
+
     /**
      * Default constructor
      */
@@ -95,6 +127,9 @@ public class GenerateSitemaps {
         options
             .addOption("d", "delete", false,
                 "delete sitemaps dir and its contents");
+        options
+            .addOption("i", "incremental", false,
+                "only write again the shards of the sitemaps with changes since the last incremental run");
 
         CommandLine line = null;
 
@@ -129,7 +164,9 @@ public class GenerateSitemaps {
         }
 
         // Note the negation (CLI options indicate NOT to generate a sitemap)
-        if (!line.hasOption('b') || !line.hasOption('s')) {
+        if ((!line.hasOption('b') || !line.hasOption('s')) && line.hasOption('i')) {
+            generateSitemapsIncremental(!line.hasOption('b'), !line.hasOption('s'));
+        } else if (!line.hasOption('b') || !line.hasOption('s')) {
             generateSitemaps(!line.hasOption('b'), !line.hasOption('s'));
         }
 
@@ -161,7 +198,11 @@ public class GenerateSitemaps {
      * @throws IOException  if IO error occurs.
      */
     public static void generateSitemapsScheduled() throws IOException, SQLException {
-        generateSitemaps(true, true);
+        if (configurationService.getBooleanProperty("sitemap.incremental", false)) {
+            generateSitemapsIncremental(true, true);
+        } else {
+            generateSitemaps(true, true);
+        }
     }
 
     /**
@@ -195,6 +236,8 @@ public class GenerateSitemaps {
         if (!outputDir.exists() && !outputDir.mkdir()) {
             log.error("Unable to create output directory");
         }
+        // the shards of an incremental sitemap are replaced by this sitemap
+        SitemapManifest.delete(outputDir);
 
         AbstractGenerator html = null;
         AbstractGenerator sitemapsOrg = null;
@@ -245,26 +288,8 @@ public class GenerateSitemaps {
         while (allItems.hasNext()) {
             Item i = allItems.next();
 
-            DiscoverQuery entityQuery = new DiscoverQuery();
-            entityQuery.setQuery("search.uniqueid:\"Item-" + i.getID() + "\" and entityType:*");
-            entityQuery.addSearchField("entityType");
-
             try {
-                DiscoverResult discoverResult = searchService.search(c, entityQuery);
-
-                String url;
-                if (CollectionUtils.isNotEmpty(discoverResult.getIndexableObjects())
-                    && CollectionUtils.isNotEmpty(discoverResult.getSearchDocument(
-                        discoverResult.getIndexableObjects().get(0)).get(0).getSearchFieldValues("entityType"))
-                    && StringUtils.isNotBlank(discoverResult.getSearchDocument(
-                        discoverResult.getIndexableObjects().get(0)).get(0).getSearchFieldValues("entityType").get(0))
-                ) {
-                    url = uiURLStem + "/entities/" + StringUtils.lowerCase(discoverResult.getSearchDocument(
-                            discoverResult.getIndexableObjects().get(0))
-                        .get(0).getSearchFieldValues("entityType").get(0)) + "/" + i.getID();
-                } else {
-                    url = uiURLStem + "/items/" + i.getID();
-                }
+                String url = getItemURL(c, uiURLStem, i);
                 Date lastMod = i.getLastModified();
 
                 if (makeHTMLMap) {
@@ -301,6 +326,278 @@ public class GenerateSitemaps {
         c.abort();
     }
 
+    /**
+     * Get the URL of the page of an item in the UI, the page of its entity type if it has one.
+     *
+     * @param c         the DSpace context
+     * @param uiURLStem the URL of the UI
+     * @param i         the item
+     * @return the URL of the page of the item
+     * @throws SearchServiceException if the entity type of the item can't be searched for
+     */
+    private static String getItemURL(Context c, String uiURLStem, Item i) throws SearchServiceException {
+        DiscoverQuery entityQuery = new DiscoverQuery();
+        entityQuery.setQuery("search.uniqueid:\"Item-" + i.getID() + "\" and entityType:*");
+        entityQuery.addSearchField("entityType");
+
+        DiscoverResult discoverResult = searchService.search(c, entityQuery);
+
+        if (CollectionUtils.isNotEmpty(discoverResult.getIndexableObjects())
+            && CollectionUtils.isNotEmpty(discoverResult.getSearchDocument(
+                discoverResult.getIndexableObjects().get(0)).get(0).getSearchFieldValues("entityType"))
+            && StringUtils.isNotBlank(discoverResult.getSearchDocument(
+                discoverResult.getIndexableObjects().get(0)).get(0).getSearchFieldValues("entityType").get(0))
+        ) {
+            return uiURLStem + "/entities/" + StringUtils.lowerCase(discoverResult.getSearchDocument(
+                    discoverResult.getIndexableObjects().get(0))
+                .get(0).getSearchFieldValues("entityType").get(0)) + "/" + i.getID();
+        }
+        return uiURLStem + "/items/" + i.getID();
+    }
+
+    /**
+     * Generate sitemap.org protocol and/or basic HTML sitemaps in shards, only writing again the shards which
+     * changed since the last run, rather than the whole sitemaps.
+     * <p>
+     * The items are split into shards of consecutive ranges of UUIDs, holding about "sitemap.shard.size" items
+     * each; the communities and collections form another shard, written at every run. A shard of items is written
+     * again when an item of the shard was modified (including withdrawn) since the last run, or when its number of
+     * items changed (e.g. an item was deleted). The sitemaps.org files are GZIP-compressed, and list the date their
+     * shard was last written, so search engines can skip the unchanged ones.
+     * <p>
+     * The shards are recorded in a {@link SitemapManifest}. All shards are written when there is no manifest (first
+     * run, or a run of {@link #generateSitemaps}), when the kinds of sitemaps to generate change, or when a shard
+     * grew too large, so the number of shards is computed again.
+     *
+     * @param makeHTMLMap    if {@code true}, generate an HTML sitemap.
+     * @param makeSitemapOrg if {@code true}, generate an sitemap.org sitemap.
+     * @throws SQLException if database error
+     *                      if a database error occurs.
+     * @throws IOException  if IO error
+     *                      if IO error occurs.
+     */
+    public static void generateSitemapsIncremental(boolean makeHTMLMap, boolean makeSitemapOrg)
+        throws SQLException, IOException {
+        String uiURLStem = configurationService.getProperty("dspace.ui.url");
+        String sitemapStem = uiURLStem + "/sitemap";
+
+        File outputDir = new File(configurationService.getProperty("sitemap.dir"));
+        if (!outputDir.exists() && !outputDir.mkdir()) {
+            log.error("Unable to create output directory");
+        }
+
+        Map<String, AbstractGenerator> generators = new LinkedHashMap<>();
+        if (makeHTMLMap) {
+            generators.put("html", new HTMLSitemapGenerator(outputDir, sitemapStem, ".html"));
+        }
+        if (makeSitemapOrg) {
+            generators.put("sitemapsOrg", new SitemapsOrgGenerator(outputDir, sitemapStem, ".xml", true));
+        }
+
+        Date start = new Date();
+        Context c = new Context(Context.Mode.READ_ONLY);
+        try {
+            SitemapManifest manifest = SitemapManifest.load(outputDir);
+            Set<Integer> changedShards = null;
+            if (manifest != null && manifest.hasHtml() == makeHTMLMap
+                && manifest.hasSitemapsOrg() == makeSitemapOrg) {
+                changedShards = getChangedShards(c, manifest);
+            }
+            boolean full = changedShards == null;
+            if (full) {
+                int shardSize = Math.max(1, Math.min(MAX_SHARD_ITEMS / 2,
+                    configurationService.getIntProperty("sitemap.shard.size", 25000)));
+                int shardCount = Math.max(1, (itemService.countArchivedItems(c) + shardSize - 1) / shardSize);
+                manifest = new SitemapManifest(shardCount, makeHTMLMap, makeSitemapOrg);
+                changedShards = new TreeSet<>();
+                for (int shard = 1; shard <= shardCount; shard++) {
+                    changedShards.add(shard);
+                }
+            }
+
+            // communities and collections
+            List<String> urls = new ArrayList<>();
+            for (Community comm : communityService.findAll(c)) {
+                urls.add(uiURLStem + "/communities/" + comm.getID());
+                c.uncacheEntity(comm);
+            }
+            for (Collection coll : collectionService.findAll(c)) {
+                urls.add(uiURLStem + "/collections/" + coll.getID());
+                c.uncacheEntity(coll);
+            }
+            startShard(generators, 0);
+            for (String url : urls) {
+                for (AbstractGenerator generator : generators.values()) {
+                    generator.addURL(url, null);
+                }
+            }
+            finishShard(outputDir, generators, manifest, 0, urls.size());
+
+            int itemCount = 0;
+            for (int shard : changedShards) {
+                itemCount += writeItemShard(c, uiURLStem, outputDir, generators, manifest, shard);
+            }
+
+            Set<String> files = new HashSet<>();
+            for (Map.Entry<String, AbstractGenerator> generator : generators.entrySet()) {
+                List<Integer> numbers = new ArrayList<>();
+                List<Date> lastModified = new ArrayList<>();
+                for (int shard = 0; shard <= manifest.getShardCount(); shard++) {
+                    for (int i = 0; i < manifest.getFileCount(shard, generator.getKey()); i++) {
+                        numbers.add(shard * FILES_PER_SHARD + i);
+                        lastModified.add(manifest.getLastModified(shard));
+                        files.add(generator.getValue().getFilename(shard * FILES_PER_SHARD + i));
+                    }
+                }
+                generator.getValue().finish(numbers, lastModified);
+            }
+            if (full) {
+                removeStaleFiles(outputDir, files);
+            }
+            manifest.setLastRun(start);
+            manifest.save(outputDir);
+
+            log.info(LogHelper.getHeader(c, "write_sitemap",
+                                          "type=incremental,full=" + full + ",shards=" + manifest.getShardCount()
+                                              + ",written_shards=" + changedShards.size() + ",items="
+                                              + itemCount));
+        } finally {
+            c.abort();
+        }
+    }
+
+    /**
+     * Find the shards of items which changed since the last run.
+     *
+     * @return the changed shards, or null if all shards must be computed again (a shard grew too large)
+     */
+    private static Set<Integer> getChangedShards(Context c, SitemapManifest manifest) throws SQLException {
+        int shardCount = manifest.getShardCount();
+        Set<Integer> changedShards = new TreeSet<>();
+        for (int shard = 1; shard <= shardCount; shard++) {
+            int count = itemService.countArchivedItems(c, getLowerBound(shard, shardCount),
+                                                       getUpperBound(shard, shardCount));
+            if (count > MAX_SHARD_ITEMS) {
+                return null;
+            }
+            if (count != manifest.getItemCount(shard)) {
+                changedShards.add(shard);
+            }
+        }
+
+        Date since = new Date(manifest.getLastRun().getTime() - MODIFICATION_MARGIN);
+        Iterator<Item> modifiedItems = itemService.findByLastModifiedSince(c, since);
+        while (modifiedItems.hasNext()) {
+            Item i = modifiedItems.next();
+            changedShards.add(getShard(i.getID(), shardCount));
+            c.uncacheEntity(i);
+        }
+        return changedShards;
+    }
+
+    /**
+     * Write the files of a shard of items.
+     *
+     * @return the number of items of the shard
+     */
+    private static int writeItemShard(Context c, String uiURLStem, File outputDir,
+                                      Map<String, AbstractGenerator> generators, SitemapManifest manifest,
+                                      int shard) throws SQLException, IOException {
+        int shardCount = manifest.getShardCount();
+        startShard(generators, shard);
+        int itemCount = 0;
+        Iterator<Item> items = itemService.findAllRegularItems(c, getLowerBound(shard, shardCount),
+                                                               getUpperBound(shard, shardCount));
+        while (items.hasNext()) {
+            Item i = items.next();
+            if (i.isArchived() && !i.isWithdrawn()) {
+                try {
+                    String url = getItemURL(c, uiURLStem, i);
+                    for (AbstractGenerator generator : generators.values()) {
+                        generator.addURL(url, i.getLastModified());
+                    }
+                } catch (SearchServiceException e) {
+                    log.error("Failed getting entitytype through solr for item " + i.getID() + ": "
+                                  + e.getMessage());
+                }
+                itemCount++;
+            }
+            c.uncacheEntity(i);
+        }
+        finishShard(outputDir, generators, manifest, shard, itemCount);
+        return itemCount;
+    }
+
+    private static void startShard(Map<String, AbstractGenerator> generators, int shard) throws IOException {
+        for (AbstractGenerator generator : generators.values()) {
+            generator.startShard(shard * FILES_PER_SHARD);
+        }
+    }
+
+    /**
+     * Complete the files of a shard, removing the files written for the shard by the previous run which are no
+     * longer needed, and record the shard in the manifest.
+     */
+    private static void finishShard(File outputDir, Map<String, AbstractGenerator> generators,
+                                    SitemapManifest manifest, int shard, int itemCount) throws IOException {
+        for (Map.Entry<String, AbstractGenerator> generator : generators.entrySet()) {
+            int fileCount = generator.getValue().finishShard();
+            for (int i = fileCount; i < manifest.getFileCount(shard, generator.getKey()); i++) {
+                File file = new File(outputDir, generator.getValue().getFilename(shard * FILES_PER_SHARD + i));
+                if (!file.delete()) {
+                    log.warn("Unable to remove the sitemap file " + file);
+                }
+            }
+            manifest.setFileCount(shard, generator.getKey(), fileCount);
+        }
+        manifest.setShard(shard, itemCount, new Date());
+    }
+
+    /**
+     * Remove the sitemap files which are not part of the current sitemap, left by previous runs.
+     */
+    private static void removeStaleFiles(File outputDir, Set<String> files) {
+        File[] existing = outputDir.listFiles();
+        if (existing == null) {
+            return;
+        }
+        for (File file : existing) {
+            if (SITEMAP_FILE.matcher(file.getName()).matches() && !files.contains(file.getName())
+                && !file.delete()) {
+                log.warn("Unable to remove the stale sitemap file " + file);
+            }
+        }
+    }
+
+    /**
+     * Get the shard of an item: items are split into shards on the 32 most significant bits of their (random,
+     * uniformly distributed) UUID.
+     *
+     * @param id         the UUID of the item
+     * @param shardCount the number of shards of items
+     * @return the shard, from 1 to shardCount
+     */
+    static int getShard(UUID id, int shardCount) {
+        long step = (1L << 32) / shardCount;
+        return (int) Math.min(shardCount - 1, (id.getMostSignificantBits() >>> 32) / step) + 1;
+    }
+
+    /**
+     * @return the inclusive lower bound of the UUIDs of a shard of items, null for the first shard
+     */
+    static UUID getLowerBound(int shard, int shardCount) {
+        long step = (1L << 32) / shardCount;
+        return shard == 1 ? null : new UUID(((shard - 1) * step) << 32, 0L);
+    }
+
+    /**
+     * @return the exclusive upper bound of the UUIDs of a shard of items, null for the last shard
+     */
+    static UUID getUpperBound(int shard, int shardCount) {
+        long step = (1L << 32) / shardCount;
+        return shard == shardCount ? null : new UUID((shard * step) << 32, 0L);
+    }
+
     /**
      * Ping all search engines configured in {@code dspace.cfg}.
      *
@@ -11,6 +11,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Class for generating HTML "sitemaps" which contain links to various pages in
@@ -109,4 +110,18 @@ public class HTMLSitemapGenerator extends AbstractGenerator {
 
         output.println(getTrailingBoilerPlate());
     }
+
+    @Override
+    public void writeIndex(PrintStream output, List<Integer> numbers, List<Date> lastModified)
+        throws IOException {
+        output.println(getLeadingBoilerPlate());
+
+        for (int number : numbers) {
+            output.print("<li><a href=\"" + indexURLStem + number + indexURLTail
+                             + "\">sitemap " + number);
+            output.print("</a></li>\n");
+        }
+
+        output.println(getTrailingBoilerPlate());
+    }
 }
@@ -0,0 +1,192 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.sitemap;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.Properties;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Manifest of a sitemap written in shards by {@link GenerateSitemaps#generateSitemapsIncremental}: the number of
+ * shards, the date of the last run, and for each shard the number of items it holds, the number of files written
+ * for it by each generator and the date it was last written. It is stored in the sitemaps directory.
+ * <p>
+ * Shard 0 holds the communities and collections, shards 1 to {@link #getShardCount()} the items of consecutive
+ * ranges of UUIDs.
+ */
+public class SitemapManifest {
+
+    private static final Logger log = LogManager.getLogger(SitemapManifest.class);
+
+    public static final String FILENAME = "sitemap_manifest.properties";
+
+    private static final int VERSION = 1;
+
+    private final Properties properties;
+
+    /**
+     * Create the manifest of a new sitemap.
+     *
+     * @param shardCount     number of shards of items
+     * @param html           whether an HTML sitemap is written
+     * @param sitemapsOrg    whether a sitemaps.org sitemap is written
+     */
+    public SitemapManifest(int shardCount, boolean html, boolean sitemapsOrg) {
+        properties = new Properties();
+        properties.setProperty("version", String.valueOf(VERSION));
+        properties.setProperty("shards", String.valueOf(shardCount));
+        properties.setProperty("html", String.valueOf(html));
+        properties.setProperty("sitemapsOrg", String.valueOf(sitemapsOrg));
+    }
+
+    private SitemapManifest(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Load the manifest of the sitemap in the given directory.
+     *
+     * @param outputDir the sitemaps directory
+     * @return the manifest, or null if there is none (or it can't be read)
+     */
+    public static SitemapManifest load(File outputDir) {
+        File file = new File(outputDir, FILENAME);
+        if (!file.exists()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.warn("Unable to read the sitemap manifest " + file, e);
+            return null;
+        }
+        SitemapManifest manifest = new SitemapManifest(properties);
+        if (manifest.getInt("version") != VERSION || manifest.getShardCount() < 1 || manifest.getLastRun() == null) {
+            log.warn("Ignoring the invalid sitemap manifest " + file);
+            return null;
+        }
+        return manifest;
+    }
+
+    /**
+     * Save the manifest in the given directory, replacing the previous one at once.
+     *
+     * @param outputDir the sitemaps directory
+     * @throws IOException if the manifest can't be written
+     */
+    public void save(File outputDir) throws IOException {
+        File temp = new File(outputDir, FILENAME + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            properties.store(out, "Sitemap shards, see " + GenerateSitemaps.class.getName());
+        }
+        Files.move(temp.toPath(), new File(outputDir, FILENAME).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Remove the manifest from the given directory, if any, so the next incremental run writes all shards again.
+     *
+     * @param outputDir the sitemaps directory
+     * @throws IOException if the manifest can't be removed
+     */
+    public static void delete(File outputDir) throws IOException {
+        Files.deleteIfExists(new File(outputDir, FILENAME).toPath());
+    }
+
+    public int getShardCount() {
+        return getInt("shards");
+    }
+
+    public boolean hasHtml() {
+        return Boolean.parseBoolean(properties.getProperty("html"));
+    }
+
+    public boolean hasSitemapsOrg() {
+        return Boolean.parseBoolean(properties.getProperty("sitemapsOrg"));
+    }
+
+    /**
+     * @return the start of the last run, the items modified since then may have changed
+     */
+    public Date getLastRun() {
+        long lastRun = getLong("lastRun");
+        return lastRun > 0 ? new Date(lastRun) : null;
+    }
+
+    public void setLastRun(Date lastRun) {
+        properties.setProperty("lastRun", String.valueOf(lastRun.getTime()));
+    }
+
+    /**
+     * @param shard the shard
+     * @return the number of items of the shard, when it was last written
+     */
+    public int getItemCount(int shard) {
+        return getInt("shard." + shard + ".items");
+    }
+
+    /**
+     * @param shard     the shard
+     * @param generator the name of the generator
+     * @return the number of files written for the shard by the generator
+     */
+    public int getFileCount(int shard, String generator) {
+        return getInt("shard." + shard + ".files." + generator);
+    }
+
+    /**
+     * @param shard the shard
+     * @return the date the shard was last written
+     */
+    public Date getLastModified(int shard) {
+        return new Date(getLong("shard." + shard + ".modified"));
+    }
+
+    /**
+     * Record that a shard was written.
+     *
+     * @param shard        the shard
+     * @param itemCount    the number of items of the shard
+     * @param lastModified the date the shard was written
+     */
+    public void setShard(int shard, int itemCount, Date lastModified) {
+        properties.setProperty("shard." + shard + ".items", String.valueOf(itemCount));
+        properties.setProperty("shard." + shard + ".modified", String.valueOf(lastModified.getTime()));
+    }
+
+    /**
+     * Record the number of files written for a shard by a generator.
+     *
+     * @param shard     the shard
+     * @param generator the name of the generator
+     * @param fileCount the number of files
+     */
+    public void setFileCount(int shard, String generator, int fileCount) {
+        properties.setProperty("shard." + shard + ".files." + generator, String.valueOf(fileCount));
+    }
+
+    private int getInt(String key) {
+        return NumberUtils.toInt(properties.getProperty(key), 0);
+    }
+
+    private long getLong(String key) {
+        return NumberUtils.toLong(properties.getProperty(key), 0);
+    }
+}
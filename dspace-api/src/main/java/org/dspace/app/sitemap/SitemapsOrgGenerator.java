@@ -13,6 +13,7 @@ import java.io.PrintStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Class for generating <a href="http://sitemaps.org/">Sitemaps</a> to improve
@@ -39,6 +40,11 @@ public class SitemapsOrgGenerator extends AbstractGenerator {
     protected DateFormat w3dtfFormat = new SimpleDateFormat(
         "yyyy-MM-dd'T'HH:mm:ss'Z'");
 
+    /**
+     * Whether the sitemap files (not the index) are GZIP-compressed
+     */
+    protected boolean compress;
+
     /**
      * Construct a sitemaps.org protocol sitemap generator, writing files to the
      * given directory, and with the sitemaps eventually exposed at starting
@@ -51,15 +57,31 @@ public class SitemapsOrgGenerator extends AbstractGenerator {
      *                    {@code .html} or {@code null}
      */
     public SitemapsOrgGenerator(File outputDirIn, String urlStem, String urlTail) {
+        this(outputDirIn, urlStem, urlTail, false);
+    }
+
+    /**
+     * Construct a sitemaps.org protocol sitemap generator, optionally writing GZIP-compressed sitemap files (named
+     * with an additional ".gz" extension).
+     *
+     * @param outputDirIn Directory to write sitemap files to
+     * @param urlStem     start of URL that sitemap files will appear at, e.g.
+     *                    {@code http://dspace.myu.edu/sitemap?sitemap=}
+     * @param urlTail     end of URL that sitemap files will appear at, e.g.
+     *                    {@code .html} or {@code null}
+     * @param compress    whether to compress the sitemap files
+     */
+    public SitemapsOrgGenerator(File outputDirIn, String urlStem, String urlTail, boolean compress) {
         super(outputDirIn);
 
         indexURLStem = urlStem;
-        indexURLTail = (urlTail == null ? "" : urlTail);
+        indexURLTail = (urlTail == null ? "" : urlTail) + (compress ? ".gz" : "");
+        this.compress = compress;
     }
 
     @Override
     public String getFilename(int number) {
-        return "sitemap" + number + ".xml";
+        return "sitemap" + number + ".xml" + (compress ? ".gz" : "");
     }
 
     @Override
@@ -100,7 +122,7 @@ public class SitemapsOrgGenerator extends AbstractGenerator {
 
     @Override
     public boolean useCompression() {
-        return false;
+        return compress;
     }
 
     @Override
@@ -125,4 +147,20 @@ public class SitemapsOrgGenerator extends AbstractGenerator {
 
         output.println("</sitemapindex>");
     }
+
+    @Override
+    public void writeIndex(PrintStream output, List<Integer> numbers, List<Date> lastModified)
+        throws IOException {
+        output.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        output
+            .println("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+
+        for (int i = 0; i < numbers.size(); i++) {
+            output.print("<sitemap><loc>" + indexURLStem + numbers.get(i) + indexURLTail
+                             + "</loc>");
+            output.print("<lastmod>" + w3dtfFormat.format(lastModified.get(i)) + "</lastmod></sitemap>\n");
+        }
+
+        output.println("</sitemapindex>");
+    }
 }
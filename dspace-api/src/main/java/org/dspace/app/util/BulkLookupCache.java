@@ -0,0 +1,331 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.util;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
+import org.dspace.content.MetadataField;
+import org.dspace.content.MetadataValue;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.content.service.MetadataFieldService;
+import org.dspace.content.service.MetadataValueService;
+import org.dspace.core.Context;
+import org.dspace.handle.factory.HandleServiceFactory;
+import org.dspace.handle.service.HandleService;
+
+/**
+ * Bounded lookup table of the handles, item references and items used by a bulk operation (CSV import, SAF
+ * relationships), so they are resolved with a few set-based queries rather than one query each.
+ * <p>
+ * The keys are first collected in a pre-pass ({@link #addHandle}, {@link #addReference}, {@link #addItem}), then
+ * resolved at once by {@link #load}. The lookups fall back to a single query (whose result is cached too) for the
+ * keys which were not collected, or were evicted: each table holds at most the configured number of entries, the
+ * least recently used being evicted first.
+ * <p>
+ * Handles and references are cached by the UUID (and type) of their objects, not the objects themselves, so the
+ * entities are always read from the current session. Items are loaded into the session in chunks, in the order
+ * they were added, just before they are needed.
+ * <p>
+ * The resolved references are a snapshot of the metadata at {@link #load} time: an operation modifying metadata
+ * afterwards must report the values it adds or removes ({@link #invalidateReference},
+ * {@link #invalidateReferences}), so the references to these values are resolved again from the database. As
+ * with {@link MetadataValueService#findByFieldAndValue}, references only match the values of items.
+ */
+public class BulkLookupCache {
+
+    private static final Logger log = LogManager.getLogger(BulkLookupCache.class);
+
+    /**
+     * Number of items loaded into the session at once
+     */
+    private static final int ITEM_CHUNK_SIZE = 500;
+
+    private final HandleService handleService = HandleServiceFactory.getInstance().getHandleService();
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final MetadataFieldService metadataFieldService =
+        ContentServiceFactory.getInstance().getMetadataFieldService();
+    private final MetadataValueService metadataValueService =
+        ContentServiceFactory.getInstance().getMetadataValueService();
+
+    private final int maxSize;
+
+    /**
+     * Resolved handles, to the type and UUID of their object (absent if the handle isn't bound)
+     */
+    private final Map<String, Object[]> handles;
+
+    /**
+     * Resolved item references, to the UUIDs of the matching items (at most two: more are ambiguous anyway)
+     */
+    private final Map<String, List<UUID>> references;
+
+    private final Set<String> pendingHandles = new LinkedHashSet<>();
+    private final Set<String> pendingReferences = new LinkedHashSet<>();
+
+    /**
+     * UUIDs of the items to load, in the order they are needed
+     */
+    private final List<UUID> itemIds = new ArrayList<>();
+    private final Map<UUID, Integer> itemPositions = new HashMap<>();
+    private Set<UUID> loadedItems = Collections.emptySet();
+
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxSize maximum number of entries of each table
+     */
+    public BulkLookupCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.handles = createTable();
+        this.references = createTable();
+    }
+
+    /**
+     * Collect a handle to resolve.
+     *
+     * @param handle the handle
+     */
+    public void addHandle(String handle) {
+        if (StringUtils.isNotBlank(handle) && pendingHandles.size() < maxSize) {
+            pendingHandles.add(handle);
+        }
+    }
+
+    /**
+     * Collect an item reference to resolve, of the form schema.element[.qualifier]:value. Malformed references are
+     * ignored, the lookup reporting them.
+     *
+     * @param reference the reference
+     */
+    public void addReference(String reference) {
+        if (parseField(reference) != null && pendingReferences.size() < maxSize) {
+            pendingReferences.add(reference);
+        }
+    }
+
+    /**
+     * Collect an item to load, in the order the items are needed.
+     *
+     * @param id the UUID of the item
+     */
+    public void addItem(UUID id) {
+        if (id != null && !itemPositions.containsKey(id)) {
+            itemPositions.put(id, itemIds.size());
+            itemIds.add(id);
+        }
+    }
+
+    /**
+     * Resolve the collected handles and references, with one query per chunk of handles and per field.
+     *
+     * @param context the DSpace context
+     * @throws SQLException if database error
+     */
+    public void load(Context context) throws SQLException {
+        if (!pendingHandles.isEmpty()) {
+            Map<String, DSpaceObject> objects = handleService.resolveToObjects(context, pendingHandles);
+            for (String handle : pendingHandles) {
+                DSpaceObject dso = objects.get(handle);
+                handles.put(handle, dso == null ? null : new Object[] {dso.getType(), dso.getID()});
+            }
+            pendingHandles.clear();
+        }
+
+        Map<String, Map<String, String>> valuesByField = new LinkedHashMap<>();
+        for (String reference : pendingReferences) {
+            String field = parseField(reference);
+            valuesByField.computeIfAbsent(field, f -> new HashMap<>())
+                         .put(StringUtils.substringAfter(reference, ":"), reference);
+        }
+        for (Map.Entry<String, Map<String, String>> field : valuesByField.entrySet()) {
+            MetadataField metadataField = findField(context, field.getKey());
+            if (metadataField == null) {
+                // left to the lookup, which reports it
+                continue;
+            }
+            Map<String, List<UUID>> matches = metadataValueService.findItemIdsByFieldAndValues(
+                context, metadataField, field.getValue().keySet());
+            for (Map.Entry<String, String> value : field.getValue().entrySet()) {
+                references.put(value.getValue(), limit(matches.get(value.getKey())));
+            }
+        }
+        pendingReferences.clear();
+        log.debug("Resolved {} handles and {} references", handles.size(), references.size());
+    }
+
+    /**
+     * Get the object a handle maps to.
+     *
+     * @param context the DSpace context
+     * @param handle  the handle
+     * @return the object, or null if the handle is not mapped to any object
+     * @throws SQLException if database error
+     */
+    public DSpaceObject resolveHandle(Context context, String handle) throws SQLException {
+        if (handles.containsKey(handle)) {
+            hits++;
+            Object[] object = handles.get(handle);
+            if (object == null) {
+                return null;
+            }
+            return ContentServiceFactory.getInstance().getDSpaceObjectService((Integer) object[0])
+                                        .find(context, (UUID) object[1]);
+        }
+        misses++;
+        DSpaceObject dso = handleService.resolveToObject(context, handle);
+        handles.put(handle, dso == null ? null : new Object[] {dso.getType(), dso.getID()});
+        return dso;
+    }
+
+    /**
+     * Find the items referred to by a reference of the form schema.element[.qualifier]:value, i.e. the items having
+     * that value in that field.
+     *
+     * @param context   the DSpace context
+     * @param reference the reference
+     * @return the UUIDs of the matching items; only the first two are returned, more matches being as ambiguous
+     * @throws SQLException             if database error
+     * @throws IllegalArgumentException if the reference is malformed
+     */
+    public List<UUID> findItemsByReference(Context context, String reference) throws SQLException {
+        List<UUID> ids = references.get(reference);
+        if (ids != null) {
+            hits++;
+            return ids;
+        }
+        misses++;
+        String field = parseField(reference);
+        if (field == null) {
+            throw new IllegalArgumentException("Bad metadata field in reference: '" + reference
+                                                   + "' (expected syntax is schema.element[.qualifier])");
+        }
+        MetadataField metadataField = findField(context, field);
+        ids = new ArrayList<>();
+        if (metadataField != null) {
+            Iterator<MetadataValue> values = metadataValueService.findByFieldAndValue(
+                context, metadataField, StringUtils.substringAfter(reference, ":"));
+            while (values.hasNext() && ids.size() < 2) {
+                ids.add(values.next().getDSpaceObject().getID());
+            }
+        }
+        references.put(reference, ids);
+        return ids;
+    }
+
+    /**
+     * Forget the resolution of the reference to a metadata value, which was added or removed: the next lookup of
+     * that reference queries the database again.
+     *
+     * @param field the field of the value, as schema.element[.qualifier]
+     * @param value the value
+     */
+    public void invalidateReference(String field, String value) {
+        references.remove(field + ":" + value);
+    }
+
+    /**
+     * Forget the resolution of the references to the current metadata values of an item, which was created,
+     * modified or is about to be deleted.
+     *
+     * @param item the item
+     */
+    public void invalidateReferences(Item item) {
+        for (MetadataValue value : item.getMetadata()) {
+            invalidateReference(value.getMetadataField().toString('.'), value.getValue());
+        }
+    }
+
+    /**
+     * Get an item, loading it with the next items collected by {@link #addItem} if it isn't loaded yet.
+     *
+     * @param context the DSpace context
+     * @param id      the UUID of the item
+     * @return the item, or null if there is no such item
+     * @throws SQLException if database error
+     */
+    public Item findItem(Context context, UUID id) throws SQLException {
+        Integer position = itemPositions.get(id);
+        if (position != null && !loadedItems.contains(id)) {
+            List<UUID> chunk = itemIds.subList(position, Math.min(itemIds.size(), position + ITEM_CHUNK_SIZE));
+            itemService.findByIds(context, chunk);
+            loadedItems = new HashSet<>(chunk);
+        }
+        if (loadedItems.contains(id)) {
+            hits++;
+        } else {
+            misses++;
+        }
+        // read from the session when it was loaded
+        return itemService.find(context, id);
+    }
+
+    /**
+     * @return the number of lookups answered from the tables
+     */
+    public long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups which needed a query of their own
+     */
+    public long getMissCount() {
+        return misses;
+    }
+
+    private <V> Map<String, V> createTable() {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the field of a reference, or null if the reference is malformed
+     */
+    private static String parseField(String reference) {
+        if (reference == null || !reference.contains(":")) {
+            return null;
+        }
+        String field = StringUtils.substringBefore(reference, ":");
+        String[] parts = field.split("\\.");
+        return parts.length < 2 ? null : field;
+    }
+
+    private MetadataField findField(Context context, String field) throws SQLException {
+        String[] parts = field.split("\\.");
+        return metadataFieldService.findByElement(context, parts[0], parts[1], parts.length < 3 ? null : parts[2]);
+    }
+
+    private static List<UUID> limit(List<UUID> ids) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return ids.size() > 2 ? new ArrayList<>(ids.subList(0, 2)) : ids;
+    }
+}
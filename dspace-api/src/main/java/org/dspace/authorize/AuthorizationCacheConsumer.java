@@ -0,0 +1,127 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.authorize;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.dspace.content.Bitstream;
+import org.dspace.content.Bundle;
+import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.event.Consumer;
+import org.dspace.event.Event;
+import org.dspace.services.factory.DSpaceServicesFactory;
+
+/**
+ * Consumer invalidating the {@link AuthorizationDecisionCache} when the policies, groups, epersons or the hierarchy
+ * of objects change.
+ * <p>
+ * Any change to a group, community, collection or to the site invalidates all decisions, as it may change group
+ * memberships or the administrators inherited by many objects. A change to an eperson only invalidates the decisions
+ * of that eperson, and a change to an item, bundle or bitstream (including a change to its policies) only the
+ * decisions concerning it and its content.
+ * <p>
+ * The decisions are invalidated once when the events are dispatched, and once again after the commit, so decisions
+ * computed by other requests in between are not kept.
+ */
+public class AuthorizationCacheConsumer implements Consumer {
+
+    private AuthorizationDecisionCache cache;
+
+    private boolean invalidateAll = false;
+    private final Set<UUID> objectIds = new HashSet<>();
+    private final Set<UUID> ePersonIds = new HashSet<>();
+
+    @Override
+    public void initialize() throws Exception {
+        cache = DSpaceServicesFactory.getInstance().getServiceManager()
+                                     .getServiceByName(AuthorizationDecisionCache.class.getName(),
+                                                       AuthorizationDecisionCache.class);
+    }
+
+    @Override
+    public void consume(Context ctx, Event event) throws Exception {
+        if (cache == null || !cache.isEnabled() || invalidateAll) {
+            return;
+        }
+        switch (event.getSubjectType()) {
+            case Constants.EPERSON:
+                ePersonIds.add(event.getSubjectID());
+                break;
+            case Constants.ITEM:
+            case Constants.BUNDLE:
+            case Constants.BITSTREAM:
+                addWithContent(ctx, event.getSubjectType(), event.getSubjectID(), event);
+                if (event.getObjectID() != null) {
+                    addWithContent(ctx, event.getObjectType(), event.getObjectID(), event);
+                }
+                break;
+            default:
+                // Group, Community, Collection and Site
+                invalidateAll = true;
+                break;
+        }
+    }
+
+    /**
+     * Add an object, and the objects inheriting its administrators, to the objects to invalidate.
+     */
+    private void addWithContent(Context ctx, int type, UUID id, Event event) throws Exception {
+        objectIds.add(id);
+        if (event.getEventType() == Event.DELETE || (type != Constants.ITEM && type != Constants.BUNDLE)) {
+            return;
+        }
+        DSpaceObject dso = id.equals(event.getSubjectID()) ? event.getSubject(ctx) : event.getObject(ctx);
+        if (dso instanceof Item) {
+            for (Bundle bundle : ((Item) dso).getBundles()) {
+                addBundle(bundle);
+            }
+        } else if (dso instanceof Bundle) {
+            addBundle((Bundle) dso);
+        }
+    }
+
+    private void addBundle(Bundle bundle) {
+        objectIds.add(bundle.getID());
+        for (Bitstream bitstream : bundle.getBitstreams()) {
+            objectIds.add(bitstream.getID());
+        }
+    }
+
+    @Override
+    public void end(Context ctx) throws Exception {
+        if (invalidateAll || !objectIds.isEmpty() || !ePersonIds.isEmpty()) {
+            boolean all = invalidateAll;
+            Set<UUID> objects = new HashSet<>(objectIds);
+            Set<UUID> ePersons = new HashSet<>(ePersonIds);
+            Runnable invalidation = () -> {
+                if (all) {
+                    cache.invalidateAll();
+                } else {
+                    cache.invalidateObjects(objects);
+                    cache.invalidateEPersons(ePersons);
+                }
+            };
+            invalidation.run();
+            ctx.addCommitAction(invalidation);
+        }
+
+        invalidateAll = false;
+        objectIds.clear();
+        ePersonIds.clear();
+    }
+
+    @Override
+    public void finish(Context ctx) throws Exception {
+
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.authorize;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.DSpaceObject;
+import org.dspace.core.Context;
+import org.dspace.eperson.EPerson;
+import org.dspace.services.ConfigurationService;
+import org.dspace.util.MBeanUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JVM-wide cache of authorization decisions, shared by all requests, used by the {@link AuthorizeServiceImpl}
+ * in addition to the per-Context cache of READ_ONLY contexts.
+ * <p>
+ * Disabled by default; when enabled through "authorize.cache.enabled", at most "authorize.cache.size" decisions
+ * are kept for at most "authorize.cache.ttl" seconds. Decisions are invalidated by the
+ * {@link AuthorizationCacheConsumer} when policies, groups, epersons or the hierarchy of the objects change. Changes
+ * made by other processes (e.g. command line tools) are only noticed once the decisions expire.
+ * <p>
+ * Contexts holding uncommitted changes (pending events) neither use nor fill the cache, as their decisions may
+ * depend on these changes.
+ */
+public class AuthorizationDecisionCache
+    implements AuthorizationDecisionCacheMXBean, InitializingBean, DisposableBean {
+
+    private static final Logger log = LogManager.getLogger(AuthorizationDecisionCache.class);
+
+    @Autowired(required = true)
+    protected ConfigurationService configurationService;
+
+    /**
+     * The cached decisions, null when the cache is disabled
+     */
+    private Cache<DecisionKey, Boolean> cache;
+
+    /**
+     * Incremented on every invalidation, so decisions computed meanwhile are not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * A way to compute an authorization decision
+     */
+    @FunctionalInterface
+    public interface Decision {
+        boolean check() throws SQLException;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!configurationService.getBooleanProperty("authorize.cache.enabled", false)) {
+            return;
+        }
+        long size = configurationService.getLongProperty("authorize.cache.size", 100000);
+        long ttl = configurationService.getLongProperty("authorize.cache.ttl", 300);
+        cache = CacheBuilder.newBuilder()
+                            .maximumSize(size)
+                            .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                            .recordStats()
+                            .build();
+        MBeanUtils.register(this, "AuthorizationDecisionCache");
+        log.info("Caching up to {} authorization decisions for {} seconds", size, ttl);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (cache != null) {
+            MBeanUtils.unregister("AuthorizationDecisionCache");
+        }
+    }
+
+    /**
+     * @return whether authorization decisions are cached
+     */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Get a cached authorization decision, computing and caching it if needed.
+     *
+     * @param context        the current context
+     * @param object         the object
+     * @param action         the action on the object, see <code>org.dspace.core.Constants</code>
+     * @param ePerson        the user, null for anonymous
+     * @param useInheritance whether the decision takes the administrators of parent objects into account
+     * @param adminCheck     whether the decision is an administrator check, rather than an authorization check
+     * @param decision       the way to compute the decision
+     * @return the decision
+     * @throws SQLException if database error while computing the decision
+     */
+    public boolean get(Context context, DSpaceObject object, int action, EPerson ePerson, boolean useInheritance,
+                       boolean adminCheck, Decision decision) throws SQLException {
+        if (cache == null || context.hasEvents()) {
+            return decision.check();
+        }
+        DecisionKey key = new DecisionKey(object.getID(), action, ePerson == null ? null : ePerson.getID(),
+                                          useInheritance, adminCheck, context.getSpecialGroupUuids());
+        Boolean cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long computedAt = generation.get();
+        boolean result = decision.check();
+        if (generation.get() == computedAt) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void invalidateAll() {
+        if (cache != null) {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Remove the decisions concerning the given objects.
+     *
+     * @param objectIds the ids of the objects
+     */
+    public void invalidateObjects(Collection<UUID> objectIds) {
+        if (cache != null && !objectIds.isEmpty()) {
+            generation.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> objectIds.contains(key.objectId));
+        }
+    }
+
+    /**
+     * Remove the decisions concerning the given users.
+     *
+     * @param ePersonIds the ids of the users
+     */
+    public void invalidateEPersons(Collection<UUID> ePersonIds) {
+        if (cache != null && !ePersonIds.isEmpty()) {
+            generation.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> ePersonIds.contains(key.ePersonId));
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return stats().missCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return stats().hitRate();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return stats().evictionCount();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return generation.get();
+    }
+
+    private CacheStats stats() {
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    /**
+     * Everything an authorization decision depends on, besides the policies and groups themselves
+     */
+    private static final class DecisionKey {
+        private final UUID objectId;
+        private final int action;
+        private final UUID ePersonId;
+        private final boolean useInheritance;
+        private final boolean adminCheck;
+        private final Set<UUID> specialGroups;
+
+        DecisionKey(UUID objectId, int action, UUID ePersonId, boolean useInheritance, boolean adminCheck,
+                    Set<UUID> specialGroups) {
+            this.objectId = objectId;
+            this.action = action;
+            this.ePersonId = ePersonId;
+            this.useInheritance = useInheritance;
+            this.adminCheck = adminCheck;
+            this.specialGroups = Set.copyOf(specialGroups);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey other = (DecisionKey) o;
+            return action == other.action && useInheritance == other.useInheritance
+                && adminCheck == other.adminCheck && Objects.equals(objectId, other.objectId)
+                && Objects.equals(ePersonId, other.ePersonId) && specialGroups.equals(other.specialGroups);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(objectId, action, ePersonId, useInheritance, adminCheck, specialGroups);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.authorize;
+
+/**
+ * MBean type exposing the metrics of the {@link AuthorizationDecisionCache}.
+ */
+public interface AuthorizationDecisionCacheMXBean {
+    /**
+     * @return the number of authorization decisions currently cached
+     */
+    public long getSize();
+
+    /**
+     * @return the number of authorization decisions found in the cache
+     */
+    public long getHitCount();
+
+    /**
+     * @return the number of authorization decisions which had to be computed
+     */
+    public long getMissCount();
+
+    /**
+     * @return the ratio of authorization decisions found in the cache
+     */
+    public double getHitRate();
+
+    /**
+     * @return the number of decisions removed from the cache because of its size or their age
+     */
+    public long getEvictionCount();
+
+    /**
+     * @return the number of times (part of) the cache was invalidated following a change
+     */
+    public long getInvalidationCount();
+
+    /**
+     * Remove all decisions from the cache.
+     */
+    public void invalidateAll();
+}
@@ -13,9 +13,16 @@ import static org.dspace.app.util.AuthorizeUtil.canCommunityAdminManageAccounts;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -80,6 +87,8 @@ public class AuthorizeServiceImpl implements AuthorizeService {
     protected WorkflowItemService workflowItemService;
     @Autowired(required = true)
     private SearchService searchService;
+    @Autowired(required = true)
+    protected AuthorizationDecisionCache authorizationDecisionCache;
 
 
     protected AuthorizeServiceImpl() {
@@ -213,6 +222,35 @@ public class AuthorizeServiceImpl implements AuthorizeService {
         return isAuthorized;
     }
 
+    @Override
+    public <T extends DSpaceObject> List<T> filterAuthorized(Context c, List<T> objects, int a,
+                                                             boolean useInheritance) throws SQLException {
+        List<T> candidates = objects.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        EPerson e = c.getCurrentUser();
+        // also true when authorization is disabled for this context
+        if (candidates.isEmpty() || isAdmin(c, e)) {
+            return candidates;
+        }
+
+        Map<UUID, List<ResourcePolicy>> policies = getPoliciesByObject(c, candidates, a);
+        Set<UUID> groupIds = getMemberGroupIds(c, e);
+        Map<UUID, Boolean> adminDecisions = new HashMap<>();
+        List<T> authorized = new ArrayList<>();
+        for (T o : candidates) {
+            Boolean result = c.getCachedAuthorizationResult(o, a, e);
+            if (result == null) {
+                result = authorizationDecisionCache.get(c, o, a, e, useInheritance, false,
+                    () -> checkPolicies(c, o, a, e, useInheritance,
+                                        policies.getOrDefault(o.getID(), Collections.emptyList()), groupIds,
+                                        adminDecisions));
+            }
+            if (result) {
+                authorized.add(o);
+            }
+        }
+        return authorized;
+    }
+
     /**
      * Check to see if the given user can perform the given action on the given
      * object. Always returns true if the ignore authorization flat is set in
@@ -248,55 +286,73 @@ public class AuthorizeServiceImpl implements AuthorizeService {
             return cachedResult;
         }
 
-        // is eperson set? if not, userToCheck = null (anonymous)
-        EPerson userToCheck = null;
-        if (e != null) {
-            userToCheck = e;
+        // If the same decision was made by another request
+        return authorizationDecisionCache.get(c, o, action, e, useInheritance, false,
+            () -> checkAuthorization(c, o, action, e, useInheritance));
+    }
 
-            // perform immediately isAdmin check as this is cheap
-            if (isAdmin(c, e)) {
-                return true;
-            }
+    /**
+     * Check whether the user may perform the action on the object, without looking for a cached decision.
+     *
+     * @param c              context
+     * @param o              object
+     * @param action         the action, see <code>org.dspace.core.Constants</code>
+     * @param e              user attempting action
+     * @param useInheritance flag to say if ADMIN action on the current object or parent
+     *                       object can be used
+     * @return <code>true</code> if user is authorized to perform the given
+     * action, <code>false</code> otherwise
+     * @throws SQLException if database error
+     */
+    protected boolean checkAuthorization(Context c, DSpaceObject o, int action, EPerson e, boolean useInheritance)
+        throws SQLException {
+        // perform immediately isAdmin check as this is cheap
+        if (e != null && isAdmin(c, e)) {
+            return true;
         }
+        return checkPolicies(c, o, action, e, useInheritance, getPoliciesActionFilter(c, o, action), null, null);
+    }
 
-        // In case the dso is an bundle or bitstream we must ignore custom
-        // policies if it does not belong to at least one installed item (see
-        // DS-2614).
-        // In case the dso is an item and a corresponding workspace or workflow
-        // item exist, we have to ignore custom policies (see DS-2614).
-        boolean ignoreCustomPolicies = false;
-        if (o instanceof Bitstream) {
-            Bitstream b = (Bitstream) o;
+    /**
+     * Check whether the user, who is not a system administrator, may perform the action on the object through one of
+     * the given policies, or as an administrator of the object.
+     *
+     * @param c              context
+     * @param o              object
+     * @param action         the action, see <code>org.dspace.core.Constants</code>
+     * @param e              user attempting action
+     * @param useInheritance flag to say if ADMIN action on the current object or parent
+     *                       object can be used
+     * @param policies       the policies of the object for the action
+     * @param groupIds       the ids of all the groups the user is a member of, null to look each group up
+     * @param adminDecisions the administrator checks already made by the caller, by object id, null if none
+     * @return <code>true</code> if user is authorized to perform the given
+     * action, <code>false</code> otherwise
+     * @throws SQLException if database error
+     */
+    protected boolean checkPolicies(Context c, DSpaceObject o, int action, EPerson e, boolean useInheritance,
+                                    List<ResourcePolicy> policies, Set<UUID> groupIds,
+                                    Map<UUID, Boolean> adminDecisions) throws SQLException {
+        // is eperson set? if not, userToCheck = null (anonymous)
+        EPerson userToCheck = e;
 
-            // Ensure that this is not a collection or community logo
-            DSpaceObject parent = bitstreamService.getParentObject(c, b);
-            if (!(parent instanceof Collection) && !(parent instanceof Community)) {
-                ignoreCustomPolicies = !isAnyItemInstalled(c, b.getBundles());
-            }
-        }
-        if (o instanceof Bundle) {
-            ignoreCustomPolicies = !isAnyItemInstalled(c, Arrays.asList(((Bundle) o)));
-        }
-        if (o instanceof Item) {
-            // the isArchived check is fast and would exclude the possibility that the item
-            // is a workspace or workflow without further queries
-            if (!((Item) o).isArchived() &&
-                    (workspaceItemService.findByItem(c, (Item) o) != null ||
-                    workflowItemService.findByItem(c, (Item) o) != null)) {
-                ignoreCustomPolicies = true;
-            }
-        }
+        // Only computed when the object has custom policies, see isIgnoringCustomPolicies
+        Boolean ignoreCustomPolicies = null;
 
-        for (ResourcePolicy rp : getPoliciesActionFilter(c, o, action)) {
+        for (ResourcePolicy rp : policies) {
 
-            if (ignoreCustomPolicies
-                && ResourcePolicy.TYPE_CUSTOM.equals(rp.getRpType())) {
-                if (c.isReadOnly()) {
-                    //When we are in read-only mode, we will cache authorized actions in a different way
-                    //So we remove this resource policy from the cache.
-                    c.uncacheEntity(rp);
+            if (ResourcePolicy.TYPE_CUSTOM.equals(rp.getRpType())) {
+                if (ignoreCustomPolicies == null) {
+                    ignoreCustomPolicies = isIgnoringCustomPolicies(c, o);
+                }
+                if (ignoreCustomPolicies) {
+                    if (c.isReadOnly()) {
+                        //When we are in read-only mode, we will cache authorized actions in a different way
+                        //So we remove this resource policy from the cache.
+                        c.uncacheEntity(rp);
+                    }
+                    continue;
                 }
-                continue;
             }
 
             // check policies for date validity
@@ -307,7 +363,7 @@ public class AuthorizeServiceImpl implements AuthorizeService {
                 }
 
                 if ((rp.getGroup() != null)
-                    && groupService.isMember(c, e, rp.getGroup())) {
+                    && isMember(c, e, rp.getGroup(), groupIds)) {
                     // group was set, and eperson is a member
                     // of that group
                     c.cacheAuthorizedAction(o, action, e, true, rp);
@@ -327,7 +383,7 @@ public class AuthorizeServiceImpl implements AuthorizeService {
             DSpaceObject adminObject = useInheritance ? serviceFactory.getDSpaceObjectService(o)
                                                                       .getAdminObject(c, o, action) : null;
 
-            if (isAdmin(c, e, adminObject)) {
+            if (isAdmin(c, e, adminObject, adminDecisions)) {
                 c.cacheAuthorizedAction(o, action, e, true, null);
                 return true;
             }
@@ -337,6 +393,40 @@ public class AuthorizeServiceImpl implements AuthorizeService {
         return false;
     }
 
+    /**
+     * Check whether the custom policies of an object must be ignored: in case the dso is an bundle or bitstream we
+     * must ignore custom policies if it does not belong to at least one installed item (see DS-2614). In case the dso
+     * is an item and a corresponding workspace or workflow item exist, we have to ignore custom policies (see
+     * DS-2614).
+     *
+     * @param c context
+     * @param o object
+     * @return <code>true</code> if the custom policies of the object must be ignored
+     * @throws SQLException if database error
+     */
+    protected boolean isIgnoringCustomPolicies(Context c, DSpaceObject o) throws SQLException {
+        if (o instanceof Bitstream) {
+            Bitstream b = (Bitstream) o;
+
+            // Ensure that this is not a collection or community logo
+            DSpaceObject parent = bitstreamService.getParentObject(c, b);
+            if (!(parent instanceof Collection) && !(parent instanceof Community)) {
+                return !isAnyItemInstalled(c, b.getBundles());
+            }
+        }
+        if (o instanceof Bundle) {
+            return !isAnyItemInstalled(c, Arrays.asList(((Bundle) o)));
+        }
+        if (o instanceof Item) {
+            // the isArchived check is fast and would exclude the possibility that the item
+            // is a workspace or workflow without further queries
+            return !((Item) o).isArchived() &&
+                (workspaceItemService.findByItem(c, (Item) o) != null ||
+                    workflowItemService.findByItem(c, (Item) o) != null);
+        }
+        return false;
+    }
+
     // check whether any bundle belongs to any item that passed submission
     // and workflow process
     protected boolean isAnyItemInstalled(Context ctx, List<Bundle> bundles)
@@ -378,11 +468,42 @@ public class AuthorizeServiceImpl implements AuthorizeService {
             return cachedResult;
         }
 
+        // If the same decision was made by another request
+        return authorizationDecisionCache.get(c, o, Constants.ADMIN, e, true, true, () -> checkAdmin(c, e, o));
+    }
+
+    /**
+     * Check whether the user is an administrator of the object (or of one of its parents), without looking for a
+     * cached decision.
+     *
+     * @param c context
+     * @param e user
+     * @param o object
+     * @return <code>true</code> if the user is an administrator of the object
+     * @throws SQLException if database error
+     */
+    protected boolean checkAdmin(Context c, EPerson e, DSpaceObject o) throws SQLException {
+        return checkAdmin(c, e, o, getPoliciesActionFilter(c, o, Constants.ADMIN), null, null);
+    }
+
+    /**
+     * Check whether the user is an administrator of the object through one of the given ADMIN policies, or of one of
+     * its parents.
+     *
+     * @param c              context
+     * @param e              user
+     * @param o              object
+     * @param policies       the ADMIN policies of the object
+     * @param groupIds       the ids of all the groups the user is a member of, null to look each group up
+     * @param adminDecisions the administrator checks already made by the caller, by object id, null if none
+     * @return <code>true</code> if the user is an administrator of the object
+     * @throws SQLException if database error
+     */
+    protected boolean checkAdmin(Context c, EPerson e, DSpaceObject o, List<ResourcePolicy> policies,
+                                 Set<UUID> groupIds, Map<UUID, Boolean> adminDecisions) throws SQLException {
         //
         // First, check all Resource Policies directly on this object
         //
-        List<ResourcePolicy> policies = getPoliciesActionFilter(c, o, Constants.ADMIN);
-
         for (ResourcePolicy rp : policies) {
             // check policies for date validity
             if (resourcePolicyService.isDateValid(rp)) {
@@ -392,7 +513,7 @@ public class AuthorizeServiceImpl implements AuthorizeService {
                 }
 
                 if ((rp.getGroup() != null)
-                    && groupService.isMember(c, e, rp.getGroup())) {
+                    && isMember(c, e, rp.getGroup(), groupIds)) {
                     // group was set, and eperson is a member
                     // of that group
                     c.cacheAuthorizedAction(o, Constants.ADMIN, e, true, rp);
@@ -413,7 +534,7 @@ public class AuthorizeServiceImpl implements AuthorizeService {
         // is also an Admin of all Collections/Items in that Community)
         DSpaceObject parent = serviceFactory.getDSpaceObjectService(o).getParentObject(c, o);
         if (parent != null) {
-            boolean admin = isAdmin(c, e, parent);
+            boolean admin = isAdmin(c, e, parent, adminDecisions);
             c.cacheAuthorizedAction(o, Constants.ADMIN, e, admin, null);
             return admin;
         }
@@ -422,6 +543,109 @@ public class AuthorizeServiceImpl implements AuthorizeService {
         return false;
     }
 
+    @Override
+    public <T extends DSpaceObject> List<T> filterAdmin(Context c, List<T> objects) throws SQLException {
+        List<T> candidates = objects.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        EPerson e = c.getCurrentUser();
+        // also true when authorization is disabled for this context
+        if (candidates.isEmpty() || isAdmin(c, e)) {
+            return candidates;
+        }
+
+        Map<UUID, List<ResourcePolicy>> policies = getPoliciesByObject(c, candidates, Constants.ADMIN);
+        Set<UUID> groupIds = getMemberGroupIds(c, e);
+        Map<UUID, Boolean> adminDecisions = new HashMap<>();
+        List<T> administered = new ArrayList<>();
+        for (T o : candidates) {
+            Boolean result = c.getCachedAuthorizationResult(o, Constants.ADMIN, e);
+            if (result == null) {
+                result = authorizationDecisionCache.get(c, o, Constants.ADMIN, e, true, true,
+                    () -> checkAdmin(c, e, o, policies.getOrDefault(o.getID(), Collections.emptyList()), groupIds,
+                                     adminDecisions));
+            }
+            if (result) {
+                administered.add(o);
+            }
+        }
+        return administered;
+    }
+
+    /**
+     * Check whether the user is an administrator of the object, reusing the checks already made on the same
+     * object (typically a parent shared by several objects) when the caller keeps track of them.
+     *
+     * @param c              context
+     * @param e              user
+     * @param o              object, may be null
+     * @param adminDecisions the administrator checks already made, by object id, null if none
+     * @return <code>true</code> if the user is an administrator of the object
+     * @throws SQLException if database error
+     */
+    private boolean isAdmin(Context c, EPerson e, DSpaceObject o, Map<UUID, Boolean> adminDecisions)
+        throws SQLException {
+        if (adminDecisions == null || o == null) {
+            return isAdmin(c, e, o);
+        }
+        Boolean admin = adminDecisions.get(o.getID());
+        if (admin == null) {
+            admin = isAdmin(c, e, o);
+            adminDecisions.put(o.getID(), admin);
+        }
+        return admin;
+    }
+
+    /**
+     * Check whether the user is a member of the group, from the given memberships if known.
+     *
+     * @param c        context
+     * @param e        user, null for anonymous
+     * @param group    the group
+     * @param groupIds the ids of all the groups the user is a member of, null to look the group up
+     * @return <code>true</code> if the user is a member of the group
+     * @throws SQLException if database error
+     */
+    private boolean isMember(Context c, EPerson e, Group group, Set<UUID> groupIds) throws SQLException {
+        if (groupIds == null) {
+            return groupService.isMember(c, e, group);
+        }
+        return groupIds.contains(group.getID());
+    }
+
+    /**
+     * Get the ids of all the groups the user is a member of (including the special groups of the context, the
+     * anonymous group and the parents of all these groups), with a few queries.
+     *
+     * @param c context
+     * @param e user, null for anonymous
+     * @return the ids of the groups
+     * @throws SQLException if database error
+     */
+    protected Set<UUID> getMemberGroupIds(Context c, EPerson e) throws SQLException {
+        Set<UUID> groupIds = new HashSet<>();
+        for (Group group : groupService.allMemberGroupsSet(c, e)) {
+            groupIds.add(group.getID());
+        }
+        return groupIds;
+    }
+
+    /**
+     * Get the policies of the given objects for the given action, with a single query (per chunk of objects).
+     *
+     * @param c        context
+     * @param objects  the objects
+     * @param actionID the action, see <code>org.dspace.core.Constants</code>
+     * @return the policies, by object id
+     * @throws SQLException if database error
+     */
+    protected Map<UUID, List<ResourcePolicy>> getPoliciesByObject(Context c, List<? extends DSpaceObject> objects,
+                                                                  int actionID) throws SQLException {
+        Map<UUID, List<ResourcePolicy>> policies = new HashMap<>();
+        for (ResourcePolicy rp : resourcePolicyService.find(c, objects, actionID)) {
+            policies.computeIfAbsent(rp.getdSpaceObject().getID(), id -> new ArrayList<>()).add(rp);
+        }
+        return policies;
+    }
+
     @Override
     public boolean isAdmin(Context c) throws SQLException {
         // if we're ignoring authorization, user is member of admin
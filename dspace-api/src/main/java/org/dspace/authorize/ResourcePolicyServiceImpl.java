@@ -8,6 +8,7 @@
 package org.dspace.authorize;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
@@ -42,6 +43,11 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
      */
     private static Logger log = org.apache.logging.log4j.LogManager.getLogger(ResourcePolicyServiceImpl.class);
 
+    /**
+     * Maximum number of objects of the IN lists of a query
+     */
+    private static final int IN_LIST_SIZE = 1000;
+
     @Autowired(required = true)
     protected ContentServiceFactory contentServiceFactory;
 
@@ -103,6 +109,18 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         return resourcePolicyDAO.findByDSoAndAction(c, o, actionId);
     }
 
+    @Override
+    public List<ResourcePolicy> find(Context c, List<? extends DSpaceObject> dsos, int actionId) throws SQLException {
+        List<ResourcePolicy> policies = new ArrayList<>();
+        // keep the IN lists of a reasonable size
+        for (int i = 0; i < dsos.size(); i += IN_LIST_SIZE) {
+            policies.addAll(resourcePolicyDAO.findByDSosAndAction(c, dsos.subList(i, Math.min(dsos.size(),
+                                                                                              i + IN_LIST_SIZE)),
+                                                                  actionId));
+        }
+        return policies;
+    }
+
     @Override
     public List<ResourcePolicy> find(Context c, DSpaceObject dso, Group group, int action) throws SQLException {
         return resourcePolicyDAO.findByTypeGroupAction(c, dso, group, action);
@@ -39,6 +39,18 @@ public interface ResourcePolicyDAO extends GenericDAO<ResourcePolicy> {
 
     public List<ResourcePolicy> findByDSoAndAction(Context context, DSpaceObject dso, int actionId) throws SQLException;
 
+    /**
+     * Find the policies of any of the given objects for the given action, with a single query.
+     *
+     * @param context  DSpace context
+     * @param dsos     the objects
+     * @param actionId the action
+     * @return the policies of the objects for the action
+     * @throws SQLException if database error
+     */
+    public List<ResourcePolicy> findByDSosAndAction(Context context, List<? extends DSpaceObject> dsos, int actionId)
+        throws SQLException;
+
     public List<ResourcePolicy> findByTypeGroupAction(Context context, DSpaceObject dso, Group group, int action)
         throws SQLException;
 
@@ -8,6 +8,7 @@
 package org.dspace.authorize.dao.impl;
 
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
@@ -51,6 +52,24 @@ public class ResourcePolicyDAOImpl extends AbstractHibernateDAO<ResourcePolicy>
         return list(context, criteriaQuery, false, ResourcePolicy.class, -1, -1);
     }
 
+    @Override
+    public List<ResourcePolicy> findByDSosAndAction(Context context, List<? extends DSpaceObject> dsos, int actionId)
+        throws SQLException {
+        if (dsos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        CriteriaBuilder criteriaBuilder = getCriteriaBuilder(context);
+        CriteriaQuery criteriaQuery = getCriteriaQuery(criteriaBuilder, ResourcePolicy.class);
+        Root<ResourcePolicy> resourcePolicyRoot = criteriaQuery.from(ResourcePolicy.class);
+        criteriaQuery.select(resourcePolicyRoot);
+        criteriaQuery
+            .where(criteriaBuilder.and(resourcePolicyRoot.get(ResourcePolicy_.dSpaceObject).in(dsos),
+                                       criteriaBuilder.equal(resourcePolicyRoot.get(ResourcePolicy_.actionId), actionId)
+                   )
+        );
+        return list(context, criteriaQuery, false, ResourcePolicy.class, -1, -1);
+    }
+
     @Override
     public List<ResourcePolicy> findByDsoAndType(Context context, DSpaceObject dso, String type) throws SQLException {
         CriteriaBuilder criteriaBuilder = getCriteriaBuilder(context);
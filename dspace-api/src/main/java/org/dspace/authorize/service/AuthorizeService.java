@@ -151,6 +151,24 @@ public interface AuthorizeService {
     public boolean authorizeActionBoolean(Context c, EPerson e, DSpaceObject o, int a, boolean useInheritance)
         throws SQLException;
 
+    /**
+     * Batch version of {@link #authorizeActionBoolean(Context, DSpaceObject, int, boolean)}: keep the objects the
+     * current user may perform the given action on. The policies of all the objects are fetched at once, and the
+     * groups of the user only once, rather than per object.
+     *
+     * @param <T>            the type of the objects
+     * @param c              DSpace context, containing current user
+     * @param objects        the objects to check, null entries are dropped
+     * @param a              action being attempted, from
+     *                       <code>org.dspace.core.Constants</code>
+     * @param useInheritance flag to say if ADMIN action on the current object or parent
+     *                       object can be used
+     * @return the objects the current user is authorized to perform the action on, in the given order
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    public <T extends DSpaceObject> List<T> filterAuthorized(Context c, List<T> objects, int a,
+                                                             boolean useInheritance) throws SQLException;
+
     ///////////////////////////////////////////////
     // admin check methods
     ///////////////////////////////////////////////
@@ -186,6 +204,19 @@ public interface AuthorizeService {
      */
     public boolean isAdmin(Context c, EPerson e, DSpaceObject o) throws SQLException;
 
+    /**
+     * Batch version of {@link #isAdmin(Context, DSpaceObject)}: keep the objects the current user is an
+     * Administrator of. The ADMIN policies of all the objects are fetched at once, and the decisions on their shared
+     * parents are only made once.
+     *
+     * @param <T>     the type of the objects
+     * @param c       current context
+     * @param objects the objects to check, null entries are dropped
+     * @return the objects the current user has administrative privileges on, in the given order
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    public <T extends DSpaceObject> List<T> filterAdmin(Context c, List<T> objects) throws SQLException;
+
 
     /**
      * Check to see if the current user is a System Admin. Always return
@@ -35,6 +35,18 @@ public interface ResourcePolicyService extends DSpaceCRUDService<ResourcePolicy>
 
     public List<ResourcePolicy> find(Context c, DSpaceObject o, int actionId) throws SQLException;
 
+    /**
+     * Find the policies of any of the given objects for the given action, with a few queries rather than one per
+     * object.
+     *
+     * @param c        DSpace context
+     * @param dsos     the objects
+     * @param actionId the action
+     * @return the policies of the objects for the action, in no particular order
+     * @throws SQLException if database error
+     */
+    public List<ResourcePolicy> find(Context c, List<? extends DSpaceObject> dsos, int actionId) throws SQLException;
+
     public List<ResourcePolicy> find(Context c, DSpaceObject dso, Group group, int action) throws SQLException;
 
     public List<ResourcePolicy> find(Context context, Group group) throws SQLException;
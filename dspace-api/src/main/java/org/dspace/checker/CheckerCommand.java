@@ -11,7 +11,15 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Date;
 import java.util.Map;
-
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.RateLimiter;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.logging.log4j.Logger;
 import org.dspace.checker.factory.CheckerServiceFactory;
@@ -30,6 +38,14 @@ import org.dspace.storage.bitstore.service.BitstreamStorageService;
  * against the last calculated checksum for that bitstream.
  * </p>
  *
+ * <p>
+ * By default bitstreams are checked one at a time. With more than one thread
+ * (see {@link #setThreads(int)}), the checksums are calculated by a pool of
+ * worker threads fed by the dispatcher, while the results are recorded by the
+ * calling thread and committed in batches. The rate at which bitstream content
+ * is checked can be limited with {@link #setMaxBytesPerSecond(long)}.
+ * </p>
+ *
  * @author Jim Downing
  * @author Grace Carpenter
  * @author Nathan Sarr
@@ -78,6 +94,28 @@ public final class CheckerCommand {
      */
     private boolean reportVerbose = false;
 
+    /**
+     * Number of threads calculating checksums
+     */
+    private int threads = 1;
+
+    /**
+     * Number of results to record before committing, when using several threads
+     */
+    private int batchSize = 100;
+
+    /**
+     * Limits the number of bytes checked per second, null if unlimited
+     */
+    private RateLimiter rateLimiter = null;
+
+    /**
+     * Number of bitstreams, and total size, whose checksum was calculated
+     */
+    private final AtomicInteger bitstreamsChecked = new AtomicInteger();
+    private final AtomicLong bytesChecked = new AtomicLong();
+    private long elapsedMillis = 0;
+
     /**
      * Default constructor uses DSpace plugin manager to construct dependencies.
      *
@@ -120,20 +158,144 @@ public final class CheckerCommand {
         // bitstream table - this always done.
         checksumService.updateMissingBitstreams(context);
 
-        Bitstream bitstream = dispatcher.next();
+        long start = System.currentTimeMillis();
+        if (threads > 1) {
+            processInParallel();
+        } else {
+            Bitstream bitstream = dispatcher.next();
+
+            while (bitstream != null) {
+                LOG.debug("Processing bitstream id = " + bitstream.getID());
+                MostRecentChecksum info = checkBitstream(bitstream);
+                report(info);
+
+                context.uncacheEntity(bitstream);
+                bitstream = dispatcher.next();
+            }
+        }
+        elapsedMillis = System.currentTimeMillis() - start;
+        LOG.info(getThroughputReport());
+    }
+
+    /**
+     * Check the bitstreams returned by the dispatcher using a pool of threads.
+     * Only the checksum calculations are run by the pool: bitstreams are claimed
+     * (so the dispatcher moves on) and their results recorded by the calling
+     * thread, which commits every {@link #getBatchSize()} results.
+     *
+     * @throws SQLException if database error
+     */
+    protected void processInParallel() throws SQLException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "checker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<ChecksumCalculation> calculations = new ExecutorCompletionService<>(executor);
+        int running = 0;
+        int recorded = 0;
+        boolean exhausted = false;
+
+        try {
+            while (true) {
+                // Keep every thread busy, without starting more work than the current batch can hold
+                while (!exhausted && running < threads * 2 && recorded + running < batchSize) {
+                    Bitstream bitstream = dispatcher.next();
+                    if (bitstream == null) {
+                        exhausted = true;
+                        break;
+                    }
+                    LOG.debug("Processing bitstream id = " + bitstream.getID());
+                    MostRecentChecksum info = checksumService.findByBitstream(context, bitstream);
+                    if (info != null && info.isToBeProcessed() && !info.getBitstream().isDeleted()) {
+                        // Claim the bitstream, so the dispatcher will not return it again
+                        Date now = new Date();
+                        info.setProcessStartDate(now);
+                        info.setProcessEndDate(now);
+                        calculations.submit(() -> new ChecksumCalculation(info));
+                        running++;
+                    } else {
+                        report(checkBitstream(bitstream));
+                        recorded++;
+                    }
+                }
 
-        while (bitstream != null) {
-            LOG.debug("Processing bitstream id = " + bitstream.getID());
-            MostRecentChecksum info = checkBitstream(bitstream);
+                if (running == 0) {
+                    if (exhausted) {
+                        break;
+                    }
+                    context.commit();
+                    recorded = 0;
+                    continue;
+                }
 
-            if (reportVerbose
-                || !ChecksumResultCode.CHECKSUM_MATCH.equals(info.getChecksumResult().getResultCode())) {
-                collector.collect(context, info);
+                ChecksumCalculation calculation = calculations.take().get();
+                running--;
+                recordChecksum(calculation.info, calculation.checksumMap, calculation.error);
+                report(calculation.info);
+                recorded++;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking bitstreams", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected error while checking bitstreams", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The checksum calculated for a bitstream by a worker thread.
+     */
+    private class ChecksumCalculation {
+        private final MostRecentChecksum info;
+        private Map checksumMap;
+        private IOException error;
+
+        ChecksumCalculation(MostRecentChecksum info) {
+            this.info = info;
+            try {
+                checksumMap = computeChecksum(info.getBitstream());
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+    }
 
-            context.uncacheEntity(bitstream);
-            bitstream = dispatcher.next();
+    /**
+     * Send the result of a check to the collector, if it has to be reported.
+     *
+     * @param info the information about the bitstream and its checksum data
+     * @throws SQLException if database error
+     */
+    protected void report(MostRecentChecksum info) throws SQLException {
+        if (reportVerbose
+            || !ChecksumResultCode.CHECKSUM_MATCH.equals(info.getChecksumResult().getResultCode())) {
+            collector.collect(context, info);
+        }
+    }
+
+    /**
+     * Calculate the checksum of the bitstream content, respecting the maximum
+     * rate. Called by the worker threads when checking in parallel.
+     *
+     * @param bitstream the bitstream
+     * @return the checksum and checksum algorithm, as returned by the storage layer
+     * @throws IOException if the bitstream cannot be read from the asset store
+     */
+    protected Map computeChecksum(Bitstream bitstream) throws IOException {
+        long size = bitstream.getSizeBytes();
+        if (rateLimiter != null) {
+            for (long remaining = size; remaining > 0; remaining -= Integer.MAX_VALUE) {
+                rateLimiter.acquire((int) Math.min(remaining, Integer.MAX_VALUE));
+            }
         }
+        Map checksumMap = bitstreamStorageService.computeChecksum(context, bitstream);
+        bitstreamsChecked.incrementAndGet();
+        bytesChecked.addAndGet(size);
+        return checksumMap;
     }
 
     /**
@@ -244,27 +406,49 @@ public final class CheckerCommand {
     protected void processBitstream(MostRecentChecksum info) throws SQLException {
         info.setProcessStartDate(new Date());
 
+        Map checksumMap = null;
+        IOException error = null;
         try {
-            Map checksumMap = bitstreamStorageService.computeChecksum(context, info.getBitstream());
-            if (MapUtils.isNotEmpty(checksumMap)) {
-                info.setBitstreamFound(true);
-                if (checksumMap.containsKey("checksum")) {
-                    info.setCurrentChecksum(checksumMap.get("checksum").toString());
-                }
+            checksumMap = computeChecksum(info.getBitstream());
+        } catch (IOException e) {
+            error = e;
+        }
+        recordChecksum(info, checksumMap, error);
+    }
 
-                if (checksumMap.containsKey("checksum_algorithm")) {
-                    info.setChecksumAlgorithm(checksumMap.get("checksum_algorithm").toString());
+    /**
+     * Compare a newly calculated checksum to the previous one, and record the
+     * result in the most_recent_checksum and checksum_history tables.
+     *
+     * @param info        BitstreamInfo to update
+     * @param checksumMap the checksum data returned by the storage layer, if any
+     * @param error       the error raised while reading the bitstream, if any
+     * @throws SQLException if database error
+     */
+    protected void recordChecksum(MostRecentChecksum info, Map checksumMap, IOException error)
+        throws SQLException {
+        try {
+            if (error != null) {
+                // bitstream located, but file missing from asset store
+                info.setChecksumResult(getChecksumResultByCode(ChecksumResultCode.BITSTREAM_NOT_FOUND));
+                info.setToBeProcessed(false);
+                LOG.error("Error retrieving bitstream ID " + info.getBitstream().getID()
+                              + " from " + "asset store.", error);
+            } else {
+                if (MapUtils.isNotEmpty(checksumMap)) {
+                    info.setBitstreamFound(true);
+                    if (checksumMap.containsKey("checksum")) {
+                        info.setCurrentChecksum(checksumMap.get("checksum").toString());
+                    }
+
+                    if (checksumMap.containsKey("checksum_algorithm")) {
+                        info.setChecksumAlgorithm(checksumMap.get("checksum_algorithm").toString());
+                    }
                 }
-            }
 
-            // compare new checksum to previous checksum
-            info.setChecksumResult(compareChecksums(info.getExpectedChecksum(), info.getCurrentChecksum()));
-        } catch (IOException e) {
-            // bitstream located, but file missing from asset store
-            info.setChecksumResult(getChecksumResultByCode(ChecksumResultCode.BITSTREAM_NOT_FOUND));
-            info.setToBeProcessed(false);
-            LOG.error("Error retrieving bitstream ID " + info.getBitstream().getID()
-                          + " from " + "asset store.", e);
+                // compare new checksum to previous checksum
+                info.setChecksumResult(compareChecksums(info.getExpectedChecksum(), info.getCurrentChecksum()));
+            }
         } catch (SQLException e) {
             // ??this code only executes if an SQL
             // exception occurs in *DSpace* code, probably
@@ -356,4 +540,81 @@ public final class CheckerCommand {
     public void setReportVerbose(boolean reportVerbose) {
         this.reportVerbose = reportVerbose;
     }
+
+    /**
+     * Get the number of threads calculating checksums.
+     *
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of threads calculating checksums. With more than one
+     * thread, results are committed every {@link #getBatchSize()} bitstreams.
+     *
+     * @param threads number of threads
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Get the number of results recorded between commits, when using several threads.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of results recorded between commits, when using several threads.
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Limit the rate at which bitstream content is checked.
+     *
+     * @param maxBytesPerSecond maximum number of bytes checked per second, 0 or less for no limit
+     */
+    public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        rateLimiter = maxBytesPerSecond > 0 ? RateLimiter.create(maxBytesPerSecond) : null;
+    }
+
+    /**
+     * Get the number of bitstreams whose checksum was calculated during the last run.
+     *
+     * @return number of bitstreams checked
+     */
+    public int getBitstreamsChecked() {
+        return bitstreamsChecked.get();
+    }
+
+    /**
+     * Get the total size of the bitstreams whose checksum was calculated during the last run.
+     *
+     * @return number of bytes checked
+     */
+    public long getBytesChecked() {
+        return bytesChecked.get();
+    }
+
+    /**
+     * Summarize the throughput of the last run.
+     *
+     * @return the number of bitstreams and bytes checked, per second
+     */
+    public String getThroughputReport() {
+        double seconds = Math.max(elapsedMillis, 1) / 1000.0;
+        double megabytes = getBytesChecked() / (1024.0 * 1024.0);
+        return String.format("Checked %d bitstreams (%.1f MB) in %.1f s with %d thread(s): %.1f files/s, %.2f MB/s",
+                             getBitstreamsChecked(), megabytes, seconds, threads,
+                             getBitstreamsChecked() / seconds, megabytes / seconds);
+    }
 }
@@ -7,6 +7,7 @@
  */
 package org.dspace.content;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
@@ -273,9 +274,12 @@ public class BitstreamServiceImpl extends DSpaceObjectServiceImpl<Bitstream> imp
         bitstream.setDeleted(true);
         update(context, bitstream);
 
-        //Remove our bitstream from all our bundles
+        //Remove our bitstream from all our bundles, as bundleService.removeBitstream would (including its event,
+        // which gives the consumers the item of the bitstream)
         final List<Bundle> bundles = bitstream.getBundles();
         for (Bundle bundle : bundles) {
+            context.addEvent(new Event(Event.REMOVE, Constants.BUNDLE, bundle.getID(), Constants.BITSTREAM,
+                                       bitstream.getID(), String.valueOf(bitstream.getSequenceID())));
             bundle.removeBitstream(bitstream);
         }
 
@@ -300,6 +304,22 @@ public class BitstreamServiceImpl extends DSpaceObjectServiceImpl<Bitstream> imp
         return bitstreamStorageService.retrieve(context, bitstream);
     }
 
+    @Override
+    public InputStream retrieve(Context context, Bitstream bitstream, long offset, long length)
+        throws IOException, SQLException, AuthorizeException {
+        authorizeService.authorizeAction(context, bitstream, Constants.READ);
+
+        return bitstreamStorageService.retrieve(context, bitstream, offset, length);
+    }
+
+    @Override
+    public File getLocalFile(Context context, Bitstream bitstream)
+        throws IOException, SQLException, AuthorizeException {
+        authorizeService.authorizeAction(context, bitstream, Constants.READ);
+
+        return bitstreamStorageService.getLocalFile(context, bitstream);
+    }
+
     @Override
     public boolean isRegisteredBitstream(Bitstream bitstream) {
         return bitstreamStorageService.isRegisteredBitstream(bitstream.getInternalId());
@@ -351,6 +371,11 @@ public class BitstreamServiceImpl extends DSpaceObjectServiceImpl<Bitstream> imp
         return bitstreamDAO.findDuplicateInternalIdentifier(context, bitstream);
     }
 
+    @Override
+    public long countSharingBitstreams(Context context, Bitstream bitstream) throws SQLException {
+        return bitstreamDAO.countSharingBitstreams(context, bitstream);
+    }
+
     @Override
     public Iterator<Bitstream> getItemBitstreams(Context context, Item item) throws SQLException {
         return bitstreamDAO.findByItem(context, item);
@@ -439,6 +464,11 @@ public class BitstreamServiceImpl extends DSpaceObjectServiceImpl<Bitstream> imp
         return bitstreamDAO.countByStoreNumber(context, storeNumber);
     }
 
+    @Override
+    public List<Object[]> findSharedInternalIdentifiers(Context context, Integer storeNumber) throws SQLException {
+        return bitstreamDAO.findSharedInternalIdentifiers(context, storeNumber);
+    }
+
     @Override
     public int countTotal(Context context) throws SQLException {
         return bitstreamDAO.countRows(context);
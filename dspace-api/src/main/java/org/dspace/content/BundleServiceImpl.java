@@ -469,7 +469,8 @@ public class BundleServiceImpl extends DSpaceObjectServiceImpl<Bundle> implement
 
     @Override
     public void updateLastModified(Context context, Bundle dso) {
-        //No implemented for bundle
+        //Fire a modified event, e.g. when the policies of the bundle have been modified
+        context.addEvent(new Event(Event.MODIFY, Constants.BUNDLE, dso.getID(), null, getIdentifiers(context, dso)));
     }
 
     @Override
@@ -70,6 +70,12 @@ public abstract class DSpaceObject implements Serializable, ReloadableEntity<jav
     @Transient
     private boolean modifiedMetadata = false;
 
+    /**
+     * Index of the metadata by field, built on demand
+     */
+    @Transient
+    private transient MetadataIndex metadataIndex;
+
     /**
      * Flag set when data is modified, for events
      */
@@ -170,6 +176,15 @@ public abstract class DSpaceObject implements Serializable, ReloadableEntity<jav
 
     public void setMetadata(List<MetadataValue> metadata) {
         this.metadata = metadata;
+        metadataIndex = null;
+    }
+
+    protected MetadataIndex getMetadataIndex() {
+        List<MetadataValue> values = getMetadata();
+        if (metadataIndex == null || !metadataIndex.isIndexOf(values)) {
+            metadataIndex = new MetadataIndex(values);
+        }
+        return metadataIndex;
     }
 
     protected void removeMetadata(MetadataValue metadataValue) {
@@ -199,6 +214,7 @@ public abstract class DSpaceObject implements Serializable, ReloadableEntity<jav
 
     protected void setMetadataModified() {
         this.modifiedMetadata = true;
+        metadataIndex = null;
     }
 
     public boolean isModified() {
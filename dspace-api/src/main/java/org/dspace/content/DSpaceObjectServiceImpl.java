@@ -120,7 +120,7 @@ public abstract class DSpaceObjectServiceImpl<T extends DSpaceObject> implements
     public List<MetadataValue> getMetadata(T dso, String schema, String element, String qualifier, String lang) {
         // Build up list of matching values
         List<MetadataValue> values = new ArrayList<>();
-        for (MetadataValue dcv : dso.getMetadata()) {
+        for (MetadataValue dcv : dso.getMetadataIndex().getCandidates(schema, element, qualifier)) {
             if (match(schema, element, qualifier, lang, dcv)) {
                 values.add(dcv);
             }
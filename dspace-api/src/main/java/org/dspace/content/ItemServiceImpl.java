@@ -15,7 +15,6 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -87,6 +86,11 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
      */
     private static final Logger log = org.apache.logging.log4j.LogManager.getLogger(Item.class);
 
+    /**
+     * Maximum number of UUIDs of the IN lists of a query
+     */
+    private static final int IN_LIST_SIZE = 1000;
+
     @Autowired(required = true)
     protected ItemDAO itemDAO;
 
@@ -265,6 +269,16 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         return itemDAO.findAll(context, true, limit, offset);
     }
 
+    @Override
+    public List<Item> findByIds(Context context, List<UUID> ids) throws SQLException {
+        List<Item> items = new ArrayList<>(ids.size());
+        // keep the IN lists of a reasonable size
+        for (int i = 0; i < ids.size(); i += IN_LIST_SIZE) {
+            items.addAll(itemDAO.findByIds(context, ids.subList(i, Math.min(ids.size(), i + IN_LIST_SIZE))));
+        }
+        return items;
+    }
+
     @Override
     public Iterator<Item> findAllUnfiltered(Context context) throws SQLException {
         return itemDAO.findAll(context, true, true);
@@ -274,6 +288,12 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         return itemDAO.findAllRegularItems(context);
     };
 
+    @Override
+    public Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound)
+        throws SQLException {
+        return itemDAO.findAllRegularItems(context, lowerBound, upperBound);
+    }
+
     @Override
     public Iterator<Item> findBySubmitter(Context context, EPerson eperson) throws SQLException {
         return itemDAO.findBySubmitter(context, eperson);
@@ -1472,6 +1492,12 @@ prevent the generation of resource policy entry values with null dspace_object a
         return itemDAO.countItems(context, true, false);
     }
 
+    @Override
+    public int countArchivedItems(Context context, UUID lowerBound, UUID upperBound) throws SQLException {
+        // return count of items in archive and also not withdrawn
+        return itemDAO.countItems(context, true, false, lowerBound, upperBound);
+    }
+
     @Override
     public int countWithdrawnItems(Context context) throws SQLException {
         // return count of items that are not in archive and withdrawn
@@ -1531,7 +1557,7 @@ prevent the generation of resource policy entry values with null dspace_object a
             //rebuild cache
             List<MetadataValue> dbMetadataValues = item.getMetadata();
 
-            List<MetadataValue> fullMetadataValueList = new LinkedList<>();
+            List<MetadataValue> fullMetadataValueList = new ArrayList<>();
             fullMetadataValueList.addAll(relationshipMetadataService.getRelationshipMetadata(item, true));
             fullMetadataValueList.addAll(dbMetadataValues);
 
@@ -1541,7 +1567,7 @@ prevent the generation of resource policy entry values with null dspace_object a
         log.debug("Called getMetadata for " + item.getID() + " based on cache");
         // Build up list of matching values based on the cache
         List<MetadataValue> values = new ArrayList<>();
-        for (MetadataValue dcv : item.getCachedMetadata()) {
+        for (MetadataValue dcv : item.getCachedMetadataIndex().getCandidates(schema, element, qualifier)) {
             if (match(schema, element, qualifier, lang, dcv)) {
                 values.add(dcv);
             }
@@ -0,0 +1,123 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Index of the metadata values of a DSpace object by metadata field, so looking up the values of a given field
+ * doesn't scan all values of the object.
+ * <p>
+ * The values of each field keep the order of the indexed list. The index only narrows the candidates down to the
+ * values of a field: the language (which may change after a value was added) is still matched against each
+ * candidate, see {@link DSpaceObjectServiceImpl#match}.
+ * <p>
+ * The index is built lazily by its owner and dropped whenever the metadata of the object are modified; it also
+ * detects changes to the size of the indexed list, made without marking the metadata as modified.
+ */
+public class MetadataIndex {
+
+    private final List<MetadataValue> values;
+
+    private final int size;
+
+    /**
+     * The values of each field, null when some values can't be indexed (they have no schema)
+     */
+    private final Map<FieldKey, List<MetadataValue>> valuesByField;
+
+    /**
+     * Index the given list of values.
+     *
+     * @param values the values, in the order they should be returned
+     */
+    public MetadataIndex(List<MetadataValue> values) {
+        this.values = values;
+        this.size = values.size();
+        this.valuesByField = buildIndex(values);
+    }
+
+    private static Map<FieldKey, List<MetadataValue>> buildIndex(List<MetadataValue> values) {
+        Map<FieldKey, List<MetadataValue>> index = new HashMap<>();
+        for (MetadataValue value : values) {
+            MetadataField field = value.getMetadataField();
+            if (field.getMetadataSchema() == null) {
+                // values without schema match any schema, fall back to scanning all values
+                return null;
+            }
+            index.computeIfAbsent(new FieldKey(field.getMetadataSchema().getName(), field.getElement(),
+                                               field.getQualifier()), key -> new ArrayList<>(1))
+                 .add(value);
+        }
+        return index;
+    }
+
+    /**
+     * @param values a list of values
+     * @return whether this index is (still) up to date with the given list
+     */
+    public boolean isIndexOf(List<MetadataValue> values) {
+        return this.values == values && size == values.size();
+    }
+
+    /**
+     * Get the values which may match the given field, i.e. the values of the field when it is fully specified, or
+     * all values when it contains wildcards.
+     *
+     * @param schema    the schema name, or <code>Item.ANY</code>
+     * @param element   the element name, or <code>Item.ANY</code>
+     * @param qualifier the qualifier, <code>null</code> or blank for unqualified, or <code>Item.ANY</code>
+     * @return the candidate values, in the order of the indexed list
+     */
+    public List<MetadataValue> getCandidates(String schema, String element, String qualifier) {
+        if (valuesByField == null || Item.ANY.equals(schema) || Item.ANY.equals(element)
+            || Item.ANY.equals(qualifier)) {
+            return values;
+        }
+        List<MetadataValue> candidates = valuesByField.get(
+            new FieldKey(schema, element, StringUtils.isBlank(qualifier) ? null : qualifier));
+        return candidates == null ? Collections.emptyList() : candidates;
+    }
+
+    private static final class FieldKey {
+        private final String schema;
+        private final String element;
+        private final String qualifier;
+
+        FieldKey(String schema, String element, String qualifier) {
+            this.schema = schema;
+            this.element = element;
+            this.qualifier = qualifier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FieldKey)) {
+                return false;
+            }
+            FieldKey other = (FieldKey) o;
+            return Objects.equals(schema, other.schema) && Objects.equals(element, other.element)
+                && Objects.equals(qualifier, other.qualifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(schema, element, qualifier);
+        }
+    }
+}
@@ -9,8 +9,13 @@ package org.dspace.content;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.apache.logging.log4j.Logger;
 import org.dspace.authorize.AuthorizeException;
@@ -35,6 +40,11 @@ public class MetadataValueServiceImpl implements MetadataValueService {
 
     private static final Logger log = org.apache.logging.log4j.LogManager.getLogger(MetadataValueServiceImpl.class);
 
+    /**
+     * Maximum number of values of the IN lists of a query
+     */
+    private static final int IN_LIST_SIZE = 1000;
+
     @Autowired(required = true)
     protected AuthorizeService authorizeService;
     @Autowired(required = true)
@@ -79,6 +89,22 @@ public class MetadataValueServiceImpl implements MetadataValueService {
         return metadataValueDAO.findItemValuesByFieldAndValue(context, metadataField, value);
     }
 
+    @Override
+    public Map<String, List<UUID>> findItemIdsByFieldAndValues(Context context, MetadataField metadataField,
+                                                               Collection<String> values)
+            throws SQLException {
+        Map<String, List<UUID>> ids = new HashMap<>();
+        List<String> valueList = new ArrayList<>(values);
+        // keep the IN lists of a reasonable size
+        for (int i = 0; i < valueList.size(); i += IN_LIST_SIZE) {
+            List<String> chunk = valueList.subList(i, Math.min(valueList.size(), i + IN_LIST_SIZE));
+            for (Object[] match : metadataValueDAO.findItemIdsByFieldAndValues(context, metadataField, chunk)) {
+                ids.computeIfAbsent((String) match[0], value -> new ArrayList<>()).add((UUID) match[1]);
+            }
+        }
+        return ids;
+    }
+
     @Override
     public void update(Context context, MetadataValue metadataValue) throws SQLException {
         metadataValueDAO.save(context, metadataValue);
@@ -33,6 +33,17 @@ public interface BitstreamDAO extends DSpaceObjectLegacySupportDAO<Bitstream> {
 
     public List<Bitstream> findDuplicateInternalIdentifier(Context context, Bitstream bitstream) throws SQLException;
 
+    /**
+     * Count the bitstreams, other than the given one, which are not deleted and share its stored file, i.e. have
+     * the same internal identifier in the same store.
+     *
+     * @param context   the DSpace context
+     * @param bitstream the bitstream
+     * @return the number of other live references to the stored file of the bitstream
+     * @throws SQLException if database error
+     */
+    public long countSharingBitstreams(Context context, Bitstream bitstream) throws SQLException;
+
     public List<Bitstream> findBitstreamsWithNoRecentChecksum(Context context) throws SQLException;
 
     public Iterator<Bitstream> findByCommunity(Context context, Community community) throws SQLException;
@@ -45,6 +56,16 @@ public interface BitstreamDAO extends DSpaceObjectLegacySupportDAO<Bitstream> {
 
     public Long countByStoreNumber(Context context, Integer storeNumber) throws SQLException;
 
+    /**
+     * Find the stored files of an assetstore shared by several (not deleted) bitstreams.
+     *
+     * @param context     the dspace context
+     * @param storeNumber the number of the assetstore
+     * @return for each shared file, the number of bitstreams referencing it and its size in bytes
+     * @throws SQLException if database error
+     */
+    public List<Object[]> findSharedInternalIdentifiers(Context context, Integer storeNumber) throws SQLException;
+
     int countRows(Context context) throws SQLException;
 
     int countDeleted(Context context) throws SQLException;
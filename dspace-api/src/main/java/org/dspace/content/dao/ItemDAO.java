@@ -32,6 +32,16 @@ public interface ItemDAO extends DSpaceObjectLegacySupportDAO<Item> {
 
     public Iterator<Item> findAll(Context context, boolean archived, int limit, int offset) throws SQLException;
 
+    /**
+     * Find the items with the given UUIDs, in a single query.
+     *
+     * @param context context
+     * @param ids     the UUIDs of the items
+     * @return the items found, in no particular order
+     * @throws SQLException if database error
+     */
+    public List<Item> findByIds(Context context, List<UUID> ids) throws SQLException;
+
     @Deprecated
     public Iterator<Item> findAll(Context context, boolean archived, boolean withdrawn) throws SQLException;
 
@@ -48,6 +58,20 @@ public interface ItemDAO extends DSpaceObjectLegacySupportDAO<Item> {
      */
     public Iterator<Item> findAllRegularItems(Context context) throws SQLException;
 
+    /**
+     * Find all regular items (see {@link #findAllRegularItems(Context)}) whose UUID lies within the given range.
+     * This allows callers to split the full set of items into disjoint partitions which can be processed in
+     * parallel.
+     *
+     * @param context    the DSpace context.
+     * @param lowerBound inclusive lower bound of the UUID range, or null for no lower bound.
+     * @param upperBound exclusive upper bound of the UUID range, or null for no upper bound.
+     * @return iterator over all regular items in the given UUID range.
+     * @throws SQLException if database error.
+     */
+    public Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound)
+        throws SQLException;
+
     /**
      * Find all Items modified since a Date.
      *
@@ -182,6 +206,20 @@ public interface ItemDAO extends DSpaceObjectLegacySupportDAO<Item> {
      */
     int countItems(Context context, boolean includeArchived, boolean includeWithdrawn) throws SQLException;
 
+    /**
+     * Count number of items based on specific status flags, whose UUID lies within the given range
+     *
+     * @param context          context
+     * @param includeArchived  whether to include archived items in count
+     * @param includeWithdrawn whether to include withdrawn items in count
+     * @param lowerBound       inclusive lower bound of the UUID range, or null for no lower bound
+     * @param upperBound       exclusive upper bound of the UUID range, or null for no upper bound
+     * @return count of items
+     * @throws SQLException if database error
+     */
+    int countItems(Context context, boolean includeArchived, boolean includeWithdrawn, UUID lowerBound,
+                   UUID upperBound) throws SQLException;
+
     /**
      * Count number of items from the specified submitter based on specific status flags
      *
@@ -32,6 +32,18 @@ public interface MetadataValueDAO extends GenericDAO<MetadataValue> {
                                                                  MetadataField metadataField, String value)
             throws SQLException;
 
+    /**
+     * Find the items having any of the given values in the given field.
+     *
+     * @param context       dspace context
+     * @param metadataField the field
+     * @param values        the values
+     * @return pairs of the matching value and the UUID of the item
+     * @throws SQLException if database error
+     */
+    public List<Object[]> findItemIdsByFieldAndValues(Context context, MetadataField metadataField,
+                                                      List<String> values) throws SQLException;
+
     public Iterator<MetadataValue> findByValueLike(Context context, String value) throws SQLException;
 
     public void deleteByMetadataField(Context context, MetadataField metadataField) throws SQLException;
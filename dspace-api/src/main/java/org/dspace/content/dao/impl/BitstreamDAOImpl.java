@@ -65,6 +65,21 @@ public class BitstreamDAOImpl extends AbstractHibernateDSODAO<Bitstream> impleme
         return list(context, criteriaQuery, false, Bitstream.class, -1, -1);
     }
 
+    @Override
+    public long countSharingBitstreams(Context context, Bitstream bitstream) throws SQLException {
+        CriteriaBuilder criteriaBuilder = getCriteriaBuilder(context);
+        CriteriaQuery criteriaQuery = getCriteriaQuery(criteriaBuilder, Bitstream.class);
+        Root<Bitstream> bitstreamRoot = criteriaQuery.from(Bitstream.class);
+        criteriaQuery.where(criteriaBuilder.and(
+            criteriaBuilder.equal(bitstreamRoot.get(Bitstream_.internalId), bitstream.getInternalId()),
+            criteriaBuilder.equal(bitstreamRoot.get(Bitstream_.storeNumber), bitstream.getStoreNumber()),
+            criteriaBuilder.equal(bitstreamRoot.get(Bitstream_.deleted), false),
+            criteriaBuilder.notEqual(bitstreamRoot.get(Bitstream_.id), bitstream.getID())
+                            )
+        );
+        return countLong(context, criteriaQuery, criteriaBuilder, bitstreamRoot);
+    }
+
     @Override
     public List<Bitstream> findBitstreamsWithNoRecentChecksum(Context context) throws SQLException {
         Query query = createQuery(context,
@@ -131,6 +146,15 @@ public class BitstreamDAOImpl extends AbstractHibernateDSODAO<Bitstream> impleme
         return countLong(context, criteriaQuery, criteriaBuilder, bitstreamRoot);
     }
 
+    @Override
+    public List<Object[]> findSharedInternalIdentifiers(Context context, Integer storeNumber) throws SQLException {
+        Query query = createQuery(context, "SELECT count(b), max(b.sizeBytes) FROM Bitstream b " +
+            "WHERE b.storeNumber = :storeNumber AND b.deleted = false " +
+            "GROUP BY b.internalId HAVING count(b) > 1");
+        query.setParameter("storeNumber", storeNumber);
+        return query.getResultList();
+    }
+
     @Override
     public int countRows(Context context) throws SQLException {
         return count(createQuery(context, "SELECT count(*) from Bitstream"));
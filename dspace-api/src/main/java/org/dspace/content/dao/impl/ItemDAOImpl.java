@@ -60,6 +60,16 @@ public class ItemDAOImpl extends AbstractHibernateDSODAO<Item> implements ItemDA
         return iterate(query);
     }
 
+    @Override
+    public List<Item> findByIds(Context context, List<UUID> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Query query = createQuery(context, "FROM Item WHERE id IN (:ids)");
+        query.setParameter("ids", ids);
+        return list(query);
+    }
+
     @Override
     public Iterator<Item> findAll(Context context, boolean archived, int limit, int offset) throws SQLException {
         Query query = createQuery(context, "FROM Item WHERE inArchive=:in_archive ORDER BY id");
@@ -93,6 +103,31 @@ public class ItemDAOImpl extends AbstractHibernateDSODAO<Item> implements ItemDA
         return iterate(query);
     }
 
+    @Override
+    public Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound)
+        throws SQLException {
+        StringBuilder queryStr = new StringBuilder();
+        queryStr.append("SELECT i FROM Item as i ");
+        queryStr.append("LEFT JOIN Version as v ON i = v.item ");
+        queryStr.append("WHERE (i.inArchive=true or i.withdrawn=true or (i.inArchive=false and v.id IS NOT NULL))");
+        if (lowerBound != null) {
+            queryStr.append(" AND i.id >= :lower_bound");
+        }
+        if (upperBound != null) {
+            queryStr.append(" AND i.id < :upper_bound");
+        }
+        queryStr.append(" ORDER BY i.id");
+
+        Query query = createQuery(context, queryStr.toString());
+        if (lowerBound != null) {
+            query.setParameter("lower_bound", lowerBound);
+        }
+        if (upperBound != null) {
+            query.setParameter("upper_bound", upperBound);
+        }
+        return iterate(query);
+    }
+
     @Override
     public Iterator<Item> findAll(Context context, boolean archived,
                                   boolean withdrawn, boolean discoverable, Date lastModified)
@@ -426,6 +461,31 @@ public class ItemDAOImpl extends AbstractHibernateDSODAO<Item> implements ItemDA
         return count(query);
     }
 
+    @Override
+    public int countItems(Context context, boolean includeArchived, boolean includeWithdrawn, UUID lowerBound,
+                          UUID upperBound) throws SQLException {
+        StringBuilder queryStr = new StringBuilder();
+        queryStr.append("SELECT count(*) FROM Item i ");
+        queryStr.append("WHERE i.inArchive=:in_archive AND i.withdrawn=:withdrawn");
+        if (lowerBound != null) {
+            queryStr.append(" AND i.id >= :lower_bound");
+        }
+        if (upperBound != null) {
+            queryStr.append(" AND i.id < :upper_bound");
+        }
+
+        Query query = createQuery(context, queryStr.toString());
+        query.setParameter("in_archive", includeArchived);
+        query.setParameter("withdrawn", includeWithdrawn);
+        if (lowerBound != null) {
+            query.setParameter("lower_bound", lowerBound);
+        }
+        if (upperBound != null) {
+            query.setParameter("upper_bound", upperBound);
+        }
+        return count(query);
+    }
+
     @Override
     public int countItems(Context context, EPerson submitter, boolean includeArchived, boolean includeWithdrawn)
         throws SQLException {
@@ -61,6 +61,20 @@ public class MetadataValueDAOImpl extends AbstractHibernateDAO<MetadataValue> im
         return iterate(query);
     }
 
+    @Override
+    public List<Object[]> findItemIdsByFieldAndValues(Context context, MetadataField metadataField,
+                                                      List<String> values) throws SQLException {
+        String queryString = "SELECT m.value, i.id from MetadataValue m " +
+                "join Item i on m.dSpaceObject = i.id where m.metadataField.id = :metadata_field_id " +
+                "and m.value in (:text_values)";
+        Query query = createQuery(context, queryString);
+        query.setParameter("metadata_field_id", metadataField.getID());
+        query.setParameter("text_values", values);
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = query.getResultList();
+        return results;
+    }
+
     @Override
     public Iterator<MetadataValue> findByValueLike(Context context, String value) throws SQLException {
         String queryString = "SELECT m FROM MetadataValue m JOIN m.metadataField f " +
@@ -7,6 +7,7 @@
  */
 package org.dspace.content.service;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
@@ -166,6 +167,35 @@ public interface BitstreamService extends DSpaceObjectService<Bitstream>, DSpace
     public InputStream retrieve(Context context, Bitstream bitstream)
         throws IOException, SQLException, AuthorizeException;
 
+    /**
+     * Retrieve a range of the contents of the bitstream, e.g. to answer an HTTP Range request
+     *
+     * @param context   DSpace context object
+     * @param bitstream DSpace bitstream
+     * @param offset    the position of the first byte to retrieve
+     * @param length    the maximum number of bytes to retrieve
+     * @return a stream from which the range of the bitstream can be read.
+     * @throws IOException        if IO error
+     * @throws SQLException       if database error
+     * @throws AuthorizeException if authorization error
+     */
+    public InputStream retrieve(Context context, Bitstream bitstream, long offset, long length)
+        throws IOException, SQLException, AuthorizeException;
+
+    /**
+     * Return the local file holding the contents of the bitstream, so they can be sent without being copied
+     * (e.g. with sendfile), if the asset store keeps them as local files.
+     *
+     * @param context   DSpace context object
+     * @param bitstream DSpace bitstream
+     * @return the file holding the contents of the bitstream, or null if not available as a local file
+     * @throws IOException        if IO error
+     * @throws SQLException       if database error
+     * @throws AuthorizeException if authorization error
+     */
+    public File getLocalFile(Context context, Bitstream bitstream)
+        throws IOException, SQLException, AuthorizeException;
+
     /**
      * Determine if this bitstream is registered (available elsewhere on
      * filesystem than in assetstore). More about registered items:
@@ -198,6 +228,17 @@ public interface BitstreamService extends DSpaceObjectService<Bitstream>, DSpace
 
     public List<Bitstream> findDuplicateInternalIdentifier(Context context, Bitstream bitstream) throws SQLException;
 
+    /**
+     * Count the other live references to the stored file of a bitstream: the bitstreams which are not deleted and
+     * have the same internal identifier in the same store, such as its clones in the other versions of its item.
+     *
+     * @param context   the DSpace context
+     * @param bitstream the bitstream
+     * @return the number of other bitstreams sharing the stored file
+     * @throws SQLException if database error
+     */
+    public long countSharingBitstreams(Context context, Bitstream bitstream) throws SQLException;
+
     public Iterator<Bitstream> getItemBitstreams(Context context, Item item) throws SQLException;
 
     public Iterator<Bitstream> getCollectionBitstreams(Context context, Collection collection) throws SQLException;
@@ -218,6 +259,17 @@ public interface BitstreamService extends DSpaceObjectService<Bitstream>, DSpace
 
     public Long countByStoreNumber(Context context, Integer storeNumber) throws SQLException;
 
+    /**
+     * Find the stored files of an assetstore shared by several (not deleted) bitstreams, e.g. by the versions of
+     * an item or by the bitstreams of a content-addressed assetstore having the same content.
+     *
+     * @param context     the dspace context
+     * @param storeNumber the number of the assetstore
+     * @return for each shared file, the number of bitstreams referencing it (Long) and its size in bytes (Long)
+     * @throws SQLException if database error
+     */
+    public List<Object[]> findSharedInternalIdentifiers(Context context, Integer storeNumber) throws SQLException;
+
     int countTotal(Context context) throws SQLException;
 
     int countDeletedBitstreams(Context context) throws SQLException;
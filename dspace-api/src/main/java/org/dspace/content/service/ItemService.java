@@ -104,6 +104,17 @@ public interface ItemService
      */
     public Iterator<Item> findAll(Context context, Integer limit, Integer offset) throws SQLException;
 
+    /**
+     * Find the items with the given UUIDs with a few queries, rather than one query per item, e.g. to load the
+     * items a batch is about to process into the session at once.
+     *
+     * @param context DSpace context object
+     * @param ids     the UUIDs of the items
+     * @return the items found, in no particular order
+     * @throws SQLException if database error
+     */
+    public List<Item> findByIds(Context context, List<UUID> ids) throws SQLException;
+
     /**
      * Get all "final" items in the archive, both archived ("in archive" flag) or
      * withdrawn items are included. The order of the list is indeterminate.
@@ -128,6 +139,18 @@ public interface ItemService
      */
     public Iterator<Item> findAllRegularItems(Context context) throws SQLException;
 
+    /**
+     * Find all regular items (see {@link #findAllRegularItems(Context)}) whose UUID lies within the given range.
+     *
+     * @param context    the DSpace context.
+     * @param lowerBound inclusive lower bound of the UUID range, or null for no lower bound.
+     * @param upperBound exclusive upper bound of the UUID range, or null for no upper bound.
+     * @return iterator over all regular items in the given UUID range.
+     * @throws SQLException if database error.
+     */
+    public Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound)
+        throws SQLException;
+
     /**
      * Find all the items in the archive by a given submitter. The order is
      * indeterminate. Only items with the "in archive" flag set are included.
@@ -759,6 +782,17 @@ public interface ItemService
      */
     int countArchivedItems(Context context) throws SQLException;
 
+    /**
+     * counts all items in archive whose UUID lies within the given range
+     *
+     * @param context    DSpace context object
+     * @param lowerBound inclusive lower bound of the UUID range, or null for no lower bound
+     * @param upperBound exclusive upper bound of the UUID range, or null for no upper bound
+     * @return total items in archive in the given UUID range
+     * @throws SQLException if database error
+     */
+    int countArchivedItems(Context context, UUID lowerBound, UUID upperBound) throws SQLException;
+
     /**
      * counts all withdrawn items
      *
@@ -9,8 +9,11 @@ package org.dspace.content.service;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.content.DSpaceObject;
@@ -75,6 +78,20 @@ public interface MetadataValueService {
     public Iterator<MetadataValue> findByFieldAndValue(Context context, MetadataField metadataField, String value)
             throws SQLException;
 
+    /**
+     * Retrieves the UUIDs of the items having any of the given values in the given field, with a few queries
+     * rather than one per value.
+     *
+     * @param context dspace context
+     * @param metadataField The field that must match
+     * @param values The values to match
+     * @return the UUIDs of the matching items by value; values without any match are absent
+     * @throws SQLException if database error
+     */
+    public Map<String, List<UUID>> findItemIdsByFieldAndValues(Context context, MetadataField metadataField,
+                                                               Collection<String> values)
+            throws SQLException;
+
     /**
      * Update the metadata value in the database.
      *
@@ -109,6 +109,11 @@ public class Context implements AutoCloseable {
      */
     private LinkedList<Event> events = null;
 
+    /**
+     * Actions to run once the current transaction has been committed
+     */
+    private List<Runnable> commitActions = null;
+
     /**
      * Event dispatcher name
      */
@@ -442,6 +447,35 @@ public class Context implements AutoCloseable {
                 // Commit our changes (this closes the transaction but leaves database connection open)
                 dbConnection.commit();
                 reloadContextBoundEntities();
+                runCommitActions();
+            }
+        }
+    }
+
+    /**
+     * Register an action to run once the current transaction has been successfully committed to the database.
+     * Actions are discarded when the transaction is rolled back or the Context is aborted.
+     *
+     * @param action the action to run after the commit
+     */
+    public void addCommitAction(Runnable action) {
+        if (commitActions == null) {
+            commitActions = new ArrayList<>();
+        }
+        commitActions.add(action);
+    }
+
+    private void runCommitActions() {
+        if (commitActions == null) {
+            return;
+        }
+        List<Runnable> actions = commitActions;
+        commitActions = null;
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.error("Error running an action after the commit", e);
             }
         }
     }
@@ -565,6 +599,7 @@ public class Context implements AutoCloseable {
             }
         } finally {
             events = null;
+            commitActions = null;
         }
     }
 
@@ -603,6 +638,7 @@ public class Context implements AutoCloseable {
                 log.error("Error closing the database connection", ex);
             }
             events = null;
+            commitActions = null;
         }
     }
 
@@ -29,6 +29,7 @@ import org.dspace.discovery.indexobject.factory.IndexFactory;
 import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
 import org.dspace.handle.factory.HandleServiceFactory;
 import org.dspace.scripts.DSpaceRunnable;
+import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.utils.DSpace;
 
@@ -69,7 +70,11 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
             indexClientOptions == IndexClientOptions.BUILDANDSPELLCHECK) {
             handler.logInfo("(Re)building index from scratch.");
             indexer.deleteIndex();
-            indexer.createIndex(context);
+            if (isParallel()) {
+                updateIndexInParallel(true);
+            } else {
+                indexer.createIndex(context);
+            }
             if (indexClientOptions == IndexClientOptions.BUILDANDSPELLCHECK) {
                 checkRebuildSpellCheck(commandLine, indexer);
             }
@@ -127,14 +132,22 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
         } else if (indexClientOptions == IndexClientOptions.UPDATE ||
             indexClientOptions == IndexClientOptions.UPDATEANDSPELLCHECK) {
             handler.logInfo("Updating Index");
-            indexer.updateIndex(context, false);
+            if (isParallel()) {
+                updateIndexInParallel(false);
+            } else {
+                indexer.updateIndex(context, false);
+            }
             if (indexClientOptions == IndexClientOptions.UPDATEANDSPELLCHECK) {
                 checkRebuildSpellCheck(commandLine, indexer);
             }
         } else if (indexClientOptions == IndexClientOptions.FORCEUPDATE ||
             indexClientOptions == IndexClientOptions.FORCEUPDATEANDSPELLCHECK) {
             handler.logInfo("Updating Index");
-            indexer.updateIndex(context, true);
+            if (isParallel()) {
+                updateIndexInParallel(true);
+            } else {
+                indexer.updateIndex(context, true);
+            }
             if (indexClientOptions == IndexClientOptions.FORCEUPDATEANDSPELLCHECK) {
                 checkRebuildSpellCheck(commandLine, indexer);
             }
@@ -158,6 +171,41 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
         }
         indexClientOptions = IndexClientOptions.getIndexClientOption(commandLine);
     }
+    /**
+     * Whether the index should be (re)built or updated using multiple worker threads and batched requests, i.e.
+     * whether the threads or batch size options were given.
+     */
+    private boolean isParallel() {
+        return commandLine.hasOption("t") || commandLine.hasOption("n");
+    }
+
+    /**
+     * Update the whole index using the number of worker threads and batch size given on the command line, falling
+     * back to the "discovery.index.parallel.*" configuration.
+     *
+     * @param force whether or not to force the reindexing
+     */
+    private void updateIndexInParallel(boolean force) {
+        ConfigurationService configurationService = DSpaceServicesFactory.getInstance().getConfigurationService();
+        int threads = configurationService.getIntProperty("discovery.index.parallel.threads", 1);
+        int batchSize = configurationService.getIntProperty("discovery.index.parallel.batch-size", 100);
+        if (commandLine.hasOption("t")) {
+            threads = Integer.parseInt(commandLine.getOptionValue("t"));
+        }
+        if (commandLine.hasOption("n")) {
+            batchSize = Integer.parseInt(commandLine.getOptionValue("n"));
+        }
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("The number of threads and the batch size must be positive");
+        }
+        handler.logInfo("Indexing with " + threads + " thread" + (threads > 1 ? "s" : "")
+                            + " and a batch size of " + batchSize);
+        final long startTimeMillis = System.currentTimeMillis();
+        indexer.updateIndex(context, force, null, threads, batchSize);
+        final long seconds = (System.currentTimeMillis() - startTimeMillis) / 1000;
+        handler.logInfo("Parallel indexing finished in " + seconds + " seconds");
+    }
+
     /**
      * Indexes the given object and all children, if applicable.
      *
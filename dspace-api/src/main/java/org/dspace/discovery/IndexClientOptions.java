@@ -84,6 +84,10 @@ public enum IndexClientOptions {
         options.addOption("s", "spellchecker", false, "Rebuild the spellchecker, can be combined with -b and -f.");
         options.addOption("f", "force", false,
                           "if updating existing index, force each handle to be reindexed even if uptodate");
+        options.addOption("t", "threads", true,
+                          "number of worker threads used to (re)build or update the index in parallel");
+        options.addOption("n", "batch-size", true,
+                          "number of documents sent to the index in a single request when indexing in parallel");
         options.addOption("h", "help", false, "print this help message");
         return options;
     }
@@ -50,6 +50,10 @@ public class IndexEventConsumer implements Consumer {
 
     IndexObjectFactoryFactory indexObjectServiceFactory = IndexObjectFactoryFactory.getInstance();
 
+    SolrIndexingBuffer indexingBuffer = DSpaceServicesFactory.getInstance().getServiceManager()
+                                                             .getServiceByName(SolrIndexingBuffer.class.getName(),
+                                                                               SolrIndexingBuffer.class);
+
     @Override
     public void initialize() throws Exception {
 
@@ -223,7 +227,10 @@ public class IndexEventConsumer implements Consumer {
         } finally {
             if (!objectsToUpdate.isEmpty() || !uniqueIdsToDelete.isEmpty()) {
 
-                indexer.commit();
+                // when buffered, the changes are made visible by the commitWithin of the indexing buffer
+                if (!indexingBuffer.isEnabled()) {
+                    indexer.commit();
+                }
 
                 // "free" the resources
                 objectsToUpdate.clear();
@@ -66,6 +66,17 @@ public interface IndexingService {
 
     void updateIndex(Context context, boolean force, String type);
 
+    /**
+     * Update the index using a pool of worker threads, each with its own Context, sending the documents to the
+     * search core in batches.
+     * @param context   The DSpace Context
+     * @param force     Force update even if not stale
+     * @param type      The type of indexable objects to update, or null for all types
+     * @param threads   The number of worker threads
+     * @param batchSize The maximum number of documents sent to the search core in one request
+     */
+    void updateIndex(Context context, boolean force, String type, int threads, int batchSize);
+
     void cleanIndex() throws IOException, SQLException, SearchServiceException;
 
     void deleteIndex();
@@ -0,0 +1,370 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.services.ConfigurationService;
+import org.dspace.util.MBeanUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Single entry point for all document additions and deletions sent to the search core.
+ * <p>
+ * When disabled (the default) every operation is sent to the search core immediately, exactly as before. When
+ * enabled through "discovery.index.buffer.enabled", additions and deletions are collected in memory (across
+ * transactions) and sent as multi-document update requests, either when the buffer reaches
+ * "discovery.index.buffer.size" operations or every "discovery.index.buffer.flush-interval" milliseconds. The
+ * updates are made visible by Solr through commitWithin ("discovery.index.buffer.commit-within"), so no explicit
+ * commits are needed.
+ * <p>
+ * Pending operations are always sent with all deletions before all additions. To keep this equivalent to the order
+ * in which the operations were requested, an addition replaces a pending deletion of the same document and a
+ * deletion removes a pending addition of the same document. Deletions by query are only buffered when the pending
+ * additions they match can be determined (an exact value of one of {@link #EXACT_MATCH_FIELDS}); otherwise the
+ * buffer is flushed first and the query is sent immediately.
+ * <p>
+ * If the operations can't be sent, they are put back in the buffer, under the ones requested since, and sent again
+ * with the next flush.
+ */
+public class SolrIndexingBuffer implements SolrIndexingBufferMXBean, InitializingBean, DisposableBean {
+
+    private static final Logger log = LogManager.getLogger(SolrIndexingBuffer.class);
+
+    /**
+     * Fields which only hold untokenized values, so a query on them can be evaluated against a pending document.
+     */
+    protected static final Set<String> EXACT_MATCH_FIELDS = Set.of(SearchUtils.RESOURCE_UNIQUE_ID,
+        SearchUtils.RESOURCE_TYPE_FIELD, SearchUtils.RESOURCE_ID_FIELD, "inprogress.item");
+
+    private static final Pattern FIELD_QUERY = Pattern.compile("^([\\w.]+):(\"[^\"\\\\]*\"|[\\w.\\-]+)$");
+
+    @Autowired
+    protected SolrSearchCore solrSearchCore;
+    @Autowired
+    protected ConfigurationService configurationService;
+
+    private boolean enabled;
+    private int maxSize;
+    private int commitWithin;
+
+    private final Map<String, SolrInputDocument> pendingAdds = new LinkedHashMap<>();
+    private final Set<String> pendingDeleteIds = new LinkedHashSet<>();
+    private final List<String> pendingDeleteQueries = new ArrayList<>();
+
+    /**
+     * Serializes the requests sent to the search core, so they are processed in the order they were flushed.
+     */
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong operationsFlushed = new AtomicLong();
+    private final AtomicLong totalFlushMillis = new AtomicLong();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        enabled = configurationService.getBooleanProperty("discovery.index.buffer.enabled", false);
+        maxSize = configurationService.getIntProperty("discovery.index.buffer.size", 500);
+        commitWithin = configurationService.getIntProperty("discovery.index.buffer.commit-within", 1000);
+        if (!enabled) {
+            return;
+        }
+        long flushInterval = configurationService.getLongProperty("discovery.index.buffer.flush-interval", 1000);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discovery-indexing-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        MBeanUtils.register(this, "SolrIndexingBuffer");
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            MBeanUtils.unregister("SolrIndexingBuffer");
+        }
+        flushQuietly();
+    }
+
+    /**
+     * @return whether operations are buffered, or sent to the search core immediately
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add (or replace) a document in the search core.
+     *
+     * @param document the document to add
+     * @throws IOException         if IO error
+     * @throws SolrServerException if the document could not be sent to the search core
+     */
+    public void add(SolrInputDocument document) throws IOException, SolrServerException {
+        SolrClient solr = solrSearchCore.getSolr();
+        if (!enabled) {
+            solr.add(document);
+            return;
+        }
+        String id = (String) document.getFieldValue(SearchUtils.RESOURCE_UNIQUE_ID);
+        boolean full;
+        synchronized (this) {
+            pendingDeleteIds.remove(id);
+            pendingAdds.put(id, document);
+            full = getQueueDepth() >= maxSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Delete the document with the given unique id from the search core.
+     *
+     * @param id the unique id of the document
+     * @throws IOException         if IO error
+     * @throws SolrServerException if the deletion could not be sent to the search core
+     */
+    public void deleteById(String id) throws IOException, SolrServerException {
+        SolrClient solr = solrSearchCore.getSolr();
+        if (!enabled) {
+            solr.deleteById(id);
+            return;
+        }
+        boolean full;
+        synchronized (this) {
+            pendingAdds.remove(id);
+            pendingDeleteIds.add(id);
+            full = getQueueDepth() >= maxSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Delete all documents matching the given query from the search core.
+     *
+     * @param query the query matching the documents to delete
+     * @throws IOException         if IO error
+     * @throws SolrServerException if the deletion could not be sent to the search core
+     */
+    public void deleteByQuery(String query) throws IOException, SolrServerException {
+        SolrClient solr = solrSearchCore.getSolr();
+        if (!enabled) {
+            solr.deleteByQuery(query);
+            return;
+        }
+        Matcher matcher = FIELD_QUERY.matcher(query);
+        if (!matcher.matches() || !EXACT_MATCH_FIELDS.contains(matcher.group(1))) {
+            // We cannot tell which pending documents this query matches, send everything in order
+            synchronized (flushLock) {
+                flush();
+                solr.deleteByQuery(query, commitWithin);
+            }
+            return;
+        }
+        boolean full;
+        synchronized (this) {
+            Iterator<Map.Entry<String, SolrInputDocument>> pending = pendingAdds.entrySet().iterator();
+            while (pending.hasNext()) {
+                Map.Entry<String, SolrInputDocument> entry = pending.next();
+                if (matches(entry.getValue(), matcher)) {
+                    // The document would be deleted after being added: delete any previous version instead
+                    pending.remove();
+                    pendingDeleteIds.add(entry.getKey());
+                }
+            }
+            pendingDeleteQueries.add(query);
+            full = getQueueDepth() >= maxSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * @return whether a document is matched by a query on one of the {@link #EXACT_MATCH_FIELDS}
+     */
+    private static boolean matches(SolrInputDocument document, Matcher query) {
+        Collection<Object> values = document.getFieldValues(query.group(1));
+        return values != null && values.contains(StringUtils.strip(query.group(2), "\""));
+    }
+
+    /**
+     * Send all pending operations to the search core. If they can't be sent, they are put back in the buffer.
+     *
+     * @throws IOException         if IO error
+     * @throws SolrServerException if the operations could not be sent to the search core
+     */
+    public void flush() throws IOException, SolrServerException {
+        synchronized (flushLock) {
+            Map<String, SolrInputDocument> adds;
+            List<String> deleteIds;
+            List<String> deleteQueries;
+            synchronized (this) {
+                if (getQueueDepth() == 0) {
+                    return;
+                }
+                adds = new LinkedHashMap<>(pendingAdds);
+                deleteIds = new ArrayList<>(pendingDeleteIds);
+                deleteQueries = new ArrayList<>(pendingDeleteQueries);
+                pendingAdds.clear();
+                pendingDeleteIds.clear();
+                pendingDeleteQueries.clear();
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                SolrClient solr = solrSearchCore.getSolr();
+                if (!deleteIds.isEmpty() || !deleteQueries.isEmpty()) {
+                    UpdateRequest deletes = new UpdateRequest();
+                    deletes.deleteById(deleteIds);
+                    deleteQueries.forEach(deletes::deleteByQuery);
+                    deletes.setCommitWithin(commitWithin);
+                    deletes.process(solr);
+                }
+                if (!adds.isEmpty()) {
+                    UpdateRequest additions = new UpdateRequest();
+                    additions.add(adds.values());
+                    additions.setCommitWithin(commitWithin);
+                    additions.process(solr);
+                }
+            } catch (IOException | SolrServerException | RuntimeException e) {
+                failedFlushCount.incrementAndGet();
+                log.error("Failed to send {} additions and {} deletions to the search core, they will be sent "
+                              + "again with the next flush. Added ids: {}, deleted ids: {}, deleted queries: {}",
+                          adds.size(), deleteIds.size() + deleteQueries.size(), adds.keySet(), deleteIds,
+                          deleteQueries);
+                requeue(adds, deleteIds, deleteQueries);
+                throw e;
+            } finally {
+                long duration = System.currentTimeMillis() - start;
+                lastFlushMillis = duration;
+                totalFlushMillis.addAndGet(duration);
+                maxFlushMillis.accumulateAndGet(duration, Math::max);
+                flushCount.incrementAndGet();
+            }
+            operationsFlushed.addAndGet(adds.size() + deleteIds.size() + deleteQueries.size());
+        }
+    }
+
+    /**
+     * Put operations which couldn't be sent back in the buffer, as if they were requested before the pending ones.
+     * The deletions are sent before the additions anyway; an addition is dropped if a pending operation replaces
+     * or deletes the same document.
+     */
+    private synchronized void requeue(Map<String, SolrInputDocument> adds, List<String> deleteIds,
+                                      List<String> deleteQueries) {
+        List<Matcher> queries = new ArrayList<>();
+        for (String query : pendingDeleteQueries) {
+            // only the buffered queries, on exact values, are pending
+            Matcher matcher = FIELD_QUERY.matcher(query);
+            if (matcher.matches()) {
+                queries.add(matcher);
+            }
+        }
+        Map<String, SolrInputDocument> requeuedAdds = new LinkedHashMap<>();
+        for (Map.Entry<String, SolrInputDocument> add : adds.entrySet()) {
+            String id = add.getKey();
+            if (pendingAdds.containsKey(id) || pendingDeleteIds.contains(id)) {
+                continue;
+            }
+            if (queries.stream().anyMatch(query -> matches(add.getValue(), query))) {
+                // deleted since: delete any previous version instead
+                pendingDeleteIds.add(id);
+                continue;
+            }
+            requeuedAdds.put(id, add.getValue());
+        }
+        requeuedAdds.putAll(pendingAdds);
+        pendingAdds.clear();
+        pendingAdds.putAll(requeuedAdds);
+
+        for (String id : deleteIds) {
+            if (!pendingAdds.containsKey(id)) {
+                pendingDeleteIds.add(id);
+            }
+        }
+        pendingDeleteQueries.addAll(0, deleteQueries);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error while flushing the discovery indexing buffer", e);
+        }
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        return pendingAdds.size() + pendingDeleteIds.size() + pendingDeleteQueries.size();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    @Override
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    @Override
+    public long getOperationsFlushed() {
+        return operationsFlushed.get();
+    }
+
+    @Override
+    public long getLastFlushLatencyMillis() {
+        return lastFlushMillis;
+    }
+
+    @Override
+    public long getMaxFlushLatencyMillis() {
+        return maxFlushMillis.get();
+    }
+
+    @Override
+    public double getAverageFlushLatencyMillis() {
+        long count = flushCount.get();
+        return count == 0 ? 0 : (double) totalFlushMillis.get() / count;
+    }
+}
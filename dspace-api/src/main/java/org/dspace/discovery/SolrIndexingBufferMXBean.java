@@ -0,0 +1,48 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+/**
+ * MBean type exposing the metrics of the {@link SolrIndexingBuffer}.
+ */
+public interface SolrIndexingBufferMXBean {
+    /**
+     * @return the number of additions and deletions waiting to be sent to the search core
+     */
+    public int getQueueDepth();
+
+    /**
+     * @return the number of update requests sent to the search core
+     */
+    public long getFlushCount();
+
+    /**
+     * @return the number of flushes which failed
+     */
+    public long getFailedFlushCount();
+
+    /**
+     * @return the number of additions and deletions sent to the search core
+     */
+    public long getOperationsFlushed();
+
+    /**
+     * @return the duration of the last flush, in milliseconds
+     */
+    public long getLastFlushLatencyMillis();
+
+    /**
+     * @return the duration of the slowest flush, in milliseconds
+     */
+    public long getMaxFlushLatencyMillis();
+
+    /**
+     * @return the average duration of a flush, in milliseconds
+     */
+    public double getAverageFlushLatencyMillis();
+}
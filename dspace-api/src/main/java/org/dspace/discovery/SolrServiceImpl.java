@@ -30,6 +30,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.mail.MessagingException;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -72,6 +78,7 @@ import org.dspace.discovery.indexobject.IndexableCommunity;
 import org.dspace.discovery.indexobject.IndexableItem;
 import org.dspace.discovery.indexobject.factory.IndexFactory;
 import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
 import org.dspace.eperson.Group;
 import org.dspace.eperson.factory.EPersonServiceFactory;
 import org.dspace.eperson.service.GroupService;
@@ -114,6 +121,8 @@ public class SolrServiceImpl implements SearchService, IndexingService {
     @Autowired
     protected SolrSearchCore solrSearchCore;
     @Autowired
+    protected SolrIndexingBuffer solrIndexingBuffer;
+    @Autowired
     protected ConfigurationService configurationService;
 
     protected SolrServiceImpl() {
@@ -218,6 +227,7 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             log.info("Try to delete uniqueID:" + uniqueID);
             indexObjectServiceFactory.getIndexableObjectFactory(indexableObject).delete(indexableObject);
             if (commit) {
+                solrIndexingBuffer.flush();
                 solrSearchCore.getSolr().commit();
             }
         } catch (IOException | SolrServerException exception) {
@@ -254,6 +264,7 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             if (solrSearchCore.getSolr() != null) {
                 indexObjectServiceFactory.getIndexableObjectFactory(searchUniqueID).delete(searchUniqueID);
                 if (commit) {
+                    solrIndexingBuffer.flush();
                     solrSearchCore.getSolr().commit();
                 }
             }
@@ -343,6 +354,7 @@ public class SolrServiceImpl implements SearchService, IndexingService {
                 }
             }
             if (solrSearchCore.getSolr() != null) {
+                solrIndexingBuffer.flush();
                 solrSearchCore.getSolr().commit();
             }
 
@@ -351,6 +363,155 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         }
     }
 
+    /**
+     * Iterates over all indexable objects using a pool of worker threads and updates them in the index.
+     * <p>
+     * Items are split into partitions of their UUID range, every partition is processed by a worker with its own
+     * read-only Context. All other object types are processed by a single worker each. Documents are sent to the
+     * search core in batches of the given size and a single commit is done at the end.
+     *
+     * @param context   the dspace context, only used to log the outcome
+     * @param force     whether or not to force the reindexing
+     * @param type      the type of indexable objects to update, or null for all types
+     * @param threads   the number of worker threads
+     * @param batchSize the maximum number of documents sent to the search core in one request
+     */
+    @Override
+    public void updateIndex(Context context, boolean force, String type, int threads, int batchSize) {
+        if (solrSearchCore.getSolr() == null) {
+            return;
+        }
+        final int workers = Math.max(1, threads);
+        final int documentsPerBatch = Math.max(1, batchSize);
+        final int partitionCount = Math.max(workers,
+            configurationService.getIntProperty("discovery.index.parallel.partitions", workers * 4));
+
+        final List<Callable<Long>> partitions = new ArrayList<>();
+        final AtomicLong processed = new AtomicLong();
+        final long startTimeMillis = System.currentTimeMillis();
+        for (IndexFactory indexableObjectService : indexObjectServiceFactory.getIndexFactories()) {
+            if (type != null && !StringUtils.equals(indexableObjectService.getType(), type)) {
+                continue;
+            }
+            if (indexableObjectService instanceof ItemIndexFactory) {
+                final ItemIndexFactory itemIndexFactory = (ItemIndexFactory) indexableObjectService;
+                // Partition the (uniformly distributed, random) item UUIDs on their 32 most significant bits
+                final long step = (1L << 32) / partitionCount;
+                for (int i = 0; i < partitionCount; i++) {
+                    final UUID lowerBound = i == 0 ? null : new UUID((i * step) << 32, 0L);
+                    final UUID upperBound = i == partitionCount - 1 ? null : new UUID(((i + 1) * step) << 32, 0L);
+                    final String name = itemIndexFactory.getType() + " partition " + (i + 1) + "/" + partitionCount;
+                    partitions.add(() -> indexPartition(name, itemIndexFactory,
+                        c -> itemIndexFactory.findAll(c, lowerBound, upperBound),
+                        force, documentsPerBatch, processed, startTimeMillis));
+                }
+            } else {
+                partitions.add(() -> indexPartition(indexableObjectService.getType(), indexableObjectService,
+                    indexableObjectService::findAll, force, documentsPerBatch, processed, startTimeMillis));
+            }
+        }
+
+        log.info(LogHelper.getHeader(context, "update_index",
+            "partitions=" + partitions.size() + ", threads=" + workers + ", batchSize=" + documentsPerBatch));
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        int failures = 0;
+        try {
+            for (Future<Long> result : executor.invokeAll(partitions)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failures++;
+                    log.error("Error while indexing partition: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            solrIndexingBuffer.flush();
+            solrSearchCore.getSolr().commit();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting for the index partitions to complete", e);
+        } catch (IOException | SolrServerException e) {
+            log.error(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final long seconds = Math.max(1, (System.currentTimeMillis() - startTimeMillis) / 1000);
+        log.info(LogHelper.getHeader(context, "update_index",
+            "processed=" + processed.get() + ", seconds=" + seconds + ", objectsPerSecond="
+                + processed.get() / seconds + ", failedPartitions=" + failures));
+    }
+
+    /**
+     * Index all objects returned by the given finder in a new read-only Context on the current thread, sending the
+     * documents to the search core in batches.
+     *
+     * @param name            the name of the partition, used for logging
+     * @param indexFactory    the factory used to build the documents
+     * @param finder          function which retrieves the objects of this partition
+     * @param force           whether or not to force the reindexing
+     * @param batchSize       the maximum number of documents sent to the search core in one request
+     * @param processed       counter of the number of objects processed by all partitions
+     * @param startTimeMillis the time the whole update started, used to report progress
+     * @return the number of objects processed in this partition
+     */
+    protected long indexPartition(String name, IndexFactory indexFactory, PartitionFinder finder, boolean force,
+                                  int batchSize, AtomicLong processed, long startTimeMillis)
+        throws SQLException, IOException, SolrServerException {
+        final long partitionStartMillis = System.currentTimeMillis();
+        final List<SolrInputDocument> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        Context context = new Context(Context.Mode.READ_ONLY);
+        try {
+            context.turnOffAuthorisationSystem();
+            final Iterator<? extends IndexableObject> indexableObjects = finder.findAll(context);
+            while (indexableObjects.hasNext()) {
+                final IndexableObject indexableObject = indexableObjects.next();
+                try {
+                    if (force || requiresIndexing(indexableObject.getUniqueIndexID(),
+                                                  indexableObject.getLastModified())) {
+                        final SolrInputDocument document = indexFactory.buildDocument(context, indexableObject);
+                        indexFactory.prepareDocument(context, indexableObject, document);
+                        batch.add(document);
+                    }
+                } catch (IOException | SQLException | SearchServiceException e) {
+                    log.error("Error while indexing " + indexableObject.getUniqueIndexID() + ": "
+                                  + e.getMessage(), e);
+                }
+                context.uncacheEntity(indexableObject.getIndexedObject());
+                count++;
+                if (batch.size() >= batchSize) {
+                    flushBatch(batch, processed, startTimeMillis);
+                }
+            }
+            flushBatch(batch, processed, startTimeMillis);
+        } finally {
+            context.abort();
+        }
+        log.info("Indexed " + count + " objects of " + name + " in "
+                     + (System.currentTimeMillis() - partitionStartMillis) + " ms");
+        return count;
+    }
+
+    private void flushBatch(List<SolrInputDocument> batch, AtomicLong processed, long startTimeMillis)
+        throws IOException, SolrServerException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        solrSearchCore.getSolr().add(batch);
+        final long total = processed.addAndGet(batch.size());
+        final long seconds = Math.max(1, (System.currentTimeMillis() - startTimeMillis) / 1000);
+        log.info("Indexed " + total + " documents so far (" + total / seconds + " documents/second)");
+        batch.clear();
+    }
+
+    /**
+     * Retrieves the indexable objects of a single partition of a parallel reindex.
+     */
+    @FunctionalInterface
+    protected interface PartitionFinder {
+        Iterator<? extends IndexableObject> findAll(Context context) throws SQLException;
+    }
+
     /**
      * Removes all documents from the Lucene index
      */
@@ -479,6 +640,8 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         solrInputDocument.addField(SearchUtils.RESOURCE_UNIQUE_ID, uniqueIndexId);
         solrInputDocument.addField(field, fieldModifier);
 
+        // a partial update must be applied after any buffered version of the full document
+        solrIndexingBuffer.flush();
         solrSearchCore.getSolr().add(solrInputDocument);
     }
 
@@ -1512,6 +1675,7 @@ public class SolrServiceImpl implements SearchService, IndexingService {
     public void commit() throws SearchServiceException {
         try {
             if (solrSearchCore.getSolr() != null) {
+                solrIndexingBuffer.flush();
                 solrSearchCore.getSolr().commit();
             }
         } catch (IOException | SolrServerException e) {
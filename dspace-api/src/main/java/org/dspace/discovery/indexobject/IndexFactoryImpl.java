@@ -28,6 +28,7 @@ import org.dspace.core.Context;
 import org.dspace.discovery.FullTextContentStreams;
 import org.dspace.discovery.IndexableObject;
 import org.dspace.discovery.SearchUtils;
+import org.dspace.discovery.SolrIndexingBuffer;
 import org.dspace.discovery.SolrSearchCore;
 import org.dspace.discovery.SolrServiceIndexPlugin;
 import org.dspace.discovery.indexobject.factory.IndexFactory;
@@ -48,6 +49,8 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
     protected List<SolrServiceIndexPlugin> solrServiceIndexPlugins;
     @Autowired
     protected SolrSearchCore solrSearchCore;
+    @Autowired
+    protected SolrIndexingBuffer solrIndexingBuffer;
 
     @Override
     public SolrInputDocument buildDocument(Context context, T indexableObject) throws SQLException, IOException {
@@ -86,6 +89,12 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
         }
     }
 
+    @Override
+    public void prepareDocument(Context context, T indexableObject, SolrInputDocument solrInputDocument)
+            throws SQLException, IOException {
+        // By default no content is added at write time
+    }
+
     /**
      * Write the document to the index under the appropriate unique identifier.
      *
@@ -97,54 +106,65 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
             throws IOException, SolrServerException {
         final SolrClient solr = solrSearchCore.getSolr();
         if (solr != null) {
-            // If full text stream(s) were passed in, we'll index them as part of the SolrInputDocument
-            if (streams != null && !streams.isEmpty()) {
-                // limit full text indexing to first 100,000 characters unless configured otherwise
-                final int charLimit = DSpaceServicesFactory.getInstance().getConfigurationService()
-                                                           .getIntProperty("discovery.solr.fulltext.charLimit",
-                                                                           100000);
-
-                // Use Tika's Text parser as the streams are always from the TEXT bundle (i.e. already extracted text)
-                TextAndCSVParser tikaParser = new TextAndCSVParser();
-                BodyContentHandler tikaHandler = new BodyContentHandler(charLimit);
-                Metadata tikaMetadata = new Metadata();
-                ParseContext tikaContext = new ParseContext();
-
-                // Use Apache Tika to parse the full text stream(s)
-                try (InputStream fullTextStreams = streams.getStream()) {
-                    tikaParser.parse(fullTextStreams, tikaHandler, tikaMetadata, tikaContext);
-                } catch (SAXException saxe) {
-                    // Check if this SAXException is just a notice that this file was longer than the character limit.
-                    // Unfortunately there is not a unique, public exception type to catch here. This error is thrown
-                    // by Tika's WriteOutContentHandler when it encounters a document longer than the char limit
-                    // https://github.com/apache/tika/blob/main/tika-core/src/main/java/org/apache/tika/sax/WriteOutContentHandler.java
-                    if (saxe.getMessage().contains("limit has been reached")) {
-                        // log that we only indexed up to that configured limit
-                        log.info("Full text is larger than the configured limit (discovery.solr.fulltext.charLimit)."
-                                     + " Only the first {} characters were indexed.", charLimit);
-                    } else {
-                        log.error("Tika parsing error. Could not index full text.", saxe);
-                        throw new IOException("Tika parsing error. Could not index full text.", saxe);
-                    }
-                } catch (TikaException ex) {
-                    log.error("Tika parsing error. Could not index full text.", ex);
-                    throw new IOException("Tika parsing error. Could not index full text.", ex);
-                }
+            addFullText(doc, streams);
+
+            // Add document to index
+            solrIndexingBuffer.add(doc);
+        }
+    }
 
-                // Write Tika metadata to "tika_meta_*" fields.
-                // This metadata is not very useful right now, but we'll keep it just in case it becomes more useful.
-                for (String name : tikaMetadata.names()) {
-                    for (String value : tikaMetadata.getValues(name)) {
-                        doc.addField("tika_meta_" + name, value);
-                    }
+    /**
+     * Parse the provided full text streams (if any) and store the result in the "fulltext" field of the document.
+     *
+     * @param doc     the solr document to add the full text to
+     * @param streams list of bitstream content streams, may be null
+     * @throws IOException A general class of exceptions produced by failed or interrupted I/O operations.
+     */
+    protected void addFullText(SolrInputDocument doc, FullTextContentStreams streams) throws IOException {
+        // If full text stream(s) were passed in, we'll index them as part of the SolrInputDocument
+        if (streams != null && !streams.isEmpty()) {
+            // limit full text indexing to first 100,000 characters unless configured otherwise
+            final int charLimit = DSpaceServicesFactory.getInstance().getConfigurationService()
+                                                       .getIntProperty("discovery.solr.fulltext.charLimit",
+                                                                       100000);
+
+            // Use Tika's Text parser as the streams are always from the TEXT bundle (i.e. already extracted text)
+            TextAndCSVParser tikaParser = new TextAndCSVParser();
+            BodyContentHandler tikaHandler = new BodyContentHandler(charLimit);
+            Metadata tikaMetadata = new Metadata();
+            ParseContext tikaContext = new ParseContext();
+
+            // Use Apache Tika to parse the full text stream(s)
+            try (InputStream fullTextStreams = streams.getStream()) {
+                tikaParser.parse(fullTextStreams, tikaHandler, tikaMetadata, tikaContext);
+            } catch (SAXException saxe) {
+                // Check if this SAXException is just a notice that this file was longer than the character limit.
+                // Unfortunately there is not a unique, public exception type to catch here. This error is thrown
+                // by Tika's WriteOutContentHandler when it encounters a document longer than the char limit
+                // https://github.com/apache/tika/blob/main/tika-core/src/main/java/org/apache/tika/sax/WriteOutContentHandler.java
+                if (saxe.getMessage().contains("limit has been reached")) {
+                    // log that we only indexed up to that configured limit
+                    log.info("Full text is larger than the configured limit (discovery.solr.fulltext.charLimit)."
+                                 + " Only the first {} characters were indexed.", charLimit);
+                } else {
+                    log.error("Tika parsing error. Could not index full text.", saxe);
+                    throw new IOException("Tika parsing error. Could not index full text.", saxe);
                 }
+            } catch (TikaException ex) {
+                log.error("Tika parsing error. Could not index full text.", ex);
+                throw new IOException("Tika parsing error. Could not index full text.", ex);
+            }
 
-                // Save (parsed) full text to "fulltext" field
-                doc.addField("fulltext", tikaHandler.toString());
+            // Write Tika metadata to "tika_meta_*" fields.
+            // This metadata is not very useful right now, but we'll keep it just in case it becomes more useful.
+            for (String name : tikaMetadata.names()) {
+                for (String value : tikaMetadata.getValues(name)) {
+                    doc.addField("tika_meta_" + name, value);
+                }
             }
 
-            // Add document to index
-            solr.add(doc);
+            // Save (parsed) full text to "fulltext" field
+            doc.addField("fulltext", tikaHandler.toString());
         }
     }
 
@@ -221,16 +241,18 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
 
     @Override
     public void delete(T indexableObject) throws IOException, SolrServerException {
-        solrSearchCore.getSolr().deleteById(indexableObject.getUniqueIndexID());
+        solrIndexingBuffer.deleteById(indexableObject.getUniqueIndexID());
     }
 
     @Override
     public void delete(String indexableObjectIdentifier) throws IOException, SolrServerException {
-        solrSearchCore.getSolr().deleteById(indexableObjectIdentifier);
+        solrIndexingBuffer.deleteById(indexableObjectIdentifier);
     }
 
     @Override
     public void deleteAll() throws IOException, SolrServerException {
+        // Send any pending updates first, so they cannot be applied after this deletion
+        solrIndexingBuffer.flush();
         solrSearchCore.getSolr().deleteByQuery(SearchUtils.RESOURCE_TYPE_FIELD + ":" + getType());
     }
 }
@@ -119,6 +119,22 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         };
     }
 
+    @Override
+    public Iterator<IndexableItem> findAll(Context context, UUID lowerBound, UUID upperBound) throws SQLException {
+        Iterator<Item> items = itemService.findAllRegularItems(context, lowerBound, upperBound);
+        return new Iterator<IndexableItem>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public IndexableItem next() {
+                return new IndexableItem(items.next());
+            }
+        };
+    }
+
     @Override
     public String getType() {
         return IndexableItem.TYPE;
@@ -713,6 +729,12 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         writeDocument(solrInputDocument, new FullTextContentStreams(context, indexableObject.getIndexedObject()));
     }
 
+    @Override
+    public void prepareDocument(Context context, IndexableItem indexableObject, SolrInputDocument solrInputDocument)
+            throws SQLException, IOException {
+        addFullText(solrInputDocument, new FullTextContentStreams(context, indexableObject.getIndexedObject()));
+    }
+
     @Override
     public List<String> getLocations(Context context, IndexableItem indexableDSpaceObject)
             throws SQLException {
@@ -749,7 +771,7 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         // Also delete any possible workflowItem / workspaceItem / tasks related to this item
         String query = "inprogress.item:\"" + indexableObjectIdentifier + "\"";
         log.debug("Try to delete all in progress submission [DELETEBYQUERY]:" + query);
-        solrSearchCore.getSolr().deleteByQuery(query);
+        solrIndexingBuffer.deleteByQuery(query);
     }
 
     @Override
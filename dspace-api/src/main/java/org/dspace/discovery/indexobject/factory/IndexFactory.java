@@ -66,6 +66,19 @@ public interface IndexFactory<T extends IndexableObject, S> {
     void writeDocument(Context context, T indexableObject, SolrInputDocument solrInputDocument)
             throws SQLException, IOException, SolrServerException;
 
+    /**
+     * Complete the provided document with all content which is normally only added when it is written to the
+     * solr core (e.g. the extracted full text), without writing it. This allows the caller to send the document to
+     * the search core together with other documents in a single update request.
+     * @param context               DSpace context object
+     * @param indexableObject       The indexable object that we want to store in the search core
+     * @param solrInputDocument     Solr input document which will be written to our discovery search core
+     * @throws SQLException         If database error
+     * @throws IOException          If IO error
+     */
+    void prepareDocument(Context context, T indexableObject, SolrInputDocument solrInputDocument)
+            throws SQLException, IOException;
+
     /**
      * Remove the provided indexable object from the solr core
      * @param indexableObject       The indexable object that we want to remove from the search core
@@ -9,7 +9,9 @@ package org.dspace.discovery.indexobject.factory;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
 
 import org.apache.solr.common.SolrInputDocument;
 import org.dspace.content.Item;
@@ -38,4 +40,14 @@ public interface ItemIndexFactory extends DSpaceObjectIndexFactory<IndexableItem
                             List<DiscoveryConfiguration> discoveryConfigurations)
             throws SQLException, IOException;
 
+    /**
+     * Retrieve all items to be indexed whose UUID lies within the given range
+     * @param context       DSpace context object
+     * @param lowerBound    inclusive lower bound of the UUID range, or null for no lower bound
+     * @param upperBound    exclusive upper bound of the UUID range, or null for no upper bound
+     * @return              An iterator containing all the items to be indexed within the range
+     * @throws SQLException If database error
+     */
+    Iterator<IndexableItem> findAll(Context context, UUID lowerBound, UUID upperBound) throws SQLException;
+
 }
\ No newline at end of file
@@ -0,0 +1,279 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.disseminate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.authorize.AuthorizeException;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Disk cache of the cited documents (documents with a citation cover page) generated by the
+ * {@link CitationDocumentServiceImpl}, so they are not generated again for every download.
+ * <p>
+ * A cited document is cached under the item it belongs to and a version, which identifies everything the document
+ * depends on (the bitstream, its checksum, the item metadata...): a document is generated again as soon as its
+ * version changes, and documents of older versions are eventually evicted. The least recently used documents are
+ * evicted once the total size of the cache exceeds "citation-page.cache.max_size" (in MB, 0 disables the cache).
+ * The documents of an item are removed right away when the item is modified, by the
+ * {@link CitationDocumentCacheConsumer}.
+ * <p>
+ * The cache is kept in "citation-page.cache.dir", which must not be shared with other installations.
+ */
+public class CitationDocumentCache implements InitializingBean {
+
+    private static final Logger log = LogManager.getLogger(CitationDocumentCache.class);
+
+    private static final String SUFFIX = ".pdf";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @Autowired(required = true)
+    protected ConfigurationService configurationService;
+
+    /**
+     * The cache directory, null when the cache is disabled
+     */
+    private volatile File directory;
+
+    private long maxSize;
+
+    /**
+     * The size of the cached documents by file name, from the least to the most recently used
+     */
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalSize = 0;
+
+    /**
+     * The documents being generated, so a document requested by concurrent downloads is only generated once
+     */
+    private final ConcurrentMap<String, Object> pending = new ConcurrentHashMap<>();
+
+    /**
+     * A way to write a cited document
+     */
+    @FunctionalInterface
+    public interface DocumentWriter {
+        void write(File file) throws IOException, SQLException, AuthorizeException;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        long maxSizeMB = configurationService.getLongProperty("citation-page.cache.max_size", 1024);
+        if (maxSizeMB <= 0) {
+            return;
+        }
+        String dir = configurationService.getProperty("citation-page.cache.dir",
+            configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                + "citation-cache");
+        init(new File(dir), maxSizeMB * 1024 * 1024);
+    }
+
+    /**
+     * Enable the cache, and load the documents cached in the directory by a previous run.
+     *
+     * @param directory the cache directory
+     * @param maxSize   the maximum total size of the cached documents, in bytes
+     * @throws IOException if the directory can't be created
+     */
+    protected synchronized void init(File directory, long maxSize) throws IOException {
+        Files.createDirectories(directory.toPath());
+        this.directory = directory;
+        this.maxSize = maxSize;
+        entries.clear();
+        totalSize = 0;
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (file.getName().endsWith(SUFFIX)) {
+                    entries.put(file.getName(), file.length());
+                    totalSize += file.length();
+                } else if (file.getName().endsWith(TEMP_SUFFIX)) {
+                    // left over by an interrupted generation
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+        }
+        evict();
+        log.info("Caching up to {} MB of cited documents in {} ({} documents cached)", maxSize / 1024 / 1024,
+                 directory, entries.size());
+    }
+
+    /**
+     * @return whether cited documents are cached
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Get a cached document, generating and caching it if needed.
+     * <p>
+     * The document may be evicted once it is returned: it should be opened right away.
+     *
+     * @param itemId  the item of the document
+     * @param version the version of the document, a string of file name characters
+     * @param writer  the way to write the document when it isn't cached
+     * @return the cached document
+     * @throws IOException        if the document can't be written to the cache
+     * @throws SQLException       if database error while generating the document
+     * @throws AuthorizeException if authorization error while generating the document
+     */
+    public File get(UUID itemId, String version, DocumentWriter writer)
+        throws IOException, SQLException, AuthorizeException {
+        if (!isEnabled()) {
+            throw new IllegalStateException("The cache of cited documents is disabled");
+        }
+        String name = itemId + "_" + version + SUFFIX;
+        File file = new File(directory, name);
+        if (lookup(name, file)) {
+            return file;
+        }
+
+        Object lock = pending.computeIfAbsent(name, n -> new Object());
+        try {
+            synchronized (lock) {
+                // another download may have generated it meanwhile
+                if (lookup(name, file)) {
+                    return file;
+                }
+                File temp = File.createTempFile("citation", TEMP_SUFFIX, directory);
+                try {
+                    writer.write(temp);
+                    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                               StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp.toPath());
+                }
+                add(name, file.length());
+                log.debug("Cached cited document {} ({} bytes)", name, file.length());
+                return file;
+            }
+        } finally {
+            pending.remove(name, lock);
+        }
+    }
+
+    private synchronized boolean lookup(String name, File file) {
+        Long size = entries.get(name);
+        if (size == null) {
+            return false;
+        }
+        if (!file.exists()) {
+            entries.remove(name);
+            totalSize -= size;
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void add(String name, long size) {
+        Long previous = entries.put(name, size);
+        totalSize += size - (previous == null ? 0 : previous);
+        evict();
+    }
+
+    /**
+     * Evict the least recently used documents until the cache fits its maximum size, always keeping the most
+     * recently used one.
+     */
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalSize > maxSize && entries.size() > 1) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalSize -= eldest.getValue();
+            delete(eldest.getKey());
+        }
+    }
+
+    /**
+     * Remove the cached documents of the given items.
+     *
+     * @param itemIds the items
+     */
+    public synchronized void invalidate(Collection<UUID> itemIds) {
+        if (!isEnabled() || itemIds.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            String name = entry.getKey();
+            int separator = name.indexOf('_');
+            if (separator > 0 && itemIds.contains(toUUID(name.substring(0, separator)))) {
+                iterator.remove();
+                totalSize -= entry.getValue();
+                delete(name);
+            }
+        }
+    }
+
+    /**
+     * Remove all cached documents.
+     */
+    public synchronized void invalidateAll() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (String name : entries.keySet()) {
+            delete(name);
+        }
+        entries.clear();
+        totalSize = 0;
+    }
+
+    /**
+     * @return the total size of the cached documents, in bytes
+     */
+    public synchronized long getSize() {
+        return totalSize;
+    }
+
+    /**
+     * @return the number of cached documents
+     */
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    private void delete(String name) {
+        try {
+            Files.deleteIfExists(new File(directory, name).toPath());
+        } catch (IOException e) {
+            log.warn("Unable to remove the cached cited document {}", name, e);
+        }
+    }
+
+    private static UUID toUUID(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.disseminate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.event.Consumer;
+import org.dspace.event.Event;
+import org.dspace.services.factory.DSpaceServicesFactory;
+
+/**
+ * Consumer removing the cited documents of modified or deleted items from the {@link CitationDocumentCache}.
+ * <p>
+ * A changed item is never served an outdated cited document anyway, as the version of the cached documents changes
+ * with the item; this consumer frees the space of the outdated documents right away rather than waiting for them
+ * to be evicted. A change to the metadata of a community or collection (whose names appear on the cover page)
+ * removes all cached documents.
+ */
+public class CitationDocumentCacheConsumer implements Consumer {
+
+    private CitationDocumentCache cache;
+
+    private boolean invalidateAll = false;
+    private final Set<UUID> itemIds = new HashSet<>();
+
+    @Override
+    public void initialize() throws Exception {
+        cache = DSpaceServicesFactory.getInstance().getServiceManager()
+                                     .getServiceByName(CitationDocumentCache.class.getName(),
+                                                       CitationDocumentCache.class);
+    }
+
+    @Override
+    public void consume(Context ctx, Event event) throws Exception {
+        if (cache == null || !cache.isEnabled() || invalidateAll) {
+            return;
+        }
+        switch (event.getSubjectType()) {
+            case Constants.ITEM:
+                itemIds.add(event.getSubjectID());
+                break;
+            case Constants.COLLECTION:
+            case Constants.COMMUNITY:
+                if (event.getEventType() == Event.MODIFY_METADATA) {
+                    invalidateAll = true;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void end(Context ctx) throws Exception {
+        if (invalidateAll) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(itemIds);
+        }
+
+        invalidateAll = false;
+        itemIds.clear();
+    }
+
+    @Override
+    public void finish(Context ctx) throws Exception {
+
+    }
+}
@@ -8,10 +8,13 @@
 package org.dspace.disseminate;
 
 import java.awt.Color;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +22,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
@@ -112,6 +116,8 @@ public class CitationDocumentServiceImpl implements CitationDocumentService, Ini
 
     @Autowired(required = true)
     protected HandleService handleService;
+    @Autowired(required = true)
+    protected CitationDocumentCache citationDocumentCache;
 
     @Override
     public void afterPropertiesSet() throws Exception {
@@ -298,6 +304,67 @@ public class CitationDocumentServiceImpl implements CitationDocumentService, Ini
     @Override
     public Pair<byte[], Long> makeCitedDocument(Context context, Bitstream bitstream)
             throws IOException, SQLException, AuthorizeException {
+        //We already have the full PDF in memory, so keep it there
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            writeCitedDocument(context, bitstream, out);
+
+            byte[] data = out.toByteArray();
+            return Pair.of(data, Long.valueOf(data.length));
+        }
+    }
+
+    @Override
+    public File getCachedCitedDocument(Context context, Bitstream bitstream)
+            throws IOException, SQLException, AuthorizeException {
+        if (!citationDocumentCache.isEnabled()) {
+            return null;
+        }
+        Item item = (Item) bitstreamService.getParentObject(context, bitstream);
+        return citationDocumentCache.get(item.getID(), getCitedDocumentVersion(context, bitstream, item), file -> {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                writeCitedDocument(context, bitstream, out);
+            }
+        });
+    }
+
+    /**
+     * Get the version of the cited document of a bitstream, identifying everything shown in the document: the
+     * bitstream content, the item metadata (through its last modification date), the names of its owning
+     * collection and community and the configuration of the cover page.
+     *
+     * @param context   DSpace context
+     * @param bitstream the bitstream being cited
+     * @param item      the item of the bitstream
+     * @return the version, as a hexadecimal string
+     */
+    protected String getCitedDocumentVersion(Context context, Bitstream bitstream, Item item) {
+        List<String> version = new ArrayList<>();
+        version.add(bitstream.getID().toString());
+        version.add(bitstream.getChecksumAlgorithm() + ":" + bitstream.getChecksum());
+        version.add(String.valueOf(item.getLastModified() == null ? null : item.getLastModified().getTime()));
+        version.add(item.getOwningCollection() == null ? null : getOwningCollection(item));
+        version.add(getOwningCommunity(context, item));
+        version.add(String.valueOf(isCitationFirstPage()));
+        version.add(citationPageFormat.toString());
+        version.add(String.join(",", header1));
+        version.add(String.join(",", header2));
+        version.add(String.join(",", fields));
+        version.add(footer);
+        return DigestUtils.sha256Hex(String.join("\n", version));
+    }
+
+    /**
+     * Write the cited document of a bitstream.
+     *
+     * @param context   DSpace context
+     * @param bitstream the bitstream being cited, a PDF
+     * @param out       where to write the cited document
+     * @throws IOException        if IO error
+     * @throws SQLException       if database error
+     * @throws AuthorizeException if authorization error
+     */
+    protected void writeCitedDocument(Context context, Bitstream bitstream, OutputStream out)
+            throws IOException, SQLException, AuthorizeException {
         PDDocument document = new PDDocument();
         PDDocument sourceDocument = new PDDocument();
         try {
@@ -312,14 +379,7 @@ public class CitationDocumentServiceImpl implements CitationDocumentService, Ini
             generateCoverPage(context, document, coverPage, item);
             addCoverPageToDocument(document, sourceDocument, coverPage);
 
-            //We already have the full PDF in memory, so keep it there
-            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                document.save(out);
-
-                byte[] data = out.toByteArray();
-                return Pair.of(data, Long.valueOf(data.length));
-            }
-
+            document.save(out);
         } finally {
             sourceDocument.close();
             document.close();
@@ -7,6 +7,7 @@
  */
 package org.dspace.disseminate.service;
 
+import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
 
@@ -86,6 +87,22 @@ public interface CitationDocumentService {
     public Pair<byte[], Long> makeCitedDocument(Context context, Bitstream bitstream)
             throws IOException, SQLException, AuthorizeException;
 
+    /**
+     * Get the cited document of the given bitstream from the disk cache of cited documents, creating it (see
+     * {@link #makeCitedDocument(Context, Bitstream)}) if it isn't cached yet.
+     * <p>
+     * The returned file may be evicted from the cache by later calls, it should be opened right away.
+     *
+     * @param context   DSpace context
+     * @param bitstream The source bitstream being cited. This must be a PDF.
+     * @return The cached cited document, or null if the cache is disabled.
+     * @throws IOException        if IO error
+     * @throws SQLException       if database error
+     * @throws AuthorizeException if authorization error
+     */
+    public File getCachedCitedDocument(Context context, Bitstream bitstream)
+            throws IOException, SQLException, AuthorizeException;
+
     /**
      * @param page          page
      * @param contentStream content stream
@@ -555,7 +555,8 @@ public class EPersonServiceImpl extends DSpaceObjectServiceImpl<EPerson> impleme
 
     @Override
     public void updateLastModified(Context context, EPerson dso) throws SQLException {
-        //Not used
+        //Fire a modified event, e.g. when the policies of the eperson have been modified
+        context.addEvent(new Event(Event.MODIFY, Constants.EPERSON, dso.getID(), null, getIdentifiers(context, dso)));
     }
 
     @Override
@@ -153,6 +153,7 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
 
         groupParent.addMember(groupChild);
         groupChild.addParentGroup(groupParent);
+        group2GroupCacheDAO.addRelation(context, groupParent, groupChild);
 
         context.addEvent(new Event(Event.ADD, Constants.GROUP, groupParent.getID(), Constants.GROUP, groupChild.getID(),
                                    groupChild.getName(), getIdentifiers(context, groupParent)));
@@ -224,6 +225,7 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
         }
         if (groupParent.remove(childGroup)) {
             childGroup.removeParentGroup(groupParent);
+            removeGroupCacheRelation(context, groupParent, childGroup);
             context.addEvent(
                 new Event(Event.REMOVE, Constants.GROUP, groupParent.getID(), Constants.GROUP, childGroup.getID(),
                           childGroup.getName(), getIdentifiers(context, groupParent)));
@@ -486,8 +488,17 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
         // Remove any ResourcePolicies that reference this group
         authorizeService.removeGroupPolicies(context, group);
 
-        group.getMemberGroups().clear();
-        group.getParentGroups().clear();
+        // Remove the memberships one at a time, so only the cache rows of related groups have to be updated
+        for (Group parent : new ArrayList<>(group.getParentGroups())) {
+            parent.remove(group);
+            group.removeParentGroup(parent);
+            removeGroupCacheRelation(context, parent, group);
+        }
+        for (Group child : new ArrayList<>(group.getMemberGroups())) {
+            group.remove(child);
+            child.removeParentGroup(group);
+            removeGroupCacheRelation(context, group, child);
+        }
 
         //Remove all eperson references from this group
         Iterator<EPerson> ePeople = group.getMembers().iterator();
@@ -497,11 +508,8 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
             ePerson.getGroups().remove(group);
         }
 
-        // empty out group2groupcache table (if we do it after we delete our object we get an issue with references)
-        group2GroupCacheDAO.deleteAll(context);
         // Remove ourself
         groupDAO.delete(context, group);
-        rethinkGroupCache(context, false);
 
         log.info(LogHelper.getHeader(context, "delete_group", "group_id="
             + group.getID()));
@@ -591,10 +599,8 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
             group.clearDetails();
         }
 
-        if (group.isGroupsChanged()) {
-            rethinkGroupCache(context, true);
-            group.clearGroupsChanged();
-        }
+        // The group2groupcache table is already up to date, it is maintained when memberships are added or removed
+        group.clearGroupsChanged();
 
         log.info(LogHelper.getHeader(context, "update_group", "group_id="
             + group.getID()));
@@ -607,6 +613,24 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
     }
 
 
+    /**
+     * Update the group cache AKA the group2groupcache table after the child group has been removed from the parent
+     * group. Only the rows of the groups related to them are updated, unless the removed membership was part of a
+     * cycle, in which case the whole cache is regenerated.
+     *
+     * @param context The relevant DSpace Context.
+     * @param parent  the group the child has been removed from
+     * @param child   the removed child group
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    protected void removeGroupCacheRelation(Context context, Group parent, Group child) throws SQLException {
+        if (group2GroupCacheDAO.findByParentAndChild(context, child, parent) != null) {
+            rethinkGroupCache(context, true);
+        } else {
+            group2GroupCacheDAO.removeRelation(context, parent, child);
+        }
+    }
+
     /**
      * Regenerate the group cache AKA the group2groupcache table in the database -
      * meant to be called when a group is added or removed from another group
@@ -770,7 +794,8 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
 
     @Override
     public void updateLastModified(Context context, Group dso) {
-        //Not needed.
+        //Fire a modified event, e.g. when the policies of the group have been modified
+        context.addEvent(new Event(Event.MODIFY, Constants.GROUP, dso.getID(), null, getIdentifiers(context, dso)));
     }
 
     /**
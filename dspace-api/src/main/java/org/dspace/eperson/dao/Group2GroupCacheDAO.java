@@ -34,4 +34,29 @@ public interface Group2GroupCacheDAO extends GenericDAO<Group2GroupCache> {
     public Group2GroupCache find(Context context, Group parent, Group child) throws SQLException;
 
     public void deleteAll(Context context) throws SQLException;
+
+    /**
+     * Add the cache rows implied by a new direct membership of the child group in the parent group: every ancestor
+     * of the parent (and the parent itself) now contains every descendant of the child (and the child itself).
+     * Only the rows of these ancestors and descendants are touched.
+     *
+     * @param context The relevant DSpace Context.
+     * @param parent  the parent group of the new membership
+     * @param child   the child group of the new membership
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    public void addRelation(Context context, Group parent, Group child) throws SQLException;
+
+    /**
+     * Remove the cache rows which are no longer implied after the direct membership of the child group in the
+     * parent group has been removed (and flushed to the group2group table). Only rows between an ancestor of the
+     * parent and a descendant of the child are deleted, and those still implied through another path are restored.
+     * The removed membership must not have been part of a cycle (i.e. the child must not contain the parent).
+     *
+     * @param context The relevant DSpace Context.
+     * @param parent  the parent group of the removed membership
+     * @param child   the child group of the removed membership
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    public void removeRelation(Context context, Group parent, Group child) throws SQLException;
 }
@@ -22,6 +22,7 @@ import org.dspace.eperson.Group;
 import org.dspace.eperson.Group2GroupCache;
 import org.dspace.eperson.Group2GroupCache_;
 import org.dspace.eperson.dao.Group2GroupCacheDAO;
+import org.hibernate.query.NativeQuery;
 
 /**
  * Hibernate implementation of the Database Access Object interface class for the Group2GroupCache object.
@@ -31,6 +32,21 @@ import org.dspace.eperson.dao.Group2GroupCacheDAO;
  * @author kevinvandevelde at atmire.com
  */
 public class Group2GroupCacheDAOImpl extends AbstractHibernateDAO<Group2GroupCache> implements Group2GroupCacheDAO {
+
+    /**
+     * The parent group and all groups containing it.
+     */
+    private static final String ANCESTORS =
+        "SELECT a.parent_id AS id FROM group2groupcache a WHERE a.child_id = :parent " +
+        "UNION SELECT g.uuid AS id FROM epersongroup g WHERE g.uuid = :parent";
+
+    /**
+     * The child group and all groups it contains.
+     */
+    private static final String DESCENDANTS =
+        "SELECT d.child_id AS id FROM group2groupcache d WHERE d.parent_id = :child " +
+        "UNION SELECT g.uuid AS id FROM epersongroup g WHERE g.uuid = :child";
+
     protected Group2GroupCacheDAOImpl() {
         super();
     }
@@ -90,4 +106,65 @@ public class Group2GroupCacheDAOImpl extends AbstractHibernateDAO<Group2GroupCac
     public void deleteAll(Context context) throws SQLException {
         createQuery(context, "delete from Group2GroupCache").executeUpdate();
     }
+
+    @Override
+    public void addRelation(Context context, Group parent, Group child) throws SQLException {
+        // The native statements below do not trigger a flush of pending changes to the groups
+        getHibernateSession(context).flush();
+        NativeQuery<?> query = createNativeQuery(context,
+            "INSERT INTO group2groupcache (parent_id, child_id) " +
+            "SELECT ancestor.id, descendant.id " +
+            "FROM (" + ANCESTORS + ") ancestor, (" + DESCENDANTS + ") descendant " +
+            "WHERE ancestor.id <> descendant.id " +
+            "AND NOT EXISTS (SELECT 1 FROM group2groupcache existing " +
+            "WHERE existing.parent_id = ancestor.id AND existing.child_id = descendant.id)");
+        query.setParameter("parent", parent.getID());
+        query.setParameter("child", child.getID());
+        query.executeUpdate();
+    }
+
+    @Override
+    public void removeRelation(Context context, Group parent, Group child) throws SQLException {
+        getHibernateSession(context).flush();
+
+        // All rows between an ancestor of the parent and a descendant of the child may have depended on the removed
+        // membership. As there is no cycle through it, the rows defining these ancestors and descendants do not.
+        NativeQuery<?> delete = createNativeQuery(context,
+            "DELETE FROM group2groupcache " +
+            "WHERE parent_id IN (SELECT ancestor.id FROM (" + ANCESTORS + ") ancestor) " +
+            "AND child_id IN (SELECT descendant.id FROM (" + DESCENDANTS + ") descendant)");
+        delete.setParameter("parent", parent.getID());
+        delete.setParameter("child", child.getID());
+        delete.executeUpdate();
+
+        // Restore the rows which are still implied. Any remaining path from an ancestor to a descendant leaves the
+        // ancestors through a direct membership "via -> edge.child_id", and the remaining rows already link the
+        // ancestor to "via" and "edge.child_id" to the descendant (unless they are the same group).
+        NativeQuery<?> restore = createNativeQuery(context,
+            "INSERT INTO group2groupcache (parent_id, child_id) " +
+            "SELECT DISTINCT ancestor.id, descendant.id " +
+            "FROM (" + ANCESTORS + ") ancestor, (" + ANCESTORS + ") via, group2group edge, " +
+            "(" + DESCENDANTS + ") descendant " +
+            "WHERE edge.parent_id = via.id " +
+            "AND ancestor.id <> descendant.id " +
+            "AND (ancestor.id = via.id OR EXISTS (SELECT 1 FROM group2groupcache c1 " +
+            "WHERE c1.parent_id = ancestor.id AND c1.child_id = via.id)) " +
+            "AND (edge.child_id = descendant.id OR EXISTS (SELECT 1 FROM group2groupcache c2 " +
+            "WHERE c2.parent_id = edge.child_id AND c2.child_id = descendant.id)) " +
+            "AND NOT EXISTS (SELECT 1 FROM group2groupcache existing " +
+            "WHERE existing.parent_id = ancestor.id AND existing.child_id = descendant.id)");
+        restore.setParameter("parent", parent.getID());
+        restore.setParameter("child", child.getID());
+        restore.executeUpdate();
+    }
+
+    /**
+     * Create a native statement on the group2groupcache table, which only invalidates the cached Group2GroupCache
+     * queries and entities.
+     */
+    private NativeQuery<?> createNativeQuery(Context context, String sql) throws SQLException {
+        NativeQuery<?> query = getHibernateSession(context).createNativeQuery(sql);
+        query.addSynchronizedEntityClass(Group2GroupCache.class);
+        return query;
+    }
 }
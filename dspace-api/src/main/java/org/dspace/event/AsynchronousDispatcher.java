@@ -0,0 +1,164 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.event;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.core.Context;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+
+/**
+ * Dispatcher which delivers the events of asynchronous consumers (see {@link ConsumerProfile#isAsynchronous()})
+ * outside of the transaction which produced them, so slow consumers do not delay the commit of every change.
+ * Synchronous consumers are handled exactly like the {@link BasicDispatcher} does.
+ * <p>
+ * Once the transaction has been committed, the events passing the filters of an asynchronous consumer are written to
+ * its durable {@link AsynchronousEventQueue}, which is drained by dedicated worker threads. Events of the same subject
+ * are delivered in order; failures are retried with backoff and finally dead-lettered.
+ * <p>
+ * Configuration:
+ * <pre>
+ * event.dispatcher.default.class = org.dspace.event.AsynchronousDispatcher
+ * event.consumer.discovery.async = true
+ * event.consumer.discovery.workers = 2
+ * </pre>
+ * See the "event.queue.*" properties in dspace.cfg for the location of the queues and the retry policy.
+ */
+public class AsynchronousDispatcher extends BasicDispatcher {
+
+    private static final Logger log = LogManager.getLogger(AsynchronousDispatcher.class);
+
+    /**
+     * Queues by dispatcher and consumer name, shared by all (pooled) instances of a dispatcher
+     */
+    private static final Map<String, AsynchronousEventQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Asynchronous consumers by their configured name
+     */
+    protected final Map<String, ConsumerProfile> asynchronousConsumers = new LinkedHashMap<>();
+
+    /**
+     * Events of the current dispatch to queue for each asynchronous consumer
+     */
+    private Map<String, List<Event>> pendingEvents = new LinkedHashMap<>();
+
+    public AsynchronousDispatcher(String name) {
+        super(name);
+    }
+
+    @Override
+    public Collection getConsumers() {
+        List<ConsumerProfile> all = new ArrayList<>(consumers.values());
+        all.addAll(asynchronousConsumers.values());
+        return all;
+    }
+
+    @Override
+    public void addConsumerProfile(ConsumerProfile cp) throws IllegalArgumentException {
+        if (!cp.isAsynchronous()) {
+            if (asynchronousConsumers.containsKey(cp.getName())) {
+                throw new IllegalArgumentException(
+                    "This dispatcher already has a consumer named \"" + cp.getName() + "\"");
+            }
+            super.addConsumerProfile(cp);
+            return;
+        }
+        if (consumers.containsKey(cp.getName()) || asynchronousConsumers.containsKey(cp.getName())) {
+            throw new IllegalArgumentException(
+                "This dispatcher already has a consumer named \"" + cp.getName() + "\"");
+        }
+        getQueue(cp.getName());
+        asynchronousConsumers.put(cp.getName(), cp);
+    }
+
+    @Override
+    public void dispatch(Context ctx) {
+        pendingEvents = new LinkedHashMap<>();
+        super.dispatch(ctx);
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+
+        // Consumers running after the commit must see the committed changes
+        Map<String, List<Event>> events = pendingEvents;
+        ctx.addCommitAction(() -> events.forEach(this::enqueue));
+    }
+
+    @Override
+    protected void dispatchEvent(Context ctx, Event event) {
+        super.dispatchEvent(ctx, event);
+        for (ConsumerProfile cp : asynchronousConsumers.values()) {
+            if (event.pass(cp.getFilters())) {
+                pendingEvents.computeIfAbsent(cp.getName(), name -> new ArrayList<>()).add(event);
+            }
+        }
+    }
+
+    private void enqueue(String consumerName, List<Event> events) {
+        try {
+            getQueue(consumerName).enqueue(events);
+        } catch (IOException e) {
+            log.error("Unable to queue {} events for the asynchronous consumer \"{}\", they are lost: {}",
+                      events.size(), consumerName, events, e);
+        }
+    }
+
+    /**
+     * Stop the workers of all queues, waiting for the segments being processed (see {@link
+     * EventServiceImpl#destroy()}). The queues themselves stay usable: events queued afterwards are processed once
+     * the queue is started again, e.g. by the next process.
+     *
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void stopQueues() throws InterruptedException {
+        for (Map.Entry<String, AsynchronousEventQueue> queue : queues.entrySet()) {
+            log.info("Stopping the asynchronous event queue {}", queue.getKey());
+            queue.getValue().stop();
+        }
+    }
+
+    /**
+     * Get the queue of an asynchronous consumer of this dispatcher, creating and starting it if needed.
+     *
+     * @param consumerName the name of the consumer
+     * @return the started queue
+     * @throws IllegalStateException if the queue cannot be started
+     */
+    protected AsynchronousEventQueue getQueue(String consumerName) {
+        return queues.computeIfAbsent(name + "/" + consumerName, key -> {
+            ConfigurationService configurationService
+                = DSpaceServicesFactory.getInstance().getConfigurationService();
+            File directory = new File(configurationService.getProperty("event.queue.dir",
+                configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                    + "event-queue"), name + File.separator + consumerName);
+            AsynchronousEventQueue queue = new AsynchronousEventQueue(consumerName, directory,
+                configurationService.getIntProperty("event.consumer." + consumerName + ".workers", 1),
+                configurationService.getIntProperty("event.queue.max-attempts", 5),
+                configurationService.getLongProperty("event.queue.backoff.initial", 1000),
+                configurationService.getLongProperty("event.queue.backoff.max", 60000),
+                configurationService.getLongProperty("event.queue.poll-interval", 5000));
+            try {
+                queue.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start the event queue in " + directory, e);
+            }
+            return queue;
+        });
+    }
+}
@@ -0,0 +1,358 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.event;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.core.Context;
+
+/**
+ * Durable queue of the events of one asynchronous consumer of an {@link AsynchronousDispatcher}.
+ * <p>
+ * The queue is split in a fixed number of lanes, each drained in order by its own worker thread. All events of a
+ * given subject are always sent to the same lane, so a consumer receives the events of a given object in the order
+ * in which they were committed, while events of different objects may be processed in parallel. Every lane is a
+ * directory holding one file ("segment") for each committed transaction; a segment is only removed once the consumer
+ * processed all of its events, so pending events survive a restart (delivery is at-least-once).
+ * <p>
+ * A segment whose processing fails is retried with exponential backoff, blocking its lane to preserve ordering.
+ * After the maximum number of attempts the segment is moved to the "dead-letter" directory of the queue. Dead
+ * letters can be replayed by moving them back into one of the lane directories.
+ * <p>
+ * Several processes (e.g. the webapp and command line tools) may share a queue directory: each lane is only drained
+ * by the process holding the lock on its directory.
+ */
+public class AsynchronousEventQueue {
+
+    private static final Logger log = LogManager.getLogger(AsynchronousEventQueue.class);
+
+    private static final String SEGMENT_SUFFIX = ".events";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String LOCK_FILE = ".lock";
+    private static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+    private final String consumerName;
+    private final File directory;
+    private final File deadLetterDirectory;
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final long pollInterval;
+    private final Lane[] lanes;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean running;
+
+    /**
+     * @param consumerName   name of the consumer draining the queue
+     * @param directory      directory holding the queue
+     * @param workers        number of lanes, each drained by one worker thread
+     * @param maxAttempts    number of attempts to process a segment before it is dead-lettered
+     * @param initialBackoff delay in milliseconds before the first retry, doubled for each following retry
+     * @param maxBackoff     maximum delay in milliseconds between two retries
+     * @param pollInterval   interval in milliseconds at which the lanes are checked for segments queued by other
+     *                       processes
+     */
+    public AsynchronousEventQueue(String consumerName, File directory, int workers, int maxAttempts,
+                                  long initialBackoff, long maxBackoff, long pollInterval) {
+        this.consumerName = consumerName;
+        this.directory = directory;
+        this.deadLetterDirectory = new File(directory, DEAD_LETTER_DIRECTORY);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.pollInterval = pollInterval;
+        this.lanes = new Lane[Math.max(1, workers)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+        }
+    }
+
+    /**
+     * Start the worker threads. Segments left in the queue by a previous run are processed first.
+     *
+     * @throws IOException if the queue directories cannot be created
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        Files.createDirectories(deadLetterDirectory.toPath());
+        for (Lane lane : lanes) {
+            Files.createDirectories(lane.directory.toPath());
+        }
+        running = true;
+        for (Lane lane : lanes) {
+            lane.thread = new Thread(lane, "event-queue-" + consumerName + "-" + lane.index);
+            lane.thread.setDaemon(true);
+            lane.thread.start();
+        }
+        log.info("Started {} worker(s) for the asynchronous event consumer \"{}\" in {}", lanes.length,
+                 consumerName, directory);
+    }
+
+    /**
+     * Stop the worker threads, waiting for the segments being processed. Segments which are still queued are
+     * processed when the queue is started again.
+     *
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Lane lane : lanes) {
+            lane.signal();
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join();
+        }
+    }
+
+    /**
+     * Durably queue events (of a committed transaction). The events are split over the lanes according to their
+     * subject, and written to one segment per lane.
+     *
+     * @param events the events to queue, in the order in which they occurred
+     * @throws IOException if the events cannot be written to the queue
+     */
+    public void enqueue(List<Event> events) throws IOException {
+        Map<Lane, List<Event>> segments = new HashMap<>();
+        for (Event event : events) {
+            segments.computeIfAbsent(getLane(event.getSubjectID()), lane -> new ArrayList<>()).add(event);
+        }
+        // The name orders the segments of a lane by creation, and is unique across processes
+        String name = String.format("%013d-%012d-%s", System.currentTimeMillis(), sequence.incrementAndGet(),
+                                    UUID.randomUUID());
+        for (Map.Entry<Lane, List<Event>> segment : segments.entrySet()) {
+            Lane lane = segment.getKey();
+            Files.createDirectories(lane.directory.toPath());
+            File temporary = new File(lane.directory, name + TEMPORARY_SUFFIX);
+            try (FileOutputStream file = new FileOutputStream(temporary);
+                 ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(file))) {
+                out.writeObject(new ArrayList<>(segment.getValue()));
+                out.flush();
+                file.getFD().sync();
+            }
+            // Only complete segments are visible to the workers
+            Files.move(temporary.toPath(), new File(lane.directory, name + SEGMENT_SUFFIX).toPath(),
+                       StandardCopyOption.ATOMIC_MOVE);
+            lane.signal();
+        }
+    }
+
+    /**
+     * @return the number of segments waiting to be processed, in all lanes
+     */
+    public int getQueuedSegments() {
+        int count = 0;
+        for (Lane lane : lanes) {
+            count += lane.listSegments().length;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of segments which have been dead-lettered
+     */
+    public int getDeadLetterSegments() {
+        String[] names = deadLetterDirectory.list((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        return names == null ? 0 : names.length;
+    }
+
+    private Lane getLane(UUID subjectID) {
+        return subjectID == null ? lanes[0] : lanes[Math.floorMod(subjectID.hashCode(), lanes.length)];
+    }
+
+    /**
+     * Deliver the events of one segment to the consumer, in a new Context which is committed afterwards. The
+     * consumer instance of the lane is reused until a delivery fails, so it is initialized once per lane.
+     *
+     * @param lane   the index of the lane of the segment
+     * @param events the events of the segment
+     * @throws Exception if the consumer, or the commit, failed
+     */
+    protected void deliver(int lane, List<Event> events) throws Exception {
+        Lane worker = lanes[lane];
+        if (worker.profile == null) {
+            ConsumerProfile profile = ConsumerProfile.makeConsumerProfile(consumerName);
+            profile.getConsumer().initialize();
+            worker.profile = profile;
+        }
+        Consumer consumer = worker.profile.getConsumer();
+        Context context = new Context();
+        try {
+            // The events are consumed on behalf of the (already committed) transaction which produced them
+            context.turnOffAuthorisationSystem();
+            for (Event event : events) {
+                consumer.consume(context, event);
+                event.setBitSet(consumerName);
+            }
+            consumer.end(context);
+            context.restoreAuthSystemState();
+            context.complete();
+        } finally {
+            if (context.isValid()) {
+                context.abort();
+            }
+        }
+    }
+
+    /**
+     * One lane of the queue: a directory of segments and the worker thread draining it.
+     */
+    private class Lane implements Runnable {
+        private final int index;
+        private final File directory;
+        private Thread thread;
+        private ConsumerProfile profile;
+        private boolean signalled;
+
+        Lane(int index) {
+            this.index = index;
+            this.directory = new File(AsynchronousEventQueue.this.directory, String.valueOf(index));
+        }
+
+        @Override
+        public void run() {
+            try (RandomAccessFile lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw")) {
+                FileLock lock = null;
+                while (running && lock == null) {
+                    lock = lockFile.getChannel().tryLock();
+                    if (lock == null) {
+                        // Another process is draining this lane
+                        await(pollInterval);
+                    }
+                }
+                while (running) {
+                    String[] segments = listSegments();
+                    for (int i = 0; i < segments.length && running; i++) {
+                        process(new File(directory, segments[i]));
+                    }
+                    if (segments.length == 0) {
+                        await(pollInterval);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("The worker of lane {} of the asynchronous event consumer \"{}\" stopped", index,
+                          consumerName, e);
+            }
+        }
+
+        private String[] listSegments() {
+            String[] names = directory.list((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+            if (names == null) {
+                return new String[0];
+            }
+            Arrays.sort(names);
+            return names;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void process(File segment) throws IOException {
+            List<Event> events;
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(
+                new FileInputStream(segment)))) {
+                events = (List<Event>) in.readObject();
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                log.error("Unable to read the event segment {} of consumer \"{}\"", segment, consumerName, e);
+                deadLetter(segment);
+                return;
+            }
+
+            for (int attempt = 1; running; attempt++) {
+                try {
+                    deliver(index, events);
+                    Files.delete(segment.toPath());
+                    return;
+                } catch (Exception e) {
+                    // Start over with a fresh consumer, it may hold state from the failed attempt
+                    profile = null;
+                    if (attempt >= maxAttempts) {
+                        log.error("Consumer \"{}\" failed to process the event segment {} after {} attempts, "
+                                      + "moving it to the dead letters. Events: {}", consumerName, segment,
+                                  attempt, events, e);
+                        deadLetter(segment);
+                        return;
+                    }
+                    long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 30));
+                    log.warn("Consumer \"{}\" failed to process the event segment {} (attempt {} of {}), "
+                                 + "retrying in {} ms", consumerName, segment, attempt, maxAttempts, backoff, e);
+                    sleep(backoff);
+                }
+            }
+        }
+
+        private void deadLetter(File segment) throws IOException {
+            Files.move(segment.toPath(), new File(deadLetterDirectory, segment.getName()).toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        /**
+         * Wake up the worker, as a segment was queued or the queue is stopping.
+         */
+        private synchronized void signal() {
+            signalled = true;
+            notifyAll();
+        }
+
+        /**
+         * Wait until signalled, or for at most the given time.
+         */
+        private synchronized void await(long millis) {
+            try {
+                if (!signalled && running) {
+                    wait(millis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                signalled = false;
+            }
+        }
+
+        /**
+         * Wait for the given time, unless the queue is stopping.
+         */
+        private synchronized void sleep(long millis) {
+            long deadline = System.currentTimeMillis() + millis;
+            long remaining = millis;
+            try {
+                while (running && remaining > 0) {
+                    wait(remaining);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+}
@@ -64,7 +64,7 @@ public class BasicDispatcher extends Dispatcher {
      */
     @Override
     public void dispatch(Context ctx) {
-        if (!consumers.isEmpty()) {
+        if (!getConsumers().isEmpty()) {
 
             if (!ctx.hasEvents()) {
                 return;
@@ -85,34 +85,7 @@ public class BasicDispatcher extends Dispatcher {
                 event.setDispatcher(getIdentifier());
                 event.setTransactionID(tid);
 
-                if (log.isDebugEnabled()) {
-                    log.debug("Iterating over "
-                                  + String.valueOf(consumers.values().size())
-                                  + " consumers...");
-                }
-
-                for (Iterator ci = consumers.values().iterator(); ci.hasNext(); ) {
-                    ConsumerProfile cp = (ConsumerProfile) ci.next();
-
-                    if (event.pass(cp.getFilters())) {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Sending event to \"" + cp.getName()
-                                          + "\": " + event.toString());
-                        }
-
-                        try {
-                            cp.getConsumer().consume(ctx, event);
-
-                            // Record that the event has been consumed by this
-                            // consumer
-                            event.setBitSet(cp.getName());
-                        } catch (Exception e) {
-                            log.error("Consumer(\"" + cp.getName()
-                                          + "\").consume threw: " + e.toString(), e);
-                        }
-                    }
-
-                }
+                dispatchEvent(ctx, event);
             }
 
             // Call end on the consumers that got synchronous events.
@@ -135,4 +108,40 @@ public class BasicDispatcher extends Dispatcher {
         }
     }
 
+    /**
+     * Deliver a single event to all consumers whose filters it passes.
+     *
+     * @param ctx   the execution context
+     * @param event the event to deliver
+     */
+    protected void dispatchEvent(Context ctx, Event event) {
+        if (log.isDebugEnabled()) {
+            log.debug("Iterating over "
+                          + String.valueOf(consumers.values().size())
+                          + " consumers...");
+        }
+
+        for (Iterator ci = consumers.values().iterator(); ci.hasNext(); ) {
+            ConsumerProfile cp = (ConsumerProfile) ci.next();
+
+            if (event.pass(cp.getFilters())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Sending event to \"" + cp.getName()
+                                  + "\": " + event.toString());
+                }
+
+                try {
+                    cp.getConsumer().consume(ctx, event);
+
+                    // Record that the event has been consumed by this
+                    // consumer
+                    event.setBitSet(cp.getName());
+                } catch (Exception e) {
+                    log.error("Consumer(\"" + cp.getName()
+                                  + "\").consume threw: " + e.toString(), e);
+                }
+            }
+        }
+    }
+
 }
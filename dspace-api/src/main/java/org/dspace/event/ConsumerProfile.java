@@ -19,8 +19,10 @@ import org.dspace.services.factory.DSpaceServicesFactory;
 /**
  * An instance of this class contains the configuration profile of a specific,
  * named Consumer, <em>in the context of a specific Dispatcher</em>. This
- * includes the name, the class to instantiate and event filters. Note that all
- * characteristics are "global" and the same for all dispatchers.
+ * includes the name, the class to instantiate, event filters and whether the
+ * consumer needs its events synchronously (within the transaction which produced
+ * them) or accepts asynchronous delivery. Note that all characteristics are
+ * "global" and the same for all dispatchers.
  */
 public class ConsumerProfile {
     /**
@@ -43,6 +45,12 @@ public class ConsumerProfile {
      */
     private List<int[]> filters;
 
+    /**
+     * Whether the consumer accepts asynchronous delivery of its events, after the
+     * transaction which produced them has been committed
+     */
+    private boolean asynchronous;
+
     // Prefix of keys in DSpace Configuration.
     private static final String CONSUMER_PREFIX = "event.consumer.";
 
@@ -94,6 +102,8 @@ public class ConsumerProfile {
                                                                 + name + ".class");
         String filterString = configurationService.getProperty(CONSUMER_PREFIX
                                                                    + name + ".filters");
+        asynchronous = configurationService.getBooleanProperty(CONSUMER_PREFIX
+                                                                   + name + ".async", false);
 
         if (className == null) {
             throw new IllegalArgumentException(
@@ -163,4 +173,16 @@ public class ConsumerProfile {
     public String getName() {
         return name;
     }
+
+    /**
+     * Dispatchers which support it (see {@link AsynchronousDispatcher}) deliver the
+     * events of asynchronous consumers on a worker thread, after the transaction which
+     * produced them has been committed. Synchronous consumers always receive their
+     * events within that transaction.
+     *
+     * @return true if the consumer is configured with "event.consumer.&lt;name&gt;.async = true"
+     */
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
 }
@@ -27,6 +27,7 @@ import org.dspace.core.Context;
 import org.dspace.event.service.EventService;
 import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
  * Class for managing the content event environment. The EventManager mainly
@@ -35,7 +36,7 @@ import org.dspace.services.factory.DSpaceServicesFactory;
  *
  * Version: $Revision$
  */
-public class EventServiceImpl implements EventService {
+public class EventServiceImpl implements EventService, DisposableBean {
     /**
      * log4j category
      */
@@ -112,6 +113,15 @@ public class EventServiceImpl implements EventService {
 
     }
 
+    /**
+     * Stop the workers of the asynchronous event queues, letting them finish the segments being processed, on
+     * shutdown of the webapp or of a command line tool.
+     */
+    @Override
+    public void destroy() throws Exception {
+        AsynchronousDispatcher.stopQueues();
+    }
+
     @Override
     public void returnDispatcher(String key, Dispatcher disp) {
         try {
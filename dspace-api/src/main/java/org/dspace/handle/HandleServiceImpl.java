@@ -9,7 +9,10 @@ package org.dspace.handle;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -44,6 +47,11 @@ public class HandleServiceImpl implements HandleService {
      */
     private static final Logger log = LogManager.getLogger();
 
+    /**
+     * Maximum number of handles of the IN lists of a query
+     */
+    private static final int IN_LIST_SIZE = 1000;
+
     /**
      * Prefix registered to no one
      */
@@ -253,6 +261,23 @@ public class HandleServiceImpl implements HandleService {
         return dbhandle.getDSpaceObject();
     }
 
+    @Override
+    public Map<String, DSpaceObject> resolveToObjects(Context context, Collection<String> handles)
+        throws SQLException {
+        Map<String, DSpaceObject> objects = new HashMap<>();
+        List<String> handleList = new ArrayList<>(handles);
+        // keep the IN lists of a reasonable size
+        for (int i = 0; i < handleList.size(); i += IN_LIST_SIZE) {
+            List<String> chunk = handleList.subList(i, Math.min(handleList.size(), i + IN_LIST_SIZE));
+            for (Handle dbhandle : handleDAO.findByHandles(context, chunk)) {
+                if (dbhandle.getDSpaceObject() != null && dbhandle.getResourceTypeId() != null) {
+                    objects.put(dbhandle.getHandle(), dbhandle.getDSpaceObject());
+                }
+            }
+        }
+        return objects;
+    }
+
     @Override
     public String findHandle(Context context, DSpaceObject dso)
         throws SQLException {
@@ -31,6 +31,8 @@ public interface HandleDAO extends GenericDAO<Handle> {
 
     public Handle findByHandle(Context context, String handle) throws SQLException;
 
+    public List<Handle> findByHandles(Context context, List<String> handles) throws SQLException;
+
     public List<Handle> findByPrefix(Context context, String prefix) throws SQLException;
 
     public long countHandlesByPrefix(Context context, String prefix) throws SQLException;
@@ -77,6 +77,18 @@ public class HandleDAOImpl extends AbstractHibernateDAO<Handle> implements Handl
         return singleResult(query);
     }
 
+    @Override
+    public List<Handle> findByHandles(Context context, List<String> handles) throws SQLException {
+        Query query = createQuery(context,
+                                  "SELECT h " +
+                                      "FROM Handle h " +
+                                      "LEFT JOIN FETCH h.dso " +
+                                      "WHERE h.handle IN (:handles) ");
+
+        query.setParameter("handles", handles);
+        return list(query);
+    }
+
     @Override
     public List<Handle> findByPrefix(Context context, String prefix) throws SQLException {
 
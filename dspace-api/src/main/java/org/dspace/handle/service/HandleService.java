@@ -8,7 +8,9 @@
 package org.dspace.handle.service;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.dspace.content.DSpaceObject;
 import org.dspace.core.Context;
@@ -143,6 +145,17 @@ public interface HandleService {
     public DSpaceObject resolveToObject(Context context, String handle)
         throws IllegalStateException, SQLException;
 
+    /**
+     * Return the objects which the given handles map to, with a few queries rather than one per handle.
+     *
+     * @param context DSpace context
+     * @param handles The handles to resolve
+     * @return The objects by handle; the handles which are not mapped to any object are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<String, DSpaceObject> resolveToObjects(Context context, Collection<String> handles)
+        throws SQLException;
+
 
     /**
      * Return the handle for an Object, or null if the Object has no handle.
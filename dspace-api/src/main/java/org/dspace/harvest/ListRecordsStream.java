@@ -0,0 +1,415 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.harvest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.StAXStreamBuilder;
+
+/**
+ * Stream of the records of an OAI-PMH ListRecords request, following its resumption tokens.
+ * <p>
+ * Each response is first downloaded entirely by a reader thread, in memory or, beyond {@link
+ * #getSpoolThreshold()} bytes, in a temporary file, so the connection to the provider is never left open while
+ * the ingest is slow (providers may drop connections idle for too long). The page is then parsed with StAX, one
+ * record at a time, into a bounded queue: only the queued records are held in memory, not whole pages. As soon
+ * as a page is read, the next one is requested, so the download and parsing of the next records overlap with the
+ * ingest of the previous ones.
+ * <p>
+ * {@link #take()} returns the records in order, {@link #PAGE_END} after the last record of each page, then null
+ * once the list is complete.
+ */
+public class ListRecordsStream implements Closeable {
+
+    private static final Logger log = LogManager.getLogger();
+
+    private static final String OAI_NS = "http://www.openarchives.org/OAI/2.0/";
+
+    /**
+     * Returned by {@link #take()} after the last record of each page
+     */
+    public static final Element PAGE_END = new Element("pageEnd");
+
+    /**
+     * Size above which a page is downloaded to a temporary file rather than in memory
+     */
+    private static final int SPOOL_THRESHOLD = 4 * 1024 * 1024;
+
+    /**
+     * Queued after the last page, or after a failure
+     */
+    private static final Element END = new Element("end");
+
+    private final String oaiSource;
+
+    private final BlockingQueue<Element> queue;
+
+    private final XMLInputFactory inputFactory;
+
+    private volatile String requestURL;
+
+    private Thread reader;
+
+    private volatile InputStream currentStream;
+
+    private volatile boolean closed;
+
+    private volatile Exception failure;
+
+    private volatile boolean noRecordsMatch;
+
+    private volatile long completeListSize;
+
+    private volatile int pages;
+
+    private volatile long bytes;
+
+    private long waitNanos;
+
+    private boolean ended;
+
+    /**
+     * Create the stream of the records of a ListRecords request. No request is sent before {@link #start()}.
+     *
+     * @param oaiSource      the base URL of the OAI-PMH provider
+     * @param from           the from date, or null
+     * @param until          the until date, or null
+     * @param set            the set, or null for all records
+     * @param metadataPrefix the metadata format
+     * @param capacity       the maximum number of records read ahead
+     */
+    public ListRecordsStream(String oaiSource, String from, String until, String set, String metadataPrefix,
+                             int capacity) {
+        this.oaiSource = oaiSource;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+
+        StringBuilder url = new StringBuilder(oaiSource).append("?verb=ListRecords");
+        appendParameter(url, "from", from);
+        appendParameter(url, "until", until);
+        appendParameter(url, "set", set);
+        appendParameter(url, "metadataPrefix", metadataPrefix);
+        this.requestURL = url.toString();
+
+        inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    }
+
+    /**
+     * Start reading the records, in a thread of the stream.
+     */
+    public void start() {
+        reader = new Thread(this::readPages, "OAI ListRecords " + oaiSource);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Take the next record, waiting for it to be read if needed.
+     *
+     * @return the next record (a JDOM record element in the OAI-PMH namespace), {@link #PAGE_END} after the last
+     * record of a page, or null when all records were taken
+     * @throws HarvestingException  if the provider returned an OAI-PMH error (other than noRecordsMatch)
+     * @throws IOException          if a response can't be read or parsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Element take() throws HarvestingException, IOException, InterruptedException {
+        if (ended) {
+            return null;
+        }
+        Element record = queue.poll();
+        if (record == null) {
+            long waitStart = System.nanoTime();
+            record = queue.take();
+            waitNanos += System.nanoTime() - waitStart;
+        }
+        if (record != END) {
+            return record;
+        }
+        ended = true;
+        Exception error = failure;
+        if (error instanceof HarvestingException) {
+            throw (HarvestingException) error;
+        } else if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error != null) {
+            throw new IOException("Unable to read the OAI-PMH response " + requestURL, error);
+        }
+        return null;
+    }
+
+    /**
+     * Stop reading, and release the connection in use.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (reader != null) {
+            reader.interrupt();
+        }
+        closeCurrentStream();
+    }
+
+    /**
+     * @return whether the provider answered there are no records matching the request
+     */
+    public boolean isNoRecordsMatch() {
+        return noRecordsMatch;
+    }
+
+    /**
+     * @return the size of the complete list, as announced by the provider along its resumption tokens, or 0
+     */
+    public long getCompleteListSize() {
+        return completeListSize;
+    }
+
+    /**
+     * @return the number of pages read
+     */
+    public int getPageCount() {
+        return pages;
+    }
+
+    /**
+     * @return the number of bytes read from the provider
+     */
+    public long getByteCount() {
+        return bytes;
+    }
+
+    /**
+     * @return the time spent by {@link #take()} waiting for records to be read, in milliseconds
+     */
+    public long getWaitTime() {
+        return waitNanos / 1000000;
+    }
+
+    /**
+     * @return the URL of the request of the current page
+     */
+    public String getRequestURL() {
+        return requestURL;
+    }
+
+    /**
+     * Open the response to a request, as the OCLC harvester does: retrying after the delay requested by the
+     * provider on a 503 response, and decompressing the content.
+     *
+     * @param url the request URL
+     * @return the content of the response
+     * @throws IOException if the request failed
+     */
+    protected InputStream open(String url) throws IOException {
+        log.debug("HTTP Request: {}", url);
+        while (true) {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestProperty("User-Agent", "OAIHarvester/2.0");
+            connection.setRequestProperty("Accept-Encoding", "compress, gzip, identify");
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_UNAVAILABLE) {
+                long retryAfter = connection.getHeaderFieldInt("Retry-After", -1);
+                connection.disconnect();
+                if (retryAfter <= 0) {
+                    throw new FileNotFoundException("Bad URL? " + url);
+                }
+                log.info("OAI server unavailable, retrying after {} seconds", retryAfter);
+                try {
+                    Thread.sleep(retryAfter * 1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the OAI server", e);
+                }
+                continue;
+            }
+
+            InputStream in = connection.getInputStream();
+            String contentEncoding = connection.getHeaderField("Content-Encoding");
+            if ("compress".equals(contentEncoding)) {
+                ZipInputStream zip = new ZipInputStream(in);
+                zip.getNextEntry();
+                return zip;
+            } else if ("gzip".equals(contentEncoding)) {
+                return new GZIPInputStream(in);
+            } else if ("deflate".equals(contentEncoding)) {
+                return new InflaterInputStream(in);
+            }
+            return in;
+        }
+    }
+
+    /**
+     * @return the size, in bytes, above which a page is downloaded to a temporary file rather than in memory
+     */
+    protected int getSpoolThreshold() {
+        return SPOOL_THRESHOLD;
+    }
+
+    /**
+     * Read the pages until the list is complete, closed or failed (body of the reader thread).
+     */
+    private void readPages() {
+        try {
+            String url = requestURL;
+            while (url != null && !closed) {
+                requestURL = url;
+                String resumptionToken = readPage(url);
+                pages++;
+                if (!closed) {
+                    queue.put(PAGE_END);
+                }
+                url = StringUtils.isEmpty(resumptionToken) ? null : oaiSource
+                    + "?verb=ListRecords&resumptionToken=" + URLEncoder.encode(resumptionToken, StandardCharsets.UTF_8);
+            }
+        } catch (InterruptedException e) {
+            // closed
+            return;
+        } catch (Exception e) {
+            if (!closed) {
+                failure = e;
+            }
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Download a page, then read its records into the queue.
+     *
+     * @return the resumption token of the page, null or empty if it is the last one
+     */
+    private String readPage(String url) throws IOException, XMLStreamException, JDOMException,
+        HarvestingException, InterruptedException {
+        DeferredFileOutputStream page = new DeferredFileOutputStream(getSpoolThreshold(), "oai-page-", ".xml",
+                                                                     null);
+        try {
+            CountingInputStream response = new CountingInputStream(open(url));
+            currentStream = response;
+            try {
+                IOUtils.copyLarge(response, page);
+            } finally {
+                bytes += response.getByteCount();
+                page.close();
+                closeCurrentStream();
+            }
+            try (InputStream in = page.isInMemory() ? new ByteArrayInputStream(page.getData())
+                : new BufferedInputStream(new FileInputStream(page.getFile()))) {
+                return parsePage(in);
+            }
+        } finally {
+            if (!page.isInMemory()) {
+                FileUtils.deleteQuietly(page.getFile());
+            }
+        }
+    }
+
+    /**
+     * Read the records of a downloaded page into the queue.
+     *
+     * @return the resumption token of the page, null or empty if it is the last one
+     */
+    private String parsePage(InputStream in) throws XMLStreamException, JDOMException, HarvestingException,
+        InterruptedException {
+        XMLStreamReader xml = null;
+        try {
+            xml = inputFactory.createXMLStreamReader(in);
+            StAXStreamBuilder builder = new StAXStreamBuilder();
+            Set<String> errors = new LinkedHashSet<>();
+            String resumptionToken = null;
+            int event = xml.getEventType();
+            while (!closed) {
+                if (event == XMLStreamConstants.START_ELEMENT && OAI_NS.equals(xml.getNamespaceURI())) {
+                    String name = xml.getLocalName();
+                    if ("record".equals(name)) {
+                        // leaves the reader on the event following the record
+                        queue.put((Element) builder.fragment(xml));
+                        event = xml.getEventType();
+                        continue;
+                    } else if ("resumptionToken".equals(name)) {
+                        String size = xml.getAttributeValue(null, "completeListSize");
+                        if (StringUtils.isNotBlank(size)) {
+                            completeListSize = Long.parseLong(size.trim());
+                        }
+                        resumptionToken = xml.getElementText().trim();
+                    } else if ("error".equals(name)) {
+                        errors.add(xml.getAttributeValue(null, "code"));
+                    }
+                }
+                if (!xml.hasNext()) {
+                    break;
+                }
+                event = xml.next();
+            }
+
+            if (!errors.isEmpty()) {
+                if (errors.contains("noRecordsMatch")) {
+                    noRecordsMatch = true;
+                    return null;
+                }
+                throw new HarvestingException(errors.toString());
+            }
+            return resumptionToken;
+        } finally {
+            if (xml != null) {
+                xml.close();
+            }
+        }
+    }
+
+    private void closeCurrentStream() {
+        InputStream in = currentStream;
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                log.debug("Unable to close the OAI-PMH response", e);
+            }
+            currentStream = null;
+        }
+    }
+
+    private static void appendParameter(StringBuilder url, String name, String value) {
+        if (value != null) {
+            url.append('&').append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        }
+    }
+}
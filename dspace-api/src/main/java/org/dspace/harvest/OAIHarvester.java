@@ -27,6 +27,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.UUID;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathExpressionException;
 
@@ -60,6 +61,7 @@ import org.dspace.core.I18nUtil;
 import org.dspace.core.Utils;
 import org.dspace.core.factory.CoreServiceFactory;
 import org.dspace.core.service.PluginService;
+import org.dspace.eperson.factory.EPersonServiceFactory;
 import org.dspace.handle.factory.HandleServiceFactory;
 import org.dspace.handle.service.HandleService;
 import org.dspace.harvest.factory.HarvestServiceFactory;
@@ -75,7 +77,6 @@ import org.jdom2.output.XMLOutputter;
 import org.oclc.oai.harvester2.verb.GetRecord;
 import org.oclc.oai.harvester2.verb.Identify;
 import org.oclc.oai.harvester2.verb.ListMetadataFormats;
-import org.oclc.oai.harvester2.verb.ListRecords;
 import org.xml.sax.SAXException;
 
 
@@ -120,6 +121,11 @@ public class OAIHarvester {
     Collection targetCollection;
     HarvestedCollection harvestRow;
 
+    // Settings of the harvest, read once so the ingest workers don't need the harvest row
+    private UUID targetCollectionID;
+    private int harvestType;
+    private String harvestSource;
+
     // our context
     Context ourContext;
 
@@ -165,6 +171,9 @@ public class OAIHarvester {
         if (harvestRow == null || !harvestedCollectionService.isHarvestable(harvestRow)) {
             throw new HarvestingException("Provided collection is not set up for harvesting");
         }
+        targetCollectionID = targetCollection.getID();
+        harvestType = harvestRow.getHarvestType();
+        harvestSource = harvestRow.getOaiSource();
 
         // Set the ORE options
         Namespace ORESerializationNamespace = OAIHarvester.getORENamespace();
@@ -274,6 +283,7 @@ public class OAIHarvester {
         String toDate = processDate(startTime, 0);
 
         String dateGranularity;
+        ListRecordsStream listRecords = null;
 
         try {
             // obtain the desired descriptive metadata format and verify that the OAI server actually provides it
@@ -308,10 +318,6 @@ public class OAIHarvester {
                             .getURI());
             }
 
-            Document oaiResponse = null;
-            Element root = null;
-            String resumptionToken;
-
             // set the status indicating the collection is currently being processed
             harvestRow.setHarvestStatus(HarvestedCollection.STATUS_BUSY);
             harvestRow.setHarvestMessage("Collection harvesting is initializing...");
@@ -330,96 +336,76 @@ public class OAIHarvester {
             calendar.add(Calendar.HOUR, expirationInterval);
             Date expirationTime = calendar.getTime();
 
-            // main loop to keep requesting more objects until we're done
-            List<Element> records;
-            Set<String> errorSet = new HashSet<>();
-
-            ListRecords listRecords = new ListRecords(oaiSource, fromDate, toDate, oaiSetId, descMDPrefix);
+            // main loop to ingest the records as they are read (and the next pages requested) by the stream
+            listRecords = createListRecordsStream(oaiSource, fromDate, toDate, oaiSetId, descMDPrefix,
+                configurationService.getIntProperty("oai.harvester.readAhead", 100));
             log.debug(
                 "Harvesting request parameters: listRecords " + oaiSource + " " + fromDate + " " + toDate + " " +
                     oaiSetId + " " + descMDPrefix);
             log.info("HTTP Request: " + listRecords.getRequestURL());
 
-            while (listRecords != null) {
-                records = new ArrayList<>();
-                oaiResponse = db.build(listRecords.getDocument());
+            int ingestThreads = configurationService.getIntProperty("oai.harvester.ingestThreads", 1);
+            RecordIngestWorkers workers = null;
+            if (ingestThreads > 1) {
+                UUID userID = ourContext.getCurrentUser() == null ? null : ourContext.getCurrentUser().getID();
+                final String prefix = OREPrefix;
+                workers = new RecordIngestWorkers(ingestThreads, () -> createIngester(userID, prefix));
+            }
 
-                if (listRecords.getErrors() != null && listRecords.getErrors().getLength() > 0) {
-                    for (int i = 0; i < listRecords.getErrors().getLength(); i++) {
-                        String errorCode = listRecords.getErrors().item(i).getAttributes().getNamedItem("code")
-                                                      .getTextContent();
-                        errorSet.add(errorCode);
+            Exception failure = null;
+            try {
+                listRecords.start();
+                Element record;
+                while ((record = listRecords.take()) != null) {
+                    if (record == ListRecordsStream.PAGE_END) {
+                        updateHarvestProgress(currentRecord, totalListSize);
+                        continue;
                     }
-                    if (errorSet.contains("noRecordsMatch")) {
-                        log.info("noRecordsMatch: OAI server did not contain any updates");
-                        harvestRow.setHarvestStartTime(new Date());
-                        harvestRow.setHarvestMessage("OAI server did not contain any updates");
-                        harvestRow.setHarvestStatus(HarvestedCollection.STATUS_READY);
-                        harvestedCollectionService.update(ourContext, harvestRow);
-                        return;
-                    } else {
-                        throw new HarvestingException(errorSet.toString());
+
+                    // check for STOP interrupt from the scheduler
+                    if (HarvestScheduler.getInterrupt() == HarvestScheduler.HARVESTER_INTERRUPT_STOP) {
+                        throw new HarvestingException("Harvest process for " + targetCollection
+                            .getID() + " interrupted by stopping the scheduler.");
                     }
-                } else {
-                    root = oaiResponse.getRootElement();
-                    records.addAll(root.getChild("ListRecords", OAI_NS).getChildren("record", OAI_NS));
-
-                    Element resumptionElement = root.getChild("ListRecords", OAI_NS)
-                                                    .getChild("resumptionToken", OAI_NS);
-                    if (resumptionElement != null && resumptionElement.getAttribute("completeListSize") != null) {
-                        String value = resumptionElement.getAttribute("completeListSize").getValue();
-                        if (StringUtils.isNotBlank(value)) {
-                            totalListSize = Long.parseLong(value);
-                        }
+                    // check for timeout
+                    if (expirationTime.before(new Date())) {
+                        throw new HarvestingException(
+                            "runHarvest method timed out for collection " + targetCollection.getID());
                     }
-                }
-
-                // Process the obtained records
-                if (!records.isEmpty()) {
-                    log.info("Found {} records to process", records::size);
-                    for (Element record : records) {
-                        // check for STOP interrupt from the scheduler
-                        if (HarvestScheduler.getInterrupt() == HarvestScheduler.HARVESTER_INTERRUPT_STOP) {
-                            throw new HarvestingException("Harvest process for " + targetCollection
-                                .getID() + " interrupted by stopping the scheduler.");
-                        }
-                        // check for timeout
-                        if (expirationTime.before(new Date())) {
-                            throw new HarvestingException(
-                                "runHarvest method timed out for collection " + targetCollection.getID());
-                        }
 
-                        currentRecord++;
+                    currentRecord++;
+                    totalListSize = listRecords.getCompleteListSize();
 
+                    if (workers == null) {
                         processRecord(record, OREPrefix, currentRecord, totalListSize);
                         ourContext.dispatchEvents();
 
                         intermediateCommit();
+                    } else {
+                        // the records of an OAI identifier are ingested in order, by the same worker
+                        String itemOaiID = record.getChild("header", OAI_NS).getChildText("identifier", OAI_NS);
+                        if (!workers.add(itemOaiID, record, currentRecord, totalListSize)) {
+                            break;
+                        }
                     }
                 }
-
-                // keep going if there are more records to process
-                resumptionToken = listRecords.getResumptionToken();
-                if (resumptionToken == null || resumptionToken.length() == 0) {
-                    listRecords = null;
-                } else {
-                    listRecords = new ListRecords(oaiSource, resumptionToken);
-                }
-                ourContext.turnOffAuthorisationSystem();
-                try {
-                    collectionService.update(ourContext, targetCollection);
-
-                    harvestRow.setHarvestMessage(String
-                                                     .format("Collection is currently being harvested (item %d of %d)",
-                                                             currentRecord, totalListSize));
-                    harvestedCollectionService.update(ourContext, harvestRow);
-                } finally {
-                    //In case of an exception, make sure to restore our authentication state to the previous state
-                    ourContext.restoreAuthSystemState();
+            } finally {
+                listRecords.close();
+                if (workers != null) {
+                    failure = workers.finish();
                 }
+            }
+            if (failure != null) {
+                throw failure;
+            }
 
-                ourContext.dispatchEvents();
-                intermediateCommit();
+            if (listRecords.isNoRecordsMatch()) {
+                log.info("noRecordsMatch: OAI server did not contain any updates");
+                harvestRow.setHarvestStartTime(new Date());
+                harvestRow.setHarvestMessage("OAI server did not contain any updates");
+                harvestRow.setHarvestStatus(HarvestedCollection.STATUS_READY);
+                harvestedCollectionService.update(ourContext, harvestRow);
+                return;
             }
         } catch (HarvestingException hex) {
             log.error("Harvesting error occurred while processing an OAI record: " + hex.getMessage(), hex);
@@ -458,11 +444,109 @@ public class OAIHarvester {
         log.info(
             "Harvest from " + oaiSource + " successful. The process took " + timeTaken + " milliseconds. Harvested "
                 + currentRecord + " items.");
+        logThroughput(listRecords, currentRecord, timeTaken);
         harvestedCollectionService.update(ourContext, harvestRow);
 
         ourContext.setMode(originalMode);
     }
 
+    /**
+     * Create the stream of the records to harvest.
+     *
+     * @param oaiSource      the base URL of the OAI-PMH provider
+     * @param from           the from date, or null
+     * @param until          the until date
+     * @param set            the set, or null for all records
+     * @param metadataPrefix the metadata format
+     * @param readAhead      the maximum number of records read ahead
+     * @return the stream, not started
+     */
+    protected ListRecordsStream createListRecordsStream(String oaiSource, String from, String until, String set,
+                                                        String metadataPrefix, int readAhead) {
+        return new ListRecordsStream(oaiSource, from, until, set, metadataPrefix, readAhead);
+    }
+
+    /**
+     * Record the progress of the harvest, after each page of records.
+     */
+    private void updateHarvestProgress(long currentRecord, long totalListSize)
+        throws SQLException, AuthorizeException {
+        ourContext.turnOffAuthorisationSystem();
+        try {
+            collectionService.update(ourContext, targetCollection);
+
+            harvestRow.setHarvestMessage(String
+                                             .format("Collection is currently being harvested (item %d of %d)",
+                                                     currentRecord, totalListSize));
+            harvestedCollectionService.update(ourContext, harvestRow);
+        } finally {
+            //In case of an exception, make sure to restore our authentication state to the previous state
+            ourContext.restoreAuthSystemState();
+        }
+
+        ourContext.dispatchEvents();
+        intermediateCommit();
+    }
+
+    /**
+     * Create the ingester of a worker of {@link #runHarvest()}, with a Context of the worker thread. Each record is
+     * committed once ingested.
+     */
+    protected RecordIngestWorkers.Ingester createIngester(UUID userID, String OREPrefix) throws SQLException {
+        Context context = new Context(Context.Mode.BATCH_EDIT);
+        try {
+            if (userID != null) {
+                context.setCurrentUser(EPersonServiceFactory.getInstance().getEPersonService().find(context, userID));
+            }
+            Collection workerCollection = collectionService.find(context, targetCollectionID);
+            return new RecordIngestWorkers.Ingester() {
+                private Collection collection = workerCollection;
+
+                @Override
+                public void ingest(Element record, long index, long totalListSize) throws Exception {
+                    try {
+                        processRecord(context, collection, record, OREPrefix, index, totalListSize);
+                        context.dispatchEvents();
+                        context.commit();
+                        collection = context.reloadEntity(collection);
+                    } catch (Exception e) {
+                        context.rollback();
+                        throw e;
+                    }
+                }
+
+                @Override
+                public void complete() throws SQLException {
+                    context.complete();
+                }
+
+                @Override
+                public void close() {
+                    if (context.isValid()) {
+                        context.abort();
+                    }
+                }
+            };
+        } catch (SQLException | RuntimeException e) {
+            context.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Log the throughput of a successful harvest.
+     */
+    private void logThroughput(ListRecordsStream listRecords, long records, long timeTaken) {
+        if (listRecords == null) {
+            return;
+        }
+        log.info(String.format("Harvest throughput for collection %s: %d records in %d pages (%d KB) in %d ms, "
+                                   + "%.1f records/s; %d ms spent waiting for the OAI server",
+                               targetCollectionID, records, listRecords.getPageCount(),
+                               listRecords.getByteCount() / 1024, timeTaken,
+                               timeTaken > 0 ? records * 1000.0 / timeTaken : 0.0, listRecords.getWaitTime()));
+    }
+
     private void intermediateCommit() throws SQLException {
         ourContext.commit();
         reloadRequiredEntities();
@@ -498,6 +582,37 @@ public class OAIHarvester {
     protected void processRecord(Element record, String OREPrefix, final long currentRecord, long totalListSize)
         throws SQLException, AuthorizeException, IOException, CrosswalkException, HarvestingException,
         ParserConfigurationException, SAXException, XPathExpressionException {
+        processRecord(ourContext, targetCollection, record, OREPrefix, currentRecord, totalListSize);
+    }
+
+    /**
+     * Process an individual PMH record in the given Context, making (or updating) a corresponding DSpace Item in
+     * the given collection.
+     *
+     * @param context       the DSpace context
+     * @param collection    the harvested collection, in that context
+     * @param record        a JDOM Element containing the actual PMH record with descriptive metadata.
+     * @param OREPrefix     the metadataprefix value used by the remote PMH server to disseminate ORE. Only used for
+     *                      collections set up to harvest content.
+     * @param currentRecord current record number to log
+     * @param totalListSize The total number of records that this Harvest contains
+     * @throws SQLException                 An exception that provides information on a database access error or
+     *                                      other errors.
+     * @throws AuthorizeException           Exception indicating the current user of the context does not have
+     *                                      permission
+     *                                      to perform a particular action.
+     * @throws IOException                  A general class of exceptions produced by failed or interrupted I/O
+     *                                      operations.
+     * @throws CrosswalkException           if crosswalk error
+     * @throws HarvestingException          if harvesting error
+     * @throws ParserConfigurationException XML parsing error
+     * @throws SAXException                 if XML processing error
+     * @throws XPathExpressionException     if XPath error
+     */
+    protected void processRecord(Context context, Collection collection, Element record, String OREPrefix,
+                                 final long currentRecord, long totalListSize)
+        throws SQLException, AuthorizeException, IOException, CrosswalkException, HarvestingException,
+        ParserConfigurationException, SAXException, XPathExpressionException {
         WorkspaceItem wi = null;
         Date timeStart = new Date();
 
@@ -506,16 +621,16 @@ public class OAIHarvester {
         Element header = record.getChild("header", OAI_NS);
 
         // look up the item corresponding to the OAI identifier
-        Item item = harvestedItemService.getItemByOAIId(ourContext, itemOaiID, targetCollection);
+        Item item = harvestedItemService.getItemByOAIId(context, itemOaiID, collection);
 
         // Make sure the item hasn't been deleted in the mean time
         if (header.getAttribute("status") != null && header.getAttribute("status").getValue().equals("deleted")) {
             log.info("Item " + itemOaiID + " has been marked as deleted on the OAI server.");
             if (item != null) {
-                collectionService.removeItem(ourContext, targetCollection, item);
+                collectionService.removeItem(context, collection, item);
             }
 
-            ourContext.restoreAuthSystemState();
+            context.restoreAuthSystemState();
             return;
         }
 
@@ -527,13 +642,13 @@ public class OAIHarvester {
         // Otherwise, obtain the ORE ReM and initiate the ORE crosswalk
         IngestionCrosswalk ORExwalk = null;
         Element oreREM = null;
-        if (harvestRow.getHarvestType() > 1) {
-            oreREM = getMDrecord(harvestRow.getOaiSource(), itemOaiID, OREPrefix).get(0);
+        if (harvestType > 1) {
+            oreREM = getMDrecord(harvestSource, itemOaiID, OREPrefix).get(0);
             ORExwalk = (IngestionCrosswalk) pluginService.getNamedPlugin(IngestionCrosswalk.class, this.ORESerialKey);
         }
 
         // Ignore authorization
-        ourContext.turnOffAuthorisationSystem();
+        context.turnOffAuthorisationSystem();
 
         HarvestedItem hi;
 
@@ -542,7 +657,7 @@ public class OAIHarvester {
             log.debug("Item " + item.getHandle() + " was found locally. Using it to harvest " + itemOaiID + ".");
 
             // FIXME: check for null pointer if for some odd reason we don't have a matching hi
-            hi = harvestedItemService.find(ourContext, item);
+            hi = harvestedItemService.find(context, item);
 
             // Compare last-harvest on the item versus the last time the item was updated on the OAI provider side
             // If ours is more recent, forgo this item, since it's probably a left-over from a previous harvesting
@@ -557,48 +672,48 @@ public class OAIHarvester {
             }
 
             // Otherwise, clear and re-import the metadata and bitstreams
-            itemService.clearMetadata(ourContext, item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
+            itemService.clearMetadata(context, item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
             if (descMD.size() == 1) {
-                MDxwalk.ingest(ourContext, item, descMD.get(0), true);
+                MDxwalk.ingest(context, item, descMD.get(0), true);
             } else {
-                MDxwalk.ingest(ourContext, item, descMD, true);
+                MDxwalk.ingest(context, item, descMD, true);
             }
 
             // Import the actual bitstreams
-            if (harvestRow.getHarvestType() == 3) {
+            if (harvestType == 3) {
                 log.info("Running ORE ingest on: " + item.getHandle());
 
                 List<Bundle> allBundles = item.getBundles();
                 for (Bundle bundle : allBundles) {
-                    itemService.removeBundle(ourContext, item, bundle);
+                    itemService.removeBundle(context, item, bundle);
                 }
-                ORExwalk.ingest(ourContext, item, oreREM, true);
+                ORExwalk.ingest(context, item, oreREM, true);
             }
         } else {
             // NOTE: did not find, so we create (presumably, there will never be a case where an item already
             // exists in a harvest collection but does not have an OAI_id)
 
-            wi = workspaceItemService.create(ourContext, targetCollection, false);
+            wi = workspaceItemService.create(context, collection, false);
             item = wi.getItem();
 
-            hi = harvestedItemService.create(ourContext, item, itemOaiID);
+            hi = harvestedItemService.create(context, item, itemOaiID);
             //item.setOaiID(itemOaiID);
 
             if (descMD.size() == 1) {
-                MDxwalk.ingest(ourContext, item, descMD.get(0), true);
+                MDxwalk.ingest(context, item, descMD.get(0), true);
             } else {
-                MDxwalk.ingest(ourContext, item, descMD, true);
+                MDxwalk.ingest(context, item, descMD, true);
             }
 
-            if (harvestRow.getHarvestType() == 3) {
-                ORExwalk.ingest(ourContext, item, oreREM, true);
+            if (harvestType == 3) {
+                ORExwalk.ingest(context, item, oreREM, true);
             }
 
             // see if a handle can be extracted for the item
             String handle = extractHandle(item);
 
             if (handle != null) {
-                DSpaceObject dso = handleService.resolveToObject(ourContext, handle);
+                DSpaceObject dso = handleService.resolveToObject(context, handle);
                 if (dso != null) {
                     throw new HarvestingException(
                         "Handle collision: attempted to re-assign handle '" + handle + "' to an incoming harvested " +
@@ -608,17 +723,17 @@ public class OAIHarvester {
             }
 
             try {
-                item = installItemService.installItem(ourContext, wi, handle);
-                //item = InstallItem.installItem(ourContext, wi);
+                item = installItemService.installItem(context, wi, handle);
+                //item = InstallItem.installItem(context, wi);
             } catch (SQLException | IOException | AuthorizeException se) {
                 // clean up the workspace item if something goes wrong before
-                workspaceItemService.deleteWrapper(ourContext, wi);
+                workspaceItemService.deleteWrapper(context, wi);
                 throw se;
             }
         }
 
         // Now create the special ORE bundle and drop the ORE document in it
-        if (harvestRow.getHarvestType() == 2 || harvestRow.getHarvestType() == 3) {
+        if (harvestType == 2 || harvestType == 3) {
             Bundle OREBundle = null;
             List<Bundle> OREBundles = itemService.getBundles(item, "ORE");
             Bitstream OREBitstream = null;
@@ -626,7 +741,7 @@ public class OAIHarvester {
             if (!OREBundles.isEmpty()) {
                 OREBundle = OREBundles.get(0);
             } else {
-                OREBundle = bundleService.create(ourContext, item, "ORE");
+                OREBundle = bundleService.create(context, item, "ORE");
             }
 
             XMLOutputter outputter = new XMLOutputter();
@@ -636,18 +751,18 @@ public class OAIHarvester {
             OREBitstream = bundleService.getBitstreamByName(OREBundle, "ORE.xml");
 
             if (OREBitstream != null) {
-                bundleService.removeBitstream(ourContext, OREBundle, OREBitstream);
+                bundleService.removeBitstream(context, OREBundle, OREBitstream);
             }
 
-            OREBitstream = bitstreamService.create(ourContext, OREBundle, OREStream);
-            OREBitstream.setName(ourContext, "ORE.xml");
+            OREBitstream = bitstreamService.create(context, OREBundle, OREStream);
+            OREBitstream.setName(context, "ORE.xml");
 
-            BitstreamFormat bf = bitstreamFormatService.guessFormat(ourContext, OREBitstream);
-            bitstreamService.setFormat(ourContext, OREBitstream, bf);
-            bitstreamService.update(ourContext, OREBitstream);
+            BitstreamFormat bf = bitstreamFormatService.guessFormat(context, OREBitstream);
+            bitstreamService.setFormat(context, OREBitstream, bf);
+            bitstreamService.update(context, OREBitstream);
 
-            bundleService.addBitstream(ourContext, OREBundle, OREBitstream);
-            bundleService.update(ourContext, OREBundle);
+            bundleService.addBitstream(context, OREBundle, OREBitstream);
+            bundleService.update(context, OREBundle);
         }
 
         //item.setHarvestDate(new Date());
@@ -655,23 +770,23 @@ public class OAIHarvester {
 
         // Add provenance that this item was harvested via OAI
         String provenanceMsg = "Item created via OAI harvest from source: "
-            + this.harvestRow.getOaiSource() + " on " + new DCDate(hi.getHarvestDate())
+            + harvestSource + " on " + new DCDate(hi.getHarvestDate())
             + " (GMT).  Item's OAI Record identifier: " + hi.getOaiID();
-        itemService.addMetadata(ourContext, item, "dc", "description", "provenance", "en", provenanceMsg);
+        itemService.addMetadata(context, item, "dc", "description", "provenance", "en", provenanceMsg);
 
-        itemService.update(ourContext, item);
-        harvestedItemService.update(ourContext, hi);
+        itemService.update(context, item);
+        harvestedItemService.update(context, hi);
         long timeTaken = new Date().getTime() - timeStart.getTime();
         log.info(String.format("Item %s (%s) has been ingested (item %d of %d). The whole process took: %d ms.",
                                item.getHandle(), item.getID(), currentRecord, totalListSize, timeTaken));
 
         //Clear the context cache
-        ourContext.uncacheEntity(wi);
-        ourContext.uncacheEntity(hi);
-        ourContext.uncacheEntity(item);
+        context.uncacheEntity(wi);
+        context.uncacheEntity(hi);
+        context.uncacheEntity(item);
 
         // Stop ignoring authorization
-        ourContext.restoreAuthSystemState();
+        context.restoreAuthSystemState();
     }
 
 
@@ -0,0 +1,217 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.harvest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Element;
+
+/**
+ * Worker threads ingesting harvested records, each from a small queue of its own. The records of an OAI identifier
+ * are always handed to the same worker, so they are ingested in order.
+ * <p>
+ * After the first failure, of a record or of a worker, the remaining records are skipped and {@link #add} refuses
+ * new ones. A failed worker keeps taking the records handed to it until the end, so the harvest never blocks on
+ * its queue.
+ */
+public class RecordIngestWorkers {
+
+    private static final Logger log = LogManager.getLogger();
+
+    /**
+     * Ingests the records taken by one worker, in its thread
+     */
+    public interface Ingester {
+
+        /**
+         * Ingest a record.
+         *
+         * @param record        the record
+         * @param index         the position of the record in the harvest
+         * @param totalListSize the size of the complete list, or 0 if unknown
+         * @throws Exception if the record can't be ingested
+         */
+        void ingest(Element record, long index, long totalListSize) throws Exception;
+
+        /**
+         * Complete the ingest, after the last record of the worker.
+         *
+         * @throws Exception if the ingest can't be completed
+         */
+        void complete() throws Exception;
+
+        /**
+         * Release the resources of the ingester, whether completed or not.
+         */
+        void close();
+    }
+
+    /**
+     * Creates the ingester of each worker, in the thread of the worker
+     */
+    public interface IngesterFactory {
+        Ingester create() throws Exception;
+    }
+
+    /**
+     * Marks the end of the records, for each worker
+     */
+    private static final QueuedRecord END = new QueuedRecord(null, 0, 0);
+
+    private final IngesterFactory ingesterFactory;
+
+    private final List<BlockingQueue<QueuedRecord>> queues = new ArrayList<>();
+
+    private final List<Future<Void>> workers = new ArrayList<>();
+
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    private final ExecutorService pool;
+
+    private boolean finished;
+
+    /**
+     * Start the workers.
+     *
+     * @param threads         the number of workers
+     * @param ingesterFactory the factory of the ingester of each worker
+     */
+    public RecordIngestWorkers(int threads, IngesterFactory ingesterFactory) {
+        this.ingesterFactory = ingesterFactory;
+        pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            BlockingQueue<QueuedRecord> queue = new ArrayBlockingQueue<>(2);
+            queues.add(queue);
+            workers.add(pool.submit(() -> {
+                work(queue);
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * Hand a record to the worker of its OAI identifier, waiting for room in its queue if needed.
+     *
+     * @param oaiId         the OAI identifier of the record
+     * @param record        the record
+     * @param index         the position of the record in the harvest
+     * @param totalListSize the size of the complete list, or 0 if unknown
+     * @return false if the ingest failed, in which case the record isn't handed to a worker
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean add(String oaiId, Element record, long index, long totalListSize) throws InterruptedException {
+        if (failure.get() != null) {
+            return false;
+        }
+        queues.get(Math.floorMod(String.valueOf(oaiId).hashCode(), queues.size()))
+              .put(new QueuedRecord(record, index, totalListSize));
+        return true;
+    }
+
+    /**
+     * @return the first failure of the ingest, or null
+     */
+    public Exception getFailure() {
+        return failure.get();
+    }
+
+    /**
+     * Wait for the workers to ingest the records handed to them, then stop them.
+     *
+     * @return the first failure of the ingest, or null
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Exception finish() throws InterruptedException {
+        if (finished) {
+            return failure.get();
+        }
+        finished = true;
+        try {
+            for (BlockingQueue<QueuedRecord> queue : queues) {
+                queue.put(END);
+            }
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    fail(e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return failure.get();
+    }
+
+    /**
+     * Take and ingest the records of a queue until the end marker (body of a worker).
+     */
+    private void work(BlockingQueue<QueuedRecord> queue) throws InterruptedException {
+        boolean ended = false;
+        Ingester ingester = null;
+        try {
+            ingester = ingesterFactory.create();
+            QueuedRecord queued;
+            while ((queued = queue.take()) != END) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    ingester.ingest(queued.record, queued.index, queued.totalListSize);
+                } catch (Exception e) {
+                    log.error("Unable to ingest OAI record " + queued.index + ", stopping the harvest", e);
+                    fail(e);
+                }
+            }
+            ended = true;
+            ingester.complete();
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Throwable t) {
+            log.error("OAI ingest worker failed, stopping the harvest", t);
+            fail(t);
+        } finally {
+            if (ingester != null) {
+                ingester.close();
+            }
+        }
+        // the records handed to a failed worker are skipped, up to the end marker
+        while (!ended) {
+            ended = queue.take() == END;
+        }
+    }
+
+    private void fail(Throwable t) {
+        failure.compareAndSet(null, t instanceof Exception ? (Exception) t : new Exception(t));
+    }
+
+    /**
+     * A record handed to a worker, with its position in the harvest
+     */
+    private static class QueuedRecord {
+        final Element record;
+        final long index;
+        final long totalListSize;
+
+        QueuedRecord(Element record, long index, long totalListSize) {
+            this.record = record;
+            this.index = index;
+            this.totalListSize = totalListSize;
+        }
+    }
+}
@@ -62,6 +62,8 @@ public class CanvasDimensionCLI {
         boolean isQuiet = false;
         // default to no limit
         int max2Process = Integer.MAX_VALUE;
+        // default to the configured number of threads
+        int threads = configurationService.getIntProperty("iiif.canvasdimensions.threads", 1);
 
         String identifier = null;
         String eperson = null;
@@ -84,6 +86,8 @@ public class CanvasDimensionCLI {
             "do not print anything except in the event of errors");
         options.addOption("m", "maximum", true,
             "process no more than maximum items");
+        options.addOption("t", "threads", true,
+            "number of threads reading image dimensions");
         options.addOption("h", "help", false,
             "display help");
 
@@ -119,6 +123,9 @@ public class CanvasDimensionCLI {
             System.out
                 .println("\nHandle example:    iiif-canvas-dimensions -e user@email.org " +
                         "-i 123456789/12");
+            System.out
+                .println("\nParallel example:    iiif-canvas-dimensions -e user@email.org " +
+                        "-i 123456789/12 -t 4");
             System.exit(0);
         }
 
@@ -147,6 +154,14 @@ public class CanvasDimensionCLI {
                 max2Process = Integer.MAX_VALUE;
             }
         }
+        if (line.hasOption('t')) {
+            threads = Integer.parseInt(line.getOptionValue('t'));
+            if (threads < 1) {
+                System.out.println("Invalid number of threads '" +
+                    line.getOptionValue('t') + "' - ignoring");
+                threads = 1;
+            }
+        }
         String[] skipIds;
 
         if (line.hasOption('s')) {
@@ -201,6 +216,7 @@ public class CanvasDimensionCLI {
         canvasProcessor.setForceProcessing(force);
         canvasProcessor.setMax2Process(max2Process);
         canvasProcessor.setIsQuiet(isQuiet);
+        canvasProcessor.setThreads(threads);
 
         int processed = 0;
         switch (dso.getType()) {
@@ -15,11 +15,22 @@ import static org.dspace.iiif.util.IIIFSharedUtils.METADATA_IIIF_WIDTH_QUALIFIER
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dspace.authorize.AuthorizeException;
+import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.content.Bitstream;
 import org.dspace.content.Bundle;
 import org.dspace.content.Collection;
@@ -30,15 +41,20 @@ import org.dspace.content.service.BitstreamService;
 import org.dspace.content.service.CommunityService;
 import org.dspace.content.service.DSpaceObjectService;
 import org.dspace.content.service.ItemService;
+import org.dspace.core.Constants;
 import org.dspace.core.Context;
 import org.dspace.iiif.IIIFApiQueryService;
 import org.dspace.iiif.canvasdimension.service.IIIFCanvasDimensionService;
 import org.dspace.iiif.util.IIIFSharedUtils;
+import org.dspace.storage.bitstore.service.BitstreamStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * This service sets canvas dimensions for bitstreams. Processes communities,
  * collections, and individual items.
+ * <p>
+ * With more than one thread, the image dimensions are read by a pool of threads, while the items are
+ * walked and the metadata set by the calling thread, in the order of the items.
  *
  * @author Michael Spalti mspalti@willamette.edu
  */
@@ -54,12 +70,22 @@ public class IIIFCanvasDimensionServiceImpl implements IIIFCanvasDimensionServic
     DSpaceObjectService<Bitstream> dSpaceObjectService;
     @Autowired()
     IIIFApiQueryService iiifApiQuery;
+    @Autowired()
+    AuthorizeService authorizeService;
+    @Autowired()
+    BitstreamStorageService bitstreamStorageService;
 
     private boolean forceProcessing = false;
     private boolean isQuiet = false;
     private List<String> skipList = null;
     private int max2Process = Integer.MAX_VALUE;
     private int processed = 0;
+    private int threads = 1;
+
+    private ExecutorService executor;
+    // items whose image dimensions are being read, in order
+    private final Deque<PendingItem> pending = new ArrayDeque<>();
+    private int pendingReads = 0;
 
     // used to check for existing canvas dimension
     private static final String IIIF_WIDTH_METADATA = METADATA_IIIF_SCHEMA + "." + METADATA_IIIF_IMAGE_ELEMENT +
@@ -85,6 +111,11 @@ public class IIIFCanvasDimensionServiceImpl implements IIIFCanvasDimensionServic
         this.skipList = skipList;
     }
 
+    @Override
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
     @Override
     public int processCommunity(Context context, Community community) throws Exception {
         if (!inSkipList(community.getHandle())) {
@@ -103,9 +134,18 @@ public class IIIFCanvasDimensionServiceImpl implements IIIFCanvasDimensionServic
     @Override
     public int processCollection(Context context, Collection collection) throws Exception {
         if (!inSkipList(collection.getHandle())) {
-            Iterator<Item> itemIterator = itemService.findAllByCollection(context, collection);
-            while (itemIterator.hasNext() && processed < max2Process) {
-                processItem(context, itemIterator.next());
+            try {
+                Iterator<Item> itemIterator = itemService.findAllByCollection(context, collection);
+                while (itemIterator.hasNext() && processed < max2Process) {
+                    queueItem(context, itemIterator.next());
+                    // don't read ahead more items than may still be processed
+                    while (!pending.isEmpty() && processed + pending.size() >= max2Process) {
+                        completeItem(context, pending.poll());
+                    }
+                }
+                completePendingItems(context);
+            } finally {
+                shutdown();
             }
         }
         return processed;
@@ -113,57 +153,90 @@ public class IIIFCanvasDimensionServiceImpl implements IIIFCanvasDimensionServic
 
     @Override
     public void processItem(Context context, Item item) throws Exception {
+        try {
+            queueItem(context, item);
+            completePendingItems(context);
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Start reading the image dimensions of the bitstreams of all IIIF bundles for an item. The
+     * item is completed once the reads ahead exceed twice the number of threads (at once, with a
+     * single thread).
+     * @param context
+     * @param item
+     * @throws Exception
+     */
+    private void queueItem(Context context, Item item) throws Exception {
         if (!inSkipList(item.getHandle())) {
             boolean isIIIFItem = IIIFSharedUtils.isIIIFItem(item);
             if (isIIIFItem) {
-                if (processItemBundles(context, item)) {
-                    ++processed;
+                PendingItem pendingItem = new PendingItem(item);
+                List<Bundle> bundles = IIIFSharedUtils.getIIIFBundles(item);
+                for (Bundle bundle : bundles) {
+                    List<Bitstream> bitstreams = bundle.getBitstreams();
+                    for (Bitstream bit : bitstreams) {
+                        if (isToBeProcessed(context, bit)) {
+                            pendingItem.reads.put(bit, readDimensions(context, bit));
+                        } else {
+                            context.uncacheEntity(bit);
+                        }
+                    }
+                }
+                pending.add(pendingItem);
+                pendingReads += pendingItem.reads.size();
+                while (!pending.isEmpty() && (threads == 1 || pendingReads > threads * 2)) {
+                    completeItem(context, pending.poll());
                 }
-                context.uncacheEntity(item);
             }
         }
     }
 
+    private void completePendingItems(Context context) throws Exception {
+        while (!pending.isEmpty()) {
+            completeItem(context, pending.poll());
+        }
+    }
+
     /**
-     * Process all IIIF bundles for an item.
+     * Set the dimensions read for the bitstreams of an item, waiting for them if needed.
      * @param context
-     * @param item
-     * @return
+     * @param pendingItem
      * @throws Exception
      */
-    private boolean processItemBundles(Context context, Item item) throws Exception {
-        List<Bundle> bundles = IIIFSharedUtils.getIIIFBundles(item);
+    private void completeItem(Context context, PendingItem pendingItem) throws Exception {
+        pendingReads -= pendingItem.reads.size();
         boolean done = false;
-        for (Bundle bundle : bundles) {
-            List<Bitstream> bitstreams = bundle.getBitstreams();
-            for (Bitstream bit : bitstreams) {
-                done |= processBitstream(context, bit);
-                context.uncacheEntity(bit);
+        for (Map.Entry<Bitstream, Future<int[]>> read : pendingItem.reads.entrySet()) {
+            Bitstream bitstream = read.getKey();
+            int[] dims = getDimensions(read.getValue());
+            if (dims != null) {
+                done |= setBitstreamMetadata(context, bitstream, dims);
+                // update the bitstream
+                bitstreamService.update(context, bitstream);
             }
+            context.uncacheEntity(bitstream);
         }
         if (done) {
+            ++processed;
             if (!isQuiet) {
-                System.out.println("Updated canvas metadata for item: " + item.getID());
+                System.out.println("Updated canvas metadata for item: " + pendingItem.item.getID());
             }
         }
-        return done;
-
+        context.uncacheEntity(pendingItem.item);
     }
 
     /**
-     * Gets image height and width for the bitstream. For jp2 images, height and width are
-     * obtained from the IIIF image server. For other formats supported by ImageIO these values
-     * are read from the actual DSpace bitstream content. If bitstream width metadata already exists,
-     * the bitstream is processed when forceProcessing is true.
+     * Tests whether the image dimensions of the bitstream are to be read: the bitstream
+     * is an image and has no width metadata yet, or forceProcessing is true.
      * @param context
      * @param bitstream
      * @return
-     * @throws Exception
+     * @throws SQLException
      */
-    private boolean processBitstream(Context context, Bitstream bitstream) throws SQLException, AuthorizeException,
-        IOException {
-
-        boolean processed = false;
+    private boolean isToBeProcessed(Context context, Bitstream bitstream) throws SQLException {
         boolean isImage = bitstream.getFormat(context).getMIMEType().contains("image/");
         if (isImage) {
             Optional<MetadataValue> op = bitstream.getMetadata().stream()
@@ -173,34 +246,89 @@ public class IIIFCanvasDimensionServiceImpl implements IIIFCanvasDimensionServic
                 if (forceProcessing && !isQuiet) {
                     System.out.println("Force processing for bitstream: " + bitstream.getID());
                 }
-                int[] dims;
-                InputStream stream = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets image height and width for the bitstream, in the thread pool if there is one. The
+     * values are read from the image header of the actual DSpace bitstream content, for the
+     * formats supported by ImageDimensionReader. For other formats they are obtained from the
+     * IIIF image server.
+     * @param context
+     * @param bitstream
+     * @return the read of the image dimensions, which are null if they are not available
+     * @throws SQLException
+     * @throws AuthorizeException
+     */
+    private Future<int[]> readDimensions(Context context, Bitstream bitstream) throws SQLException,
+        AuthorizeException {
+        // the worker threads don't use the context
+        authorizeService.authorizeAction(context, bitstream, Constants.READ);
+        FutureTask<int[]> read = new FutureTask<>(() -> {
+            int[] dims;
+            try (InputStream stream = bitstreamStorageService.retrieve(context, bitstream)) {
                 try {
-                    stream = bitstreamService.retrieve(context, bitstream);
-                    try {
-                        dims = ImageDimensionReader.getImageDimensions(stream);
-                        if (dims == null) {
-                            // If image dimensions are not available try the iiif image server.
-                            dims = iiifApiQuery.getImageDimensions(bitstream);
-                        }
-                    } catch (IOException e) {
-                        // If an exception was raised by ImageIO, try the iiif image server.
+                    dims = ImageDimensionReader.getImageDimensions(stream);
+                    if (dims == null) {
+                        // If image dimensions are not available try the iiif image server.
                         dims = iiifApiQuery.getImageDimensions(bitstream);
                     }
-                } finally {
-                    if (stream != null) {
-                        stream.close();
-                    }
+                } catch (IOException e) {
+                    // If an exception was raised by ImageIO, try the iiif image server.
+                    dims = iiifApiQuery.getImageDimensions(bitstream);
                 }
+            }
+            return dims;
+        });
+        if (threads == 1) {
+            read.run();
+        } else {
+            getExecutor().execute(read);
+        }
+        return read;
+    }
 
-                if (dims != null) {
-                    processed = setBitstreamMetadata(context, bitstream, dims);
-                    // update the bitstream
-                    bitstreamService.update(context, bitstream);
-                }
+    private int[] getDimensions(Future<int[]> read) throws SQLException, IOException {
+        try {
+            return read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading image dimensions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
             }
+            throw new IllegalStateException("Unexpected error while reading image dimensions", e.getCause());
+        }
+    }
+
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "iiif-canvas-dimensions-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Stop the thread pool, dropping the items left pending after an error.
+     */
+    private void shutdown() {
+        pending.clear();
+        pendingReads = 0;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
         }
-        return processed;
     }
 
     /**
@@ -241,4 +369,16 @@ public class IIIFCanvasDimensionServiceImpl implements IIIFCanvasDimensionServic
         }
     }
 
+    /**
+     * An item whose image dimensions are being read, with the reads of its bitstreams.
+     */
+    private static class PendingItem {
+        private final Item item;
+        private final Map<Bitstream, Future<int[]>> reads = new LinkedHashMap<>();
+
+        PendingItem(Item item) {
+            this.item = item;
+        }
+    }
+
 }
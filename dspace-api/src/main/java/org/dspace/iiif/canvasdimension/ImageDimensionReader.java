@@ -10,38 +10,181 @@ package org.dspace.iiif.canvasdimension;
 import static org.dspace.iiif.canvasdimension.Util.checkDimensions;
 
 import java.awt.image.BufferedImage;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Reads and return height and width dimensions for image bitstreams.
+ * <p>
+ * The dimensions are read from the image header only: by the ImageIO readers (TIFF, JPEG, PNG, GIF, BMP...),
+ * which don't decode the raster to report them, and by a parser of the JPEG 2000 header, for which no ImageIO
+ * reader is available by default. The whole image is decoded only if no reader can report the dimensions.
  *
  * @author Michael Spalti mspalti@willamette.edu
  */
 public class ImageDimensionReader {
 
+    private static final Logger log = LogManager.getLogger(ImageDimensionReader.class);
+
+    /**
+     * JPEG 2000 signature box (JP2 file format)
+     */
+    private static final byte[] JP2_SIGNATURE = {0, 0, 0, 0x0C, 'j', 'P', ' ', ' ', 0x0D, 0x0A, (byte) 0x87, 0x0A};
+
+    /**
+     * Start of codestream and image and tile size markers (raw JPEG 2000 codestream)
+     */
+    private static final int J2K_SOC = 0xFF4F;
+    private static final int J2K_SIZ = 0xFF51;
+
+    private static final int JP2_HEADER_BOX = 0x6A703268; // jp2h
+    private static final int JP2_IMAGE_HEADER_BOX = 0x69686472; // ihdr
+    private static final int JP2_CODESTREAM_BOX = 0x6A703263; // jp2c
+
     private ImageDimensionReader() {}
 
     /**
-     * Uses ImageIO to read height and width dimensions.
+     * Reads the height and width dimensions of an image from its header, falling back to decoding the image.
      * @param image inputstream for dspace image
      * @return image dimensions or null if the image format cannot be read.
-     * @throws Exception
+     * @throws IOException if the image can't be read
      */
     public static int[] getImageDimensions(InputStream image) throws IOException {
-        int[] dims = new int[2];
-        BufferedImage buf = ImageIO.read(image);
-        if (buf != null) {
-            int width = buf.getWidth(null);
-            int height = buf.getHeight(null);
-            if (width > 0 && height > 0) {
-                dims[0] = width;
-                dims[1] = height;
+        try (ImageInputStream stream = ImageIO.createImageInputStream(image)) {
+            if (stream == null) {
+                return null;
+            }
+            int[] dims = readJpeg2000Dimensions(stream);
+            if (dims == null) {
+                dims = readHeaderDimensions(stream);
+            }
+            if (dims == null) {
+                dims = readRasterDimensions(stream);
+            }
+            if (dims != null && dims[0] > 0 && dims[1] > 0) {
                 return checkDimensions(dims);
             }
         }
         return null;
     }
 
+    /**
+     * Ask the ImageIO readers able to decode the image for its dimensions, which they read from the header.
+     */
+    private static int[] readHeaderDimensions(ImageInputStream stream) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        while (readers.hasNext()) {
+            ImageReader reader = readers.next();
+            stream.seek(0);
+            try {
+                reader.setInput(stream, true, true);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } catch (IOException | RuntimeException e) {
+                log.debug("Unable to read the image header with {}", reader.getClass().getName(), e);
+            } finally {
+                reader.dispose();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decode the image to get its dimensions.
+     */
+    private static int[] readRasterDimensions(ImageInputStream stream) throws IOException {
+        stream.seek(0);
+        BufferedImage buf = ImageIO.read(stream);
+        if (buf == null) {
+            return null;
+        }
+        return new int[] {buf.getWidth(null), buf.getHeight(null)};
+    }
+
+    /**
+     * Read the dimensions of a JPEG 2000 image, either from the image header box of a JP2 file or from the SIZ
+     * marker of a raw codestream.
+     *
+     * @return the dimensions, or null if the image isn't a JPEG 2000 image
+     */
+    private static int[] readJpeg2000Dimensions(ImageInputStream stream) throws IOException {
+        stream.seek(0);
+        try {
+            byte[] signature = new byte[JP2_SIGNATURE.length];
+            stream.readFully(signature);
+            if (Arrays.equals(signature, JP2_SIGNATURE)) {
+                return readJp2Boxes(stream, Long.MAX_VALUE);
+            }
+            stream.seek(0);
+            if (stream.readUnsignedShort() == J2K_SOC) {
+                return readCodestreamDimensions(stream);
+            }
+        } catch (EOFException e) {
+            // too short to be a JPEG 2000 image
+        } finally {
+            stream.seek(0);
+        }
+        return null;
+    }
+
+    /**
+     * Walk the boxes from the current position until the end position, looking for the image header box (within
+     * the JP2 header box) or, failing that, the codestream box.
+     */
+    private static int[] readJp2Boxes(ImageInputStream stream, long end) throws IOException {
+        while (stream.getStreamPosition() + 8 <= end) {
+            long start = stream.getStreamPosition();
+            long length = stream.readUnsignedInt();
+            int type = stream.readInt();
+            long contentStart = stream.getStreamPosition();
+            if (length == 1) {
+                // extended length
+                length = stream.readLong();
+                contentStart = stream.getStreamPosition();
+            } else if (length == 0) {
+                // the box extends to the end of the file
+                length = Long.MAX_VALUE - start;
+            }
+            if (length < contentStart - start) {
+                return null;
+            }
+
+            if (type == JP2_HEADER_BOX) {
+                return readJp2Boxes(stream, start + length);
+            } else if (type == JP2_IMAGE_HEADER_BOX) {
+                long height = stream.readUnsignedInt();
+                long width = stream.readUnsignedInt();
+                return new int[] {(int) width, (int) height};
+            } else if (type == JP2_CODESTREAM_BOX) {
+                return stream.readUnsignedShort() == J2K_SOC ? readCodestreamDimensions(stream) : null;
+            }
+            stream.seek(start + length);
+        }
+        return null;
+    }
+
+    /**
+     * Read the dimensions of the reference grid from the SIZ marker segment, which follows the SOC marker.
+     */
+    private static int[] readCodestreamDimensions(ImageInputStream stream) throws IOException {
+        if (stream.readUnsignedShort() != J2K_SIZ) {
+            return null;
+        }
+        // segment length, capabilities
+        stream.skipBytes(4);
+        long width = stream.readUnsignedInt();
+        long height = stream.readUnsignedInt();
+        long offsetX = stream.readUnsignedInt();
+        long offsetY = stream.readUnsignedInt();
+        return new int[] {(int) (width - offsetX), (int) (height - offsetY)};
+    }
+
 }
@@ -66,4 +66,11 @@ public interface IIIFCanvasDimensionService {
      */
     void setSkipList(List<String> skipList);
 
+    /**
+     * Set the number of threads reading image dimensions. With a single
+     * thread (the default), the dimensions are read by the calling thread.
+     * @param threads
+     */
+    void setThreads(int threads);
+
 }
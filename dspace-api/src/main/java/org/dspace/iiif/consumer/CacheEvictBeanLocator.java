@@ -7,13 +7,14 @@
  */
 package org.dspace.iiif.consumer;
 
+import org.dspace.iiif.manifest.ManifestRefreshService;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.stereotype.Component;
 
 /**
- * Exposes the Spring application's IIIF cache evict service to the DSpace event consumer.
+ * Exposes the Spring application's IIIF cache evict and manifest refresh services to the DSpace event consumer.
  */
 @Component
 public class CacheEvictBeanLocator implements ApplicationContextAware {
@@ -47,4 +48,11 @@ public class CacheEvictBeanLocator implements ApplicationContextAware {
         return null;
     }
 
+    public static ManifestRefreshService getManifestRefreshService() {
+        if (context != null) {
+            return context.getBeanProvider(ManifestRefreshService.class).getIfAvailable();
+        }
+        return null;
+    }
+
 }
@@ -19,10 +19,14 @@ import org.dspace.core.Constants;
 import org.dspace.core.Context;
 import org.dspace.event.Consumer;
 import org.dspace.event.Event;
+import org.dspace.iiif.manifest.ManifestRefreshService;
+import org.dspace.iiif.manifest.ManifestStore;
+import org.dspace.services.factory.DSpaceServicesFactory;
 
 
 /**
- * This consumer is used to evict modified items from the manifests cache.
+ * This consumer is used to evict modified items from the manifests cache, and to remove their manifests from
+ * the {@link ManifestStore} (having them generated again in the background, when running in the IIIF webapp).
  */
 public class IIIFCacheEventConsumer implements Consumer {
 
@@ -37,8 +41,18 @@ public class IIIFCacheEventConsumer implements Consumer {
     // Collects modified bitstreams for individual removal from canvas dimension cache.
     private final Set<DSpaceObject> toEvictFromCanvasCache = new HashSet<>();
 
+    private ManifestStore manifestStore;
+
+    // When true all manifests will be removed from the store, the item of an event being unknown.
+    private boolean clearStore = false;
+
+    // Collects modified (or deleted) items for individual removal from the manifest store.
+    private final Set<UUID> toRemoveFromStore = new HashSet<>();
+
     @Override
     public void initialize() throws Exception {
+        manifestStore = DSpaceServicesFactory.getInstance().getServiceManager()
+                                             .getServiceByName(ManifestStore.class.getName(), ManifestStore.class);
     }
 
     @Override
@@ -70,6 +84,7 @@ public class IIIFCacheEventConsumer implements Consumer {
                         + subject.getID());
                 }
             } else {
+                // A deleted bundle was first removed from its item, which is the subject of that REMOVE event
                 return;
             }
         }
@@ -79,6 +94,8 @@ public class IIIFCacheEventConsumer implements Consumer {
                 log.warn("IIIF event consumer cannot remove a single item from the cache when " +
                     "a bitstream is deleted. The entire cache will be cleared.");
                 clearAll = true;
+                // The bitstream is already removed from its bundle, whose item is the subject of the bundle
+                // REMOVE event: the manifest store only needs that one.
             }
 
             if ((et == Event.ADD || et == Event.MODIFY_METADATA  ) && subject != null
@@ -100,6 +117,8 @@ public class IIIFCacheEventConsumer implements Consumer {
             return;
         }
 
+        addToStoreRemoval(subject, event);
+
         switch (et) {
             case Event.ADD:
                 addToCacheEviction(subject, unmodifiedSubject, st);
@@ -130,6 +149,17 @@ public class IIIFCacheEventConsumer implements Consumer {
         toEvictFromManifestCache.add(subject);
     }
 
+    private void addToStoreRemoval(DSpaceObject subject, Event event) {
+        if (subject != null) {
+            toRemoveFromStore.add(subject.getID());
+        } else if (event.getSubjectType() == Constants.ITEM) {
+            // a deleted item
+            toRemoveFromStore.add(event.getSubjectID());
+        } else {
+            clearStore = true;
+        }
+    }
+
     @Override
     public void end(Context ctx) throws Exception {
         // Get the eviction service beans.
@@ -153,9 +183,28 @@ public class IIIFCacheEventConsumer implements Consumer {
             }
         }
 
+        if (manifestStore != null && manifestStore.isEnabled()) {
+            // Only available in the IIIF webapp: elsewhere the manifests are generated again when requested, or
+            // by its scheduled refresh.
+            ManifestRefreshService manifestRefreshService = CacheEvictBeanLocator.getManifestRefreshService();
+            if (clearStore) {
+                manifestStore.removeAll();
+                if (manifestRefreshService != null) {
+                    manifestRefreshService.refreshAll();
+                }
+            } else if (!toRemoveFromStore.isEmpty()) {
+                manifestStore.remove(toRemoveFromStore);
+                if (manifestRefreshService != null) {
+                    manifestRefreshService.refresh(new HashSet<>(toRemoveFromStore));
+                }
+            }
+        }
+
         clearAll = false;
         toEvictFromManifestCache.clear();
         toEvictFromCanvasCache.clear();
+        clearStore = false;
+        toRemoveFromStore.clear();
     }
 
     @Override
@@ -0,0 +1,31 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.iiif.manifest;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Generates manifests into the {@link ManifestStore} in the background. Implemented by the IIIF webapp, where the
+ * manifests are generated.
+ */
+public interface ManifestRefreshService {
+
+    /**
+     * Generate and store the manifests of the given items again (or remove them, for the items which are not
+     * IIIF enabled anymore).
+     *
+     * @param itemIds the items
+     */
+    void refresh(Collection<UUID> itemIds);
+
+    /**
+     * Generate and store the manifests of all IIIF enabled items which are not stored.
+     */
+    void refreshAll();
+}
@@ -0,0 +1,215 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.iiif.manifest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Persistent store of the IIIF manifests of the items, kept gzipped on disk so they survive restarts and are
+ * served without being generated again, nor even compressed again.
+ * <p>
+ * The manifests are stored by the IIIF webapp, in the background: as soon as an item is modified (the
+ * {@link org.dspace.iiif.consumer.IIIFCacheEventConsumer} removes its manifest, in any DSpace process, and has it
+ * generated again when running in the webapp), on a schedule for the items not stored yet, and after a manifest
+ * was requested and not found. The stored manifests are the ones generated for anonymous users.
+ * <p>
+ * The store is enabled by "iiif.manifest.store.enabled" and kept in "iiif.manifest.store.dir", which must not be
+ * shared with other installations. Both are read on each call, so the store follows configuration reloads.
+ */
+public class ManifestStore implements InitializingBean {
+
+    private static final Logger log = LogManager.getLogger(ManifestStore.class);
+
+    private static final String SUFFIX = ".json.gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @Autowired(required = true)
+    protected ConfigurationService configurationService;
+
+    /**
+     * The store directory given by {@link #init(File)}, which enables the store whatever the configuration
+     */
+    private volatile File directory;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        File configured = getDirectory();
+        if (configured != null) {
+            Files.createDirectories(configured.toPath());
+            log.info("Storing IIIF manifests in {}", configured);
+        }
+    }
+
+    /**
+     * Enable the store, whatever the configuration.
+     *
+     * @param directory the store directory
+     * @throws IOException if the directory can't be created
+     */
+    protected void init(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        this.directory = directory;
+        log.info("Storing IIIF manifests in {}", directory);
+    }
+
+    /**
+     * @return whether manifests are stored
+     */
+    public boolean isEnabled() {
+        return getDirectory() != null;
+    }
+
+    /**
+     * @return the store directory, null when the store is disabled
+     */
+    private File getDirectory() {
+        if (directory != null) {
+            return directory;
+        }
+        if (configurationService == null
+            || !configurationService.getBooleanProperty("iiif.manifest.store.enabled", false)) {
+            return null;
+        }
+        return new File(configurationService.getProperty("iiif.manifest.store.dir",
+            configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                + "iiif-manifests"));
+    }
+
+    /**
+     * Get the stored manifest of an item.
+     *
+     * @param itemId the item
+     * @return the manifest, or null if it isn't stored (or can't be read)
+     */
+    public StoredManifest get(UUID itemId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        File file = getFile(itemId);
+        long lastModified = file.lastModified();
+        if (lastModified == 0) {
+            return null;
+        }
+        try {
+            return new StoredManifest(Files.readAllBytes(file.toPath()), lastModified);
+        } catch (IOException e) {
+            // removed meanwhile, or unreadable: generated again
+            log.debug("Unable to read the stored manifest {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param itemId the item
+     * @return whether the manifest of the item is stored
+     */
+    public boolean contains(UUID itemId) {
+        return isEnabled() && getFile(itemId).isFile();
+    }
+
+    /**
+     * Store the manifest of an item. The file is left untouched if it already holds the same manifest, so its
+     * ETag and modification date don't change.
+     *
+     * @param itemId the item
+     * @param json   the manifest
+     * @return the stored manifest
+     * @throws IOException if the manifest can't be written
+     */
+    public StoredManifest put(UUID itemId, String json) throws IOException {
+        if (!isEnabled()) {
+            throw new IllegalStateException("The IIIF manifest store is disabled");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] content = bytes.toByteArray();
+
+        File file = getFile(itemId);
+        StoredManifest stored = get(itemId);
+        if (stored != null && Arrays.equals(stored.getCompressedContent(), content)) {
+            return stored;
+        }
+
+        Files.createDirectories(file.getParentFile().toPath());
+        File temp = File.createTempFile("manifest", TEMP_SUFFIX, file.getParentFile());
+        try {
+            Files.write(temp.toPath(), content);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        log.debug("Stored the IIIF manifest of item {} ({} bytes)", itemId, content.length);
+        return new StoredManifest(content, file.lastModified());
+    }
+
+    /**
+     * Remove the stored manifests of the given items.
+     *
+     * @param itemIds the items
+     */
+    public void remove(Collection<UUID> itemIds) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (UUID itemId : itemIds) {
+            delete(getFile(itemId));
+        }
+    }
+
+    /**
+     * Remove all stored manifests.
+     */
+    public void removeAll() {
+        File root = getDirectory();
+        if (root == null || !root.isDirectory()) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root.toPath())) {
+            files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                 .forEach(path -> delete(path.toFile()));
+        } catch (IOException e) {
+            log.warn("Unable to list the stored IIIF manifests in {}", root, e);
+        }
+    }
+
+    /**
+     * The manifests are spread over subdirectories named after the first characters of the item UUIDs
+     */
+    private File getFile(UUID itemId) {
+        String name = itemId.toString();
+        return new File(new File(getDirectory(), name.substring(0, 2)), name + SUFFIX);
+    }
+
+    private void delete(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            log.warn("Unable to remove the stored IIIF manifest {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.iiif.manifest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * A manifest read from the {@link ManifestStore}: its gzipped JSON, with the validators of HTTP conditional
+ * requests.
+ */
+public class StoredManifest {
+
+    private final byte[] compressedContent;
+
+    private final long lastModified;
+
+    private final String eTag;
+
+    StoredManifest(byte[] compressedContent, long lastModified) {
+        this.compressedContent = compressedContent;
+        this.lastModified = lastModified;
+        try {
+            this.eTag = Hex.encodeHexString(MessageDigest.getInstance("MD5").digest(compressedContent));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the manifest, gzipped
+     */
+    public byte[] getCompressedContent() {
+        return compressedContent;
+    }
+
+    /**
+     * @return the manifest JSON
+     * @throws IOException if the stored manifest is corrupted
+     */
+    public String getJson() throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressedContent))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return the time the manifest was stored, in milliseconds since the epoch
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the entity tag of the manifest (not quoted), a digest of its content
+     */
+    public String getETag() {
+        return eTag;
+    }
+}
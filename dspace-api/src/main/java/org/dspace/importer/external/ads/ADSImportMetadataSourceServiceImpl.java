@@ -272,7 +272,8 @@ public class ADSImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
             uriBuilder.addParameter("start", "0");
             uriBuilder.addParameter("fl", this.resultFieldList);
 
-            String resp = liveImportClient.executeHttpGetRequest(timeout, uriBuilder.toString(), params);
+            String resp = liveImportClient.executeHttpGetRequest(getImportSource(),
+                timeout, uriBuilder.toString(), params);
             JsonNode jsonNode = convertStringJsonToJsonNode(resp);
             return jsonNode.at("/response/numFound").asInt();
         } catch (URISyntaxException e) {
@@ -295,7 +296,8 @@ public class ADSImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
             uriBuilder.addParameter("start", start.toString());
             uriBuilder.addParameter("fl", this.resultFieldList);
 
-            String resp = liveImportClient.executeHttpGetRequest(timeout, uriBuilder.toString(), params);
+            String resp = liveImportClient.executeHttpGetRequest(getImportSource(),
+                timeout, uriBuilder.toString(), params);
 
             JsonNode jsonNode = convertStringJsonToJsonNode(resp);
             JsonNode docs = jsonNode.at("/response/docs");
@@ -288,7 +288,8 @@ public class CiniiImportMetadataSourceServiceImpl extends AbstractImportMetadata
             List<ImportRecord> records = new LinkedList<ImportRecord>();
             URIBuilder uriBuilder = new URIBuilder(this.url + id + ".rdf?appid=" + appId);
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             List<Element> elements = splitToRecords(response);
             for (Element record : elements) {
                 records.add(transformSourceRecords(record));
@@ -353,7 +354,8 @@ public class CiniiImportMetadataSourceServiceImpl extends AbstractImportMetadata
                 uriBuilder.addParameter("year_to", String.valueOf(year));
             }
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             int url_len = this.url.length() - 1;
             SAXBuilder saxBuilder = new SAXBuilder();
             Document document = saxBuilder.build(new StringReader(response));
@@ -415,7 +417,8 @@ public class CiniiImportMetadataSourceServiceImpl extends AbstractImportMetadata
             }
 
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
 
             SAXBuilder saxBuilder = new SAXBuilder();
             Document document = saxBuilder.build(new StringReader(response));
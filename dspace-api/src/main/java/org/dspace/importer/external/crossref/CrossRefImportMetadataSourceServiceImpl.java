@@ -157,7 +157,8 @@ public class CrossRefImportMetadataSourceServiceImpl extends AbstractImportMetad
                 uriBuilder.addParameter("offset", start.toString());
             }
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             JsonNode jsonNode = convertStringJsonToJsonNode(response);
             Iterator<JsonNode> nodes = jsonNode.at("/message/items").iterator();
             while (nodes.hasNext()) {
@@ -193,7 +194,8 @@ public class CrossRefImportMetadataSourceServiceImpl extends AbstractImportMetad
             String ID = URLDecoder.decode(query.getParameterAsClass("id", String.class), "UTF-8");
             URIBuilder uriBuilder = new URIBuilder(url + "/" + ID);
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String responseString = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String responseString = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             JsonNode jsonNode = convertStringJsonToJsonNode(responseString);
             JsonNode messageNode = jsonNode.at("/message");
             results.add(transformSourceRecords(messageNode.toString()));
@@ -245,7 +247,8 @@ public class CrossRefImportMetadataSourceServiceImpl extends AbstractImportMetad
                 uriBuilder.addParameter("query.bibliographic", bibliographics);
             }
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String resp = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String resp = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             JsonNode jsonNode = convertStringJsonToJsonNode(resp);
             Iterator<JsonNode> nodes = jsonNode.at("/message/items").iterator();
             while (nodes.hasNext()) {
@@ -283,7 +286,8 @@ public class CrossRefImportMetadataSourceServiceImpl extends AbstractImportMetad
             URIBuilder uriBuilder = new URIBuilder(url);
             uriBuilder.addParameter("query", query.getParameterAsClass("query", String.class));
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String responseString = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String responseString = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             JsonNode jsonNode = convertStringJsonToJsonNode(responseString);
             return jsonNode.at("/message/total-results").asInt();
         }
@@ -314,7 +318,8 @@ public class CrossRefImportMetadataSourceServiceImpl extends AbstractImportMetad
         public Integer call() throws Exception {
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
             URIBuilder uriBuilder = new URIBuilder(url + "/" + query.getParameterAsClass("id", String.class));
-            String responseString = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String responseString = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             JsonNode jsonNode = convertStringJsonToJsonNode(responseString);
             return StringUtils.equals(jsonNode.at("/status").toString(), "ok") ? 1 : 0;
         }
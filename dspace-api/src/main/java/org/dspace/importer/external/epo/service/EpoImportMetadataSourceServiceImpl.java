@@ -145,7 +145,7 @@ public class EpoImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
     protected String login() throws IOException, HttpException {
         Map<String, Map<String, String>> params = getLoginParams();
         String entity = "grant_type=client_credentials";
-        String json = liveImportClient.executeHttpPostRequest(this.authUrl, params, entity);
+        String json = liveImportClient.executeHttpPostRequest(getImportSource(), this.authUrl, params, entity);
         ObjectMapper mapper = new ObjectMapper(new JsonFactory());
         JsonNode rootNode = mapper.readTree(json);
         JsonNode accessTokenNode = rootNode.get("access_token");
@@ -395,7 +395,8 @@ public class EpoImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
             URIBuilder uriBuilder = new URIBuilder(this.searchUrl);
             uriBuilder.addParameter("q", query);
 
-            String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
 
             SAXBuilder saxBuilder = new SAXBuilder();
             Document document = saxBuilder.build(new StringReader(response));
@@ -432,7 +433,8 @@ public class EpoImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
             URIBuilder uriBuilder = new URIBuilder(this.searchUrl);
             uriBuilder.addParameter("q", query);
 
-            String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
 
             SAXBuilder saxBuilder = new SAXBuilder();
             Document document = saxBuilder.build(new StringReader(response));
@@ -472,7 +474,7 @@ public class EpoImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
 
             String url = this.url.replace("$(doctype)", docType).replace("$(id)", id);
 
-            String response = liveImportClient.executeHttpGetRequest(1000, url, params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(), 1000, url, params);
             List<Element> elements = splitToRecords(response);
             for (Element element : elements) {
                 results.add(transformSourceRecords(element));
@@ -27,6 +27,21 @@ public interface LiveImportClient {
      */
     public String executeHttpGetRequest(int timeout, String URL, Map<String, Map<String, String>> params);
 
+    /**
+     * Http GET request to an import source. The response may be answered from a cache, and the request is
+     * accounted to the source.
+     *
+     * @param source         The name of the import source, see
+     *                       {@link org.dspace.importer.external.service.components.MetadataSource#getImportSource()}
+     * @param timeout        The connect timeout in milliseconds
+     * @param URL            URL
+     * @param params         This map contains the parameters to be included in the request.
+     *                       Each parameter will be added to the url?(key=value)
+     * @return               The response in String type converted from InputStream
+     */
+    public String executeHttpGetRequest(String source, int timeout, String URL,
+                                        Map<String, Map<String, String>> params);
+
     /**
      * Http POST request
      * 
@@ -36,4 +51,16 @@ public interface LiveImportClient {
      * @return         the response in String type converted from InputStream
      */
     public String executeHttpPostRequest(String URL, Map<String, Map<String, String>> params, String entry);
+
+    /**
+     * Http POST request to an import source. The request is accounted to the source, its response isn't cached.
+     *
+     * @param source   The name of the import source
+     * @param URL      URL
+     * @param params   This map contains the header params to be included in the request.
+     * @param entry    the entity value
+     * @return         the response in String type converted from InputStream
+     */
+    public String executeHttpPostRequest(String source, String URL, Map<String, Map<String, String>> params,
+                                         String entry);
 }
\ No newline at end of file
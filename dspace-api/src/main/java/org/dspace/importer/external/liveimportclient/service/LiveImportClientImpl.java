@@ -7,12 +7,16 @@
  */
 package org.dspace.importer.external.liveimportclient.service;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.io.IOUtils;
@@ -28,6 +32,7 @@ import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.dspace.services.ConfigurationService;
@@ -35,6 +40,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Implementation of {@link LiveImportClient}.
+ * <p>
+ * The requests share a pooled HTTP client, which keeps the connections alive (at most importer.http.connections,
+ * and importer.http.connections.per-host per host). The responses to GET requests are cached for
+ * importer.cache.ttl.{source} (or importer.cache.ttl) seconds, at most importer.cache.size of them. The number of
+ * requests, cache hits, errors and the latency of the requests are recorded by source, and logged every
+ * {@value #REPORT_INTERVAL} requests.
  *
  * @author Mykhaylo Boychuk (mykhaylo.boychuk at 4science dot com)
  */
@@ -45,25 +56,74 @@ public class LiveImportClientImpl implements LiveImportClient {
     public static final String URI_PARAMETERS = "uriParameters";
     public static final String HEADER_PARAMETERS = "headerParameters";
 
+    /**
+     * Number of requests to a source between two reports of its statistics
+     */
+    private static final int REPORT_INTERVAL = 100;
+
+    /**
+     * Client set explicitly, used instead of the pooled client
+     */
     private CloseableHttpClient httpClient;
 
+    /**
+     * Client shared by all requests, keeping the connections to each host alive
+     */
+    private CloseableHttpClient pooledHttpClient;
+
+    /**
+     * Responses to GET requests, by source, URL and headers, the least recently used being evicted first
+     */
+    private Map<String, CachedResponse> responseCache;
+
+    private final Map<String, LiveImportStatistics> statistics = new ConcurrentHashMap<>();
+
     @Autowired
     private ConfigurationService configurationService;
 
     @Override
     public String executeHttpGetRequest(int timeout, String URL, Map<String, Map<String, String>> params) {
-        HttpGet method = null;
-        try (CloseableHttpClient httpClient = Optional.ofNullable(this.httpClient)
-                                                      .orElseGet(HttpClients::createDefault)) {
+        return executeHttpGetRequest(null, timeout, URL, params);
+    }
+
+    @Override
+    public String executeHttpGetRequest(String source, int timeout, String URL,
+                                        Map<String, Map<String, String>> params) {
+        String url;
+        try {
+            url = buildUrl(URL, params.get(URI_PARAMETERS));
+        } catch (URISyntaxException e) {
+            log.error(e.getMessage(), e);
+            return StringUtils.EMPTY;
+        }
+        Map<String, String> headerParams = params.get(HEADER_PARAMETERS);
+        source = getSourceName(source, url);
+        LiveImportStatistics sourceStatistics = getStatistics(source);
+
+        long ttl = configurationService.getLongProperty("importer.cache.ttl." + source,
+            configurationService.getLongProperty("importer.cache.ttl", 0));
+        String cacheKey = null;
+        if (ttl > 0) {
+            cacheKey = source + " " + url + (MapUtils.isEmpty(headerParams) ? "" : " " + new TreeMap<>(headerParams));
+            String response = getCachedResponse(cacheKey);
+            if (response != null) {
+                sourceStatistics.recordCacheHit();
+                report(sourceStatistics);
+                return response;
+            }
+        }
 
+        HttpGet method = null;
+        String response = null;
+        long start = System.nanoTime();
+        try {
             Builder requestConfigBuilder = RequestConfig.custom();
             requestConfigBuilder.setConnectionRequestTimeout(timeout);
             RequestConfig defaultRequestConfig = requestConfigBuilder.build();
 
-            method = new HttpGet(buildUrl(URL, params.get(URI_PARAMETERS)));
+            method = new HttpGet(url);
             method.setConfig(defaultRequestConfig);
 
-            Map<String, String> headerParams = params.get(HEADER_PARAMETERS);
             if (MapUtils.isNotEmpty(headerParams)) {
                 for (String param : headerParams.keySet()) {
                     method.setHeader(param, headerParams.get(param));
@@ -72,29 +132,44 @@ public class LiveImportClientImpl implements LiveImportClient {
 
             configureProxy(method, defaultRequestConfig);
 
-            HttpResponse httpResponse = httpClient.execute(method);
+            HttpResponse httpResponse = getClient().execute(method);
             if (isNotSuccessfull(httpResponse)) {
                 throw new RuntimeException("The request failed with: " + getStatusCode(httpResponse) + " code, reason= "
                                            + httpResponse.getStatusLine().getReasonPhrase());
             }
             InputStream inputStream = httpResponse.getEntity().getContent();
-            return IOUtils.toString(inputStream, Charset.defaultCharset());
+            response = IOUtils.toString(inputStream, Charset.defaultCharset());
         } catch (Exception e1) {
             log.error(e1.getMessage(), e1);
         } finally {
             if (Objects.nonNull(method)) {
                 method.releaseConnection();
             }
+            sourceStatistics.recordRequest(System.nanoTime() - start, response != null);
+            report(sourceStatistics);
+        }
+        if (response == null) {
+            return StringUtils.EMPTY;
         }
-        return StringUtils.EMPTY;
+        if (cacheKey != null) {
+            cacheResponse(cacheKey, response, ttl);
+        }
+        return response;
     }
 
     @Override
     public String executeHttpPostRequest(String URL, Map<String, Map<String, String>> params, String entry) {
-        HttpPost method = null;
-        try (CloseableHttpClient httpClient = Optional.ofNullable(this.httpClient)
-                                                      .orElseGet(HttpClients::createDefault)) {
+        return executeHttpPostRequest(null, URL, params, entry);
+    }
 
+    @Override
+    public String executeHttpPostRequest(String source, String URL, Map<String, Map<String, String>> params,
+                                         String entry) {
+        HttpPost method = null;
+        String response = null;
+        LiveImportStatistics sourceStatistics = getStatistics(getSourceName(source, URL));
+        long start = System.nanoTime();
+        try {
             Builder requestConfigBuilder = RequestConfig.custom();
             RequestConfig defaultRequestConfig = requestConfigBuilder.build();
 
@@ -107,20 +182,136 @@ public class LiveImportClientImpl implements LiveImportClient {
 
             configureProxy(method, defaultRequestConfig);
 
-            HttpResponse httpResponse = httpClient.execute(method);
+            HttpResponse httpResponse = getClient().execute(method);
             if (isNotSuccessfull(httpResponse)) {
                 throw new RuntimeException();
             }
             InputStream inputStream = httpResponse.getEntity().getContent();
-            return IOUtils.toString(inputStream, Charset.defaultCharset());
+            response = IOUtils.toString(inputStream, Charset.defaultCharset());
         } catch (Exception e1) {
             log.error(e1.getMessage(), e1);
         } finally {
             if (Objects.nonNull(method)) {
                 method.releaseConnection();
             }
+            sourceStatistics.recordRequest(System.nanoTime() - start, response != null);
+            report(sourceStatistics);
+        }
+        return response == null ? StringUtils.EMPTY : response;
+    }
+
+    /**
+     * Get the statistics of the requests to each source since startup.
+     *
+     * @return the statistics, by source
+     */
+    public Map<String, LiveImportStatistics> getStatistics() {
+        return new TreeMap<>(statistics);
+    }
+
+    /**
+     * Close the pooled connections (when the application is shut down).
+     */
+    public void destroy() {
+        CloseableHttpClient client;
+        synchronized (this) {
+            client = pooledHttpClient;
+            pooledHttpClient = null;
+        }
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                log.warn("Unable to close the HTTP client of the live import", e);
+            }
+        }
+        for (LiveImportStatistics sourceStatistics : statistics.values()) {
+            log.info("Live import statistics of {}", sourceStatistics);
         }
-        return StringUtils.EMPTY;
+    }
+
+    /**
+     * @return the client set explicitly, or else the shared pooled client
+     */
+    private CloseableHttpClient getClient() {
+        CloseableHttpClient client = this.httpClient;
+        return client != null ? client : getPooledHttpClient();
+    }
+
+    private synchronized CloseableHttpClient getPooledHttpClient() {
+        if (pooledHttpClient == null) {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                configurationService.getLongProperty("importer.http.connection.ttl", 300), TimeUnit.SECONDS);
+            connectionManager.setMaxTotal(configurationService.getIntProperty("importer.http.connections", 50));
+            connectionManager.setDefaultMaxPerRoute(
+                configurationService.getIntProperty("importer.http.connections.per-host", 10));
+            pooledHttpClient = HttpClients.custom()
+                                          .setConnectionManager(connectionManager)
+                                          .evictExpiredConnections()
+                                          .evictIdleConnections(configurationService.getLongProperty(
+                                              "importer.http.connection.idle", 30), TimeUnit.SECONDS)
+                                          .build();
+        }
+        return pooledHttpClient;
+    }
+
+    /**
+     * @return the given source, or else the host of the URL, to group the statistics and cache settings
+     */
+    private String getSourceName(String source, String url) {
+        if (StringUtils.isNotBlank(source)) {
+            return source;
+        }
+        try {
+            return StringUtils.defaultIfBlank(new URIBuilder(url).getHost(), "unknown");
+        } catch (URISyntaxException e) {
+            return "unknown";
+        }
+    }
+
+    private LiveImportStatistics getStatistics(String source) {
+        return statistics.computeIfAbsent(source, LiveImportStatistics::new);
+    }
+
+    private void report(LiveImportStatistics sourceStatistics) {
+        if (sourceStatistics.getRequestCount() % REPORT_INTERVAL == 0) {
+            log.info("Live import statistics of {}", sourceStatistics);
+        }
+    }
+
+    private synchronized String getCachedResponse(String key) {
+        if (responseCache == null) {
+            return null;
+        }
+        CachedResponse cached = responseCache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expires < System.currentTimeMillis()) {
+            responseCache.remove(key);
+            return null;
+        }
+        return cached.response;
+    }
+
+    private synchronized void cacheResponse(String key, String response, long ttl) {
+        if (responseCache == null) {
+            int maxSize = Math.max(1, configurationService.getIntProperty("importer.cache.size", 1000));
+            responseCache = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+        responseCache.put(key, new CachedResponse(response, System.currentTimeMillis() + ttl * 1000));
+    }
+
+    /**
+     * Remove all cached responses.
+     */
+    public synchronized void clearCache() {
+        responseCache = null;
     }
 
     private void configureProxy(HttpRequestBase method, RequestConfig defaultRequestConfig) {
@@ -181,8 +372,28 @@ public class LiveImportClientImpl implements LiveImportClient {
         return httpClient;
     }
 
+    /**
+     * Set the client to use instead of the pooled client, or null to use the pooled client again. The cached
+     * responses are removed, as they were received by another client.
+     *
+     * @param httpClient the client
+     */
     public void setHttpClient(CloseableHttpClient httpClient) {
         this.httpClient = httpClient;
+        clearCache();
+    }
+
+    /**
+     * A cached response, with its expiration time
+     */
+    private static class CachedResponse {
+        private final String response;
+        private final long expires;
+
+        CachedResponse(String response, long expires) {
+            this.response = response;
+            this.expires = expires;
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.importer.external.liveimportclient.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters and latencies of an external import source, as seen by {@link LiveImportClientImpl}.
+ */
+public class LiveImportStatistics {
+
+    private final String source;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LiveImportStatistics(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Record a request answered from the response cache.
+     */
+    void recordCacheHit() {
+        requests.increment();
+        cacheHits.increment();
+    }
+
+    /**
+     * Record a request sent to the source.
+     *
+     * @param nanos      the time taken by the request, in nanoseconds
+     * @param successful whether a response was received
+     */
+    void recordRequest(long nanos, boolean successful) {
+        requests.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (!successful) {
+            errors.increment();
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the number of requests, including those answered from the cache
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return the number of requests sent to the source which failed
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return the mean time taken by the requests sent to the source, in milliseconds
+     */
+    public double getMeanLatency() {
+        long sent = requests.sum() - cacheHits.sum();
+        return sent > 0 ? totalNanos.sum() / (double) sent / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+    }
+
+    /**
+     * @return the longest time taken by a request sent to the source, in milliseconds
+     */
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        long total = getRequestCount();
+        return String.format("%s: %d requests, %d cache hits (%.0f%%), %d errors, latency mean %.1f ms, max %d ms",
+                             source, total, getCacheHitCount(), total > 0 ? 100.0 * getCacheHitCount() / total : 0.0,
+                             getErrorCount(), getMeanLatency(), getMaxLatency());
+    }
+}
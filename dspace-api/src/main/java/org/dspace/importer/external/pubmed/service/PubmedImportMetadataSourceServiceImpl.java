@@ -216,7 +216,8 @@ public class PubmedImportMetadataSourceServiceImpl extends AbstractImportMetadat
             int countAttempt = 0;
             while (StringUtils.isBlank(response) && countAttempt <= attempt) {
                 countAttempt++;
-                response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+                response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    1000, uriBuilder.toString(), params);
             }
 
             if (StringUtils.isBlank(response)) {
@@ -292,7 +293,8 @@ public class PubmedImportMetadataSourceServiceImpl extends AbstractImportMetadat
             int countAttempt = 0;
             while (StringUtils.isBlank(response) && countAttempt <= attempt) {
                 countAttempt++;
-                response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+                response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    1000, uriBuilder.toString(), params);
             }
 
             if (StringUtils.isBlank(response)) {
@@ -316,7 +318,8 @@ public class PubmedImportMetadataSourceServiceImpl extends AbstractImportMetadat
             countAttempt = 0;
             while (StringUtils.isBlank(response2) && countAttempt <= attempt) {
                 countAttempt++;
-                response2 = liveImportClient.executeHttpGetRequest(1000, uriBuilder2.toString(), params2);
+                response2 = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    1000, uriBuilder2.toString(), params2);
             }
 
             if (StringUtils.isBlank(response2)) {
@@ -377,7 +380,8 @@ public class PubmedImportMetadataSourceServiceImpl extends AbstractImportMetadat
             int countAttempt = 0;
             while (StringUtils.isBlank(response) && countAttempt <= attempt) {
                 countAttempt++;
-                response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+                response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    1000, uriBuilder.toString(), params);
             }
 
             if (StringUtils.isBlank(response)) {
@@ -418,7 +422,8 @@ public class PubmedImportMetadataSourceServiceImpl extends AbstractImportMetadat
             int countAttempt = 0;
             while (StringUtils.isBlank(response) && countAttempt <= attempt) {
                 countAttempt++;
-                response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+                response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    1000, uriBuilder.toString(), params);
             }
 
             if (StringUtils.isBlank(response)) {
@@ -441,7 +446,8 @@ public class PubmedImportMetadataSourceServiceImpl extends AbstractImportMetadat
             countAttempt = 0;
             while (StringUtils.isBlank(response2) && countAttempt <= attempt) {
                 countAttempt++;
-                response2 = liveImportClient.executeHttpGetRequest(1000, uriBuilder2.toString(), params2);
+                response2 = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    1000, uriBuilder2.toString(), params2);
             }
 
             if (StringUtils.isBlank(response2)) {
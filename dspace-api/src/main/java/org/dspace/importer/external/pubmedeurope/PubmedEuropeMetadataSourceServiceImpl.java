@@ -291,7 +291,8 @@ public class PubmedEuropeMetadataSourceServiceImpl extends AbstractImportMetadat
     public Integer count(String query) throws URISyntaxException, ClientProtocolException, IOException, JaxenException {
         try {
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String response = liveImportClient.executeHttpGetRequest(1000, buildURI(1, query), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, buildURI(1, query), params);
 
             SAXBuilder saxBuilder = new SAXBuilder();
             Document document = saxBuilder.build(new StringReader(response));
@@ -361,7 +362,8 @@ public class PubmedEuropeMetadataSourceServiceImpl extends AbstractImportMetadat
             boolean lastPage = false;
             int skipped = 0;
             while (!lastPage || results.size() < size) {
-                String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    1000, uriBuilder.toString(), params);
                 String cursorMark = StringUtils.EMPTY;
                 if (StringUtils.isNotBlank(response)) {
                     SAXBuilder saxBuilder = new SAXBuilder();
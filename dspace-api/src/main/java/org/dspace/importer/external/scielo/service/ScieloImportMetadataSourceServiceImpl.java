@@ -133,7 +133,8 @@ public class ScieloImportMetadataSourceServiceImpl extends AbstractImportMetadat
         public Integer call() throws Exception {
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
             URIBuilder uriBuilder = new URIBuilder(url + URLEncoder.encode(query, StandardCharsets.UTF_8));
-            String resp = liveImportClient.executeHttpGetRequest(timeout, uriBuilder.toString(), params);
+            String resp = liveImportClient.executeHttpGetRequest(getImportSource(),
+                timeout, uriBuilder.toString(), params);
             Map<Integer, Map<String, List<String>>> records = getRecords(resp);
             return Objects.nonNull(records.size()) ? records.size() : 0;
         }
@@ -163,7 +164,8 @@ public class ScieloImportMetadataSourceServiceImpl extends AbstractImportMetadat
             if (risMatcher.matches()) {
                 Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
                 URIBuilder uriBuilder = new URIBuilder(url + URLEncoder.encode(scieloId, StandardCharsets.UTF_8));
-                String resp = liveImportClient.executeHttpGetRequest(timeout, uriBuilder.toString(), params);
+                String resp = liveImportClient.executeHttpGetRequest(getImportSource(),
+                    timeout, uriBuilder.toString(), params);
                 Map<Integer, Map<String, List<String>>> records = getRecords(resp);
                 if (Objects.nonNull(records) & !records.isEmpty()) {
                     results.add(transformSourceRecords(records.get(1)));
@@ -208,7 +210,8 @@ public class ScieloImportMetadataSourceServiceImpl extends AbstractImportMetadat
             uriBuilder.addParameter("start", start.toString());
             uriBuilder.addParameter("count", count.toString());
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String resp = liveImportClient.executeHttpGetRequest(timeout, uriBuilder.toString(), params);
+            String resp = liveImportClient.executeHttpGetRequest(getImportSource(),
+                timeout, uriBuilder.toString(), params);
             Map<Integer, Map<String, List<String>>> records = getRecords(resp);
             for (int record : records.keySet()) {
                 results.add(transformSourceRecords(records.get(record)));
@@ -199,7 +199,7 @@ public class ScopusImportMetadataSourceServiceImpl extends AbstractImportMetadat
                 Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
                 Map<String, String> requestParams = getRequestParameters(query, null, null, null);
                 params.put(URI_PARAMETERS, requestParams);
-                String response = liveImportClient.executeHttpGetRequest(timeout, url, params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(), timeout, url, params);
 
                 SAXBuilder saxBuilder = new SAXBuilder();
                 Document document = saxBuilder.build(new StringReader(response));
@@ -242,7 +242,7 @@ public class ScopusImportMetadataSourceServiceImpl extends AbstractImportMetadat
                 Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
                 Map<String, String> requestParams = getRequestParameters(queryString, viewMode, null, null);
                 params.put(URI_PARAMETERS, requestParams);
-                String response = liveImportClient.executeHttpGetRequest(timeout, url, params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(), timeout, url, params);
                 List<Element> elements = splitToRecords(response);
                 for (Element record : elements) {
                     results.add(transformSourceRecords(record));
@@ -301,7 +301,7 @@ public class ScopusImportMetadataSourceServiceImpl extends AbstractImportMetadat
                 Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
                 Map<String, String> requestParams = getRequestParameters(queryString, viewMode, start, count);
                 params.put(URI_PARAMETERS, requestParams);
-                String response = liveImportClient.executeHttpGetRequest(timeout, url, params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(), timeout, url, params);
                 List<Element> elements = splitToRecords(response);
                 for (Element record : elements) {
                     results.add(transformSourceRecords(record));
@@ -346,7 +346,7 @@ public class ScopusImportMetadataSourceServiceImpl extends AbstractImportMetadat
                 Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
                 Map<String, String> requestParams = getRequestParameters(queryString, viewMode, start, count);
                 params.put(URI_PARAMETERS, requestParams);
-                String response = liveImportClient.executeHttpGetRequest(timeout, url, params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(), timeout, url, params);
                 List<Element> elements = splitToRecords(response);
                 for (Element record : elements) {
                     results.add(transformSourceRecords(record));
@@ -143,7 +143,8 @@ public class VuFindImportMetadataSourceServiceImpl extends AbstractImportMetadat
             uriBuilder.addParameter("prettyPrint", String.valueOf(true));
             uriBuilder.addParameter("lookfor", query.getParameterAsClass("query", String.class));
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String responseString = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String responseString = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             JsonNode node = convertStringJsonToJsonNode(responseString);
             JsonNode resultCountNode = node.get("resultCount");
             return resultCountNode.intValue();
@@ -182,7 +183,8 @@ public class VuFindImportMetadataSourceServiceImpl extends AbstractImportMetadat
                 }
             }
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            String response = liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            String response = liveImportClient.executeHttpGetRequest(getImportSource(),
+                1000, uriBuilder.toString(), params);
             return response;
         }
     }
@@ -240,7 +242,7 @@ public class VuFindImportMetadataSourceServiceImpl extends AbstractImportMetadat
                 }
             }
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            return liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            return liveImportClient.executeHttpGetRequest(getImportSource(), 1000, uriBuilder.toString(), params);
         }
 
     }
@@ -291,7 +293,7 @@ public class VuFindImportMetadataSourceServiceImpl extends AbstractImportMetadat
             }
             uriBuilder.addParameter("lookfor", filter);
             Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
-            return liveImportClient.executeHttpGetRequest(1000, uriBuilder.toString(), params);
+            return liveImportClient.executeHttpGetRequest(getImportSource(), 1000, uriBuilder.toString(), params);
         }
 
     }
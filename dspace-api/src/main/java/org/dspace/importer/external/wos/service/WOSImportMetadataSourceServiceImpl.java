@@ -144,7 +144,7 @@ public class WOSImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
                 String url = urlSearch + queryString + "&count=1&firstRecord=1";
                 Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
                 params.put(HEADER_PARAMETERS, getRequestParameters());
-                String response = liveImportClient.executeHttpGetRequest(timeout, url, params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(), timeout, url, params);
 
                 SAXBuilder saxBuilder = new SAXBuilder();
                 Document document = saxBuilder.build(new StringReader(response));
@@ -178,7 +178,7 @@ public class WOSImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
                 String urlString = url + this.doi + "?databaseId=WOS&lang=en&count=10&firstRecord=1";
                 Map<String, Map<String, String>> params = new HashMap<String, Map<String,String>>();
                 params.put(HEADER_PARAMETERS, getRequestParameters());
-                String response = liveImportClient.executeHttpGetRequest(timeout, urlString, params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(), timeout, urlString, params);
 
                 List<Element> elements = splitToRecords(response);
                 for (Element record : elements) {
@@ -225,7 +225,7 @@ public class WOSImportMetadataSourceServiceImpl extends AbstractImportMetadataSo
                 params.put(HEADER_PARAMETERS, getRequestParameters());
                 String url = urlSearch + URLEncoder.encode(queryString, StandardCharsets.UTF_8)
                                                  + "&count=" + count + "&firstRecord=" + (start + 1);
-                String response = liveImportClient.executeHttpGetRequest(timeout, url, params);
+                String response = liveImportClient.executeHttpGetRequest(getImportSource(), timeout, url, params);
 
                 List<Element> omElements = splitToRecords(response);
                 for (Element el : omElements) {
@@ -98,6 +98,7 @@ import org.dspace.statistics.service.SolrLoggerService;
 import org.dspace.statistics.util.LocationUtils;
 import org.dspace.statistics.util.SpiderDetector;
 import org.dspace.usage.UsageWorkflowEvent;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -110,13 +111,18 @@ import org.springframework.beans.factory.annotation.Autowired;
  * @author kevinvandevelde at atmire.com
  * @author mdiggory at atmire.com
  */
-public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBean {
+public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBean, DisposableBean {
 
     private static final Logger log = LogManager.getLogger();
 
     private static final String MULTIPLE_VALUES_SPLITTER = "|";
     protected SolrClient solr;
 
+    /**
+     * Buffer of the usage events to send to the statistics core, null when the events are sent immediately
+     */
+    protected SolrStatisticsBuffer statisticsBuffer;
+
     public static final String DATE_FORMAT_8601 = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
 
     public static final String DATE_FORMAT_DCDATE = "yyyy-MM-dd'T'HH:mm:ss'Z'";
@@ -186,6 +192,42 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             log.error(ex);
         }
         locationService = service;
+
+        if (solr != null && configurationService.getBooleanProperty("solr-statistics.buffer.enabled", false)) {
+            statisticsBuffer = new SolrStatisticsBuffer(solr,
+                configurationService.getIntProperty("solr-statistics.buffer.capacity", 10000),
+                configurationService.getIntProperty("solr-statistics.buffer.batch-size", 500),
+                configurationService.getLongProperty("solr-statistics.buffer.flush-interval", 1000),
+                SolrStatisticsBuffer.OverflowPolicy.valueOf(StringUtils.upperCase(
+                    configurationService.getProperty("solr-statistics.buffer.overflow", "drop"))),
+                new File(configurationService.getProperty("solr-statistics.buffer.spill.dir",
+                    configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                        + "statistics-spill")),
+                !configurationService.getBooleanProperty("solr-statistics.autoCommit", true));
+            statisticsBuffer.start();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (statisticsBuffer != null) {
+            statisticsBuffer.stop();
+        }
+    }
+
+    /**
+     * Send a usage event to the statistics core, through the buffer when enabled.
+     *
+     * @param document the usage event
+     * @throws IOException         if IO error
+     * @throws SolrServerException if the event could not be sent to the statistics core
+     */
+    protected void addUsageEvent(SolrInputDocument document) throws IOException, SolrServerException {
+        if (statisticsBuffer != null) {
+            statisticsBuffer.add(document);
+            return;
+        }
+        solr.add(document);
     }
 
     @Override
@@ -219,10 +261,10 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             doc1.addField("statistics_type", StatisticsType.VIEW.text());
 
 
-            solr.add(doc1);
-            // commits are executed automatically using the solr autocommit
+            addUsageEvent(doc1);
+            // commits are executed automatically using the solr autocommit (or by the buffer)
             boolean useAutoCommit = configurationService.getBooleanProperty("solr-statistics.autoCommit", true);
-            if (!useAutoCommit) {
+            if (!useAutoCommit && statisticsBuffer == null) {
                 solr.commit(false, false);
             }
 
@@ -259,10 +301,10 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
 
             doc1.addField("statistics_type", StatisticsType.VIEW.text());
 
-            solr.add(doc1);
-            // commits are executed automatically using the solr autocommit
+            addUsageEvent(doc1);
+            // commits are executed automatically using the solr autocommit (or by the buffer)
             boolean useAutoCommit = configurationService.getBooleanProperty("solr-statistics.autoCommit", true);
-            if (!useAutoCommit) {
+            if (!useAutoCommit && statisticsBuffer == null) {
                 solr.commit(false, false);
             }
 
@@ -504,7 +546,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 solrDoc.addField("page", page);
             }
 
-            solr.add(solrDoc);
+            addUsageEvent(solrDoc);
         } catch (RuntimeException re) {
             throw re;
         } catch (Exception e) {
@@ -553,7 +595,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 solrDoc.addField("actor", usageWorkflowEvent.getActor().getID().toString());
             }
 
-            solr.add(solrDoc);
+            addUsageEvent(solrDoc);
         } catch (Exception e) {
             //Log the exception, no need to send it through, the workflow shouldn't crash because of this !
             log.error("Error saving WORKFLOW event to Solr", e);
@@ -0,0 +1,335 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.util.MBeanUtils;
+
+/**
+ * Bounded in-memory buffer of usage events (statistics documents), sent to the statistics core in batches by a
+ * background thread, so request threads never wait for the statistics core.
+ * <p>
+ * A batch is sent when the buffer holds "batch size" events, or every "flush interval" milliseconds. When the buffer
+ * is full, new events are handled according to the {@link OverflowPolicy}: either dropped, or written ("spilled") to
+ * disk along with a batch of buffered events. Spilled events, as well as batches the statistics core failed to
+ * accept, are sent again once the buffer is less than half full. The number of dropped and spilled events is
+ * exposed through JMX.
+ */
+public class SolrStatisticsBuffer implements SolrStatisticsBufferMXBean {
+
+    private static final Logger log = LogManager.getLogger(SolrStatisticsBuffer.class);
+
+    private static final String SPILL_SUFFIX = ".spill";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final long POLL_INTERVAL = 100;
+
+    /**
+     * What to do with usage events when the buffer is full
+     */
+    public enum OverflowPolicy {
+        /** discard the event */
+        DROP,
+        /** write the event and a batch of buffered events to disk, to be sent later */
+        SPILL
+    }
+
+    private final SolrClient solr;
+    private final BlockingQueue<SolrInputDocument> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushInterval;
+    private final OverflowPolicy overflowPolicy;
+    private final File spillDirectory;
+    private final boolean commit;
+
+    private Thread thread;
+    private volatile boolean running;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong eventsReceived = new AtomicLong();
+    private final AtomicLong eventsSent = new AtomicLong();
+    private final AtomicLong eventsDropped = new AtomicLong();
+    private final AtomicLong eventsSpilled = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+
+    /**
+     * @param solr           the statistics core
+     * @param capacity       maximum number of events held in memory
+     * @param batchSize      maximum number of events sent in one request
+     * @param flushInterval  maximum time in milliseconds an event waits in the buffer
+     * @param overflowPolicy what to do with events when the buffer is full
+     * @param spillDirectory directory holding the spilled events
+     * @param commit         whether to commit after each batch, when the statistics core does not auto commit
+     */
+    public SolrStatisticsBuffer(SolrClient solr, int capacity, int batchSize, long flushInterval,
+                                OverflowPolicy overflowPolicy, File spillDirectory, boolean commit) {
+        this.solr = solr;
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+        this.flushInterval = flushInterval;
+        this.overflowPolicy = overflowPolicy;
+        this.spillDirectory = spillDirectory;
+        this.commit = commit;
+    }
+
+    /**
+     * Start the background thread. Events spilled by a previous run are sent again.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "statistics-buffer");
+        thread.setDaemon(true);
+        thread.start();
+        MBeanUtils.register(this, "SolrStatisticsBuffer");
+        log.info("Buffering up to {} usage events, sent by batches of {} (overflow policy: {})", capacity,
+                 batchSize, overflowPolicy);
+    }
+
+    /**
+     * Stop the background thread and send the buffered events.
+     *
+     * @throws InterruptedException if interrupted while waiting for the background thread
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.join();
+        List<SolrInputDocument> batch = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            batch = new ArrayList<>();
+        }
+        MBeanUtils.unregister("SolrStatisticsBuffer");
+    }
+
+    /**
+     * Queue a usage event, to be sent to the statistics core by the background thread. Never blocks: when the
+     * buffer is full the event is dropped or spilled to disk.
+     *
+     * @param document the usage event
+     */
+    public void add(SolrInputDocument document) {
+        eventsReceived.incrementAndGet();
+        if (queue.offer(document)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            // Make room for the next events as well
+            List<SolrInputDocument> documents = new ArrayList<>();
+            queue.drainTo(documents, batchSize);
+            documents.add(document);
+            spill(documents);
+        } else {
+            drop(1);
+        }
+    }
+
+    private void run() {
+        List<SolrInputDocument> batch = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + flushInterval;
+        while (running) {
+            try {
+                // Wake up regularly, to notice when stopping
+                long wait = Math.min(POLL_INTERVAL, deadline - System.currentTimeMillis());
+                SolrInputDocument document = queue.poll(Math.max(1, wait), TimeUnit.MILLISECONDS);
+                if (document != null) {
+                    batch.add(document);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline) {
+                if (!batch.isEmpty()) {
+                    send(batch);
+                    batch = new ArrayList<>();
+                }
+                if (queue.size() < capacity / 2) {
+                    resendSpilled();
+                }
+                deadline = System.currentTimeMillis() + flushInterval;
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Send a batch of events to the statistics core. When this fails, the events are spilled or dropped according
+     * to the overflow policy.
+     */
+    private void send(List<SolrInputDocument> batch) {
+        if (!trySend(batch)) {
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                drop(batch.size());
+            }
+        }
+    }
+
+    private boolean trySend(List<SolrInputDocument> batch) {
+        try {
+            solr.add(batch);
+            if (commit) {
+                solr.commit(false, false);
+            }
+            eventsSent.addAndGet(batch.size());
+            return true;
+        } catch (Exception e) {
+            failedFlushCount.incrementAndGet();
+            log.error("Failed to send {} usage events to the statistics core", batch.size(), e);
+            return false;
+        } finally {
+            flushCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Send the oldest spill file to the statistics core, and remove it once sent.
+     */
+    @SuppressWarnings("unchecked")
+    private void resendSpilled() {
+        String[] names = listSpillFiles();
+        if (names.length == 0) {
+            return;
+        }
+        File file = new File(spillDirectory, names[0]);
+        List<SolrInputDocument> documents;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            documents = (List<SolrInputDocument>) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.error("Unable to read the spilled usage events in {}, they are lost", file, e);
+            file.delete();
+            return;
+        }
+        if (trySend(documents)) {
+            if (!file.delete()) {
+                log.error("Unable to delete {}, its usage events will be sent again", file);
+            }
+        }
+    }
+
+    /**
+     * Write events to a new spill file, dropping them if this fails.
+     */
+    private void spill(List<SolrInputDocument> documents) {
+        // The name orders the spill files by creation
+        String name = String.format("%013d-%012d-%s", System.currentTimeMillis(), sequence.incrementAndGet(),
+                                    UUID.randomUUID());
+        File temporary = new File(spillDirectory, name + TEMPORARY_SUFFIX);
+        try {
+            Files.createDirectories(spillDirectory.toPath());
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temporary)))) {
+                out.writeObject(new ArrayList<>(documents));
+            }
+            // Only complete files are read back
+            Files.move(temporary.toPath(), new File(spillDirectory, name + SPILL_SUFFIX).toPath(),
+                       StandardCopyOption.ATOMIC_MOVE);
+            eventsSpilled.addAndGet(documents.size());
+        } catch (IOException e) {
+            log.error("Unable to spill {} usage events to {}", documents.size(), spillDirectory, e);
+            temporary.delete();
+            drop(documents.size());
+        }
+    }
+
+    private void drop(int count) {
+        long dropped = eventsDropped.getAndAdd(count);
+        // Do not flood the logs while the statistics core is overloaded
+        if (dropped / 1000 != (dropped + count) / 1000 || dropped == 0) {
+            log.warn("The usage statistics buffer is full, {} usage events dropped so far", dropped + count);
+        }
+    }
+
+    private String[] listSpillFiles() {
+        String[] names = spillDirectory.list((dir, name) -> name.endsWith(SPILL_SUFFIX));
+        if (names == null) {
+            return new String[0];
+        }
+        Arrays.sort(names);
+        return names;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getEventsReceived() {
+        return eventsReceived.get();
+    }
+
+    @Override
+    public long getEventsSent() {
+        return eventsSent.get();
+    }
+
+    @Override
+    public long getEventsDropped() {
+        return eventsDropped.get();
+    }
+
+    @Override
+    public long getEventsSpilled() {
+        return eventsSpilled.get();
+    }
+
+    @Override
+    public int getSpillFiles() {
+        return listSpillFiles().length;
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    @Override
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+}
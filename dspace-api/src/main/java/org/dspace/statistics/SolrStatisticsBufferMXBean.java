@@ -0,0 +1,58 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+/**
+ * MBean type exposing the metrics of the {@link SolrStatisticsBuffer}.
+ */
+public interface SolrStatisticsBufferMXBean {
+    /**
+     * @return the number of usage events waiting in memory to be sent to the statistics core
+     */
+    public int getQueueDepth();
+
+    /**
+     * @return the number of usage events the buffer can hold in memory
+     */
+    public int getCapacity();
+
+    /**
+     * @return the number of usage events received by the buffer
+     */
+    public long getEventsReceived();
+
+    /**
+     * @return the number of usage events sent to the statistics core
+     */
+    public long getEventsSent();
+
+    /**
+     * @return the number of usage events lost, because the buffer was full or the statistics core failed
+     */
+    public long getEventsDropped();
+
+    /**
+     * @return the number of usage events written to disk, because the buffer was full or the statistics core failed
+     */
+    public long getEventsSpilled();
+
+    /**
+     * @return the number of spill files waiting to be sent to the statistics core
+     */
+    public int getSpillFiles();
+
+    /**
+     * @return the number of batches sent to the statistics core
+     */
+    public long getFlushCount();
+
+    /**
+     * @return the number of batches which could not be sent to the statistics core
+     */
+    public long getFailedFlushCount();
+}
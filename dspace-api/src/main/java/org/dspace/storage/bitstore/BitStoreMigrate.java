@@ -60,7 +60,9 @@ public class BitStoreMigrate {
                                   "1.");
             options.addOption("d", "delete", false,
                               "Delete file from losing assetstore. (Default: Keep bitstream in old assetstore)");
-            options.addOption("p", "print", false, "Print out current assetstore information");
+            options.addOption("p", "print", false,
+                              "Print out current assetstore information, including the space saved by files shared " +
+                                  "by several bitstreams");
             options.addOption("s", "size", true, "Batch commit size. (Default: 1, commit after each file transfer)");
             options.addOption("h", "help", false, "Help");
 
@@ -7,10 +7,17 @@
  */
 package org.dspace.storage.bitstore;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.dspace.content.Bitstream;
 
 /**
@@ -44,6 +51,46 @@ public interface BitStoreService {
      */
     public InputStream get(Bitstream bitstream) throws IOException;
 
+    /**
+     * Retrieve a range of the bits for bitstream.
+     * <p>
+     * By default the bits before the range are read and skipped; stores able to retrieve a range directly
+     * should override this method.
+     * </p>
+     *
+     * @param bitstream DSpace Bitstream object
+     * @param offset    The position of the first byte to retrieve
+     * @param length    The maximum number of bytes to retrieve
+     * @return The stream of bits of the range
+     * @throws java.io.IOException If a problem occurs while retrieving the bits, if no
+     *                             asset with ID exists in the store or if the offset is beyond its end
+     */
+    public default InputStream get(Bitstream bitstream, long offset, long length) throws IOException {
+        InputStream in = get(bitstream);
+        if (in == null) {
+            return null;
+        }
+        try {
+            IOUtils.skipFully(in, offset);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new BoundedInputStream(in, length);
+    }
+
+    /**
+     * Return the local file holding the bits for bitstream, so they can be sent without being copied through the
+     * Java heap (e.g. with sendfile). Stores which don't keep their assets as local files return null.
+     *
+     * @param bitstream DSpace Bitstream object
+     * @return The file holding the bits, or null
+     * @throws java.io.IOException If a problem occurs while determining the file
+     */
+    public default File getLocalFile(Bitstream bitstream) throws IOException {
+        return null;
+    }
+
     /**
      * Store a stream of bits.
      *
@@ -78,6 +125,42 @@ public interface BitStoreService {
      */
     public void remove(Bitstream bitstream) throws IOException;
 
+    /**
+     * Remove an asset from the asset store, unless a bitstream being stored (not committed yet) references it.
+     * <p>
+     * Only stores sharing assets between bitstreams can have such references; by default the asset is removed.
+     * </p>
+     *
+     * @param bitstream The bitstream of the asset to delete
+     * @return whether the asset was removed
+     * @throws java.io.IOException If a problem occurs while removing the asset
+     */
+    public default boolean removeIfUnreferenced(Bitstream bitstream) throws IOException {
+        remove(bitstream);
+        return true;
+    }
+
+    /**
+     * Return the bitstreams which were given a shared asset when stored, and whose reference isn't released yet:
+     * until they're committed they aren't visible to the cleanup, which must keep their asset.
+     *
+     * @return the IDs of the bitstreams, empty for stores not sharing assets
+     * @throws java.io.IOException If a problem occurs while listing the references
+     */
+    public default Set<UUID> getPendingBitstreams() throws IOException {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Release the references of bitstreams returned by {@link #getPendingBitstreams()} which are now committed, so
+     * the database alone tells whether their asset is referenced.
+     *
+     * @param bitstreamIds The IDs of the committed bitstreams
+     * @throws java.io.IOException If a problem occurs while releasing the references
+     */
+    public default void releasePendingBitstreams(Collection<UUID> bitstreamIds) throws IOException {
+    }
+
     /**
      * Determines if a store has been initialized
      * 
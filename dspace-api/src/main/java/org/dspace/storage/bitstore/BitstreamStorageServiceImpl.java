@@ -7,9 +7,11 @@
  */
 package org.dspace.storage.bitstore;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -18,6 +20,7 @@ import java.util.UUID;
 import javax.annotation.Nullable;
 
 import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.dspace.authorize.AuthorizeException;
@@ -113,6 +116,7 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
 
         BitStoreService store = this.getStore(incoming);
         //For efficiencies sake, PUT is responsible for setting bitstream size_bytes, checksum, and checksum_algorithm
+        //A content-addressed store also replaces the internal ID by the digest of the content
         store.put(bitstream, is);
         //bitstream.setSizeBytes(file.length());
         //bitstream.setChecksum(Utils.toHex(dis.getMessageDigest().digest()));
@@ -221,6 +225,19 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
         return this.getStore(storeNumber).get(bitstream);
     }
 
+    @Override
+    public InputStream retrieve(Context context, Bitstream bitstream, long offset, long length)
+        throws SQLException, IOException {
+        Integer storeNumber = bitstream.getStoreNumber();
+        return this.getStore(storeNumber).get(bitstream, offset, length);
+    }
+
+    @Override
+    public File getLocalFile(Context context, Bitstream bitstream) throws SQLException, IOException {
+        Integer storeNumber = bitstream.getStoreNumber();
+        return this.getStore(storeNumber).getLocalFile(bitstream);
+    }
+
     @Override
     public void cleanup(boolean deleteDbRecords, boolean verbose) throws SQLException, IOException, AuthorizeException {
         Context context = new Context(Context.Mode.BATCH_EDIT);
@@ -229,17 +246,26 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
         try {
             context.turnOffAuthorisationSystem();
 
+            releasePendingBitstreams(context);
+
             List<Bitstream> storage = bitstreamService.findDeletedBitstreams(context);
             for (Bitstream bitstream : storage) {
                 UUID bid = bitstream.getID();
-                Map wantedMetadata = new HashMap();
-                wantedMetadata.put("size_bytes", null);
-                wantedMetadata.put("modified", null);
-                Map receivedMetadata = this.getStore(bitstream.getStoreNumber()).about(bitstream, wantedMetadata);
 
+                // Since versioning and content-addressed stores allow for multiple bitstreams, the stored file is
+                // only removed with the last bitstream referencing it. While it is still referenced, only the
+                // record of the deleted bitstream goes, and the store doesn't need to be queried.
+                boolean shared = bitstreamService.countSharingBitstreams(context, bitstream) > 0;
+                Map receivedMetadata = null;
+                if (!shared) {
+                    Map wantedMetadata = new HashMap();
+                    wantedMetadata.put("size_bytes", null);
+                    wantedMetadata.put("modified", null);
+                    receivedMetadata = this.getStore(bitstream.getStoreNumber()).about(bitstream, wantedMetadata);
+                }
 
                 // Make sure entries which do not exist are removed
-                if (MapUtils.isEmpty(receivedMetadata)) {
+                if (!shared && MapUtils.isEmpty(receivedMetadata)) {
                     log.debug("bitstore.about is empty, so file is not present");
                     if (deleteDbRecords) {
                         log.debug("deleting record");
@@ -258,7 +284,7 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
 
                 // This is a small chance that this is a file which is
                 // being stored -- get it next time.
-                if (isRecent(Long.valueOf(receivedMetadata.get("modified").toString()))) {
+                if (!shared && isRecent(Long.valueOf(receivedMetadata.get("modified").toString()))) {
                     log.debug("file is recent");
                     context.uncacheEntity(bitstream);
                     continue;
@@ -282,11 +308,10 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
                 }
 
 
-                // Since versioning allows for multiple bitstreams, check if the internal identifier isn't used on
-                // another place
-                if (bitstreamService.findDuplicateInternalIdentifier(context, bitstream).isEmpty()) {
-                    this.getStore(bitstream.getStoreNumber()).remove(bitstream);
-
+                if (!shared && !this.getStore(bitstream.getStoreNumber()).removeIfUnreferenced(bitstream)) {
+                    // a bitstream being stored was given the file, and will reference it once committed
+                    log.debug("file is referenced by a bitstream being stored");
+                } else if (!shared) {
                     String message = ("Deleted bitstreamID " + bid + ", internalID " + bitstream.getInternalId());
                     if (log.isDebugEnabled()) {
                         log.debug(message);
@@ -390,22 +415,44 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
         //Find all the bitstreams on the old source, copy it to new destination, update store_number, save, remove old
         Iterator<Bitstream> allBitstreamsInSource = bitstreamService.findByStoreNumber(context, assetstoreSource);
         int processedCounter = 0;
+        // Files shared by several bitstreams are copied once: internal ID in the source -> in the destination
+        Map<String, String> copiedSharedFiles = new HashMap<>();
 
         while (allBitstreamsInSource.hasNext()) {
             Bitstream bitstream = allBitstreamsInSource.next();
-            log.info("Copying bitstream:" + bitstream
-                .getID() + " from assetstore[" + assetstoreSource + "] to assetstore[" + assetstoreDestination + "] " +
-                         "Name:" + bitstream
-                .getName() + ", SizeBytes:" + bitstream.getSizeBytes());
-
-            InputStream inputStream = retrieve(context, bitstream);
-            this.getStore(assetstoreDestination).put(bitstream, inputStream);
+            String sourceInternalId = bitstream.getInternalId();
+            List<Bitstream> sharingBitstreams = bitstreamService.findDuplicateInternalIdentifier(context, bitstream);
+
+            if (copiedSharedFiles.containsKey(sourceInternalId)) {
+                log.info("Bitstream:" + bitstream.getID() + " shares an already copied file");
+                bitstream.setInternalId(copiedSharedFiles.get(sourceInternalId));
+            } else {
+                log.info("Copying bitstream:" + bitstream
+                    .getID() + " from assetstore[" + assetstoreSource + "] to assetstore[" + assetstoreDestination +
+                             "] " + "Name:" + bitstream
+                    .getName() + ", SizeBytes:" + bitstream.getSizeBytes());
+
+                InputStream inputStream = retrieve(context, bitstream);
+                // A content-addressed destination may change the internal ID
+                this.getStore(assetstoreDestination).put(bitstream, inputStream);
+                if (!sharingBitstreams.isEmpty()) {
+                    copiedSharedFiles.put(sourceInternalId, bitstream.getInternalId());
+                }
+            }
             bitstream.setStoreNumber(assetstoreDestination);
             bitstreamService.update(context, bitstream);
 
-            if (deleteOld) {
+            // Shared files are removed along with the last bitstream of the source referencing them
+            if (deleteOld && !isReferencedElsewhere(assetstoreSource, sharingBitstreams)) {
                 log.info("Removing bitstream:" + bitstream.getID() + " from assetstore[" + assetstoreSource + "]");
-                this.getStore(assetstoreSource).remove(bitstream);
+                String destinationInternalId = bitstream.getInternalId();
+                bitstream.setInternalId(sourceInternalId);
+                try {
+                    // kept if an upload to the source was given the file meanwhile
+                    this.getStore(assetstoreSource).removeIfUnreferenced(bitstream);
+                } finally {
+                    bitstream.setInternalId(destinationInternalId);
+                }
             }
 
             processedCounter++;
@@ -435,6 +482,23 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
                     ", which has initialized-status: " + store.isInitialized() +
                     ", and has: " + countBitstreams + " bitstreams."
                 );
+
+                long sharedFiles = 0;
+                long sharingBitstreams = 0;
+                long savedBytes = 0;
+                for (Object[] shared : bitstreamService.findSharedInternalIdentifiers(context, storeNumber)) {
+                    long references = ((Number) shared[0]).longValue();
+                    long sizeBytes = shared[1] == null ? 0 : ((Number) shared[1]).longValue();
+                    sharedFiles++;
+                    sharingBitstreams += references;
+                    savedBytes += (references - 1) * sizeBytes;
+                }
+                if (sharedFiles > 0) {
+                    System.out.println(
+                        "    " + sharingBitstreams + " bitstreams share " + sharedFiles + " files, saving " +
+                        FileUtils.byteCountToDisplaySize(savedBytes) + " (" + savedBytes + " bytes)."
+                    );
+                }
             }
             System.out.println("Incoming assetstore is store[" + incoming + "]");
         } catch (SQLException e) {
@@ -462,6 +526,33 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
     // Internal methods
     ////////////////////////////////////////
 
+    /**
+     * Release the references recorded by the stores for the bitstreams they shared a file with, once these
+     * bitstreams are committed: from then on their rows tell whether the file is referenced. The references of
+     * bitstreams not visible yet are kept, so their file is.
+     *
+     * @param context The relevant DSpace Context.
+     * @throws SQLException if database error
+     * @throws IOException  if a store can't list or release its references
+     */
+    protected void releasePendingBitstreams(Context context) throws SQLException, IOException {
+        for (Map.Entry<Integer, BitStoreService> storeEntry : stores.entrySet()) {
+            if (!storeEntry.getValue().isEnabled()) {
+                continue;
+            }
+            BitStoreService store = getStore(storeEntry.getKey());
+            List<UUID> committed = new ArrayList<>();
+            for (UUID bitstreamId : store.getPendingBitstreams()) {
+                Bitstream bitstream = bitstreamService.find(context, bitstreamId);
+                if (bitstream != null) {
+                    committed.add(bitstreamId);
+                    context.uncacheEntity(bitstream);
+                }
+            }
+            store.releasePendingBitstreams(committed);
+        }
+    }
+
     /**
      * Return true if this file is too recent to be deleted, false otherwise.
      *
@@ -479,6 +570,25 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
         return (now - lastModified) < (1 * 60 * 1000);
     }
 
+    /**
+     * Check whether a stored file is still referenced by other bitstreams, i.e. whether its reference count
+     * doesn't drop to zero when a bitstream stops referencing it.
+     *
+     * @param storeNumber        the assetstore of the file
+     * @param sharingBitstreams  the other bitstreams with the same internal ID
+     * @return true if a bitstream which isn't deleted references the file in this assetstore
+     * @throws SQLException if database error
+     */
+    protected boolean isReferencedElsewhere(Integer storeNumber, List<Bitstream> sharingBitstreams)
+        throws SQLException {
+        for (Bitstream other : sharingBitstreams) {
+            if (!other.isDeleted() && storeNumber.equals(other.getStoreNumber())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected BitStoreService getStore(int position) throws IOException {
         BitStoreService bitStoreService = this.stores.get(position);
         if (!bitStoreService.isInitialized()) {
@@ -12,11 +12,22 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.logging.log4j.Logger;
 import org.dspace.content.Bitstream;
 import org.dspace.core.Utils;
@@ -25,6 +36,18 @@ import org.dspace.core.Utils;
  * Native DSpace (or "Directory Scatter" if you prefer) asset store.
  * Implements a directory 'scatter' algorithm to avoid OS limits on
  * files per directory.
+ * <p>
+ * When content-addressed, the stored files are named after the SHA-256 digest of their content rather than after a
+ * random identifier, so bitstreams with the same content share a single file. The bitstreams referencing a file are
+ * its reference count: the file is only removed by the cleanup once no bitstream of this store references it.
+ * Files stored before enabling this mode keep their random identifier.
+ * <p>
+ * A bitstream being stored is not visible to the cleanup before it is committed, so the store also records a
+ * reference file for each bitstream it stores under a digest, in the references directory. The reference is
+ * recorded, and the stored file removed, while holding a lock shared with the other processes using the store, so
+ * the cleanup never removes a file a bitstream being stored was given. The cleanup releases the references of the
+ * bitstreams it can see once they are committed. The references of bitstreams which are never committed are kept,
+ * along with their file, like the file of an upload rolled back in a store which isn't content-addressed.
  *
  * @author Peter Breton, Robert Tansley, Richard Rodgers, Peter Dietz
  */
@@ -41,6 +64,37 @@ public class DSBitStoreService extends BaseBitStoreService {
     private File baseDir;
     protected final String REGISTERED_FLAG = "-R";
 
+    /**
+     * Digest algorithm naming the files of a content-addressed store
+     */
+    protected static final String CONTENT_DIGEST = "SHA-256";
+
+    /**
+     * Directory, within the asset directory, receiving the uploads of a content-addressed store
+     */
+    protected static final String INCOMING_DIR = "incoming";
+
+    /**
+     * Directory, within the asset directory, holding the references of the bitstreams being stored to the files of
+     * a content-addressed store
+     */
+    protected static final String REFERENCES_DIR = "references";
+
+    /**
+     * File of the references directory locked while recording references and removing files
+     */
+    protected static final String LOCK_FILE = ".lock";
+
+    /**
+     * The file lock is held by the JVM, so the threads of this JVM also synchronize on this monitor
+     */
+    private static final Object LOCK = new Object();
+
+    /**
+     * whether the files are named after the digest of their content
+     */
+    private boolean contentAddressed = false;
+
     public DSBitStoreService() {
     }
 
@@ -79,6 +133,43 @@ public class DSBitStoreService extends BaseBitStoreService {
         }
     }
 
+    /**
+     * Retrieve a range of the bits for the asset, seeking to the start of the range rather than reading the bits
+     * before it.
+     *
+     * @param bitstream The ID of the asset to retrieve
+     * @param offset    The position of the first byte to retrieve
+     * @param length    The maximum number of bytes to retrieve
+     * @return The stream of bits of the range
+     * @throws java.io.IOException If a problem occurs while retrieving the bits
+     */
+    @Override
+    public InputStream get(Bitstream bitstream, long offset, long length) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(getFile(bitstream).toPath(), StandardOpenOption.READ);
+        } catch (Exception e) {
+            log.error("get(" + bitstream.getInternalId() + ", " + offset + ", " + length + ")", e);
+            throw new IOException(e);
+        }
+        try {
+            if (offset > channel.size()) {
+                throw new IOException("Offset " + offset + " beyond the end of " + bitstream.getInternalId());
+            }
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public File getLocalFile(Bitstream bitstream) throws IOException {
+        File file = getFile(bitstream);
+        return file != null && file.isFile() ? file : null;
+    }
+
     /**
      * Store a stream of bits.
      *
@@ -91,6 +182,10 @@ public class DSBitStoreService extends BaseBitStoreService {
      * @throws java.io.IOException If a problem occurs while storing the bits
      */
     public void put(Bitstream bitstream, InputStream in) throws IOException {
+        if (contentAddressed) {
+            putContentAddressed(bitstream, in);
+            return;
+        }
         try {
             File file = getFile(bitstream);
 
@@ -123,6 +218,63 @@ public class DSBitStoreService extends BaseBitStoreService {
         }
     }
 
+    /**
+     * Store a stream of bits under the digest of its content, replacing the internal ID of the bitstream. The bits
+     * are first written to a file of the incoming directory, then moved to their final location unless a file with
+     * the same content is already stored.
+     *
+     * @param bitstream The bitstream
+     * @param in        The stream of bits to store
+     * @throws java.io.IOException If a problem occurs while storing the bits
+     */
+    protected void putContentAddressed(Bitstream bitstream, InputStream in) throws IOException {
+        File incoming = new File(baseDir, INCOMING_DIR);
+        incoming.mkdirs();
+        File scratchFile = File.createTempFile("put", ".tmp", incoming);
+        try {
+            MessageDigest checksum = MessageDigest.getInstance(CSA);
+            MessageDigest contentDigest = MessageDigest.getInstance(CONTENT_DIGEST);
+            try (
+                    FileOutputStream fos = new FileOutputStream(scratchFile);
+                    DigestInputStream dis = new DigestInputStream(new DigestInputStream(in, checksum),
+                                                                  contentDigest);
+            ) {
+                Utils.bufferedCopy(dis, fos);
+                in.close();
+            }
+            long size = scratchFile.length();
+
+            bitstream.setInternalId(Utils.toHex(contentDigest.digest()));
+            File file = getFile(bitstream);
+            File reference = new File(getReferencesDir(bitstream.getInternalId()), bitstream.getID().toString());
+            withLock(() -> {
+                // Recorded before the file is shared (or moved in place, as a deleted bitstream may have the same
+                // digest), so the cleanup keeps the file until the new bitstream is committed
+                Files.createDirectories(reference.getParentFile().toPath());
+                reference.createNewFile();
+                if (file.exists()) {
+                    log.debug("Content of bitstream " + bitstream.getID() + " already stored as "
+                                  + bitstream.getInternalId());
+                } else {
+                    file.getParentFile().mkdirs();
+                    Files.move(scratchFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                }
+                return null;
+            });
+
+            bitstream.setSizeBytes(size);
+            bitstream.setChecksum(Utils.toHex(checksum.digest()));
+            bitstream.setChecksumAlgorithm(CSA);
+        } catch (Exception e) {
+            log.error("put(" + bitstream.getInternalId() + ", inputstream)", e);
+            throw new IOException(e);
+        } finally {
+            if (scratchFile.exists() && !scratchFile.delete()) {
+                scratchFile.deleteOnExit();
+            }
+        }
+    }
+
     /**
      * Obtain technical metadata about an asset in the asset store.
      *
@@ -168,10 +320,128 @@ public class DSBitStoreService extends BaseBitStoreService {
         }
     }
 
+    /**
+     * Remove an asset from the asset store, unless a bitstream being stored references it.
+     *
+     * @param bitstream The asset to delete
+     * @return whether the asset was removed
+     * @throws java.io.IOException If a problem occurs while removing the asset
+     */
+    @Override
+    public boolean removeIfUnreferenced(Bitstream bitstream) throws IOException {
+        if (!new File(baseDir, REFERENCES_DIR).isDirectory()) {
+            // never content-addressed
+            remove(bitstream);
+            return true;
+        }
+        return withLock(() -> {
+            String[] references = getReferencesDir(bitstream.getInternalId()).list();
+            if (references != null && references.length > 0) {
+                return false;
+            }
+            remove(bitstream);
+            return true;
+        });
+    }
+
+    /**
+     * Return the bitstreams stored under a digest whose reference isn't released yet.
+     *
+     * @return the IDs of the bitstreams
+     * @throws java.io.IOException If a problem occurs while listing the references
+     */
+    @Override
+    public Set<UUID> getPendingBitstreams() throws IOException {
+        Set<UUID> bitstreamIds = new HashSet<>();
+        File[] directories = new File(baseDir, REFERENCES_DIR).listFiles(File::isDirectory);
+        if (directories == null) {
+            return bitstreamIds;
+        }
+        for (File directory : directories) {
+            String[] references = directory.list();
+            if (references == null) {
+                continue;
+            }
+            for (String reference : references) {
+                try {
+                    bitstreamIds.add(UUID.fromString(reference));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring unexpected file " + new File(directory, reference));
+                }
+            }
+        }
+        return bitstreamIds;
+    }
+
+    /**
+     * Release the references of bitstreams which are committed.
+     *
+     * @param bitstreamIds The IDs of the committed bitstreams
+     * @throws java.io.IOException If a problem occurs while removing the references
+     */
+    @Override
+    public void releasePendingBitstreams(Collection<UUID> bitstreamIds) throws IOException {
+        if (bitstreamIds.isEmpty()) {
+            return;
+        }
+        Set<String> released = new HashSet<>();
+        bitstreamIds.forEach(bitstreamId -> released.add(bitstreamId.toString()));
+        withLock(() -> {
+            File[] directories = new File(baseDir, REFERENCES_DIR).listFiles(File::isDirectory);
+            if (directories == null) {
+                return null;
+            }
+            for (File directory : directories) {
+                File[] references = directory.listFiles((dir, name) -> released.contains(name));
+                if (references != null) {
+                    for (File reference : references) {
+                        Files.deleteIfExists(reference.toPath());
+                    }
+                }
+                // only removed if empty
+                directory.delete();
+            }
+            return null;
+        });
+    }
+
     ////////////////////////////////////////
     // Internal methods
     ////////////////////////////////////////
 
+    /**
+     * Action run while holding the lock of the store
+     */
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Run an action while holding the lock of the store, shared with the other processes using it.
+     *
+     * @param action the action
+     * @return the result of the action
+     * @throws IOException if the lock can't be obtained, or the action failed
+     */
+    private <T> T withLock(LockedAction<T> action) throws IOException {
+        synchronized (LOCK) {
+            File references = new File(baseDir, REFERENCES_DIR);
+            Files.createDirectories(references.toPath());
+            try (FileChannel channel = FileChannel.open(new File(references, LOCK_FILE).toPath(),
+                                                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                return action.run();
+            }
+        }
+    }
+
+    /**
+     * The directory of the references to the file stored under a digest
+     */
+    private File getReferencesDir(String internalId) {
+        return new File(new File(baseDir, REFERENCES_DIR), internalId);
+    }
+
     /**
      * Delete empty parent directories.
      *
@@ -262,4 +532,12 @@ public class DSBitStoreService extends BaseBitStoreService {
     public void setBaseDir(File baseDir) {
         this.baseDir = baseDir;
     }
+
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
+    public void setContentAddressed(boolean contentAddressed) {
+        this.contentAddressed = contentAddressed;
+    }
 }
@@ -7,10 +7,23 @@
  */
 package org.dspace.storage.bitstore;
 
-import java.io.File;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import javax.validation.constraints.NotNull;
 
@@ -18,25 +31,29 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.transfer.TransferManager;
-import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
-import com.amazonaws.services.s3.transfer.Upload;
+import com.amazonaws.services.s3.model.UploadPartRequest;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.LogManager;
@@ -72,6 +89,26 @@ public class S3BitStoreService extends BaseBitStoreService {
      */
     private static final String CSA = "MD5";
 
+    /**
+     * Smallest part size accepted by S3 for all but the last part of a multipart upload
+     */
+    protected static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    /**
+     * Largest part size, as each part being uploaded is held in memory
+     */
+    protected static final long MAX_PART_SIZE = 1024L * 1024 * 1024;
+
+    /**
+     * Largest number of parts of a multipart upload accepted by S3
+     */
+    protected static final int MAX_PARTS = 10_000;
+
+    /**
+     * Number of parts of a multipart upload after which the part size doubles
+     */
+    protected static final int PARTS_PER_SIZE = 500;
+
     // These settings control the way an identifier is hashed into
     // directory and file names
     //
@@ -91,6 +128,17 @@ public class S3BitStoreService extends BaseBitStoreService {
     private String awsSecretKey;
     private String awsRegionName;
     private boolean useRelativePath;
+    private String endpoint;
+
+    /**
+     * Size of the parts of multipart uploads; smaller bitstreams are uploaded in a single request
+     */
+    private long partSize = 8L * 1024 * 1024;
+
+    /**
+     * Maximum number of parts of a single bitstream uploaded at the same time
+     */
+    private int uploadConcurrency = 4;
 
     /**
      * container for all the assets
@@ -108,10 +156,10 @@ public class S3BitStoreService extends BaseBitStoreService {
     private AmazonS3 s3Service = null;
 
     /**
-     * S3 transfer manager
+     * Threads uploading the parts of multipart uploads,
      * this is reused between put calls to use less resources for multiple uploads
      */
-    private TransferManager tm = null;
+    private ExecutorService uploadExecutor = null;
 
     private static final ConfigurationService configurationService
             = DSpaceServicesFactory.getInstance().getConfigurationService();
@@ -141,9 +189,8 @@ public class S3BitStoreService extends BaseBitStoreService {
      *
      * @param s3Service mocked AmazonS3 service
      */
-    protected S3BitStoreService(AmazonS3 s3Service, TransferManager tm) {
+    protected S3BitStoreService(AmazonS3 s3Service) {
         this.s3Service = s3Service;
-        this.tm = tm;
     }
 
     @Override
@@ -166,7 +213,19 @@ public class S3BitStoreService extends BaseBitStoreService {
         }
 
         try {
-            if (StringUtils.isNotBlank(getAwsAccessKey()) && StringUtils.isNotBlank(getAwsSecretKey())) {
+            if (StringUtils.isNotBlank(endpoint)) {
+                // S3 compatible service, e.g. MinIO or a local stand-in used for testing
+                log.info("Using S3 endpoint " + endpoint);
+                AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                        .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint,
+                                StringUtils.defaultIfBlank(awsRegionName, Regions.DEFAULT_REGION.getName())))
+                        .withPathStyleAccessEnabled(true);
+                if (StringUtils.isNotBlank(getAwsAccessKey()) && StringUtils.isNotBlank(getAwsSecretKey())) {
+                    builder.withCredentials(new AWSStaticCredentialsProvider(
+                            new BasicAWSCredentials(getAwsAccessKey(), getAwsSecretKey())));
+                }
+                s3Service = FunctionalUtils.getDefaultOrBuild(this.s3Service, builder::build);
+            } else if (StringUtils.isNotBlank(getAwsAccessKey()) && StringUtils.isNotBlank(getAwsSecretKey())) {
                 log.warn("Use local defined S3 credentials");
                 // region
                 Regions regions = Regions.DEFAULT_REGION;
@@ -219,10 +278,16 @@ public class S3BitStoreService extends BaseBitStoreService {
 
         log.info("AWS S3 Assetstore ready to go! bucket:" + bucketName);
 
-        tm = FunctionalUtils.getDefaultOrBuild(tm, () -> TransferManagerBuilder.standard()
-                                                               .withAlwaysCalculateMultipartMd5(true)
-                                                               .withS3Client(s3Service)
-                                                               .build());
+        uploadExecutor = FunctionalUtils.getDefaultOrBuild(uploadExecutor, this::createUploadExecutor);
+    }
+
+    private ExecutorService createUploadExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "s3-upload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -255,6 +320,32 @@ public class S3BitStoreService extends BaseBitStoreService {
         }
     }
 
+    /**
+     * Retrieve a range of the bits for the asset, only that range being downloaded from S3.
+     *
+     * @param bitstream The asset to retrieve
+     * @param offset    The position of the first byte to retrieve
+     * @param length    The maximum number of bytes to retrieve
+     * @return The stream of bits of the range, or null
+     * @throws java.io.IOException If a problem occurs while retrieving the bits
+     */
+    @Override
+    public InputStream get(Bitstream bitstream, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        String key = getFullKey(bitstream.getInternalId());
+        try {
+            GetObjectRequest request = new GetObjectRequest(bucketName, key)
+                    .withRange(offset, offset + length - 1);
+            S3Object object = s3Service.getObject(request);
+            return (object != null) ? object.getObjectContent() : null;
+        } catch (AmazonClientException e) {
+            log.error("get(" + key + ", " + offset + ", " + length + ")", e);
+            throw new IOException(e);
+        }
+    }
+
     /**
      * Store a stream of bits.
      *
@@ -262,6 +353,12 @@ public class S3BitStoreService extends BaseBitStoreService {
      * If this method returns successfully, the bits have been stored.
      * If an exception is thrown, the bits have not been stored.
      * </p>
+     * <p>
+     * The stream is uploaded while it is read, without a local copy: streams smaller than the part size are
+     * uploaded in a single request, larger ones with a multipart upload whose parts are uploaded in parallel.
+     * As the length of the stream isn't known, the parts grow with their number (see {@link #partSizeOf}).
+     * The MD5 checksum is computed while reading, as the ETag of a multipart upload is not an MD5 digest.
+     * </p>
      *
      * @param in The stream of bits to store
      * @throws java.io.IOException If a problem occurs while storing the bits
@@ -269,33 +366,131 @@ public class S3BitStoreService extends BaseBitStoreService {
     @Override
     public void put(Bitstream bitstream, InputStream in) throws IOException {
         String key = getFullKey(bitstream.getInternalId());
-        //Copy istream to temp file, and send the file, with some metadata
-        File scratchFile = File.createTempFile(bitstream.getInternalId(), "s3bs");
         try {
-            FileUtils.copyInputStreamToFile(in, scratchFile);
-            long contentLength = scratchFile.length();
-            // The ETag may or may not be and MD5 digest of the object data.
-            // Therefore, we precalculate before uploading
-            String localChecksum = org.dspace.curate.Utils.checksum(scratchFile, CSA);
-
-            Upload upload = tm.upload(bucketName, key, scratchFile);
-
-            upload.waitForUploadResult();
+            MessageDigest digest = MessageDigest.getInstance(CSA);
+            InputStream digestStream = new DigestInputStream(in, digest);
+            int size = (int) partSizeOf(1);
+
+            long contentLength;
+            byte[] firstPart = readPart(digestStream, size);
+            if (firstPart.length < size) {
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentLength(firstPart.length);
+                s3Service.putObject(new PutObjectRequest(bucketName, key, new ByteArrayInputStream(firstPart),
+                                                         metadata));
+                contentLength = firstPart.length;
+            } else {
+                contentLength = multipartUpload(key, digestStream, firstPart);
+            }
 
             bitstream.setSizeBytes(contentLength);
-            bitstream.setChecksum(localChecksum);
+            bitstream.setChecksum(Utils.toHex(digest.digest()));
             bitstream.setChecksumAlgorithm(CSA);
 
-        } catch (AmazonClientException | IOException | InterruptedException e) {
+        } catch (AmazonClientException | IOException | NoSuchAlgorithmException e) {
             log.error("put(" + bitstream.getInternalId() + ", is)", e);
             throw new IOException(e);
-        } finally {
-            if (!scratchFile.delete()) {
-                scratchFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * Upload a stream as a multipart upload. At most {@code uploadConcurrency} parts are uploaded at the same
+     * time, so at most {@code uploadConcurrency + 1} parts are held in memory.
+     *
+     * @param key       the key of the object
+     * @param in        the rest of the stream
+     * @param firstPart the first part, already read from the stream
+     * @return the size of the object
+     * @throws IOException if a part can't be read or uploaded, or the stream needs more than {@link #MAX_PARTS}
+     *                     parts, the upload then being aborted
+     */
+    private long multipartUpload(String key, InputStream in, byte[] firstPart) throws IOException {
+        String uploadId = s3Service.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, key))
+                                   .getUploadId();
+        Semaphore slots = new Semaphore(Math.max(1, uploadConcurrency));
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<PartETag>> parts = new ArrayList<>();
+        long contentLength = 0;
+        try {
+            byte[] part = firstPart;
+            while (part.length > 0 && !failed.get()) {
+                if (parts.size() == MAX_PARTS) {
+                    throw new IOException("Unable to upload " + key + ", larger than " + MAX_PARTS + " parts");
+                }
+                slots.acquire();
+                UploadPartRequest request = new UploadPartRequest()
+                        .withBucketName(bucketName)
+                        .withKey(key)
+                        .withUploadId(uploadId)
+                        .withPartNumber(parts.size() + 1)
+                        .withPartSize(part.length)
+                        .withInputStream(new ByteArrayInputStream(part));
+                parts.add(uploadExecutor.submit(() -> {
+                    try {
+                        return s3Service.uploadPart(request).getPartETag();
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        slots.release();
+                    }
+                }));
+                contentLength += part.length;
+                part = readPart(in, (int) partSizeOf(parts.size() + 1));
             }
+
+            List<PartETag> partETags = new ArrayList<>(parts.size());
+            for (Future<PartETag> future : parts) {
+                partETags.add(future.get());
+            }
+            s3Service.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId,
+                                                                                 partETags));
+            return contentLength;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipartUpload(key, uploadId, parts);
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            abortMultipartUpload(key, uploadId, parts);
+            throw new IOException(e.getCause());
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private void abortMultipartUpload(String key, String uploadId, List<Future<PartETag>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        try {
+            s3Service.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+        } catch (AmazonClientException e) {
+            log.error("Unable to abort the multipart upload " + uploadId + " of " + key, e);
         }
     }
 
+    /**
+     * Get the size of a part of a multipart upload: the configured part size, doubled every {@link
+     * #PARTS_PER_SIZE} parts up to {@link #MAX_PART_SIZE}. Streams of unknown length then fit in {@link
+     * #MAX_PARTS} parts up to more than 6 TiB, beyond the largest object accepted by S3 (5 TiB), while the
+     * small ones are still uploaded in small parts.
+     *
+     * @param partNumber the number of the part, from 1
+     * @return the size of the part
+     */
+    protected long partSizeOf(int partNumber) {
+        int doublings = Math.min((partNumber - 1) / PARTS_PER_SIZE, Long.numberOfLeadingZeros(partSize) - 1);
+        return Math.min(partSize << doublings, MAX_PART_SIZE);
+    }
+
+    /**
+     * Read a part of a stream, shorter than the given size only at the end of the stream.
+     */
+    private byte[] readPart(InputStream in, int size) throws IOException {
+        byte[] part = new byte[size];
+        int read = IOUtils.read(in, part);
+        return read == size ? part : Arrays.copyOf(part, read);
+    }
+
     /**
      * Obtain technical metadata about an asset in the asset store.
      *
@@ -480,6 +675,33 @@ public class S3BitStoreService extends BaseBitStoreService {
         this.useRelativePath = useRelativePath;
     }
 
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(long partSize) {
+        if (partSize < MIN_PART_SIZE || partSize > MAX_PART_SIZE) {
+            log.warn("S3 part size " + partSize + " must be between " + MIN_PART_SIZE + " and " + MAX_PART_SIZE);
+        }
+        this.partSize = Math.min(Math.max(partSize, MIN_PART_SIZE), MAX_PART_SIZE);
+    }
+
+    public int getUploadConcurrency() {
+        return uploadConcurrency;
+    }
+
+    public void setUploadConcurrency(int uploadConcurrency) {
+        this.uploadConcurrency = Math.max(1, uploadConcurrency);
+    }
+
     /**
      * Contains a command-line testing tool. Expects arguments:
      * -a accessKey -s secretKey -f assetFileName
@@ -7,6 +7,7 @@
  */
 package org.dspace.storage.bitstore.service;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
@@ -126,6 +127,33 @@ public interface BitstreamStorageService {
     public InputStream retrieve(Context context, Bitstream bitstream)
         throws SQLException, IOException;
 
+    /**
+     * Retrieve a range of the bits for the bitstream, reading only that range from the store when the store
+     * supports it.
+     *
+     * @param context   The current context
+     * @param bitstream The bitstream to retrieve
+     * @param offset    The position of the first byte to retrieve
+     * @param length    The maximum number of bytes to retrieve
+     * @return The stream of bits of the range, or null
+     * @throws IOException  If a problem occurs while retrieving the bits
+     * @throws SQLException If a problem occurs accessing the RDBMS
+     */
+    public InputStream retrieve(Context context, Bitstream bitstream, long offset, long length)
+        throws SQLException, IOException;
+
+    /**
+     * Return the local file holding the bits for the bitstream, if its store keeps them as local files, so they
+     * can be sent without being copied through the Java heap.
+     *
+     * @param context   The current context
+     * @param bitstream The bitstream
+     * @return The file holding the bits, or null if the store doesn't keep them as local files
+     * @throws IOException  If a problem occurs while determining the file
+     * @throws SQLException If a problem occurs accessing the RDBMS
+     */
+    public File getLocalFile(Context context, Bitstream bitstream) throws SQLException, IOException;
+
     /**
      * Clean up the bitstream storage area. This method deletes any bitstreams
      * which are more than 1 hour old and marked deleted. The deletions cannot
@@ -144,6 +172,8 @@ public interface BitstreamStorageService {
     /**
      * Clone the given bitstream to a new bitstream with a new ID.
      * Metadata of the given bitstream are also copied to the new bitstream.
+     * The content isn't copied: the clone references the same stored file, which stays in the store until the last
+     * bitstream referencing it is deleted and {@link #cleanup(boolean, boolean)} runs.
      * 
      * @param context
      *            DSpace context object
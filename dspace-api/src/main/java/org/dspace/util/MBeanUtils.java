@@ -0,0 +1,70 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.util;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Utility methods to expose runtime metrics of DSpace services through JMX, under the "org.dspace" domain.
+ */
+public class MBeanUtils {
+
+    private static final Logger log = LogManager.getLogger(MBeanUtils.class);
+
+    /**
+     * Default constructor
+     */
+    private MBeanUtils() { }
+
+    /**
+     * Register the given MBean with the platform MBean server as "org.dspace:type={type}", replacing any bean
+     * previously registered under the same name. Failures are logged, never thrown.
+     *
+     * @param mbean the MBean (or MXBean) to register
+     * @param type  the type used to build the object name
+     */
+    public static void register(Object mbean, String type) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = getObjectName(type);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (JMException e) {
+            log.warn("Unable to register MBean {}", type, e);
+        }
+    }
+
+    /**
+     * Remove the MBean registered under "org.dspace:type={type}", if any.
+     *
+     * @param type the type used to build the object name
+     */
+    public static void unregister(String type) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = getObjectName(type);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.warn("Unable to unregister MBean {}", type, e);
+        }
+    }
+
+    private static ObjectName getObjectName(String type) throws JMException {
+        return new ObjectName("org.dspace:type=" + type);
+    }
+}
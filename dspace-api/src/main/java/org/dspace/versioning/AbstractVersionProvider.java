@@ -95,6 +95,9 @@ public abstract class AbstractVersionProvider {
                 // Metadata and additional information like internal identifier,
                 // file size, checksum, and checksum algorithm are set by the bitstreamStorageService.clone(...)
                 // and respectively bitstreamService.clone(...) method.
+                // The new bitstream shares the stored file of the native one, no content is copied. Bitstream content
+                // is never rewritten in place (new content is always stored under a new internal identifier), and
+                // the cleanup only removes the file once no bitstream of any version references it anymore.
                 Bitstream bitstreamNew =  bitstreamStorageService.clone(c, nativeBitstream);
 
                 bundleService.addBitstream(c, bundleNew, bitstreamNew);
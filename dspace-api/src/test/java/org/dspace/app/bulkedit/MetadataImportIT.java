@@ -8,7 +8,11 @@
 package org.dspace.app.bulkedit;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
 import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -235,6 +239,90 @@ public class MetadataImportIT extends AbstractIntegrationTestWithDatabase {
         assertEquals(0, itemService.getMetadata(item, "dc", "contributor", "author", Item.ANY).size());
     }
 
+    @Test
+    public void metadataImportResolvesReferencesInBulkTest() throws Exception {
+        createRelationshipTypes();
+        context.turnOffAuthorisationSystem();
+        Item publicationItem = ItemBuilder.createItem(context, publicationCollection)
+                                          .withTitle("Publication1").withOtherIdentifier("pub-1").build();
+        Item existingItem = ItemBuilder.createItem(context, collection).withTitle("Existing").build();
+        context.restoreAuthSystemState();
+
+        // items by UUID, collections by handle, related items by metadata value
+        String[] csv = {"id,collection,dc.title,relation.isPublicationOfAuthor,dspace.entity.type",
+            existingItem.getID() + "," + collection.getHandle() + ",\"Existing (updated)\",,",
+            "+," + personCollection.getHandle() + ",\"Test Import 1\",dc.identifier.other:pub-1,Person"};
+        assertNull(performImportScript(csv).getException());
+
+        assertEquals("Existing (updated)", itemService.find(context, existingItem.getID()).getName());
+        Item importedItem = findItemByName("Test Import 1");
+        List<Relationship> relationships = relationshipService.findByItem(context, importedItem);
+        assertEquals(1, relationships.size());
+        assertTrue(relationships.get(0).getLeftItem().equals(publicationItem)
+                       || relationships.get(0).getRightItem().equals(publicationItem));
+    }
+
+    @Test
+    public void metadataImportAmbiguousReferenceTest() throws Exception {
+        createRelationshipTypes();
+        context.turnOffAuthorisationSystem();
+        ItemBuilder.createItem(context, publicationCollection)
+                   .withTitle("Publication1").withOtherIdentifier("duplicate").build();
+        ItemBuilder.createItem(context, publicationCollection)
+                   .withTitle("Publication2").withOtherIdentifier("duplicate").build();
+        context.restoreAuthSystemState();
+
+        String[] csv = {"id,collection,dc.title,relation.isPublicationOfAuthor,dspace.entity.type",
+            "+," + personCollection.getHandle() + ",\"Test Import 1\",dc.identifier.other:duplicate,Person"};
+        Exception exception = performImportScript(csv).getException();
+
+        assertNotNull(exception);
+        assertThat(exception.getMessage(), containsString("Ambiguous reference; multiple matches in db"));
+        assertNull(findItemByName("Test Import 1"));
+    }
+
+    @Test
+    public void metadataImportMissingReferenceTest() throws Exception {
+        createRelationshipTypes();
+
+        String[] csv = {"id,collection,dc.title,relation.isPublicationOfAuthor,dspace.entity.type",
+            "+," + personCollection.getHandle() + ",\"Test Import 1\",dc.identifier.other:missing,Person"};
+        Exception exception = performImportScript(csv).getException();
+
+        assertNotNull(exception);
+        assertThat(exception.getMessage(), containsString("No matches found for reference"));
+        assertNull(findItemByName("Test Import 1"));
+    }
+
+    @Test
+    public void metadataImportReferenceToValueRemovedByEarlierRowTest() throws Exception {
+        createRelationshipTypes();
+        context.turnOffAuthorisationSystem();
+        Item publicationItem = ItemBuilder.createItem(context, publicationCollection)
+                                          .withTitle("Publication1").withOtherIdentifier("pub-1").build();
+        context.restoreAuthSystemState();
+
+        // the first row removes the value the second one refers to, which was resolved before the import
+        String[] csv = {"id,collection,dc.title,dc.identifier.other,relation.isPublicationOfAuthor,"
+                            + "dspace.entity.type",
+            publicationItem.getID() + "," + publicationCollection.getHandle() + ",Publication1,pub-2,,",
+            "+," + personCollection.getHandle() + ",\"Test Import 1\",,dc.identifier.other:pub-1,Person"};
+        Exception exception = performImportScript(csv).getException();
+
+        assertNotNull(exception);
+        assertThat(exception.getMessage(), containsString("No matches found for reference"));
+        assertNull(findItemByName("Test Import 1"));
+    }
+
+    private void createRelationshipTypes() throws Exception {
+        context.turnOffAuthorisationSystem();
+        EntityType publication = EntityTypeBuilder.createEntityTypeBuilder(context, "Publication").build();
+        EntityType person = EntityTypeBuilder.createEntityTypeBuilder(context, "Person").build();
+        RelationshipTypeBuilder.createRelationshipTypeBuilder(context, publication, person, "isAuthorOfPublication",
+                                                              "isPublicationOfAuthor", 0, 10, 0, 10);
+        context.restoreAuthSystemState();
+    }
+
     private Item findItemByName(String name) throws SQLException {
         Item importedItem = null;
         List<Item> allItems = IteratorUtils.toList(itemService.findAll(context));
@@ -246,16 +334,17 @@ public class MetadataImportIT extends AbstractIntegrationTestWithDatabase {
         return importedItem;
     }
 
-    public void performImportScript(String[] csv) throws Exception {
-        performImportScript(csv, false);
+    public TestDSpaceRunnableHandler performImportScript(String[] csv) throws Exception {
+        return performImportScript(csv, false);
     }
 
     /**
      * Import mocked CSVs to test item creation behavior, deleting temporary file afterward.
      * @param csv content for test file.
+     * @return the handler of the script, holding its failure if any.
      * @throws java.lang.Exception passed through.
      */
-    public void performImportScript(String[] csv, boolean useTemplate) throws Exception {
+    public TestDSpaceRunnableHandler performImportScript(String[] csv, boolean useTemplate) throws Exception {
         File csvFile = File.createTempFile("dspace-test-import", "csv");
         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvFile), "UTF-8"));
         for (String csvLine : csv) {
@@ -272,6 +361,7 @@ public class MetadataImportIT extends AbstractIntegrationTestWithDatabase {
             TestDSpaceRunnableHandler testDSpaceRunnableHandler = new TestDSpaceRunnableHandler();
             ScriptLauncher
                 .handleScript(args, ScriptLauncher.getConfig(kernelImpl), testDSpaceRunnableHandler, kernelImpl);
+            return testDSpaceRunnableHandler;
         } finally {
             csvFile.delete();
         }
@@ -7,13 +7,19 @@
  */
 package org.dspace.app.itemimport;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.file.PathUtils;
@@ -31,11 +37,14 @@ import org.dspace.content.Relationship;
 import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.content.service.ItemService;
 import org.dspace.content.service.RelationshipService;
+import org.dspace.core.Context;
 import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.utils.DSpace;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.w3c.dom.Document;
 
 /**
  * Basic integration testing for the SAF Import feature via CLI {@link ItemImportCLI}.
@@ -184,6 +193,74 @@ public class ItemImportCLIIT extends AbstractIntegrationTestWithDatabase {
         checkRelationship();
     }
 
+    @Test
+    public void importItemsBySafInParallel() throws Exception {
+        // create SAF with several items
+        Path safDir = Files.createDirectory(Path.of(tempDir.toString() + "/test"));
+        for (int i = 0; i < 12; i++) {
+            Path itemDir = Files.createDirectory(Path.of(safDir.toString() + "/item_" + i));
+            if (i == 0) {
+                Files.copy(getClass().getResourceAsStream("dublin_core.xml"),
+                        Path.of(itemDir.toString() + "/dublin_core.xml"));
+                Files.writeString(Path.of(itemDir.toString() + "/contents"), "file1.txt");
+                Files.writeString(Path.of(itemDir.toString() + "/file1.txt"), "TEST TEST TEST");
+            } else {
+                Files.writeString(Path.of(itemDir.toString() + "/dublin_core.xml"),
+                        "<dublin_core><dcvalue element=\"title\">Parallel " + i + "</dcvalue></dublin_core>");
+            }
+        }
+
+        String[] args = new String[] { "import", "-a", "-T", "3", "-e", admin.getEmail(), "-c",
+                collection.getID().toString(), "-s", safDir.toString(), "-m", tempDir.toString() + "/mapfile.out" };
+        perfomImportScript(args);
+
+        checkMetadata();
+        checkBitstream();
+        assertEquals(12, itemService.countItems(context, collection));
+        // the mapfile lists the items in the order of their directories
+        List<String> mapfile = Files.readAllLines(Path.of(tempDir.toString() + "/mapfile.out"));
+        assertEquals(12, mapfile.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals("item_" + i, mapfile.get(i).split(" ")[0]);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void importItemsBySafInParallelStopsOnWorkerFailure() throws Exception {
+        // more items than the workers and their queue can hold
+        Path safDir = Files.createDirectory(Path.of(tempDir.toString() + "/test"));
+        for (int i = 0; i < 20; i++) {
+            Path itemDir = Files.createDirectory(Path.of(safDir.toString() + "/item_" + i));
+            Files.writeString(Path.of(itemDir.toString() + "/dublin_core.xml"),
+                    "<dublin_core><dcvalue element=\"title\">Parallel " + i + "</dcvalue></dublin_core>");
+        }
+        // the workers fail with an error, not an exception of an item
+        Error error = new AssertionError("worker failure");
+        ItemImportServiceImpl itemImportService = new ItemImportServiceImpl() {
+            @Override
+            protected Item addItem(Context c, List<Collection> mycollections, String path, String itemname,
+                                   PrintWriter mapOut, boolean template, Map<String, Document> metadata) {
+                throw error;
+            }
+        };
+        new DSpace().getServiceManager().getApplicationContext().getAutowireCapableBeanFactory()
+                    .autowireBean(itemImportService);
+        itemImportService.afterPropertiesSet();
+        itemImportService.setThreads(2);
+
+        context.turnOffAuthorisationSystem();
+        try {
+            itemImportService.addItems(context, List.of(collection), safDir.toString(),
+                                       tempDir.toString() + "/mapfile.out", false);
+            fail("The import should have failed");
+        } catch (Exception e) {
+            assertSame(error, e.getCause());
+        } finally {
+            context.restoreAuthSystemState();
+        }
+        assertEquals(0, itemService.countItems(context, collection));
+    }
+
     @Test
     public void importItemsBySafWithRelationshipsByRelationSchema() throws Exception {
         context.turnOffAuthorisationSystem();
@@ -213,6 +290,72 @@ public class ItemImportCLIIT extends AbstractIntegrationTestWithDatabase {
         checkRelationship();
     }
 
+    @Test
+    public void importItemsBySafWithRelationshipsByHandleUUIDAndMetadataValue() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Collection collectionPerson = CollectionBuilder.createCollection(context, parentCommunity)
+                .withName("Collection Person")
+                .withEntityType("Person")
+                .build();
+        Item[] persons = new Item[3];
+        for (int i = 0; i < persons.length; i++) {
+            persons[i] = ItemBuilder.createItem(context, collectionPerson)
+                    .withTitle("Person " + i)
+                    .withMetadata("dspace", "entity", "type", "Person")
+                    .withOtherIdentifier("orcid-" + i)
+                    .build();
+        }
+        context.restoreAuthSystemState();
+        // the related persons are referred to by handle, UUID and metadata value, resolved in bulk
+        String[] references = { persons[0].getHandle(), persons[1].getID().toString(),
+            "dc.identifier.other:orcid-2" };
+        Path safDir = Files.createDirectory(Path.of(tempDir.toString() + "/test"));
+        for (int i = 0; i < references.length; i++) {
+            Path itemDir = Files.createDirectory(Path.of(safDir.toString() + "/item_00" + i));
+            Files.writeString(Path.of(itemDir.toString() + "/dublin_core.xml"),
+                    "<dublin_core><dcvalue element=\"title\">Publication " + i + "</dcvalue></dublin_core>");
+            Files.writeString(Path.of(itemDir.toString() + "/relationships"),
+                    "relation.isAuthorOfPublication " + references[i]);
+        }
+
+        String[] args = new String[] { "import", "-a", "-p", "-e", admin.getEmail(), "-c",
+                collection.getID().toString(), "-s", safDir.toString(), "-m", tempDir.toString() + "/mapfile.out" };
+        perfomImportScript(args);
+
+        for (int i = 0; i < references.length; i++) {
+            Item item = itemService.findByMetadataField(context, "dc", "title", null, "Publication " + i).next();
+            List<Relationship> relationships = relationshipService.findByItem(context, item);
+            assertEquals(1, relationships.size());
+            assertEquals(persons[i].getID(), relationships.get(0).getRightItem().getID());
+        }
+    }
+
+    @Test
+    public void importItemsBySafWithAmbiguousRelationshipReference() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Collection collectionPerson = CollectionBuilder.createCollection(context, parentCommunity)
+                .withName("Collection Person")
+                .withEntityType("Person")
+                .build();
+        for (int i = 0; i < 2; i++) {
+            ItemBuilder.createItem(context, collectionPerson)
+                    .withTitle("Person " + i)
+                    .withMetadata("dspace", "entity", "type", "Person")
+                    .withOtherIdentifier("duplicate")
+                    .build();
+        }
+        context.restoreAuthSystemState();
+
+        String message = importWithRelationshipReference("dc.identifier.other:duplicate");
+        assertThat(message, containsString("Ambiguous reference; multiple matches in db"));
+    }
+
+    @Test
+    public void importItemsBySafWithMissingRelationshipReference() throws Exception {
+        String message = importWithRelationshipReference("dc.identifier.other:missing");
+        assertThat(message, containsString("Could not find item for dc.identifier.other:missing"));
+    }
+
     @Test
     public void importItemByZipSafWithBitstreams() throws Exception {
         // use simple SAF in zip format
@@ -572,6 +715,30 @@ public class ItemImportCLIIT extends AbstractIntegrationTestWithDatabase {
         assertEquals(item.getID(), relationships.get(0).getLeftItem().getID());
     }
 
+    /**
+     * Import an item related to the item of the given reference, which is expected to fail
+     * @return the message of the failure
+     * @throws Exception
+     */
+    private String importWithRelationshipReference(String reference) throws Exception {
+        Path safDir = Files.createDirectory(Path.of(tempDir.toString() + "/test"));
+        Path itemDir = Files.createDirectory(Path.of(safDir.toString() + "/item_000"));
+        Files.copy(getClass().getResourceAsStream("dublin_core.xml"),
+                Path.of(itemDir.toString() + "/dublin_core.xml"));
+        Files.writeString(Path.of(itemDir.toString() + "/relationships"),
+                "relation.isAuthorOfPublication " + reference);
+
+        String[] args = new String[] { "import", "-a", "-p", "-e", admin.getEmail(), "-c",
+                collection.getID().toString(), "-s", safDir.toString(), "-m", tempDir.toString() + "/mapfile.out" };
+        try {
+            perfomImportScript(args);
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+        fail("The import of an item related to " + reference + " should fail");
+        return null;
+    }
+
     private void perfomImportScript(String[] args)
             throws Exception {
         runDSpaceScript(args);
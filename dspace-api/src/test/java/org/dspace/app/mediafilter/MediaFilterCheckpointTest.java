@@ -0,0 +1,60 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.mediafilter;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link MediaFilterCheckpoint}
+ */
+public class MediaFilterCheckpointTest {
+
+    private static final String FILTER = "org.dspace.app.mediafilter.TikaTextExtractionFilter";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNewCheckpointIsEmpty() throws Exception {
+        File file = new File(folder.getRoot(), "checkpoint");
+        try (MediaFilterCheckpoint checkpoint = new MediaFilterCheckpoint(file)) {
+            assertThat(checkpoint.size(), is(0));
+            assertThat(checkpoint.isProcessed(UUID.randomUUID(), FILTER), is(false));
+        }
+        assertThat(file.exists(), is(true));
+    }
+
+    @Test
+    public void testProcessedBitstreamsAreKeptAcrossRuns() throws Exception {
+        File file = new File(folder.getRoot(), "checkpoint");
+        UUID bitstreamId = UUID.randomUUID();
+        try (MediaFilterCheckpoint checkpoint = new MediaFilterCheckpoint(file)) {
+            checkpoint.markProcessed(bitstreamId, FILTER);
+            checkpoint.markProcessed(bitstreamId, FILTER);
+            assertThat(checkpoint.isProcessed(bitstreamId, FILTER), is(true));
+        }
+
+        try (MediaFilterCheckpoint checkpoint = new MediaFilterCheckpoint(file)) {
+            assertThat(checkpoint.size(), is(1));
+            assertThat(checkpoint.isProcessed(bitstreamId, FILTER), is(true));
+            assertThat(checkpoint.isProcessed(bitstreamId, "org.dspace.app.mediafilter.JPEGFilter"), is(false));
+            checkpoint.markProcessed(bitstreamId, "org.dspace.app.mediafilter.JPEGFilter");
+        }
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size(), is(2));
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.mediafilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.app.mediafilter.service.MediaFilterService;
+import org.dspace.app.scripts.handler.impl.TestDSpaceRunnableHandler;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Bundle;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.utils.DSpace;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Integration tests of the media filters run in parallel mode, with several threads.
+ */
+public class MediaFilterIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final int THREADS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+
+    private Collection collection;
+    // the content of the bitstream of each item, the filter fails on "fail"
+    private final Map<UUID, String> contents = new HashMap<>();
+
+    private TestFilter filter;
+    private TestDSpaceRunnableHandler handler;
+    private final AtomicInteger stored = new AtomicInteger();
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        for (int i = 0; i < 10; i++) {
+            Item item = ItemBuilder.createItem(context, collection).withTitle("Item " + i).build();
+            String content = i == 3 || i == 6 ? "fail" : "content of item " + i;
+            BitstreamBuilder.createBitstream(context, item,
+                                             new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))
+                            .withName("item" + i + ".txt").withMimeType("text/plain").build();
+            contents.put(item.getID(), content);
+        }
+        context.restoreAuthSystemState();
+        context.commit();
+    }
+
+    @Test
+    public void testItemsAreFilteredInParallel() throws Exception {
+        MediaFilterService service = createService(null);
+        service.applyFiltersCollection(context, collection);
+
+        for (Map.Entry<UUID, String> content : contents.entrySet()) {
+            assertEquals(failing(content.getKey()) ? null : content.getValue().toUpperCase(),
+                         readDerivative(content.getKey()));
+        }
+        assertTrue("at most " + filter.maxRunning + " filters at once", filter.maxRunning.get() > 1);
+        assertTrue(filter.maxRunning.get() <= THREADS);
+        // no more bitstreams read and waiting to be stored than twice the number of threads
+        assertTrue("at most " + filter.maxInFlight + " bitstreams in flight", filter.maxInFlight.get() <= 2 * THREADS);
+        // the filters got the items of their bitstreams, still usable
+        assertEquals(contents.keySet(), filter.handles.keySet());
+        assertFalse(filter.handles.containsValue("null"));
+
+        assertStatistics(8, 0, 2);
+    }
+
+    @Test
+    public void testMaximumNumberOfItemsIsRespected() throws Exception {
+        MediaFilterService service = createService(null);
+        service.setMax2Process(4);
+        service.applyFiltersCollection(context, collection);
+
+        int filtered = 0;
+        for (UUID itemId : contents.keySet()) {
+            if (readDerivative(itemId) != null) {
+                filtered++;
+            }
+        }
+        // the items whose bitstreams failed don't count
+        assertEquals(4, filtered);
+        assertEquals(4, stored.get());
+    }
+
+    @Test
+    public void testInterruptedRunResumesFromCheckpoint() throws Exception {
+        File checkpoint = new File(folder.getRoot(), "checkpoint");
+        MediaFilterService first = createService(checkpoint);
+        first.setMax2Process(4);
+        first.applyFiltersCollection(context, collection);
+        Set<UUID> processedFirst = new HashSet<>(filter.handles.keySet());
+        assertEquals(4, stored.get());
+
+        // forced: only the checkpoint keeps the bitstreams from being filtered again
+        stored.set(0);
+        MediaFilterService second = createService(checkpoint);
+        second.setForce(true);
+        second.applyFiltersCollection(context, collection);
+
+        assertEquals(4, stored.get());
+        // the bitstreams processed by the first run, failures included, are skipped
+        assertTrue(Collections.disjoint(processedFirst, filter.handles.keySet()));
+        assertEquals(contents.size(), processedFirst.size() + filter.handles.size());
+        for (Map.Entry<UUID, String> content : contents.entrySet()) {
+            assertEquals(failing(content.getKey()) ? null : content.getValue().toUpperCase(),
+                         readDerivative(content.getKey()));
+        }
+        int failedFirst = (int) processedFirst.stream().filter(this::failing).count();
+        assertStatistics(4, processedFirst.size(), 2 - failedFirst);
+    }
+
+    /**
+     * Create a media filter service running the test filter with several threads, as filter-media -t would.
+     */
+    private MediaFilterService createService(File checkpoint) throws Exception {
+        filter = new TestFilter();
+        handler = new TestDSpaceRunnableHandler();
+        MediaFilterServiceImpl service = new MediaFilterServiceImpl() {
+            @Override
+            protected void createDerivative(Context context, Item item, Bitstream source, FormatFilter formatFilter,
+                                            String newName, InputStream destStream, List<Bundle> bundles)
+                throws Exception {
+                super.createDerivative(context, item, source, formatFilter, newName, destStream, bundles);
+                stored.incrementAndGet();
+            }
+        };
+        new DSpace().getServiceManager().getApplicationContext().getAutowireCapableBeanFactory()
+                    .autowireBean(service);
+        service.afterPropertiesSet();
+        service.setLogHandler(handler);
+        service.setThreads(THREADS);
+        service.setCheckpoint(checkpoint);
+        service.setFilterClasses(List.of(filter));
+        service.setFilterFormats(Map.of(TestFilter.class.getName(), List.of("Text")));
+        return service;
+    }
+
+    private boolean failing(UUID itemId) {
+        return "fail".equals(contents.get(itemId));
+    }
+
+    private void assertStatistics(int filtered, int skipped, int failed) {
+        String statistics = TestFilter.class.getName() + ": " + filtered + " filtered ";
+        String counts = ", " + skipped + " skipped, " + failed + " failed;";
+        assertTrue(handler.getInfoMessages().toString(), handler.getInfoMessages().stream().anyMatch(
+            message -> message.startsWith(statistics) && message.contains(counts)));
+    }
+
+    /**
+     * @return the content of the derivative of the bitstream of an item, null if none
+     */
+    private String readDerivative(UUID itemId) throws Exception {
+        Item item = itemService.find(context, itemId);
+        for (Bundle bundle : itemService.getBundles(item, TestFilter.BUNDLE)) {
+            for (Bitstream bitstream : bundle.getBitstreams()) {
+                try (InputStream content = ContentServiceFactory.getInstance().getBitstreamService()
+                                                                .retrieve(context, bitstream)) {
+                    return IOUtils.toString(content, StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Upper cases the text of the bitstreams, slowly, and fails on "fail".
+     */
+    private class TestFilter extends MediaFilter {
+
+        private static final String BUNDLE = "UPPERCASE";
+
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        // the handles of the items whose bitstream the filter ran on, by item
+        private final Map<UUID, String> handles = new ConcurrentHashMap<>();
+
+        @Override
+        public String getFilteredName(String sourceName) {
+            return sourceName + ".upper";
+        }
+
+        @Override
+        public String getBundleName() {
+            return BUNDLE;
+        }
+
+        @Override
+        public String getFormatString() {
+            return "Text";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Upper case text";
+        }
+
+        @Override
+        public InputStream getDestinationStream(Item item, InputStream source, boolean verbose) throws Exception {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            maxInFlight.accumulateAndGet(started.incrementAndGet() - stored.get() - failed.get(), Math::max);
+            try {
+                String content = IOUtils.toString(source, StandardCharsets.UTF_8);
+                handles.put(item.getID(), String.valueOf(item.getHandle()));
+                Thread.sleep(100);
+                if ("fail".equals(content)) {
+                    failed.incrementAndGet();
+                    throw new IOException("Unable to filter " + item.getID());
+                }
+                return new ByteArrayInputStream(content.toUpperCase().getBytes(StandardCharsets.UTF_8));
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.sitemap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests writing sitemaps in shards, and their {@link SitemapManifest}.
+ */
+public class SitemapShardsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shardsAreWrittenToTheirOwnFiles() throws Exception {
+        File dir = folder.getRoot();
+        SitemapsOrgGenerator generator = new SitemapsOrgGenerator(dir, "http://localhost/sitemap", ".xml", true);
+
+        generator.startShard(0);
+        generator.addURL("http://localhost/collections/1", null);
+        generator.startShard(2000);
+        generator.addURL("http://localhost/items/1", new Date(0));
+        generator.addURL("http://localhost/items/2", new Date(0));
+        assertEquals(1, generator.finishShard());
+        generator.finish(List.of(0, 2000), List.of(new Date(0), new Date(0)));
+
+        assertTrue(new File(dir, "sitemap0.xml.gz").exists());
+        assertTrue(new File(dir, "sitemap2000.xml.gz").exists());
+        assertFalse(new File(dir, "sitemap2000.xml.gz.tmp").exists());
+        try (InputStream in = new GZIPInputStream(new FileInputStream(new File(dir, "sitemap2000.xml.gz")))) {
+            String sitemap = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(sitemap.contains("http://localhost/items/2"));
+            assertFalse(sitemap.contains("http://localhost/collections/1"));
+        }
+        String index = Files.readString(new File(dir, "sitemap_index.xml").toPath());
+        assertTrue(index.contains("http://localhost/sitemap0.xml.gz"));
+        assertTrue(index.contains("http://localhost/sitemap2000.xml.gz"));
+    }
+
+    @Test
+    public void manifestIsSavedAndLoaded() throws Exception {
+        File dir = folder.getRoot();
+        assertNull(SitemapManifest.load(dir));
+
+        SitemapManifest manifest = new SitemapManifest(3, true, false);
+        manifest.setShard(2, 42, new Date(1000));
+        manifest.setFileCount(2, "html", 1);
+        manifest.setLastRun(new Date(2000));
+        manifest.save(dir);
+
+        SitemapManifest loaded = SitemapManifest.load(dir);
+        assertEquals(3, loaded.getShardCount());
+        assertTrue(loaded.hasHtml());
+        assertFalse(loaded.hasSitemapsOrg());
+        assertEquals(42, loaded.getItemCount(2));
+        assertEquals(1, loaded.getFileCount(2, "html"));
+        assertEquals(0, loaded.getFileCount(1, "html"));
+        assertEquals(new Date(1000), loaded.getLastModified(2));
+        assertEquals(new Date(2000), loaded.getLastRun());
+
+        SitemapManifest.delete(dir);
+        assertNull(SitemapManifest.load(dir));
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.MetadataField;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.content.service.MetadataFieldService;
+import org.dspace.content.service.MetadataValueService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Integration tests for {@link BulkLookupCache}, and the set-based queries it relies on.
+ */
+public class BulkLookupCacheIT extends AbstractIntegrationTestWithDatabase {
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final MetadataFieldService metadataFieldService =
+        ContentServiceFactory.getInstance().getMetadataFieldService();
+    private final MetadataValueService metadataValueService =
+        ContentServiceFactory.getInstance().getMetadataValueService();
+
+    private Collection collection;
+    private Item person1;
+    private Item person2;
+    private Item person3;
+    private Item publication;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).withName("Shared title").build();
+        person1 = ItemBuilder.createItem(context, collection).withTitle("Person 1")
+                             .withOtherIdentifier("orcid-1").build();
+        person2 = ItemBuilder.createItem(context, collection).withTitle("Person 2")
+                             .withOtherIdentifier("duplicate").build();
+        person3 = ItemBuilder.createItem(context, collection).withTitle("Person 3")
+                             .withOtherIdentifier("duplicate").build();
+        publication = ItemBuilder.createItem(context, collection).withTitle("Shared title").build();
+        context.restoreAuthSystemState();
+    }
+
+    @Test
+    public void testLoadResolvesCollectedKeys() throws Exception {
+        BulkLookupCache cache = new BulkLookupCache(100);
+        cache.addHandle(person1.getHandle());
+        cache.addHandle(collection.getHandle());
+        cache.addHandle("123456789/unknown");
+        cache.addReference("dc.identifier.other:orcid-1");
+        cache.addReference("dc.identifier.other:duplicate");
+        cache.addReference("dc.identifier.other:unknown");
+        cache.addReference("dc.title:Shared title");
+        cache.load(context);
+
+        assertEquals(person1, cache.resolveHandle(context, person1.getHandle()));
+        assertEquals(collection, cache.resolveHandle(context, collection.getHandle()));
+        assertNull(cache.resolveHandle(context, "123456789/unknown"));
+
+        assertEquals(List.of(person1.getID()), cache.findItemsByReference(context, "dc.identifier.other:orcid-1"));
+        // ambiguous
+        assertEquals(2, cache.findItemsByReference(context, "dc.identifier.other:duplicate").size());
+        assertTrue(cache.findItemsByReference(context, "dc.identifier.other:unknown").isEmpty());
+        // only the items match, not the collection of the same title
+        assertEquals(List.of(publication.getID()), cache.findItemsByReference(context, "dc.title:Shared title"));
+
+        assertEquals(7, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testUncollectedKeysFallBackToSingleQueries() throws Exception {
+        BulkLookupCache cache = new BulkLookupCache(100);
+        cache.load(context);
+
+        assertEquals(person1, cache.resolveHandle(context, person1.getHandle()));
+        assertEquals(List.of(person1.getID()), cache.findItemsByReference(context, "dc.identifier.other:orcid-1"));
+        assertEquals(2, cache.findItemsByReference(context, "dc.identifier.other:duplicate").size());
+        assertEquals(List.of(publication.getID()), cache.findItemsByReference(context, "dc.title:Shared title"));
+        assertTrue(cache.findItemsByReference(context, "dc.unknown:value").isEmpty());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+
+        // cached by the fallback
+        assertEquals(person1, cache.resolveHandle(context, person1.getHandle()));
+        assertEquals(List.of(person1.getID()), cache.findItemsByReference(context, "dc.identifier.other:orcid-1"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedReference() throws Exception {
+        new BulkLookupCache(100).findItemsByReference(context, "title:value");
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+        BulkLookupCache cache = new BulkLookupCache(2);
+        cache.addHandle(person1.getHandle());
+        cache.addHandle(person2.getHandle());
+        // beyond the size of the table: left to the lookup
+        cache.addHandle(person3.getHandle());
+        cache.load(context);
+
+        assertEquals(person1, cache.resolveHandle(context, person1.getHandle()));
+        assertEquals(person2, cache.resolveHandle(context, person2.getHandle()));
+        assertEquals(2, cache.getHitCount());
+
+        // evicts person1, the least recently used
+        assertEquals(person3, cache.resolveHandle(context, person3.getHandle()));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(person2, cache.resolveHandle(context, person2.getHandle()));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(person1, cache.resolveHandle(context, person1.getHandle()));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testItemsAreLoadedInChunks() throws Exception {
+        BulkLookupCache cache = new BulkLookupCache(100);
+        cache.addItem(person1.getID());
+        cache.addItem(person2.getID());
+        cache.addItem(person3.getID());
+        UUID unknown = UUID.randomUUID();
+        cache.addItem(unknown);
+
+        assertEquals(person1, cache.findItem(context, person1.getID()));
+        assertEquals(person2, cache.findItem(context, person2.getID()));
+        assertEquals(person3, cache.findItem(context, person3.getID()));
+        assertNull(cache.findItem(context, unknown));
+        assertEquals(4, cache.getHitCount());
+        // not added: read on its own
+        assertEquals(publication, cache.findItem(context, publication.getID()));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidatedReferencesAreResolvedAgain() throws Exception {
+        BulkLookupCache cache = new BulkLookupCache(100);
+        cache.addReference("dc.identifier.other:orcid-2");
+        cache.addReference("dc.identifier.other:orcid-1");
+        cache.load(context);
+        assertTrue(cache.findItemsByReference(context, "dc.identifier.other:orcid-2").isEmpty());
+
+        context.turnOffAuthorisationSystem();
+        itemService.addMetadata(context, person2, "dc", "identifier", "other", null, "orcid-2");
+        itemService.clearMetadata(context, person1, "dc", "identifier", "other", Item.ANY);
+        itemService.update(context, person1);
+        itemService.update(context, person2);
+        context.restoreAuthSystemState();
+
+        // a snapshot of the metadata when loaded
+        assertTrue(cache.findItemsByReference(context, "dc.identifier.other:orcid-2").isEmpty());
+        assertEquals(List.of(person1.getID()), cache.findItemsByReference(context, "dc.identifier.other:orcid-1"));
+
+        cache.invalidateReferences(person2);
+        cache.invalidateReference("dc.identifier.other", "orcid-1");
+        assertEquals(List.of(person2.getID()), cache.findItemsByReference(context, "dc.identifier.other:orcid-2"));
+        assertTrue(cache.findItemsByReference(context, "dc.identifier.other:orcid-1").isEmpty());
+    }
+
+    @Test
+    public void testFindItemIdsByFieldAndValues() throws Exception {
+        MetadataField field = metadataFieldService.findByElement(context, "dc", "identifier", "other");
+        // more values than the IN list of a single query
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            values.add("unknown-" + i);
+        }
+        values.add("orcid-1");
+        values.add("duplicate");
+
+        Map<String, List<UUID>> ids = metadataValueService.findItemIdsByFieldAndValues(context, field, values);
+        assertEquals(2, ids.size());
+        assertEquals(List.of(person1.getID()), ids.get("orcid-1"));
+        assertEquals(2, ids.get("duplicate").size());
+        assertTrue(ids.get("duplicate").contains(person2.getID()));
+        assertTrue(ids.get("duplicate").contains(person3.getID()));
+
+        // the items only
+        MetadataField title = metadataFieldService.findByElement(context, "dc", "title", null);
+        assertEquals(Map.of("Shared title", List.of(publication.getID())),
+                     metadataValueService.findItemIdsByFieldAndValues(context, title, List.of("Shared title")));
+    }
+
+    @Test
+    public void testFindByIds() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        ids.add(person1.getID());
+        ids.add(publication.getID());
+
+        List<Item> items = itemService.findByIds(context, ids);
+        assertEquals(2, items.size());
+        assertTrue(items.contains(person1));
+        assertTrue(items.contains(publication));
+        assertTrue(itemService.findByIds(context, List.of()).isEmpty());
+    }
+}
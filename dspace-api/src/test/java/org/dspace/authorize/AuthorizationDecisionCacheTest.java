@@ -0,0 +1,156 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.authorize;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dspace.content.Item;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.eperson.EPerson;
+import org.dspace.services.ConfigurationService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * Unit tests for {@link AuthorizationDecisionCache}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AuthorizationDecisionCacheTest {
+
+    @InjectMocks
+    private AuthorizationDecisionCache cache;
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    @Mock
+    private Context context;
+
+    @Mock
+    private Item item;
+
+    @Mock
+    private EPerson ePerson;
+
+    private final AtomicInteger checks = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        lenient().when(configurationService.getBooleanProperty("authorize.cache.enabled", false)).thenReturn(true);
+        lenient().when(configurationService.getLongProperty("authorize.cache.size", 100000)).thenReturn(100L);
+        lenient().when(configurationService.getLongProperty("authorize.cache.ttl", 300)).thenReturn(300L);
+        lenient().when(context.getSpecialGroupUuids()).thenReturn(Set.of());
+        lenient().when(item.getID()).thenReturn(UUID.randomUUID());
+        lenient().when(ePerson.getID()).thenReturn(UUID.randomUUID());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.destroy();
+    }
+
+    @Test
+    public void testDisabledAlwaysChecks() throws Exception {
+        when(configurationService.getBooleanProperty("authorize.cache.enabled", false)).thenReturn(false);
+        cache.afterPropertiesSet();
+
+        assertThat(read(true), is(true));
+        assertThat(read(true), is(true));
+        assertThat(checks.get(), is(2));
+    }
+
+    @Test
+    public void testDecisionIsCached() throws Exception {
+        cache.afterPropertiesSet();
+
+        assertThat(read(true), is(true));
+        assertThat(read(false), is(true));
+        assertThat(checks.get(), is(1));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getSize(), is(1L));
+    }
+
+    @Test
+    public void testDecisionsDependOnSpecialGroups() throws Exception {
+        cache.afterPropertiesSet();
+        read(false);
+
+        when(context.getSpecialGroupUuids()).thenReturn(Set.of(UUID.randomUUID()));
+        assertThat(read(true), is(true));
+        assertThat(checks.get(), is(2));
+    }
+
+    @Test
+    public void testContextWithPendingChangesIsNotCached() throws Exception {
+        cache.afterPropertiesSet();
+        when(context.hasEvents()).thenReturn(true);
+
+        read(true);
+        read(true);
+        assertThat(checks.get(), is(2));
+        assertThat(cache.getSize(), is(0L));
+    }
+
+    @Test
+    public void testInvalidateObjects() throws Exception {
+        cache.afterPropertiesSet();
+        read(true);
+
+        cache.invalidateObjects(List.of(UUID.randomUUID()));
+        read(true);
+        assertThat(checks.get(), is(1));
+
+        cache.invalidateObjects(List.of(item.getID()));
+        assertThat(read(false), is(false));
+        assertThat(checks.get(), is(2));
+        assertThat(cache.getInvalidationCount(), is(2L));
+    }
+
+    @Test
+    public void testInvalidateEPersons() throws Exception {
+        cache.afterPropertiesSet();
+        read(true);
+
+        cache.invalidateEPersons(List.of(ePerson.getID()));
+        read(true);
+        assertThat(checks.get(), is(2));
+    }
+
+    @Test
+    public void testDecisionComputedDuringInvalidationIsNotCached() throws Exception {
+        cache.afterPropertiesSet();
+
+        cache.get(context, item, Constants.READ, ePerson, true, false, () -> {
+            cache.invalidateAll();
+            return true;
+        });
+        assertThat(cache.getSize(), is(0L));
+    }
+
+    private boolean read(boolean result) throws Exception {
+        return cache.get(context, item, Constants.READ, ePerson, true, false, () -> {
+            checks.incrementAndGet();
+            return result;
+        });
+    }
+}
@@ -9,6 +9,8 @@
 package org.dspace.authorize;
 
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.dspace.AbstractUnitTest;
 import org.dspace.authorize.factory.AuthorizeServiceFactory;
@@ -127,6 +129,65 @@ public class AuthorizeServiceTest extends AbstractUnitTest {
             throw new AssertionError(ex);
         }
     }
+
+    @Test
+    public void testFilterAuthorizedMatchesSingleChecks() {
+        EPerson eperson;
+        Community byGroup;
+        Community byEPerson;
+        Community denied;
+        Community administered;
+        Community child;
+
+        try {
+            context.turnOffAuthorisationSystem();
+
+            eperson = ePersonService.create(context);
+            Group group = groupService.create(context);
+            // A group has to have a name, otherwise there are queries that break
+            groupService.setName(group, "My test group 3");
+            groupService.addMember(context, group, eperson);
+            groupService.update(context, group);
+
+            byGroup = communityService.create(null, context);
+            byEPerson = communityService.create(null, context);
+            denied = communityService.create(null, context);
+            administered = communityService.create(null, context);
+            child = communityService.create(administered, context);
+
+            authorizeService.addPolicy(context, byGroup, Constants.WRITE, group);
+            authorizeService.addPolicy(context, byEPerson, Constants.WRITE, eperson);
+            authorizeService.addPolicy(context, administered, Constants.ADMIN, group);
+            context.commit();
+
+            context.setCurrentUser(eperson);
+        } catch (SQLException | AuthorizeException ex) {
+            throw new AssertionError(ex);
+        } finally {
+            context.restoreAuthSystemState();
+        }
+
+        try {
+            List<Community> communities = Arrays.asList(denied, byGroup, null, child, byEPerson, administered);
+            // WRITE through a policy, or as an administrator of the object or of its parent
+            Assert.assertEquals(Arrays.asList(byGroup, child, byEPerson, administered),
+                                authorizeService.filterAuthorized(context, communities, Constants.WRITE, true));
+            Assert.assertEquals(Arrays.asList(byGroup, byEPerson),
+                                authorizeService.filterAuthorized(context, communities, Constants.WRITE, false));
+            Assert.assertEquals(Arrays.asList(child, administered),
+                                authorizeService.filterAdmin(context, communities));
+            for (Community community : Arrays.asList(denied, byGroup, child, byEPerson, administered)) {
+                Assert.assertEquals(authorizeService.authorizeActionBoolean(context, community, Constants.WRITE),
+                                    authorizeService.filterAuthorized(context, Arrays.asList(community),
+                                                                      Constants.WRITE, true).contains(community));
+                Assert.assertEquals(authorizeService.isAdmin(context, community),
+                                    authorizeService.filterAdmin(context, Arrays.asList(community))
+                                                    .contains(community));
+            }
+        } catch (SQLException ex) {
+            throw new AssertionError(ex);
+        }
+    }
 //
 //    @Test
 //    public void testIsCollectionAdmin() throws SQLException, AuthorizeException, IOException {
@@ -0,0 +1,241 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.checker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.checker.factory.CheckerServiceFactory;
+import org.dspace.checker.service.ChecksumHistoryService;
+import org.dspace.checker.service.MostRecentChecksumService;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.BitstreamService;
+import org.dspace.core.Context;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Integration tests of {@link CheckerCommand}, checking the same bitstreams one at a time and with several threads.
+ */
+public class CheckerCommandIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final int BITSTREAM_SIZE = 100;
+
+    private final BitstreamService bitstreamService = ContentServiceFactory.getInstance().getBitstreamService();
+    private final MostRecentChecksumService checksumService =
+        CheckerServiceFactory.getInstance().getMostRecentChecksumService();
+    private final ChecksumHistoryService checksumHistoryService =
+        CheckerServiceFactory.getInstance().getChecksumHistoryService();
+
+    private final List<Bitstream> bitstreams = new ArrayList<>();
+    private Bitstream missing;
+    private Bitstream unreadable;
+    private Bitstream modified;
+    private Bitstream deleted;
+    private File unreadableFile;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Checked item").build();
+        for (int i = 0; i < 10; i++) {
+            // a content of its own for each bitstream, so no file is shared
+            String content = StringUtils.rightPad("Bitstream " + i, BITSTREAM_SIZE, '.');
+            bitstreams.add(BitstreamBuilder.createBitstream(context, item,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))).withName("bitstream" + i).build());
+        }
+        missing = bitstreams.get(2);
+        unreadable = bitstreams.get(5);
+        modified = bitstreams.get(7);
+        deleted = bitstreams.get(9);
+
+        checksumService.updateMissingBitstreams(context);
+        checksumService.findByBitstream(context, modified).setExpectedChecksum("0123456789abcdef");
+
+        // the file of a bitstream is missing, the file of another can't be read (computing its checksum fails)
+        FileUtils.forceDelete(findFile(missing));
+        unreadableFile = findFile(unreadable);
+        FileUtils.forceDelete(unreadableFile);
+        FileUtils.forceMkdir(unreadableFile);
+
+        bitstreamService.delete(context, deleted);
+        context.commit();
+        context.restoreAuthSystemState();
+    }
+
+    @After
+    @Override
+    public void destroy() throws Exception {
+        try {
+            FileUtils.deleteQuietly(unreadableFile);
+            context.turnOffAuthorisationSystem();
+            for (Bitstream bitstream : bitstreams) {
+                Bitstream reloaded = context.reloadEntity(bitstream);
+                checksumHistoryService.deleteByBitstream(context, reloaded);
+                checksumService.deleteByBitstream(context, reloaded);
+            }
+            context.commit();
+            context.restoreAuthSystemState();
+        } finally {
+            super.destroy();
+        }
+    }
+
+    @Test
+    public void testParallelCheckGivesTheSameResultsAsSequentialCheck() throws Exception {
+        Map<UUID, String> sequential = check(1, 100);
+        assertEquals(bitstreams.size(), sequential.size());
+        assertResult(ChecksumResultCode.CHECKSUM_MATCH, sequential.get(bitstreams.get(0).getID()));
+        assertResult(ChecksumResultCode.BITSTREAM_NOT_FOUND, sequential.get(unreadable.getID()));
+        assertResult(ChecksumResultCode.CHECKSUM_NO_MATCH, sequential.get(modified.getID()));
+        assertResult(ChecksumResultCode.BITSTREAM_MARKED_DELETED, sequential.get(deleted.getID()));
+        assertNotNull(sequential.get(missing.getID()));
+
+        resetToBeProcessed();
+        // with a batch size forcing several commits
+        Map<UUID, String> parallel = check(4, 3);
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testParallelCheckCommitsInBatches() throws Exception {
+        Date start = nextDate();
+        CheckerCommand checker = createChecker(start, 3, 3);
+        checker.process();
+
+        // the last results may not be committed yet
+        int committed = 0;
+        try (Context otherContext = new Context(Context.Mode.READ_ONLY)) {
+            for (Bitstream bitstream : bitstreams) {
+                MostRecentChecksum info = checksumService.findByBitstream(otherContext, bitstream);
+                if (!info.getProcessEndDate().before(start)) {
+                    committed++;
+                }
+            }
+        }
+        assertTrue("committed " + committed, committed > bitstreams.size() - 3);
+        // all but the deleted and the unreadable bitstreams
+        assertEquals(bitstreams.size() - 2, checker.getBitstreamsChecked());
+        assertEquals((bitstreams.size() - 2) * BITSTREAM_SIZE, checker.getBytesChecked());
+    }
+
+    @Test
+    public void testParallelCheckRespectsTheMaximumRate() throws Exception {
+        CheckerCommand checker = createChecker(nextDate(), 4, 100);
+        // four bitstreams per second, whether their content can be read or not
+        checker.setMaxBytesPerSecond(4 * BITSTREAM_SIZE);
+        long start = System.currentTimeMillis();
+        checker.process();
+        long elapsed = System.currentTimeMillis() - start;
+
+        // all but the deleted bitstream, the first one at once
+        assertTrue("checked in " + elapsed + " ms", elapsed >= (bitstreams.size() - 2) * 250 - 500);
+        assertFalse(checksumService.findByBitstream(context, unreadable).isToBeProcessed());
+    }
+
+    /**
+     * Check all the bitstreams to be processed, each reported once, and get the results
+     *
+     * @return the results by bitstream
+     */
+    private Map<UUID, String> check(int threads, int batchSize) throws Exception {
+        List<UUID> reported = new ArrayList<>();
+        CheckerCommand checker = createChecker(nextDate(), threads, batchSize);
+        checker.setReportVerbose(true);
+        checker.setCollector((collectorContext, info) -> reported.add(info.getBitstream().getID()));
+        checker.process();
+        context.commit();
+
+        Map<UUID, String> results = new HashMap<>();
+        for (Bitstream bitstream : bitstreams) {
+            MostRecentChecksum info = checksumService.findByBitstream(context, bitstream);
+            results.put(bitstream.getID(), info.getChecksumResult().getResultCode() + " " + info.getCurrentChecksum()
+                + " " + info.getChecksumAlgorithm() + " " + info.isBitstreamFound() + " " + info.isToBeProcessed());
+        }
+        assertEquals(bitstreams.size(), reported.size());
+        assertEquals(results.keySet(), Set.copyOf(reported));
+        return results;
+    }
+
+    private CheckerCommand createChecker(Date start, int threads, int batchSize) {
+        CheckerCommand checker = new CheckerCommand(context);
+        checker.setProcessStartDate(start);
+        checker.setDispatcher(new SimpleDispatcher(context, start, false));
+        checker.setCollector((collectorContext, info) -> { });
+        checker.setThreads(threads);
+        checker.setBatchSize(batchSize);
+        return checker;
+    }
+
+    private void resetToBeProcessed() throws Exception {
+        for (Bitstream bitstream : bitstreams) {
+            MostRecentChecksum info = checksumService.findByBitstream(context, bitstream);
+            info.setToBeProcessed(true);
+            checksumService.update(context, info);
+        }
+        context.commit();
+    }
+
+    private static void assertResult(ChecksumResultCode code, String result) {
+        assertTrue(result, result.startsWith(code + " "));
+    }
+
+    /**
+     * @return a date after the last processing of the bitstreams
+     */
+    private static Date nextDate() throws InterruptedException {
+        Thread.sleep(10);
+        return new Date();
+    }
+
+    /**
+     * Find the file of a bitstream in the asset store
+     */
+    private static File findFile(Bitstream bitstream) throws IOException {
+        Path assetstore = Paths.get(DSpaceServicesFactory.getInstance().getConfigurationService()
+                                                         .getProperty("assetstore.dir"));
+        try (Stream<Path> paths = Files.walk(assetstore)) {
+            return paths.filter(path -> path.getFileName().toString().equals(bitstream.getInternalId()))
+                        .findFirst().orElseThrow().toFile();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MetadataIndex}
+ */
+public class MetadataIndexTest {
+
+    private final ItemServiceImpl itemService = new ItemServiceImpl();
+
+    private MetadataField title;
+    private MetadataField author;
+    private MetadataField contributor;
+    private MetadataField dcterms;
+    private final List<MetadataValue> values = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MetadataSchema dc = schema("dc");
+        title = field(dc, "title", null);
+        author = field(dc, "contributor", "author");
+        contributor = field(dc, "contributor", null);
+        dcterms = field(schema("dcterms"), "title", null);
+
+        values.add(value(title, "A title", null));
+        values.add(value(author, "Author, A", "en"));
+        values.add(value(contributor, "Contributor", null));
+        values.add(value(author, "Author, B", null));
+        values.add(value(dcterms, "Another title", "fr"));
+        values.add(value(author, "Author, C", "en"));
+    }
+
+    @Test
+    public void testCandidatesOfField() {
+        MetadataIndex index = new MetadataIndex(values);
+
+        assertThat(index.getCandidates("dc", "contributor", "author"),
+                   sameValues(values.get(1), values.get(3), values.get(5)));
+        assertThat(index.getCandidates("dc", "title", null), sameValues(values.get(0)));
+        assertThat(index.getCandidates("dc", "title", ""), sameValues(values.get(0)));
+        assertThat(index.getCandidates("dc", "description", null), is(empty()));
+    }
+
+    @Test
+    public void testWildcardsReturnAllValues() {
+        MetadataIndex index = new MetadataIndex(values);
+
+        assertThat(index.getCandidates(Item.ANY, "title", null), is(values));
+        assertThat(index.getCandidates("dc", Item.ANY, null), is(values));
+        assertThat(index.getCandidates("dc", "contributor", Item.ANY), is(values));
+    }
+
+    @Test
+    public void testSameResultsAsScan() {
+        MetadataIndex index = new MetadataIndex(values);
+        List<String> schemas = Arrays.asList("dc", "dcterms", "local", Item.ANY);
+        List<String> elements = Arrays.asList("title", "contributor", "subject", Item.ANY);
+        List<String> qualifiers = Arrays.asList(null, "", "author", "other", Item.ANY);
+        List<String> languages = Arrays.asList(null, "en", "fr", Item.ANY);
+
+        for (String schema : schemas) {
+            for (String element : elements) {
+                for (String qualifier : qualifiers) {
+                    for (String lang : languages) {
+                        List<MetadataValue> expected = lookup(values, schema, element, qualifier, lang);
+                        assertThat(schema + "." + element + "." + qualifier + "[" + lang + "]",
+                                   lookup(index.getCandidates(schema, element, qualifier), schema, element,
+                                          qualifier, lang),
+                                   sameValues(expected.toArray(new MetadataValue[0])));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfObjectIsRebuiltWhenMetadataChange() {
+        Item item = new Item();
+        item.getMetadata().addAll(values);
+        MetadataIndex index = item.getMetadataIndex();
+        assertThat(item.getMetadataIndex() == index, is(true));
+
+        MetadataValue added = value(author, "Author, D", null);
+        item.addMetadata(added);
+        assertThat(item.getMetadataIndex() == index, is(false));
+        assertThat(item.getMetadataIndex().getCandidates("dc", "contributor", "author"),
+                   sameValues(values.get(1), values.get(3), values.get(5), added));
+
+        // changes made without marking the metadata as modified are noticed as well
+        index = item.getMetadataIndex();
+        item.getMetadata().removeIf(value -> value == added);
+        assertThat(item.getMetadataIndex() == index, is(false));
+        assertThat(item.getMetadataIndex().getCandidates("dc", "contributor", "author"),
+                   sameValues(values.get(1), values.get(3), values.get(5)));
+    }
+
+    /**
+     * MetadataValue.equals() needs persisted values, compare the instances instead
+     */
+    private Matcher<Iterable<? extends MetadataValue>> sameValues(MetadataValue... expected) {
+        List<Matcher<? super MetadataValue>> matchers = new ArrayList<>();
+        for (MetadataValue value : expected) {
+            matchers.add(sameInstance(value));
+        }
+        return matchers.isEmpty() ? emptyIterable() : contains(matchers);
+    }
+
+    private List<MetadataValue> lookup(List<MetadataValue> candidates, String schema, String element,
+                                       String qualifier, String lang) {
+        List<MetadataValue> result = new ArrayList<>();
+        for (MetadataValue value : candidates) {
+            if (itemService.match(schema, element, qualifier, lang, value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private MetadataSchema schema(String name) {
+        MetadataSchema schema = new MetadataSchema();
+        schema.setName(name);
+        return schema;
+    }
+
+    private MetadataField field(MetadataSchema schema, String element, String qualifier) {
+        MetadataField field = new MetadataField();
+        field.setMetadataSchema(schema);
+        field.setElement(element);
+        field.setQualifier(qualifier);
+        return field;
+    }
+
+    private MetadataValue value(MetadataField field, String text, String language) {
+        MetadataValue value = new MetadataValue();
+        value.setMetadataField(field);
+        value.setValue(text);
+        value.setLanguage(language);
+        return value;
+    }
+}
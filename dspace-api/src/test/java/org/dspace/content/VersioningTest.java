@@ -8,18 +8,23 @@
 package org.dspace.content;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 
 import org.apache.logging.log4j.Logger;
 import org.dspace.AbstractUnitTest;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.BitstreamService;
+import org.dspace.content.service.BundleService;
 import org.dspace.content.service.CollectionService;
 import org.dspace.content.service.CommunityService;
 import org.dspace.content.service.InstallItemService;
@@ -55,6 +60,8 @@ public class VersioningTest extends AbstractUnitTest {
     protected CollectionService collectionService = ContentServiceFactory.getInstance().getCollectionService();
     protected InstallItemService installItemService = ContentServiceFactory.getInstance().getInstallItemService();
     protected ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    protected BundleService bundleService = ContentServiceFactory.getInstance().getBundleService();
+    protected BitstreamService bitstreamService = ContentServiceFactory.getInstance().getBitstreamService();
     protected HandleService handleService = HandleServiceFactory.getInstance().getHandleService();
     protected WorkspaceItemService workspaceItemService = ContentServiceFactory.getInstance().getWorkspaceItemService();
     protected VersioningService versionService = VersionServiceFactory.getInstance().getVersionService();
@@ -170,4 +177,31 @@ public class VersioningTest extends AbstractUnitTest {
         assertThat("Test_version_handle_delete", handleService.resolveToObject(context, handle), nullValue());
         context.restoreAuthSystemState();
     }
+
+    @Test
+    public void testVersionSharesBitstreamContent() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Bundle bundle = bundleService.create(context, versionedItem, "ORIGINAL");
+        Bitstream bitstream = bitstreamService.create(context, bundle,
+            new ByteArrayInputStream("Shared content".getBytes(StandardCharsets.UTF_8)));
+        bitstreamService.update(context, bitstream);
+
+        Version version = versionService.createNewVersion(context, versionedItem, summary);
+        Bitstream clone = version.getItem().getBundles("ORIGINAL").get(0).getBitstreams().get(0);
+
+        // the new version references the stored file of the previous one, no content is copied
+        assertThat("Test_version_bitstream_clone", clone.getID(), not(equalTo(bitstream.getID())));
+        assertThat("Test_version_bitstream_internal_id", clone.getInternalId(), equalTo(bitstream.getInternalId()));
+        assertThat("Test_version_bitstream_store", clone.getStoreNumber(), equalTo(bitstream.getStoreNumber()));
+        assertThat("Test_version_bitstream_shared", bitstreamService.countSharingBitstreams(context, clone),
+                   equalTo(1L));
+
+        // once the previous version's bitstream is deleted, the clone is the last reference to the file
+        bitstreamService.delete(context, bitstream);
+        assertThat("Test_version_bitstream_last_reference",
+                   bitstreamService.countSharingBitstreams(context, clone), equalTo(0L));
+        assertThat("Test_version_bitstream_deleted_shared",
+                   bitstreamService.countSharingBitstreams(context, bitstream), equalTo(1L));
+        context.restoreAuthSystemState();
+    }
 }
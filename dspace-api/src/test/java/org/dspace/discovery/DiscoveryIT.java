@@ -41,6 +41,7 @@ import org.dspace.content.service.ItemService;
 import org.dspace.content.service.WorkspaceItemService;
 import org.dspace.discovery.indexobject.IndexableClaimedTask;
 import org.dspace.discovery.indexobject.IndexableCollection;
+import org.dspace.discovery.indexobject.IndexableCommunity;
 import org.dspace.discovery.indexobject.IndexableItem;
 import org.dspace.discovery.indexobject.IndexablePoolTask;
 import org.dspace.discovery.indexobject.IndexableWorkflowItem;
@@ -731,6 +732,35 @@ public class DiscoveryIT extends AbstractIntegrationTestWithDatabase {
         }
     }
 
+    @Test
+    public void parallelUpdateIndexTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context)
+                                              .withName("Parent Community")
+                                              .build();
+        Collection collection = CollectionBuilder.createCollection(context, community)
+                                                 .withName("Collection")
+                                                 .build();
+        for (int i = 0; i < 7; i++) {
+            ItemBuilder.createItem(context, collection)
+                       .withTitle("Item " + i)
+                       .build();
+        }
+        context.restoreAuthSystemState();
+
+        assertSearchQuery(IndexableItem.TYPE, 7);
+        indexer.deleteIndex();
+        assertSearchQuery(IndexableItem.TYPE, 0);
+
+        // more partitions than items, and batches smaller than the number of items in a partition
+        configurationService.setProperty("discovery.index.parallel.partitions", 16);
+        indexer.updateIndex(context, true, null, 3, 2);
+
+        assertSearchQuery(IndexableItem.TYPE, 7);
+        assertSearchQuery(IndexableCollection.TYPE, 1);
+        assertSearchQuery(IndexableCommunity.TYPE, 1);
+    }
+
     private void assertSearchQuery(String resourceType, int size) throws SearchServiceException {
         assertSearchQuery(resourceType, size, size, 0, -1);
     }
@@ -0,0 +1,225 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.services.ConfigurationService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * Unit tests for {@link SolrIndexingBuffer}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SolrIndexingBufferTest {
+
+    @InjectMocks
+    private SolrIndexingBuffer buffer;
+
+    @Mock
+    private SolrSearchCore solrSearchCore;
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    @Mock
+    private SolrClient solr;
+
+    @Before
+    public void setUp() {
+        lenient().when(solrSearchCore.getSolr()).thenReturn(solr);
+        when(configurationService.getIntProperty("discovery.index.buffer.size", 500)).thenReturn(4);
+        when(configurationService.getIntProperty("discovery.index.buffer.commit-within", 1000)).thenReturn(500);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        buffer.destroy();
+    }
+
+    @Test
+    public void testDisabledSendsImmediately() throws Exception {
+        buffer.afterPropertiesSet();
+        SolrInputDocument document = document("Item-1", null);
+
+        buffer.add(document);
+        buffer.deleteById("Item-2");
+        buffer.deleteByQuery("inprogress.item:\"Item-3\"");
+
+        verify(solr).add(document);
+        verify(solr).deleteById("Item-2");
+        verify(solr).deleteByQuery("inprogress.item:\"Item-3\"");
+        verify(solr, never()).request(any(), nullable(String.class));
+    }
+
+    @Test
+    public void testFlushSendsDeletionsBeforeAdditions() throws Exception {
+        enable();
+        buffer.add(document("Item-1", null));
+        buffer.add(document("Item-2", null));
+        buffer.deleteById("Item-1");
+        buffer.deleteById("Item-3");
+        buffer.add(document("Item-3", null));
+        assertThat(buffer.getQueueDepth(), is(3));
+
+        buffer.flush();
+
+        List<UpdateRequest> requests = captureRequests(2);
+        assertThat(requests.get(0).getDeleteById(), contains("Item-1"));
+        assertThat(requests.get(0).getDocuments(), nullValue());
+        assertThat(requests.get(0).getCommitWithin(), is(500));
+        assertThat(uniqueIds(requests.get(1)), contains("Item-2", "Item-3"));
+        assertThat(requests.get(1).getCommitWithin(), is(500));
+        assertThat(buffer.getQueueDepth(), is(0));
+        assertThat(buffer.getFlushCount(), is(1L));
+        assertThat(buffer.getOperationsFlushed(), is(3L));
+    }
+
+    @Test
+    public void testDeleteByQueryRemovesMatchingPendingAdditions() throws Exception {
+        enable();
+        buffer.add(document("WorkspaceItem-1", "Item-1"));
+        buffer.add(document("WorkspaceItem-2", "Item-2"));
+        buffer.deleteByQuery("inprogress.item:\"Item-1\"");
+
+        buffer.flush();
+
+        List<UpdateRequest> requests = captureRequests(2);
+        assertThat(requests.get(0).getDeleteById(), contains("WorkspaceItem-1"));
+        assertThat(requests.get(0).getDeleteQuery(), contains("inprogress.item:\"Item-1\""));
+        assertThat(uniqueIds(requests.get(1)), contains("WorkspaceItem-2"));
+    }
+
+    @Test
+    public void testUnknownDeleteByQueryIsSentAfterPendingOperations() throws Exception {
+        enable();
+        buffer.add(document("Item-1", null));
+        buffer.deleteByQuery("dc.title:test*");
+
+        InOrder order = inOrder(solr);
+        order.verify(solr).request(any(UpdateRequest.class), nullable(String.class));
+        order.verify(solr).deleteByQuery("dc.title:test*", 500);
+        assertThat(buffer.getQueueDepth(), is(0));
+    }
+
+    @Test
+    public void testFlushWhenFull() throws Exception {
+        enable();
+        buffer.add(document("Item-1", null));
+        buffer.add(document("Item-2", null));
+        buffer.deleteById("Item-3");
+        verify(solr, never()).request(any(), nullable(String.class));
+
+        buffer.deleteById("Item-4");
+
+        List<UpdateRequest> requests = captureRequests(2);
+        assertThat(requests.get(0).getDeleteById(), containsInAnyOrder("Item-3", "Item-4"));
+        assertThat(uniqueIds(requests.get(1)), contains("Item-1", "Item-2"));
+        assertThat(buffer.getQueueDepth(), is(0));
+    }
+
+    @Test
+    public void testFailedFlushPutsOperationsBackUnderNewerOnes() throws Exception {
+        enable();
+        buffer.add(document("Item-1", null));
+        buffer.add(document("WorkspaceItem-1", "Item-9"));
+        buffer.deleteById("Item-3");
+        SolrInputDocument newVersion = document("Item-1", null);
+        newVersion.addField("dc.title", "new version");
+        when(solr.request(any(), nullable(String.class))).thenAnswer(invocation -> {
+            // requested while the operations are sent
+            buffer.add(newVersion);
+            buffer.deleteByQuery("inprogress.item:\"Item-9\"");
+            throw new IOException("Search core unavailable");
+        }).thenReturn(null);
+
+        assertThrows(IOException.class, () -> buffer.flush());
+        assertThat(buffer.getFailedFlushCount(), is(1L));
+        assertThat(buffer.getQueueDepth(), is(4));
+
+        buffer.flush();
+
+        List<UpdateRequest> requests = captureRequests(3);
+        assertThat(requests.get(1).getDeleteById(), containsInAnyOrder("Item-3", "WorkspaceItem-1"));
+        assertThat(requests.get(1).getDeleteQuery(), contains("inprogress.item:\"Item-9\""));
+        // the newer version replaces the one which couldn't be sent
+        assertThat(requests.get(2).getDocuments(), contains(newVersion));
+        assertThat(buffer.getQueueDepth(), is(0));
+    }
+
+    @Test
+    public void testFlushWithoutPendingOperations() throws Exception {
+        enable();
+        buffer.flush();
+
+        verify(solr, never()).request(any(), nullable(String.class));
+        assertThat(buffer.getFlushCount(), is(0L));
+    }
+
+    private void enable() throws Exception {
+        when(configurationService.getBooleanProperty("discovery.index.buffer.enabled", false)).thenReturn(true);
+        when(configurationService.getLongProperty("discovery.index.buffer.flush-interval", 1000))
+            .thenReturn(60000L);
+        buffer.afterPropertiesSet();
+    }
+
+    private SolrInputDocument document(String uniqueId, String inProgressItem) {
+        SolrInputDocument document = new SolrInputDocument();
+        document.addField(SearchUtils.RESOURCE_UNIQUE_ID, uniqueId);
+        if (inProgressItem != null) {
+            document.addField("inprogress.item", inProgressItem);
+        }
+        return document;
+    }
+
+    private List<UpdateRequest> captureRequests(int count) throws Exception {
+        ArgumentCaptor<SolrRequest> captor = ArgumentCaptor.forClass(SolrRequest.class);
+        verify(solr, times(count)).request(captor.capture(), nullable(String.class));
+        assertThat(captor.getAllValues(), hasSize(count));
+        return captor.getAllValues().stream().map(UpdateRequest.class::cast).collect(Collectors.toList());
+    }
+
+    private List<Object> uniqueIds(UpdateRequest request) {
+        assertThat(request.getDocuments(), is(not(empty())));
+        return request.getDocuments().stream()
+                      .map(document -> document.getFieldValue(SearchUtils.RESOURCE_UNIQUE_ID))
+                      .collect(Collectors.toList());
+    }
+}
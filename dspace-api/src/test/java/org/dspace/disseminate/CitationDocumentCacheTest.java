@@ -0,0 +1,147 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.disseminate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link CitationDocumentCache}
+ */
+public class CitationDocumentCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private CitationDocumentCache cache;
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("citation-cache");
+        cache = new CitationDocumentCache();
+        cache.init(directory, 100);
+    }
+
+    @Test
+    public void testDocumentIsOnlyWrittenOnce() throws Exception {
+        UUID item = UUID.randomUUID();
+        File first = cache.get(item, "v1", writer(10));
+        File second = cache.get(item, "v1", writer(10));
+
+        assertEquals(first, second);
+        assertEquals(10, first.length());
+        assertEquals(1, writes.get());
+
+        cache.get(item, "v2", writer(10));
+        assertEquals(2, writes.get());
+        assertEquals(20, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDocumentsAreEvicted() throws Exception {
+        UUID item = UUID.randomUUID();
+        File a = cache.get(item, "a", writer(40));
+        File b = cache.get(item, "b", writer(40));
+        cache.get(item, "a", writer(40));
+        File c = cache.get(item, "c", writer(40));
+
+        assertTrue(a.exists());
+        assertFalse(b.exists());
+        assertTrue(c.exists());
+        assertEquals(80, cache.getSize());
+        assertEquals(2, cache.getCount());
+
+        // a document larger than the cache is still returned
+        File d = cache.get(item, "d", writer(200));
+        assertTrue(d.exists());
+        assertEquals(1, cache.getCount());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        UUID item1 = UUID.randomUUID();
+        UUID item2 = UUID.randomUUID();
+        File a = cache.get(item1, "a", writer(10));
+        File b = cache.get(item1, "b", writer(10));
+        File c = cache.get(item2, "a", writer(10));
+
+        cache.invalidate(List.of(item1));
+        assertFalse(a.exists());
+        assertFalse(b.exists());
+        assertTrue(c.exists());
+        assertEquals(10, cache.getSize());
+
+        cache.invalidateAll();
+        assertFalse(c.exists());
+        assertEquals(0, cache.getCount());
+    }
+
+    @Test
+    public void testFailedWriteIsNotCached() throws Exception {
+        UUID item = UUID.randomUUID();
+        try {
+            cache.get(item, "a", file -> {
+                Files.write(file.toPath(), new byte[10]);
+                throw new IOException("failed");
+            });
+            fail("The failure of the writer must be thrown");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertEquals(0, cache.getCount());
+        assertEquals(0, directory.listFiles().length);
+
+        cache.get(item, "a", writer(10));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void testCachedDocumentsAreReloaded() throws Exception {
+        UUID item = UUID.randomUUID();
+        File a = cache.get(item, "a", writer(30));
+        cache.get(item, "b", writer(30));
+        Files.write(new File(directory, "citation123.tmp").toPath(), new byte[10]);
+
+        CitationDocumentCache reloaded = new CitationDocumentCache();
+        reloaded.init(directory, 100);
+        assertEquals(2, reloaded.getCount());
+        assertEquals(60, reloaded.getSize());
+        assertEquals(a, reloaded.get(item, "a", writer(30)));
+        assertEquals(2, writes.get());
+        assertFalse(new File(directory, "citation123.tmp").exists());
+
+        // a document removed by another process is written again
+        Files.delete(a.toPath());
+        reloaded.get(item, "a", writer(30));
+        assertEquals(3, writes.get());
+        assertEquals(60, reloaded.getSize());
+    }
+
+    private CitationDocumentCache.DocumentWriter writer(int size) {
+        return file -> {
+            writes.incrementAndGet();
+            Files.write(file.toPath(), new byte[size]);
+        };
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.eperson;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.GroupBuilder;
+import org.dspace.eperson.dao.Group2GroupCacheDAO;
+import org.dspace.eperson.factory.EPersonServiceFactory;
+import org.dspace.utils.DSpace;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the incremental maintenance of the group2groupcache table against a full rebuild
+ * ({@link GroupServiceImpl#rethinkGroupCache(org.dspace.core.Context, boolean)}), on a synthetic graph of groups
+ * where every group is a member of two groups of the level above it. The time needed by both is compared by
+ * Group2GroupCacheBenchmark, in dspace-benchmarks.
+ */
+public class Group2GroupCacheIT extends AbstractIntegrationTestWithDatabase {
+
+    private GroupServiceImpl groupService;
+    private Group2GroupCacheDAO group2GroupCacheDAO;
+    private final Random random = new Random(42);
+
+    @Before
+    public void setUp() throws Exception {
+        groupService = (GroupServiceImpl) EPersonServiceFactory.getInstance().getGroupService();
+        group2GroupCacheDAO = new DSpace().getServiceManager()
+                                          .getServicesByType(Group2GroupCacheDAO.class).get(0);
+    }
+
+    @Test
+    public void addAndRemoveMembersTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        List<List<Group>> levels = createGraph(4, 4);
+        List<Group> groups = flatten(levels);
+        assertThat(snapshot(groups), equalTo(rebuild(groups)));
+
+        for (int i = 0; i < 20; i++) {
+            Group parent = pick(levels.get(random.nextInt(2)));
+            Group child = pick(levels.get(2 + random.nextInt(2)));
+            if (parent.contains(child)) {
+                groupService.removeMember(context, parent, child);
+            } else {
+                groupService.addMember(context, parent, child);
+            }
+            groupService.update(context, parent);
+            assertThat("After changing " + parent.getName() + " -> " + child.getName(),
+                       snapshot(groups), equalTo(rebuild(groups)));
+        }
+        context.restoreAuthSystemState();
+    }
+
+    @Test
+    public void deleteGroupTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        List<List<Group>> levels = createGraph(4, 3);
+        List<Group> groups = flatten(levels);
+        Group deleted = levels.get(1).get(1);
+        groups.remove(deleted);
+
+        groupService.delete(context, deleted);
+
+        Set<String> cache = snapshot(groups);
+        assertThat(cache, equalTo(rebuild(groups)));
+        assertThat(cache, not(hasItem(levels.get(0).get(1).getName() + "->" + deleted.getName())));
+        context.restoreAuthSystemState();
+    }
+
+    @Test
+    public void changeDistantMembersTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        List<List<Group>> levels = createGraph(5, 3);
+        List<Group> groups = flatten(levels);
+
+        // memberships between levels far apart, with many transitive relations
+        for (int i = 0; i < 10; i++) {
+            Group parent = pick(levels.get(0));
+            Group child = pick(levels.get(2 + random.nextInt(3)));
+            if (parent.contains(child)) {
+                groupService.removeMember(context, parent, child);
+            } else {
+                groupService.addMember(context, parent, child);
+            }
+            groupService.update(context, parent);
+            assertThat("After changing " + parent.getName() + " -> " + child.getName(),
+                       snapshot(groups), equalTo(rebuild(groups)));
+        }
+        context.restoreAuthSystemState();
+    }
+
+    /**
+     * Create a graph of groups where every group below the first level is a member of two groups of the level above.
+     */
+    private List<List<Group>> createGraph(int depth, int width) {
+        List<List<Group>> levels = new ArrayList<>();
+        for (int level = 0; level < depth; level++) {
+            List<Group> groups = new ArrayList<>();
+            for (int i = 0; i < width; i++) {
+                GroupBuilder builder = GroupBuilder.createGroup(context).withName("g2gc-" + level + "-" + i);
+                if (level > 0) {
+                    List<Group> above = levels.get(level - 1);
+                    builder.withParent(above.get(i % width)).withParent(above.get((i + 1) % width));
+                }
+                groups.add(builder.build());
+            }
+            levels.add(groups);
+        }
+        return levels;
+    }
+
+    private List<Group> flatten(List<List<Group>> levels) {
+        List<Group> groups = new ArrayList<>();
+        levels.forEach(groups::addAll);
+        return groups;
+    }
+
+    private Group pick(List<Group> groups) {
+        return groups.get(random.nextInt(groups.size()));
+    }
+
+    private Set<String> rebuild(List<Group> groups) throws Exception {
+        groupService.rethinkGroupCache(context, true);
+        return snapshot(groups);
+    }
+
+    private Set<String> snapshot(List<Group> groups) throws Exception {
+        Set<String> rows = new HashSet<>();
+        for (Group group : groups) {
+            for (Group2GroupCache row : group2GroupCacheDAO.findByParent(context, group)) {
+                rows.add(row.getParent().getName() + "->" + row.getChild().getName());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.event;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.dspace.core.Constants;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link AsynchronousEventQueue}
+ */
+public class AsynchronousEventQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<UUID, List<String>> delivered = new ConcurrentHashMap<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    // when set, deliveries start by counting down delivering and wait for release
+    private volatile CountDownLatch delivering;
+    private volatile CountDownLatch release;
+    private RecordingQueue queue;
+
+    @After
+    public void tearDown() throws Exception {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    public void testEventsOfASubjectAreDeliveredInOrder() throws Exception {
+        queue = new RecordingQueue(4, 3);
+        queue.start();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        for (int i = 0; i < 20; i++) {
+            queue.enqueue(List.of(event(first, "first-" + i), event(second, "second-" + i)));
+        }
+
+        waitUntilEmpty();
+        assertThat(delivered.get(first), is(expected("first-", 20)));
+        assertThat(delivered.get(second), is(expected("second-", 20)));
+    }
+
+    @Test
+    public void testFailedSegmentIsRetried() throws Exception {
+        queue = new RecordingQueue(1, 3);
+        failures.set(2);
+        queue.start();
+        UUID subject = UUID.randomUUID();
+
+        queue.enqueue(List.of(event(subject, "a"), event(subject, "b")));
+
+        waitUntilEmpty();
+        assertThat(delivered.get(subject), contains("a", "b"));
+        assertThat(queue.getDeadLetterSegments(), is(0));
+    }
+
+    @Test
+    public void testSegmentIsDeadLetteredAfterMaxAttempts() throws Exception {
+        queue = new RecordingQueue(1, 2);
+        failures.set(2);
+        queue.start();
+        UUID subject = UUID.randomUUID();
+
+        queue.enqueue(List.of(event(subject, "lost")));
+        queue.enqueue(List.of(event(subject, "next")));
+
+        waitUntilEmpty();
+        assertThat(delivered.get(subject), contains("next"));
+        assertThat(queue.getDeadLetterSegments(), is(1));
+    }
+
+    @Test
+    public void testQueuedEventsSurviveRestart() throws Exception {
+        UUID subject = UUID.randomUUID();
+        RecordingQueue stopped = new RecordingQueue(2, 1);
+        stopped.enqueue(List.of(event(subject, "a")));
+        stopped.enqueue(List.of(event(subject, "b")));
+        assertThat(stopped.getQueuedSegments(), is(2));
+
+        queue = new RecordingQueue(2, 1);
+        queue.start();
+
+        waitUntilEmpty();
+        assertThat(delivered.get(subject), contains("a", "b"));
+    }
+
+    @Test
+    public void testStopWaitsForTheSegmentBeingProcessed() throws Exception {
+        UUID subject = UUID.randomUUID();
+        RecordingQueue stopping = new RecordingQueue(1, 1);
+        delivering = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        stopping.start();
+        stopping.enqueue(List.of(event(subject, "a")));
+        assertTrue(delivering.await(10, TimeUnit.SECONDS));
+
+        Thread stopper = new Thread(() -> {
+            try {
+                stopping.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stopper.start();
+        stopper.join(200);
+        assertTrue("stop() returned while a segment was processed", stopper.isAlive());
+        release.countDown();
+        stopper.join(10000);
+        assertFalse(stopper.isAlive());
+        assertThat(delivered.get(subject), contains("a"));
+        assertThat(stopping.getQueuedSegments(), is(0));
+
+        // the lane is unlocked: another queue on the same directory drains it
+        delivering = null;
+        stopping.enqueue(List.of(event(subject, "b")));
+        queue = new RecordingQueue(1, 1);
+        queue.start();
+        waitUntilEmpty();
+        assertThat(delivered.get(subject), contains("a", "b"));
+    }
+
+    private void waitUntilEmpty() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (queue.getQueuedSegments() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(queue.getQueuedSegments(), is(0));
+    }
+
+    private Event event(UUID subject, String detail) {
+        return new Event(Event.MODIFY, Constants.ITEM, subject, detail);
+    }
+
+    private List<String> expected(String prefix, int count) {
+        List<String> details = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            details.add(prefix + i);
+        }
+        return details;
+    }
+
+    /**
+     * Queue recording the delivered events instead of calling a consumer, failing as requested.
+     */
+    private class RecordingQueue extends AsynchronousEventQueue {
+        RecordingQueue(int workers, int maxAttempts) {
+            super("test", new File(folder.getRoot(), "queue"), workers, maxAttempts, 1, 5, 100);
+        }
+
+        @Override
+        protected void deliver(int lane, List<Event> events) throws Exception {
+            if (delivering != null) {
+                delivering.countDown();
+                release.await();
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Simulated failure");
+            }
+            for (Map.Entry<UUID, List<Event>> subject : events.stream()
+                .collect(Collectors.groupingBy(Event::getSubjectID)).entrySet()) {
+                delivered.computeIfAbsent(subject.getKey(), key -> new ArrayList<>())
+                         .addAll(subject.getValue().stream().map(Event::getDetail).collect(Collectors.toList()));
+            }
+        }
+    }
+}
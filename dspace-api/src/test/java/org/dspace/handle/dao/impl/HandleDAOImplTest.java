@@ -12,12 +12,17 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.Logger;
 import org.dspace.AbstractUnitTest;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.content.Collection;
 import org.dspace.content.Community;
+import org.dspace.content.DSpaceObject;
 import org.dspace.content.Item;
 import org.dspace.content.WorkspaceItem;
 import org.dspace.content.factory.ContentServiceFactory;
@@ -30,7 +35,9 @@ import org.dspace.content.service.WorkspaceItemService;
 import org.dspace.eperson.factory.EPersonServiceFactory;
 import org.dspace.eperson.service.EPersonService;
 import org.dspace.eperson.service.GroupService;
+import org.dspace.handle.Handle;
 import org.dspace.handle.dao.HandleDAO;
+import org.dspace.handle.factory.HandleServiceFactory;
 import org.dspace.utils.DSpace;
 import org.dspace.versioning.factory.VersionServiceFactory;
 import org.dspace.versioning.service.VersioningService;
@@ -156,4 +163,32 @@ public class HandleDAOImplTest extends AbstractUnitTest {
         context.restoreAuthSystemState();
     }
 
+    @Test
+    public void findByHandles() throws Exception {
+        List<Handle> handles = handleDAO.findByHandles(context, List.of(HANDLE_PREFIX + "/" + SUFFIX_1,
+            HANDLE_PREFIX + "/" + SUFFIX_3, HANDLE_PREFIX + "/unknown"));
+
+        Map<String, DSpaceObject> objects =
+            handles.stream().collect(Collectors.toMap(Handle::getHandle, Handle::getDSpaceObject));
+        assertEquals(2, objects.size());
+        assertEquals(item1, objects.get(HANDLE_PREFIX + "/" + SUFFIX_1));
+        assertEquals(item3, objects.get(HANDLE_PREFIX + "/" + SUFFIX_3));
+    }
+
+    @Test
+    public void resolveToObjects() throws Exception {
+        // more handles than the IN list of a single query
+        List<String> handles = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            handles.add(HANDLE_PREFIX + "/unknown-" + i);
+        }
+        handles.add(HANDLE_PREFIX + "/" + SUFFIX_1);
+        handles.add("hdl:custom-prefix/" + SUFFIX_4);
+
+        Map<String, DSpaceObject> objects = HandleServiceFactory.getInstance().getHandleService()
+                                                                .resolveToObjects(context, handles);
+        assertEquals(2, objects.size());
+        assertEquals(item1, objects.get(HANDLE_PREFIX + "/" + SUFFIX_1));
+        assertEquals(item4, objects.get("hdl:custom-prefix/" + SUFFIX_4));
+    }
 }
@@ -0,0 +1,222 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.harvest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link ListRecordsStream}, with canned OAI-PMH responses.
+ */
+public class ListRecordsStreamTest {
+
+    private static final Namespace OAI_NS = Namespace.getNamespace("http://www.openarchives.org/OAI/2.0/");
+
+    private static final String BASE = "http://oai.example.org/request";
+
+    @Test
+    public void recordsAreStreamedAcrossPages() throws Exception {
+        TestStream stream = new TestStream(Map.of(
+            BASE + "?verb=ListRecords&from=2022-01-01&metadataPrefix=oai_dc",
+            response("<ListRecords>" + record("oai:example.org:1") + record("oai:example.org:2")
+                         + "<resumptionToken completeListSize=\"3\">token/1</resumptionToken></ListRecords>"),
+            BASE + "?verb=ListRecords&resumptionToken=token%2F1",
+            response("<ListRecords>" + record("oai:example.org:3")
+                         + "<resumptionToken completeListSize=\"3\"/></ListRecords>")),
+            "2022-01-01", null, null, "oai_dc");
+        stream.start();
+
+        List<String> taken = new ArrayList<>();
+        Element record;
+        while ((record = stream.take()) != null) {
+            taken.add(record == ListRecordsStream.PAGE_END ? "|"
+                : record.getChild("header", OAI_NS).getChildText("identifier", OAI_NS));
+        }
+        stream.close();
+
+        assertEquals(List.of("oai:example.org:1", "oai:example.org:2", "|", "oai:example.org:3", "|"), taken);
+        assertEquals(3, stream.getCompleteListSize());
+        assertEquals(2, stream.getPageCount());
+        assertTrue(stream.getByteCount() > 0);
+        assertNull(stream.take());
+    }
+
+    @Test
+    public void recordsKeepTheirMetadata() throws Exception {
+        TestStream stream = new TestStream(Map.of(
+            BASE + "?verb=ListRecords&metadataPrefix=oai_dc",
+            response("<ListRecords>" + record("oai:example.org:1") + "</ListRecords>")),
+            null, null, null, "oai_dc");
+        stream.start();
+
+        Element record = stream.take();
+        Element dc = record.getChild("metadata", OAI_NS).getChildren().get(0);
+        assertEquals("http://www.openarchives.org/OAI/2.0/oai_dc/", dc.getNamespaceURI());
+        assertEquals("Title of oai:example.org:1",
+                     dc.getChildText("title", Namespace.getNamespace("http://purl.org/dc/elements/1.1/")));
+        assertSame(ListRecordsStream.PAGE_END, stream.take());
+        assertNull(stream.take());
+        stream.close();
+    }
+
+    @Test
+    public void noRecordsMatchEndsTheStream() throws Exception {
+        TestStream stream = new TestStream(Map.of(
+            BASE + "?verb=ListRecords&metadataPrefix=oai_dc",
+            response("<error code=\"noRecordsMatch\">No matching records</error>")),
+            null, null, null, "oai_dc");
+        stream.start();
+
+        assertSame(ListRecordsStream.PAGE_END, stream.take());
+        assertNull(stream.take());
+        assertTrue(stream.isNoRecordsMatch());
+        stream.close();
+    }
+
+    @Test
+    public void errorsAreThrown() throws Exception {
+        TestStream stream = new TestStream(Map.of(
+            BASE + "?verb=ListRecords&set=missing&metadataPrefix=oai_dc",
+            response("<error code=\"badArgument\">No such set</error>")),
+            null, null, "missing", "oai_dc");
+        stream.start();
+
+        try {
+            stream.take();
+            fail("The OAI-PMH error should be thrown");
+        } catch (HarvestingException e) {
+            assertEquals("[badArgument]", e.getMessage());
+        } finally {
+            stream.close();
+        }
+    }
+
+    @Test
+    public void responsesAreReadEntirelyBeforeTheRecordsAreTaken() throws Exception {
+        TestStream stream = new TestStream(Map.of(
+            BASE + "?verb=ListRecords&metadataPrefix=oai_dc",
+            response("<ListRecords>" + record("oai:example.org:1") + record("oai:example.org:2")
+                         + record("oai:example.org:3") + "</ListRecords>")),
+            null, null, null, "oai_dc");
+        stream.start();
+
+        // only one record is read ahead, yet the connection is released at once
+        assertTrue(stream.closed.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("oai:example.org:1", "oai:example.org:2", "oai:example.org:3"), takeAll(stream));
+        stream.close();
+    }
+
+    @Test
+    public void largeResponsesAreReadFromATemporaryFile() throws Exception {
+        TestStream stream = new TestStream(Map.of(
+            BASE + "?verb=ListRecords&metadataPrefix=oai_dc",
+            response("<ListRecords>" + record("oai:example.org:1") + record("oai:example.org:2")
+                         + "<resumptionToken>token</resumptionToken></ListRecords>"),
+            BASE + "?verb=ListRecords&resumptionToken=token",
+            response("<ListRecords>" + record("oai:example.org:3") + "</ListRecords>")),
+            null, null, null, "oai_dc") {
+            @Override
+            protected int getSpoolThreshold() {
+                return 16;
+            }
+        };
+        stream.start();
+
+        assertEquals(List.of("oai:example.org:1", "oai:example.org:2", "oai:example.org:3"), takeAll(stream));
+        assertEquals(2, stream.getPageCount());
+        stream.close();
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void requestFailuresAreThrown() throws Exception {
+        TestStream stream = new TestStream(Map.of(), null, null, null, "oai_dc");
+        stream.start();
+        try {
+            stream.take();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * @return the identifiers of the records left in the stream
+     */
+    private static List<String> takeAll(ListRecordsStream stream) throws Exception {
+        List<String> identifiers = new ArrayList<>();
+        Element record;
+        while ((record = stream.take()) != null) {
+            if (record != ListRecordsStream.PAGE_END) {
+                identifiers.add(record.getChild("header", OAI_NS).getChildText("identifier", OAI_NS));
+            }
+        }
+        return identifiers;
+    }
+
+    private static String response(String content) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<OAI-PMH xmlns=\"http://www.openarchives.org/OAI/2.0/\">"
+            + "<responseDate>2022-10-18T12:00:00Z</responseDate>"
+            + "<request verb=\"ListRecords\">" + BASE + "</request>"
+            + content + "</OAI-PMH>";
+    }
+
+    private static String record(String identifier) {
+        return "<record><header><identifier>" + identifier + "</identifier>"
+            + "<datestamp>2022-10-18T12:00:00Z</datestamp></header><metadata>"
+            + "<oai_dc:dc xmlns:oai_dc=\"http://www.openarchives.org/OAI/2.0/oai_dc/\""
+            + " xmlns:dc=\"http://purl.org/dc/elements/1.1/\">"
+            + "<dc:title>Title of " + identifier + "</dc:title></oai_dc:dc></metadata></record>";
+    }
+
+    /**
+     * Stream answering the requests from canned responses, by request URL
+     */
+    private static class TestStream extends ListRecordsStream {
+        private final Map<String, String> responses;
+        // counted down when the first response is closed
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        TestStream(Map<String, String> responses, String from, String until, String set, String metadataPrefix) {
+            super(BASE, from, until, set, metadataPrefix, 1);
+            this.responses = responses;
+        }
+
+        @Override
+        protected InputStream open(String url) throws IOException {
+            String response = responses.get(url);
+            if (response == null) {
+                throw new FileNotFoundException(url);
+            }
+            return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    closed.countDown();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.harvest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jdom2.Element;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link RecordIngestWorkers}, with ingesters recording the records they are given.
+ */
+public class RecordIngestWorkersTest {
+
+    private static final int RECORDS = 200;
+
+    private final Map<String, List<Long>> ingested = new ConcurrentHashMap<>();
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Test(timeout = 30000)
+    public void recordsAreIngestedInOrderOfTheirIdentifier() throws Exception {
+        RecordIngestWorkers workers = new RecordIngestWorkers(4, () -> new TestIngester(-1));
+        for (int i = 1; i <= RECORDS; i++) {
+            assertTrue(workers.add(oaiId(i), new Element("record"), i, RECORDS));
+        }
+
+        assertNull(workers.finish());
+        int total = 0;
+        for (List<Long> indexes : ingested.values()) {
+            List<Long> sorted = new ArrayList<>(indexes);
+            Collections.sort(sorted);
+            assertEquals(sorted, indexes);
+            total += indexes.size();
+        }
+        assertEquals(RECORDS, total);
+        assertEquals(4, completed.get());
+        assertEquals(4, closed.get());
+    }
+
+    @Test(timeout = 30000)
+    public void failingRecordStopsTheIngest() throws Exception {
+        RecordIngestWorkers workers = new RecordIngestWorkers(4, () -> new TestIngester(50));
+        boolean refused = false;
+        for (int i = 1; i <= RECORDS && !refused; i++) {
+            refused = !workers.add(oaiId(i), new Element("record"), i, RECORDS);
+        }
+
+        Exception failure = workers.finish();
+        assertNotNull(failure);
+        assertEquals("Record 50", failure.getMessage());
+        assertFalse(workers.add(oaiId(1), new Element("record"), RECORDS + 1, RECORDS));
+        assertEquals(4, closed.get());
+    }
+
+    @Test(timeout = 30000)
+    public void failingWorkerDoesNotBlockTheHarvest() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        RecordIngestWorkers workers = new RecordIngestWorkers(4, () -> {
+            if (created.incrementAndGet() == 2) {
+                throw new SQLException("No connection available");
+            }
+            return new TestIngester(-1);
+        });
+        // adding the records until refused, without waiting for the failure: the records of the failed worker
+        // are skipped rather than left in its queue
+        for (int i = 1; i <= RECORDS; i++) {
+            workers.add(oaiId(i), new Element("record"), i, RECORDS);
+        }
+
+        Exception failure = workers.finish();
+        assertNotNull(failure);
+        assertEquals("No connection available", failure.getMessage());
+        assertEquals(3, closed.get());
+    }
+
+    @Test(timeout = 30000)
+    public void errorOfAWorkerIsReported() throws Exception {
+        RecordIngestWorkers workers = new RecordIngestWorkers(2, () -> new TestIngester(-1) {
+            @Override
+            public void ingest(Element record, long index, long totalListSize) {
+                throw new OutOfMemoryError("Record " + index);
+            }
+        });
+        for (int i = 1; i <= RECORDS; i++) {
+            workers.add(oaiId(i), new Element("record"), i, RECORDS);
+        }
+
+        Exception failure = workers.finish();
+        assertNotNull(failure);
+        assertTrue(failure.getCause() instanceof OutOfMemoryError);
+    }
+
+    private static String oaiId(int i) {
+        // a few records per identifier
+        return "oai:example.org:" + (i % 40);
+    }
+
+    private class TestIngester implements RecordIngestWorkers.Ingester {
+
+        private final long failingIndex;
+
+        TestIngester(long failingIndex) {
+            this.failingIndex = failingIndex;
+        }
+
+        @Override
+        public void ingest(Element record, long index, long totalListSize) throws Exception {
+            if (index == failingIndex) {
+                throw new Exception("Record " + index);
+            }
+            ingested.computeIfAbsent(oaiId((int) index), id -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(index);
+        }
+
+        @Override
+        public void complete() {
+            completed.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
@@ -546,6 +546,58 @@ public class CanvasDimensionsIT extends AbstractIntegrationTestWithDatabase  {
 
     }
 
+    @Test
+    public void processCollectionWithThreads() throws Exception {
+        context.turnOffAuthorisationSystem();
+        // Create new Items, the first one with two images
+        iiifItem = ItemBuilder.createItem(context, col1)
+                              .withTitle("Test Item")
+                              .withIssueDate("2017-10-17")
+                              .enableIIIF()
+                              .build();
+        iiifItem2 = ItemBuilder.createItem(context, col1)
+                               .withTitle("Test Item2")
+                               .withIssueDate("2017-10-17")
+                               .enableIIIF()
+                               .build();
+
+        // Add jpeg image bitstreams (300 x 200)
+        InputStream input = this.getClass().getResourceAsStream("cat.jpg");
+        bitstream = BitstreamBuilder
+            .createBitstream(context, iiifItem, input)
+            .withName("Bitstream1.jpg")
+            .withMimeType("image/jpeg")
+            .build();
+        input = this.getClass().getResourceAsStream("cat.jpg");
+        Bitstream bitstream3 = BitstreamBuilder
+            .createBitstream(context, iiifItem, input)
+            .withName("Bitstream3.jpg")
+            .withMimeType("image/jpeg")
+            .build();
+        input = this.getClass().getResourceAsStream("cat.jpg");
+        bitstream2 = BitstreamBuilder
+            .createBitstream(context, iiifItem2, input)
+            .withName("Bitstream2.jpg")
+            .withMimeType("image/jpeg")
+            .build();
+        context.restoreAuthSystemState();
+
+        String id = col1.getID().toString();
+        runDSpaceScript("iiif-canvas-dimensions", "-e", "admin@email.com", "-i", id, "-t", "2");
+
+        // All bitstreams should be updated with canvas metadata.
+        for (Bitstream bit : new Bitstream[] {bitstream, bitstream2, bitstream3}) {
+            assertTrue(bit.getMetadata().stream()
+                          .filter(m -> m.getMetadataField().toString('.').contentEquals(METADATA_IIIF_HEIGHT))
+                          .anyMatch(m -> m.getValue().contentEquals("400")));
+            assertTrue(bit.getMetadata().stream()
+                          .filter(m -> m.getMetadataField().toString('.').contentEquals(METADATA_IIIF_WIDTH))
+                          .anyMatch(m -> m.getValue().contentEquals("600")));
+        }
+        Pattern regex = Pattern.compile(".*2 IIIF items were processed", Pattern.DOTALL);
+        assertTrue(regex.matcher(StringUtils.chomp(outContent.toString())).find());
+    }
+
     private void execCanvasScript(String id) throws Exception {
         runDSpaceScript("iiif-canvas-dimensions", "-e", "admin@email.com", "-i", id);
     }
@@ -0,0 +1,109 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.iiif.canvasdimension;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link ImageDimensionReader}, with images generated in memory.
+ */
+public class ImageDimensionReaderTest {
+
+    @Test
+    public void readsPngDimensions() throws Exception {
+        assertArrayEquals(new int[] {1300, 1250}, read(encode("png", 1300, 1250)));
+    }
+
+    @Test
+    public void readsJpegDimensions() throws Exception {
+        assertArrayEquals(new int[] {1280, 1600}, read(encode("jpeg", 1280, 1600)));
+    }
+
+    @Test
+    public void readsTiffDimensions() throws Exception {
+        assertArrayEquals(new int[] {1500, 1200}, read(encode("tiff", 1500, 1200)));
+    }
+
+    @Test
+    public void smallImageDimensionsAreDoubled() throws Exception {
+        assertArrayEquals(new int[] {600, 400}, read(encode("png", 300, 200)));
+    }
+
+    @Test
+    public void readsJp2HeaderDimensions() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        // signature box
+        out.write(new byte[] {0, 0, 0, 0x0C, 'j', 'P', ' ', ' ', 0x0D, 0x0A, (byte) 0x87, 0x0A});
+        // file type box
+        writeBoxHeader(out, 20, "ftyp");
+        out.write("jp2 ".getBytes(StandardCharsets.US_ASCII));
+        out.writeInt(0);
+        out.write("jp2 ".getBytes(StandardCharsets.US_ASCII));
+        // header box, with an image header box: height, width, components, bpc, compression, colorspace flags
+        writeBoxHeader(out, 8 + 22, "jp2h");
+        writeBoxHeader(out, 22, "ihdr");
+        out.writeInt(4800);
+        out.writeInt(3600);
+        out.writeShort(3);
+        out.write(new byte[] {7, 7, 0, 0});
+        // codestream box, whose content must not be needed
+        writeBoxHeader(out, 0, "jp2c");
+        out.writeShort(0xFF4F);
+
+        assertArrayEquals(new int[] {3600, 4800}, read(bytes.toByteArray()));
+    }
+
+    @Test
+    public void readsJ2kCodestreamDimensions() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        // SOC, then SIZ: length, capabilities, reference grid size and image offset
+        out.writeShort(0xFF4F);
+        out.writeShort(0xFF51);
+        out.writeShort(41);
+        out.writeShort(0);
+        out.writeInt(2100);
+        out.writeInt(3100);
+        out.writeInt(100);
+        out.writeInt(100);
+
+        assertArrayEquals(new int[] {2000, 3000}, read(bytes.toByteArray()));
+    }
+
+    @Test
+    public void unknownFormatHasNoDimensions() throws Exception {
+        assertNull(read("Not an image".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static int[] read(byte[] image) throws IOException {
+        return ImageDimensionReader.getImageDimensions(new ByteArrayInputStream(image));
+    }
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+
+    private static void writeBoxHeader(DataOutputStream out, int length, String type) throws IOException {
+        out.writeInt(length);
+        out.write(type.getBytes(StandardCharsets.US_ASCII));
+    }
+}
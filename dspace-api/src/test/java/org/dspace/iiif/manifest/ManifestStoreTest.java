@@ -0,0 +1,97 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.iiif.manifest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link ManifestStore}
+ */
+public class ManifestStoreTest {
+
+    private static final String MANIFEST = "{\"@id\":\"manifest\",\"label\":\"Café\"}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ManifestStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new ManifestStore();
+        store.init(folder.newFolder("iiif-manifests"));
+    }
+
+    @Test
+    public void testManifestIsStored() throws Exception {
+        UUID item = UUID.randomUUID();
+        assertNull(store.get(item));
+        assertFalse(store.contains(item));
+
+        store.put(item, MANIFEST);
+
+        StoredManifest manifest = store.get(item);
+        assertNotNull(manifest);
+        assertTrue(store.contains(item));
+        assertEquals(MANIFEST, manifest.getJson());
+        assertTrue(manifest.getLastModified() > 0);
+    }
+
+    @Test
+    public void testSameManifestKeepsETag() throws Exception {
+        UUID item = UUID.randomUUID();
+        StoredManifest first = store.put(item, MANIFEST);
+        StoredManifest second = store.put(item, MANIFEST);
+
+        assertEquals(first.getETag(), second.getETag());
+        assertEquals(first.getLastModified(), second.getLastModified());
+
+        StoredManifest modified = store.put(item, MANIFEST.replace("manifest", "modified"));
+        assertNotEquals(first.getETag(), modified.getETag());
+        assertEquals(modified.getETag(), store.get(item).getETag());
+    }
+
+    @Test
+    public void testManifestsAreRemoved() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        store.put(first, MANIFEST);
+        store.put(second, MANIFEST);
+        store.put(third, MANIFEST);
+
+        store.remove(List.of(first));
+        assertNull(store.get(first));
+        assertNotNull(store.get(second));
+
+        store.removeAll();
+        assertNull(store.get(second));
+        assertNull(store.get(third));
+    }
+
+    @Test
+    public void testDisabledStore() throws Exception {
+        ManifestStore disabled = new ManifestStore();
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.get(UUID.randomUUID()));
+        assertFalse(disabled.contains(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.importer.external.liveimportclient.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicStatusLine;
+import org.dspace.services.ConfigurationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests of the response cache and statistics of {@link LiveImportClientImpl}.
+ */
+public class LiveImportClientImplTest {
+
+    private static final String URL = "https://api.example.org/works";
+
+    private LiveImportClientImpl liveImportClient;
+
+    private CloseableHttpClient httpClient;
+
+    @Before
+    public void setUp() throws Exception {
+        ConfigurationService configurationService = mock(ConfigurationService.class);
+        when(configurationService.getLongProperty(anyString(), anyLong()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
+        when(configurationService.getIntProperty(anyString(), anyInt()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
+        when(configurationService.getLongProperty(eq("importer.cache.ttl.crossref"), anyLong())).thenReturn(60L);
+
+        liveImportClient = new LiveImportClientImpl();
+        ReflectionTestUtils.setField(liveImportClient, "configurationService", configurationService);
+
+        httpClient = mock(CloseableHttpClient.class);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> response(200, "response"));
+        liveImportClient.setHttpClient(httpClient);
+    }
+
+    @Test
+    public void responsesAreCachedBySourceAndUrl() throws Exception {
+        assertEquals("response", liveImportClient.executeHttpGetRequest("crossref", 1000, URL, params("a")));
+        assertEquals("response", liveImportClient.executeHttpGetRequest("crossref", 1000, URL, params("a")));
+        assertEquals("response", liveImportClient.executeHttpGetRequest("crossref", 1000, URL, params("b")));
+        verify(httpClient, times(2)).execute(any(HttpUriRequest.class));
+
+        LiveImportStatistics statistics = liveImportClient.getStatistics().get("crossref");
+        assertEquals(3, statistics.getRequestCount());
+        assertEquals(1, statistics.getCacheHitCount());
+        assertEquals(0, statistics.getErrorCount());
+    }
+
+    @Test
+    public void responsesAreNotCachedWithoutTtl() throws Exception {
+        liveImportClient.executeHttpGetRequest("pubmed", 1000, URL, params("a"));
+        liveImportClient.executeHttpGetRequest("pubmed", 1000, URL, params("a"));
+        verify(httpClient, times(2)).execute(any(HttpUriRequest.class));
+        assertEquals(0, liveImportClient.getStatistics().get("pubmed").getCacheHitCount());
+    }
+
+    @Test
+    public void failuresAreNotCached() throws Exception {
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> response(500, "error"));
+        assertEquals("", liveImportClient.executeHttpGetRequest("crossref", 1000, URL, params("a")));
+        assertEquals("", liveImportClient.executeHttpGetRequest("crossref", 1000, URL, params("a")));
+        verify(httpClient, times(2)).execute(any(HttpUriRequest.class));
+        assertEquals(2, liveImportClient.getStatistics().get("crossref").getErrorCount());
+    }
+
+    @Test
+    public void settingTheClientClearsTheCache() throws Exception {
+        liveImportClient.executeHttpGetRequest("crossref", 1000, URL, params("a"));
+        CloseableHttpClient otherClient = mock(CloseableHttpClient.class);
+        when(otherClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> response(200, "other"));
+        liveImportClient.setHttpClient(otherClient);
+
+        assertEquals("other", liveImportClient.executeHttpGetRequest("crossref", 1000, URL, params("a")));
+    }
+
+    @Test
+    public void requestsWithoutSourceAreAccountedToTheHost() throws Exception {
+        liveImportClient.executeHttpGetRequest(1000, URL, params("a"));
+        assertEquals(1, liveImportClient.getStatistics().get("api.example.org").getRequestCount());
+    }
+
+    private static Map<String, Map<String, String>> params(String query) {
+        Map<String, String> uriParams = new HashMap<>();
+        uriParams.put("query", query);
+        Map<String, Map<String, String>> params = new HashMap<>();
+        params.put(LiveImportClientImpl.URI_PARAMETERS, uriParams);
+        return params;
+    }
+
+    private static CloseableHttpResponse response(int statusCode, String content) {
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream(content.getBytes(Charset.defaultCharset())));
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, "reason"));
+        when(response.getEntity()).thenReturn(entity);
+        return response;
+    }
+}
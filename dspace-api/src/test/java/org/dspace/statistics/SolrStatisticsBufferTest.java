@@ -0,0 +1,165 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * Unit tests for {@link SolrStatisticsBuffer}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SolrStatisticsBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private SolrClient solr;
+
+    private final List<Object> sent = new ArrayList<>();
+    private SolrStatisticsBuffer buffer;
+
+    @After
+    public void tearDown() throws Exception {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    public void testEventsAreSentInBatches() throws Exception {
+        recordSentEvents();
+        buffer = buffer(100, 3, 60000, SolrStatisticsBuffer.OverflowPolicy.DROP);
+        for (int i = 0; i < 3; i++) {
+            buffer.add(event(i));
+        }
+        buffer.start();
+
+        verify(solr, timeout(5000)).add(anyCollection());
+        assertThat(sentIds(), contains("0", "1", "2"));
+        assertThat(buffer.getEventsSent(), is(3L));
+        assertThat(buffer.getQueueDepth(), is(0));
+    }
+
+    @Test
+    public void testEventsAreSentAfterFlushInterval() throws Exception {
+        recordSentEvents();
+        buffer = buffer(100, 50, 50, SolrStatisticsBuffer.OverflowPolicy.DROP);
+        buffer.start();
+        buffer.add(event(1));
+
+        verify(solr, timeout(5000)).add(anyCollection());
+        assertThat(sentIds(), contains("1"));
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenFull() throws Exception {
+        buffer = buffer(2, 2, 60000, SolrStatisticsBuffer.OverflowPolicy.DROP);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(event(i));
+        }
+
+        assertThat(buffer.getEventsReceived(), is(5L));
+        assertThat(buffer.getEventsDropped(), is(3L));
+        assertThat(buffer.getQueueDepth(), is(2));
+        verify(solr, never()).add(anyCollection());
+    }
+
+    @Test
+    public void testSpilledEventsAreSentLater() throws Exception {
+        recordSentEvents();
+        buffer = buffer(2, 2, 50, SolrStatisticsBuffer.OverflowPolicy.SPILL);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(event(i));
+        }
+        assertThat(buffer.getEventsDropped(), is(0L));
+        assertThat(buffer.getEventsSpilled(), is(3L));
+        assertThat(buffer.getSpillFiles(), is(1));
+
+        buffer.start();
+        waitUntilSent(5);
+        assertThat(buffer.getSpillFiles(), is(0));
+    }
+
+    @Test
+    public void testFailedBatchIsSpilled() throws Exception {
+        when(solr.add(anyCollection())).thenThrow(new IOException("Simulated failure")).thenAnswer(invocation -> {
+            sent.addAll(invocation.getArgument(0));
+            return null;
+        });
+        buffer = buffer(10, 2, 50, SolrStatisticsBuffer.OverflowPolicy.SPILL);
+        buffer.add(event(1));
+        buffer.add(event(2));
+        buffer.start();
+
+        waitUntilSent(2);
+        assertThat(buffer.getFailedFlushCount(), is(1L));
+        assertThat(buffer.getEventsSpilled(), is(2L));
+        assertThat(buffer.getEventsDropped(), is(0L));
+    }
+
+    private SolrStatisticsBuffer buffer(int capacity, int batchSize, long flushInterval,
+                                        SolrStatisticsBuffer.OverflowPolicy overflowPolicy) {
+        return new SolrStatisticsBuffer(solr, capacity, batchSize, flushInterval, overflowPolicy,
+                                        new File(folder.getRoot(), "spill"), false);
+    }
+
+    private void recordSentEvents() throws Exception {
+        when(solr.add(anyCollection())).thenAnswer(invocation -> {
+            synchronized (sent) {
+                sent.addAll((Collection<?>) invocation.getArgument(0));
+            }
+            return null;
+        });
+    }
+
+    private void waitUntilSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (buffer.getEventsSent() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(buffer.getEventsSent(), is((long) count));
+    }
+
+    private List<Object> sentIds() {
+        synchronized (sent) {
+            return sent.stream().map(event -> ((SolrInputDocument) event).getFieldValue("uid"))
+                       .collect(Collectors.toList());
+        }
+    }
+
+    private SolrInputDocument event(int id) {
+        SolrInputDocument document = new SolrInputDocument();
+        document.addField("uid", String.valueOf(id));
+        return document;
+    }
+}
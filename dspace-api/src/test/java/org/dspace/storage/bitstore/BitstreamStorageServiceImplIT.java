@@ -0,0 +1,109 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.storage.bitstore;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.BitstreamService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.storage.bitstore.factory.StorageServiceFactory;
+import org.dspace.storage.bitstore.service.BitstreamStorageService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Integration tests of the cleanup of {@link BitstreamStorageServiceImpl} with a content-addressed store.
+ */
+public class BitstreamStorageServiceImplIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final byte[] CONTENT = "Shared content".getBytes(StandardCharsets.UTF_8);
+
+    private final BitstreamStorageService bitstreamStorageService =
+        StorageServiceFactory.getInstance().getBitstreamStorageService();
+
+    private final BitstreamService bitstreamService = ContentServiceFactory.getInstance().getBitstreamService();
+
+    private DSBitStoreService localStore;
+
+    private Item item;
+
+    @Before
+    public void setUp() throws Exception {
+        localStore = DSpaceServicesFactory.getInstance().getServiceManager()
+                                          .getServiceByName("localStore", DSBitStoreService.class);
+        localStore.setContentAddressed(true);
+
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).withName("Parent Community").build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        item = ItemBuilder.createItem(context, collection).withTitle("Item").build();
+        context.restoreAuthSystemState();
+    }
+
+    @After
+    @Override
+    public void destroy() throws Exception {
+        localStore.setContentAddressed(false);
+        super.destroy();
+    }
+
+    @Test
+    public void testCleanupKeepsFileSharedWithBitstreamBeingStored() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Bitstream deleted = BitstreamBuilder.createBitstream(context, item, new ByteArrayInputStream(CONTENT))
+                                            .build();
+        bitstreamService.delete(context, deleted);
+        context.commit();
+
+        // Stored with the same content, and not committed while the cleanup runs (in a context of its own), long
+        // after the file was stored
+        Bitstream stored = bitstreamService.create(context, new ByteArrayInputStream(CONTENT));
+        assertThat(stored.getInternalId(), is(deleted.getInternalId()));
+        localStore.getLocalFile(stored).setLastModified(0);
+
+        bitstreamStorageService.cleanup(true, false);
+
+        assertThat(read(stored), equalTo(CONTENT));
+
+        // Once the bitstream is committed then deleted, the file goes with it
+        context.commit();
+        stored = context.reloadEntity(stored);
+        bitstreamService.delete(context, stored);
+        context.commit();
+        localStore.getLocalFile(stored).setLastModified(0);
+        context.restoreAuthSystemState();
+
+        bitstreamStorageService.cleanup(true, false);
+
+        assertThat(localStore.getLocalFile(stored), nullValue());
+    }
+
+    private byte[] read(Bitstream bitstream) throws Exception {
+        try (InputStream in = bitstreamStorageService.retrieve(context, bitstream)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+}
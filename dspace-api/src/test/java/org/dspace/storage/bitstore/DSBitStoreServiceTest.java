@@ -0,0 +1,189 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.storage.bitstore;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.dspace.content.Bitstream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * Unit tests for {@link DSBitStoreService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DSBitStoreServiceTest {
+
+    private static final byte[] CONTENT = "Some content".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private Bitstream bitstream;
+
+    @Mock
+    private Bitstream otherBitstream;
+
+    private final Map<Bitstream, String> internalIds = new HashMap<>();
+
+    private DSBitStoreService store;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new DSBitStoreService();
+        store.setBaseDir(folder.getRoot());
+        store.init();
+        mockInternalId(bitstream, "11111111111111111111");
+        mockInternalId(otherBitstream, "22222222222222222222");
+    }
+
+    @Test
+    public void testPutUsesInternalId() throws Exception {
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+
+        assertThat(bitstream.getInternalId(), is("11111111111111111111"));
+        assertThat(read(bitstream), equalTo(CONTENT));
+        verify(bitstream).setChecksum(DigestUtils.md5Hex(CONTENT));
+        verify(bitstream).setSizeBytes(CONTENT.length);
+    }
+
+    @Test
+    public void testContentAddressedPutUsesDigestOfContent() throws Exception {
+        store.setContentAddressed(true);
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+
+        assertThat(bitstream.getInternalId(), is(DigestUtils.sha256Hex(CONTENT)));
+        assertThat(read(bitstream), equalTo(CONTENT));
+        verify(bitstream).setChecksum(DigestUtils.md5Hex(CONTENT));
+        verify(bitstream).setChecksumAlgorithm("MD5");
+        verify(bitstream).setSizeBytes(CONTENT.length);
+        assertThat(new File(folder.getRoot(), DSBitStoreService.INCOMING_DIR).listFiles(), arrayWithSize(0));
+    }
+
+    @Test
+    public void testContentAddressedPutSharesIdenticalContent() throws Exception {
+        store.setContentAddressed(true);
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+        store.put(otherBitstream, new ByteArrayInputStream(CONTENT));
+
+        assertThat(otherBitstream.getInternalId(), is(bitstream.getInternalId()));
+        assertThat(read(otherBitstream), equalTo(CONTENT));
+        // Both bitstreams reference the file until they are committed
+        assertThat(store.getPendingBitstreams(), containsInAnyOrder(bitstream.getID(), otherBitstream.getID()));
+        assertThat(new File(folder.getRoot(), DSBitStoreService.INCOMING_DIR).listFiles(), arrayWithSize(0));
+    }
+
+    @Test
+    public void testFileSharedByBitstreamBeingStoredIsKept() throws Exception {
+        store.setContentAddressed(true);
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+        store.releasePendingBitstreams(List.of(bitstream.getID()));
+        File file = store.getFile(bitstream);
+
+        // the first bitstream is deleted, while another one with the same content is being stored
+        store.put(otherBitstream, new ByteArrayInputStream(CONTENT));
+        assertThat(store.removeIfUnreferenced(bitstream), is(false));
+        assertThat(file.exists(), is(true));
+
+        // once committed, the database alone tells whether the file is referenced
+        store.releasePendingBitstreams(List.of(otherBitstream.getID()));
+        assertThat(store.getPendingBitstreams(), empty());
+        assertThat(store.removeIfUnreferenced(otherBitstream), is(true));
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void testRemoveIfUnreferencedWithoutReferences() throws Exception {
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+        File file = store.getFile(bitstream);
+
+        assertThat(store.getPendingBitstreams(), empty());
+        assertThat(store.removeIfUnreferenced(bitstream), is(true));
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void testContentAddressedPutKeepsDifferentContentApart() throws Exception {
+        store.setContentAddressed(true);
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+        store.put(otherBitstream, new ByteArrayInputStream("Other content".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(otherBitstream.getInternalId(), not(bitstream.getInternalId()));
+        assertThat(read(bitstream), equalTo(CONTENT));
+    }
+
+    @Test
+    public void testRangedGet() throws Exception {
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+
+        try (InputStream in = store.get(bitstream, 5, 3)) {
+            assertThat(IOUtils.toByteArray(in), equalTo("con".getBytes(StandardCharsets.UTF_8)));
+        }
+        try (InputStream in = store.get(bitstream, 5, 100)) {
+            assertThat(IOUtils.toByteArray(in), equalTo("content".getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRangedGetBeyondEnd() throws Exception {
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+        store.get(bitstream, CONTENT.length + 1, 1);
+    }
+
+    @Test
+    public void testGetLocalFile() throws Exception {
+        assertThat(store.getLocalFile(bitstream), nullValue());
+
+        store.put(bitstream, new ByteArrayInputStream(CONTENT));
+        assertThat(store.getLocalFile(bitstream), equalTo(store.getFile(bitstream)));
+    }
+
+    private byte[] read(Bitstream bitstream) throws Exception {
+        try (InputStream in = store.get(bitstream)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private void mockInternalId(Bitstream bitstream, String internalId) {
+        lenient().when(bitstream.getID()).thenReturn(UUID.randomUUID());
+        internalIds.put(bitstream, internalId);
+        when(bitstream.getInternalId()).thenAnswer(invocation -> internalIds.get(bitstream));
+        doAnswer(invocation -> internalIds.put(bitstream, invocation.getArgument(0)))
+            .when(bitstream).setInternalId(anyString());
+    }
+}
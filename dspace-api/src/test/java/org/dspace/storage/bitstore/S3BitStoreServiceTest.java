@@ -15,26 +15,35 @@ import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
-import com.amazonaws.services.s3.transfer.TransferManager;
-import com.amazonaws.services.s3.transfer.Upload;
-import com.amazonaws.services.s3.transfer.model.UploadResult;
-import org.apache.commons.io.FileUtils;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
 import org.dspace.AbstractUnitTest;
 import org.dspace.content.Bitstream;
-import org.dspace.curate.Utils;
 import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,15 +66,12 @@ public class S3BitStoreServiceTest extends AbstractUnitTest {
     @Mock
     private AmazonS3Client s3Service;
 
-    @Mock
-    private TransferManager tm;
-
     @Mock
     private Bitstream bitstream;
 
     @Before
     public void setUp() throws Exception {
-        this.s3BitStoreService = new S3BitStoreService(s3Service, tm);
+        this.s3BitStoreService = new S3BitStoreService(s3Service);
     }
 
     private Supplier<AmazonS3> mockedServiceSupplier() {
@@ -357,93 +363,257 @@ public class S3BitStoreServiceTest extends AbstractUnitTest {
     }
 
     @Test
-    public void givenBitStreamWhenPutThenCallS3PutMethodAndStoresInBitStream() throws Exception {
+    public void givenSmallBitStreamWhenPutThenCallS3PutMethodAndStoresInBitStream() throws Exception {
         String bucketName = "BucketTest";
         String bitStreamId = "BitStreamId";
         this.s3BitStoreService.setBucketName(bucketName);
         this.s3BitStoreService.setUseRelativePath(false);
         when(bitstream.getInternalId()).thenReturn(bitStreamId);
+        byte[] content = content(1024);
+        Map<String, byte[]> objects = storeObjects();
 
-        File file = Mockito.mock(File.class);
-        InputStream in = Mockito.mock(InputStream.class);
-        PutObjectResult putObjectResult = Mockito.mock(PutObjectResult.class);
-        Upload upload = Mockito.mock(Upload.class);
-        UploadResult uploadResult = Mockito.mock(UploadResult.class);
-        when(upload.waitForUploadResult()).thenReturn(uploadResult);
-        String mockedTag = "1a7771d5fdd7bfdfc84033c70b1ba555";
-        when(file.length()).thenReturn(8L);
-        try (MockedStatic<File> fileMock = Mockito.mockStatic(File.class)) {
-            try (MockedStatic<FileUtils> fileUtilsMock = Mockito.mockStatic(FileUtils.class)) {
-                try (MockedStatic<Utils> curateUtils = Mockito.mockStatic(Utils.class)) {
-                    curateUtils.when(() -> Utils.checksum((File) ArgumentMatchers.any(), ArgumentMatchers.any()))
-                            .thenReturn(mockedTag);
-
-                fileMock
-                    .when(() -> File.createTempFile(ArgumentMatchers.any(), ArgumentMatchers.any()))
-                    .thenReturn(file);
-
-                when(this.tm.upload(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
-                        .thenReturn(upload);
-
-                this.s3BitStoreService.init();
-                this.s3BitStoreService.put(bitstream, in);
-                }
-            }
+        this.s3BitStoreService.init();
+        this.s3BitStoreService.put(bitstream, new ByteArrayInputStream(content));
+
+        assertThat(objects.get(bitStreamId), equalTo(content));
+        verify(this.bitstream, Mockito.times(1)).setSizeBytes(ArgumentMatchers.eq(1024L));
+        verify(this.bitstream, Mockito.times(1)).setChecksum(ArgumentMatchers.eq(DigestUtils.md5Hex(content)));
+        verify(this.bitstream, Mockito.times(1)).setChecksumAlgorithm(ArgumentMatchers.eq("MD5"));
+        verify(this.s3Service, Mockito.never())
+            .initiateMultipartUpload(ArgumentMatchers.any(InitiateMultipartUploadRequest.class));
+    }
 
+    @Test
+    public void givenLargeBitStreamWhenPutThenUploadsPartsAndStoresChecksumInBitStream() throws Exception {
+        String bucketName = "BucketTest";
+        String bitStreamId = "BitStreamId";
+        this.s3BitStoreService.setBucketName(bucketName);
+        this.s3BitStoreService.setUseRelativePath(false);
+        this.s3BitStoreService.setPartSize(S3BitStoreService.MIN_PART_SIZE);
+        this.s3BitStoreService.setUploadConcurrency(2);
+        when(bitstream.getInternalId()).thenReturn(bitStreamId);
+        byte[] content = content((int) (2 * S3BitStoreService.MIN_PART_SIZE + 1000));
+        Map<Integer, byte[]> parts = storeParts();
+        when(this.s3Service.completeMultipartUpload(ArgumentMatchers.any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(new CompleteMultipartUploadResult());
+
+        this.s3BitStoreService.init();
+        this.s3BitStoreService.put(bitstream, new ByteArrayInputStream(content));
+
+        verify(this.s3Service).initiateMultipartUpload(
+            ArgumentMatchers.argThat(request ->
+                bucketName.equals(request.getBucketName()) && bitStreamId.equals(request.getKey())));
+        verify(this.s3Service).completeMultipartUpload(
+            ArgumentMatchers.argThat(request ->
+                "uploadId".equals(request.getUploadId()) && request.getPartETags().size() == 3 &&
+                request.getPartETags().get(2).getPartNumber() == 3));
+        verify(this.s3Service, Mockito.never()).putObject(ArgumentMatchers.any(PutObjectRequest.class));
+
+        ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+        for (int partNumber = 1; partNumber <= parts.size(); partNumber++) {
+            assembled.write(parts.get(partNumber));
         }
+        assertThat(assembled.toByteArray(), equalTo(content));
+        verify(this.bitstream, Mockito.times(1)).setSizeBytes(ArgumentMatchers.eq((long) content.length));
+        verify(this.bitstream, Mockito.times(1)).setChecksum(ArgumentMatchers.eq(DigestUtils.md5Hex(content)));
+    }
 
-        verify(this.bitstream, Mockito.times(1)).setSizeBytes(
-                ArgumentMatchers.eq(8L)
-         );
+    @Test
+    public void givenPartUploadFailureWhenPutThenUploadIsAbortedAndNothingStoredInBitStream() throws Exception {
+        String bucketName = "BucketTest";
+        String bitStreamId = "BitStreamId";
+        this.s3BitStoreService.setBucketName(bucketName);
+        this.s3BitStoreService.setUseRelativePath(false);
+        this.s3BitStoreService.setPartSize(S3BitStoreService.MIN_PART_SIZE);
+        when(bitstream.getInternalId()).thenReturn(bitStreamId);
+        when(this.s3Service.initiateMultipartUpload(ArgumentMatchers.any(InitiateMultipartUploadRequest.class)))
+            .thenReturn(initiateResult());
+        when(this.s3Service.uploadPart(ArgumentMatchers.any(UploadPartRequest.class)))
+            .thenThrow(new AmazonClientException("Simulated failure"));
 
-        verify(this.bitstream, Mockito.times(1)).setChecksum(
-                ArgumentMatchers.eq(mockedTag)
-         );
+        this.s3BitStoreService.init();
+        InputStream in = new ByteArrayInputStream(content((int) (2 * S3BitStoreService.MIN_PART_SIZE)));
+        assertThrows(IOException.class, () -> this.s3BitStoreService.put(bitstream, in));
 
-        verify(this.tm, Mockito.times(1)).upload(
-            ArgumentMatchers.eq(bucketName),
-            ArgumentMatchers.eq(bitStreamId),
-            ArgumentMatchers.eq(file)
-         );
+        verify(this.s3Service).abortMultipartUpload(
+            ArgumentMatchers.argThat(request -> "uploadId".equals(request.getUploadId())));
+        verify(this.s3Service, Mockito.never())
+            .completeMultipartUpload(ArgumentMatchers.any(CompleteMultipartUploadRequest.class));
+        verify(this.bitstream, Mockito.never()).setSizeBytes(ArgumentMatchers.any(Long.class));
+        verify(this.bitstream, Mockito.never()).setChecksum(ArgumentMatchers.any(String.class));
+    }
 
-        verify(file, Mockito.times(1)).delete();
+    @Test
+    public void givenPartNumberThenPartSizeDoublesUpToTheMaximum() {
+        assertThat(this.s3BitStoreService.partSizeOf(1), equalTo(8L * 1024 * 1024));
+        assertThat(this.s3BitStoreService.partSizeOf(S3BitStoreService.PARTS_PER_SIZE), equalTo(8L * 1024 * 1024));
+        assertThat(this.s3BitStoreService.partSizeOf(S3BitStoreService.PARTS_PER_SIZE + 1),
+                   equalTo(16L * 1024 * 1024));
+        assertThat(this.s3BitStoreService.partSizeOf(S3BitStoreService.MAX_PARTS),
+                   equalTo(S3BitStoreService.MAX_PART_SIZE));
+        assertThat(this.s3BitStoreService.partSizeOf(Integer.MAX_VALUE), equalTo(S3BitStoreService.MAX_PART_SIZE));
+
+        // the parts of an upload hold the largest object accepted by S3, whatever the configured part size
+        this.s3BitStoreService.setPartSize(S3BitStoreService.MIN_PART_SIZE);
+        long capacity = 0;
+        for (int partNumber = 1; partNumber <= S3BitStoreService.MAX_PARTS; partNumber++) {
+            capacity += this.s3BitStoreService.partSizeOf(partNumber);
+        }
+        assertThat(capacity > 5L * 1024 * 1024 * 1024 * 1024, equalTo(true));
+    }
 
+    @Test
+    public void givenStreamLongerThanMaxPartsOfTheFirstSizeWhenPutThenPartsGrow() throws Exception {
+        // the default part size scaled down to 16 bytes, growing as configured
+        S3BitStoreService scaledService = new S3BitStoreService(s3Service) {
+            @Override
+            protected long partSizeOf(int partNumber) {
+                return super.partSizeOf(partNumber) >> 19;
+            }
+        };
+        scaledService.setBucketName("BucketTest");
+        scaledService.setUseRelativePath(false);
+        when(bitstream.getInternalId()).thenReturn("BitStreamId");
+        byte[] content = content((S3BitStoreService.MAX_PARTS + 1) * 16);
+        Map<Integer, byte[]> parts = storeParts();
+        when(this.s3Service.completeMultipartUpload(ArgumentMatchers.any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(new CompleteMultipartUploadResult());
+
+        scaledService.init();
+        scaledService.put(bitstream, new ByteArrayInputStream(content));
+
+        assertThat(parts.size() < S3BitStoreService.MAX_PARTS, equalTo(true));
+        ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+        for (int partNumber = 1; partNumber <= parts.size(); partNumber++) {
+            if (partNumber < parts.size()) {
+                assertThat((long) parts.get(partNumber).length, equalTo(scaledService.partSizeOf(partNumber)));
+            }
+            assembled.write(parts.get(partNumber));
+        }
+        assertThat(assembled.toByteArray(), equalTo(content));
+        verify(this.s3Service).completeMultipartUpload(
+            ArgumentMatchers.argThat(request -> request.getPartETags().size() == parts.size()));
+        verify(this.bitstream, Mockito.times(1)).setSizeBytes(ArgumentMatchers.eq((long) content.length));
     }
 
     @Test
-    public void givenBitStreamWhenCallingPutFileCopyingThrowsIOExceptionPutThenFileIsRemovedAndStreamClosed()
-            throws Exception {
+    public void givenStreamLongerThanMaxPartsWhenPutThenUploadIsAborted() throws Exception {
+        // parts which don't grow
+        S3BitStoreService fixedService = new S3BitStoreService(s3Service) {
+            @Override
+            protected long partSizeOf(int partNumber) {
+                return 16;
+            }
+        };
+        fixedService.setBucketName("BucketTest");
+        fixedService.setUseRelativePath(false);
+        when(bitstream.getInternalId()).thenReturn("BitStreamId");
+        Map<Integer, byte[]> parts = storeParts();
+
+        fixedService.init();
+        InputStream in = new ByteArrayInputStream(content((S3BitStoreService.MAX_PARTS + 1) * 16));
+        assertThrows(IOException.class, () -> fixedService.put(bitstream, in));
+
+        assertThat(parts.keySet().stream().allMatch(partNumber -> partNumber <= S3BitStoreService.MAX_PARTS),
+                   equalTo(true));
+        verify(this.s3Service).abortMultipartUpload(
+            ArgumentMatchers.argThat(request -> "uploadId".equals(request.getUploadId())));
+        verify(this.s3Service, Mockito.never())
+            .completeMultipartUpload(ArgumentMatchers.any(CompleteMultipartUploadRequest.class));
+        verify(this.bitstream, Mockito.never()).setSizeBytes(ArgumentMatchers.any(Long.class));
+    }
+
+    @Test
+    public void givenBitStreamWhenReadingThrowsIOExceptionPutThenNothingIsStored() throws Exception {
         String bucketName = "BucketTest";
         String bitStreamId = "BitStreamId";
         this.s3BitStoreService.setBucketName(bucketName);
         this.s3BitStoreService.setUseRelativePath(false);
         when(bitstream.getInternalId()).thenReturn(bitStreamId);
 
-        File file = Mockito.mock(File.class);
         InputStream in = Mockito.mock(InputStream.class);
-        try (MockedStatic<File> fileMock = Mockito.mockStatic(File.class)) {
-            try (MockedStatic<FileUtils> fileUtilsMock = Mockito.mockStatic(FileUtils.class)) {
-                fileUtilsMock
-                    .when(() -> FileUtils.copyInputStreamToFile(ArgumentMatchers.any(), ArgumentMatchers.any()))
-                    .thenThrow(IOException.class);
-                fileMock
-                    .when(() -> File.createTempFile(ArgumentMatchers.any(), ArgumentMatchers.any()))
-                    .thenReturn(file);
-
-                this.s3BitStoreService.init();
-                assertThrows(IOException.class, () -> this.s3BitStoreService.put(bitstream, in));
-            }
+        when(in.read(ArgumentMatchers.any(), ArgumentMatchers.anyInt(), ArgumentMatchers.anyInt()))
+            .thenThrow(IOException.class);
 
-        }
+        this.s3BitStoreService.init();
+        assertThrows(IOException.class, () -> this.s3BitStoreService.put(bitstream, in));
 
         verify(this.bitstream, Mockito.never()).setSizeBytes(ArgumentMatchers.any(Long.class));
 
         verify(this.bitstream, Mockito.never()).setChecksum(ArgumentMatchers.any(String.class));
 
         verify(this.s3Service, Mockito.never()).putObject(ArgumentMatchers.any(PutObjectRequest.class));
+    }
+
+    @Test
+    public void givenRangeWhenRetrievingFromS3ThenOnlyRequestsTheRange() throws IOException {
+        String bucketName = "BucketTest";
+        String bitStreamId = "BitStreamId";
+        this.s3BitStoreService.setBucketName(bucketName);
+        this.s3BitStoreService.setUseRelativePath(false);
+        when(bitstream.getInternalId()).thenReturn(bitStreamId);
+
+        S3Object object = Mockito.mock(S3Object.class);
+        S3ObjectInputStream inputStream = Mockito.mock(S3ObjectInputStream.class);
+        when(object.getObjectContent()).thenReturn(inputStream);
+        when(this.s3Service.getObject(ArgumentMatchers.any(GetObjectRequest.class))).thenReturn(object);
+
+        this.s3BitStoreService.init();
+        assertThat(this.s3BitStoreService.get(bitstream, 100, 50), Matchers.equalTo(inputStream));
+
+        verify(this.s3Service).getObject(
+                ArgumentMatchers.argThat(
+                    request ->
+                    bucketName.equals(request.getBucketName()) &&
+                    bitStreamId.equals(request.getKey()) &&
+                    request.getRange()[0] == 100 && request.getRange()[1] == 149
+                )
+        );
+    }
 
-        verify(file, Mockito.times(1)).delete();
+    private byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Make the mocked S3 service keep the objects stored with a single request
+     */
+    private Map<String, byte[]> storeObjects() {
+        Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        when(this.s3Service.putObject(ArgumentMatchers.any(PutObjectRequest.class))).thenAnswer(invocation -> {
+            PutObjectRequest request = invocation.getArgument(0);
+            objects.put(request.getKey(), IOUtils.toByteArray(request.getInputStream()));
+            return new PutObjectResult();
+        });
+        return objects;
+    }
+
+    /**
+     * Make the mocked S3 service keep the parts of multipart uploads, by part number
+     */
+    private Map<Integer, byte[]> storeParts() {
+        Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        when(this.s3Service.initiateMultipartUpload(ArgumentMatchers.any(InitiateMultipartUploadRequest.class)))
+            .thenReturn(initiateResult());
+        when(this.s3Service.uploadPart(ArgumentMatchers.any(UploadPartRequest.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            byte[] part = IOUtils.toByteArray(request.getInputStream());
+            assertThat((long) part.length, equalTo(request.getPartSize()));
+            parts.put(request.getPartNumber(), part);
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag(DigestUtils.md5Hex(part));
+            return result;
+        });
+        return parts;
+    }
 
+    private InitiateMultipartUploadResult initiateResult() {
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setUploadId("uploadId");
+        return result;
     }
 
     private int computeSlashes(String internalId) {
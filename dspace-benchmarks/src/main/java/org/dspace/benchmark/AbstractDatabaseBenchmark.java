@@ -0,0 +1,50 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.benchmark;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class of the benchmarks which need the DSpace kernel and a database. The test environment (H2 by default,
+ * see the db.* properties to use another database) is set up once per trial, as {@link
+ * AbstractIntegrationTestWithDatabase} does for a test class, and the fixtures of the benchmark are created with
+ * the builders of dspace-api.
+ * <p>
+ * The fixtures are not committed: they are removed, as by a test, when the trial ends.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractDatabaseBenchmark extends AbstractIntegrationTestWithDatabase {
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws Exception {
+        initTestEnvironment();
+        initDatabase();
+        setUp();
+        context.turnOffAuthorisationSystem();
+        createFixtures();
+        context.restoreAuthSystemState();
+    }
+
+    /**
+     * Create the objects the benchmark works on, with the authorisation system turned off.
+     *
+     * @throws Exception passed through.
+     */
+    protected abstract void createFixtures() throws Exception;
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws Exception {
+        destroy();
+        destroyTestEnvironment();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dspace.authorize.factory.AuthorizeServiceFactory;
+import org.dspace.authorize.service.AuthorizeService;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.GroupBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.core.Constants;
+import org.dspace.eperson.Group;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Authorization checks of a page of items and their bitstreams, as done when listing search results or converting
+ * items to REST: the checks one by one with {@link AuthorizeService#authorizeActionBoolean}, and the batch check
+ * of {@link AuthorizeService#filterAuthorized}.
+ * <p>
+ * The items can be written by a group the eperson belongs to; the anonymous user can only read them, the
+ * administrator can do anything.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizeBenchmark extends AbstractDatabaseBenchmark {
+
+    @Param({"anonymous", "eperson", "admin"})
+    public String user;
+
+    @Param({"20"})
+    public int items;
+
+    private AuthorizeService authorizeService;
+
+    private final List<Item> itemList = new ArrayList<>();
+
+    private final List<Bitstream> bitstreams = new ArrayList<>();
+
+    @Override
+    protected void createFixtures() throws Exception {
+        authorizeService = AuthorizeServiceFactory.getInstance().getAuthorizeService();
+        parentCommunity = CommunityBuilder.createCommunity(context).withName("Parent Community").build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity)
+                                                 .withName("Collection").build();
+        Group writers = GroupBuilder.createGroup(context).withName("Writers").addMember(eperson).build();
+        for (int i = 0; i < items; i++) {
+            Item item = ItemBuilder.createItem(context, collection).withTitle("Item " + i).build();
+            authorizeService.addPolicy(context, item, Constants.WRITE, writers);
+            itemList.add(item);
+            bitstreams.add(BitstreamBuilder.createBitstream(context, item, new ByteArrayInputStream(
+                ("Bitstream " + i).getBytes(StandardCharsets.UTF_8))).withName("bitstream" + i + ".txt").build());
+        }
+        switch (user) {
+            case "anonymous":
+                context.setCurrentUser(null);
+                break;
+            case "admin":
+                context.setCurrentUser(admin);
+                break;
+            default:
+                context.setCurrentUser(eperson);
+        }
+    }
+
+    @Benchmark
+    public void readItems(Blackhole blackhole) throws SQLException {
+        for (Item item : itemList) {
+            blackhole.consume(authorizeService.authorizeActionBoolean(context, item, Constants.READ));
+        }
+    }
+
+    @Benchmark
+    public void writeItems(Blackhole blackhole) throws SQLException {
+        for (Item item : itemList) {
+            blackhole.consume(authorizeService.authorizeActionBoolean(context, item, Constants.WRITE));
+        }
+    }
+
+    @Benchmark
+    public void readBitstreams(Blackhole blackhole) throws SQLException {
+        for (Bitstream bitstream : bitstreams) {
+            blackhole.consume(authorizeService.authorizeActionBoolean(context, bitstream, Constants.READ));
+        }
+    }
+
+    @Benchmark
+    public List<Bitstream> filterReadableBitstreams() throws SQLException {
+        return authorizeService.filterAuthorized(context, bitstreams, Constants.READ, true);
+    }
+}
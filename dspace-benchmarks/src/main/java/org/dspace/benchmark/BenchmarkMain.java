@@ -0,0 +1,47 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: runs the JMH benchmarks with the given JMH options, writing the results as JSON
+ * (to jmh-result.json, unless another result format or file is given) so runs can be compared.
+ * <p>
+ * The benchmarks which need a database run against the test environment unpacked to target/testing/dspace by the
+ * build. It is passed to the forked JVMs when dspace.dir isn't set and no -jvmArgsAppend option is given.
+ */
+public class BenchmarkMain {
+
+    private static final String TEST_ENVIRONMENT = "target/testing/dspace";
+
+    /**
+     * Default constructor
+     */
+    private BenchmarkMain() { }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf") && !options.contains("-rff")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        String dspaceDir = System.getProperty("dspace.dir");
+        if (dspaceDir == null && new File(TEST_ENVIRONMENT).isDirectory()) {
+            dspaceDir = new File(TEST_ENVIRONMENT).getAbsolutePath();
+        }
+        if (dspaceDir != null && !options.contains("-jvmArgsAppend")) {
+            options.add("-jvmArgsAppend");
+            options.add("-Ddspace.dir=" + dspaceDir);
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dspace.content.DCDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and formatting of the dates of Dublin Core values by {@link DCDate}, done for every date field when
+ * indexing, sorting and exporting items. The formats are tried in turn, so the coarser dates take longer to parse.
+ * It doesn't need the test environment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DCDateBenchmark {
+
+    @Param({"2022-10-18T12:30:45Z", "2022-10-18", "2022"})
+    public String date;
+
+    @Benchmark
+    public String parseAndFormat() {
+        return new DCDate(date).toString();
+    }
+}
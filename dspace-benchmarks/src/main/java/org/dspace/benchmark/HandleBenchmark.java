@@ -0,0 +1,73 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.benchmark;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.DSpaceObject;
+import org.dspace.handle.factory.HandleServiceFactory;
+import org.dspace.handle.service.HandleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Resolving the handles of many items, as done by the CSV and SAF imports: one by one with {@link
+ * HandleService#resolveToObject}, and at once with {@link HandleService#resolveToObjects}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandleBenchmark extends AbstractDatabaseBenchmark {
+
+    @Param({"100"})
+    public int items;
+
+    private HandleService handleService;
+
+    private final List<String> handles = new ArrayList<>();
+
+    @Override
+    protected void createFixtures() throws Exception {
+        handleService = HandleServiceFactory.getInstance().getHandleService();
+        parentCommunity = CommunityBuilder.createCommunity(context).withName("Parent Community").build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity)
+                                                 .withName("Collection").build();
+        for (int i = 0; i < items; i++) {
+            handles.add(ItemBuilder.createItem(context, collection).withTitle("Item " + i).build().getHandle());
+        }
+    }
+
+    @Benchmark
+    public void resolveOneByOne(Blackhole blackhole) throws SQLException {
+        for (String handle : handles) {
+            blackhole.consume(handleService.resolveToObject(context, handle));
+        }
+    }
+
+    @Benchmark
+    public Map<String, DSpaceObject> resolveAtOnce() throws SQLException {
+        return handleService.resolveToObjects(context, handles);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.indexobject.factory.IndexFactory;
+import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the Solr document of an item, as done for each item by the discovery consumer and index-discovery. The
+ * document isn't sent to Solr.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemIndexBenchmark extends AbstractDatabaseBenchmark {
+
+    @Param({"10", "1000"})
+    public int authors;
+
+    private IndexableItem indexableItem;
+
+    private IndexFactory indexFactory;
+
+    @Override
+    protected void createFixtures() throws Exception {
+        parentCommunity = CommunityBuilder.createCommunity(context).withName("Parent Community").build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity)
+                                                 .withName("Collection").build();
+        ItemBuilder builder = ItemBuilder.createItem(context, collection)
+                                         .withTitle("Item")
+                                         .withIssueDate("2022-10-18")
+                                         .withSubject("Subject");
+        for (int i = 0; i < authors; i++) {
+            builder.withAuthor("Author, " + i);
+        }
+        Item item = builder.build();
+        BitstreamBuilder.createBitstream(context, item, new ByteArrayInputStream(
+            "Full text".getBytes(StandardCharsets.UTF_8))).withName("bitstream.txt").build();
+
+        indexableItem = new IndexableItem(item);
+        indexFactory = IndexObjectFactoryFactory.getInstance().getIndexableObjectFactory(indexableItem);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public SolrInputDocument buildDocument() throws Exception {
+        return indexFactory.buildDocument(context, indexableItem);
+    }
+}
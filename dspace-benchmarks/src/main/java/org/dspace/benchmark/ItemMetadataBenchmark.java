@@ -0,0 +1,81 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.MetadataValue;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Metadata lookups of a stored item through {@link ItemService#getMetadata}, including the virtual metadata of its
+ * relationships, as done by the REST conversion and the indexing of the item.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemMetadataBenchmark extends AbstractDatabaseBenchmark {
+
+    @Param({"10", "1000"})
+    public int authors;
+
+    private ItemService itemService;
+
+    private Item item;
+
+    @Override
+    protected void createFixtures() throws Exception {
+        itemService = ContentServiceFactory.getInstance().getItemService();
+        parentCommunity = CommunityBuilder.createCommunity(context).withName("Parent Community").build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity)
+                                                 .withName("Collection").build();
+        ItemBuilder builder = ItemBuilder.createItem(context, collection)
+                                         .withTitle("Item")
+                                         .withIssueDate("2022-10-18")
+                                         .withSubject("Subject");
+        for (int i = 0; i < authors; i++) {
+            builder.withAuthor("Author, " + i);
+        }
+        item = builder.build();
+    }
+
+    @Benchmark
+    public void singleValuedFields(Blackhole blackhole) {
+        blackhole.consume(itemService.getMetadata(item, "dc", "title", null, Item.ANY));
+        blackhole.consume(itemService.getMetadata(item, "dc", "date", "issued", Item.ANY));
+        blackhole.consume(itemService.getMetadata(item, "dspace", "entity", "type", Item.ANY));
+    }
+
+    @Benchmark
+    public List<MetadataValue> authors() {
+        return itemService.getMetadata(item, "dc", "contributor", "author", Item.ANY);
+    }
+
+    @Benchmark
+    public List<MetadataValue> allFields() {
+        return itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
+    }
+}
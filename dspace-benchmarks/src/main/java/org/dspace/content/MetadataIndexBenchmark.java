@@ -0,0 +1,131 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare looking up metadata values through the {@link MetadataIndex} with scanning all values of an item, as
+ * {@link ItemServiceImpl#getMetadata} did before.
+ * <p>
+ * Each operation does the lookups of a typical index or REST conversion of an item: a few single-valued fields
+ * and the (possibly thousands of) authors. It doesn't need the test environment, run with, e.g.:
+ * <pre>
+ * java -jar target/benchmarks.jar MetadataIndexBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataIndexBenchmark {
+
+    private static final String[][] LOOKUPS = {
+        {"dc", "title", null},
+        {"dc", "date", "issued"},
+        {"dc", "identifier", "uri"},
+        {"dc", "type", null},
+        {"dspace", "entity", "type"},
+        {"dc", "contributor", "author"},
+        {"dc", "subject", null},
+        {"dc", "description", "abstract"},
+    };
+
+    @Param({"10", "1000", "5000"})
+    public int authors;
+
+    private final ItemServiceImpl itemService = new ItemServiceImpl();
+
+    private List<MetadataValue> values;
+
+    private MetadataIndex index;
+
+    @Setup
+    public void setUp() {
+        MetadataSchema dc = new MetadataSchema();
+        dc.setName("dc");
+        values = new ArrayList<>();
+        for (String element : new String[] {"date", "description", "format", "identifier", "language", "publisher",
+                                            "relation", "rights", "subject", "title", "type"}) {
+            for (String qualifier : new String[] {null, "other", "uri"}) {
+                for (int i = 0; i < 3; i++) {
+                    values.add(value(dc, element, qualifier, element + " " + i));
+                }
+            }
+        }
+        for (int i = 0; i < authors; i++) {
+            values.add(value(dc, "contributor", "author", "Author " + i));
+        }
+        index = new MetadataIndex(values);
+    }
+
+    @Benchmark
+    public int scan() {
+        int found = 0;
+        for (String[] lookup : LOOKUPS) {
+            found += lookup(values, lookup).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int indexed() {
+        int found = 0;
+        for (String[] lookup : LOOKUPS) {
+            found += lookup(index.getCandidates(lookup[0], lookup[1], lookup[2]), lookup).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int buildAndIndexed() {
+        MetadataIndex fresh = new MetadataIndex(values);
+        int found = 0;
+        for (String[] lookup : LOOKUPS) {
+            found += lookup(fresh.getCandidates(lookup[0], lookup[1], lookup[2]), lookup).size();
+        }
+        return found;
+    }
+
+    private List<MetadataValue> lookup(List<MetadataValue> candidates, String[] lookup) {
+        List<MetadataValue> result = new ArrayList<>();
+        for (MetadataValue value : candidates) {
+            if (itemService.match(lookup[0], lookup[1], lookup[2], Item.ANY, value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private MetadataValue value(MetadataSchema schema, String element, String qualifier, String text) {
+        MetadataField field = new MetadataField();
+        field.setMetadataSchema(schema);
+        field.setElement(element);
+        field.setQualifier(qualifier);
+        MetadataValue value = new MetadataValue();
+        value.setMetadataField(field);
+        value.setValue(text);
+        return value;
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.eperson;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dspace.authorize.AuthorizeException;
+import org.dspace.benchmark.AbstractDatabaseBenchmark;
+import org.dspace.builder.GroupBuilder;
+import org.dspace.eperson.factory.EPersonServiceFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Maintaining the group2groupcache table after a change of the members of a group: incrementally, as {@link
+ * GroupServiceImpl#addMember} and {@link GroupServiceImpl#removeMember} do, and by a full rebuild ({@link
+ * GroupServiceImpl#rethinkGroupCache}), in the package of the service to reach it.
+ * <p>
+ * The groups form a graph of depth levels where every group below the first level is a member of two groups of
+ * the level above it. Each change adds a group of the middle level to a group of the first level, or removes it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Group2GroupCacheBenchmark extends AbstractDatabaseBenchmark {
+
+    @Param({"6"})
+    public int depth;
+
+    @Param({"10"})
+    public int width;
+
+    private GroupServiceImpl groupService;
+
+    private final List<List<Group>> levels = new ArrayList<>();
+
+    private int change;
+
+    @Override
+    protected void createFixtures() throws Exception {
+        groupService = (GroupServiceImpl) EPersonServiceFactory.getInstance().getGroupService();
+        for (int level = 0; level < depth; level++) {
+            List<Group> groups = new ArrayList<>();
+            for (int i = 0; i < width; i++) {
+                GroupBuilder builder = GroupBuilder.createGroup(context).withName("g2gc-" + level + "-" + i);
+                if (level > 0) {
+                    List<Group> above = levels.get(level - 1);
+                    builder.withParent(above.get(i % width)).withParent(above.get((i + 1) % width));
+                }
+                groups.add(builder.build());
+            }
+            levels.add(groups);
+        }
+    }
+
+    @Benchmark
+    public void incrementalMaintenance() throws SQLException, AuthorizeException {
+        context.turnOffAuthorisationSystem();
+        Group parent = levels.get(0).get(change % width);
+        Group child = levels.get(depth / 2).get(change++ % width);
+        if (parent.contains(child)) {
+            groupService.removeMember(context, parent, child);
+        } else {
+            groupService.addMember(context, parent, child);
+        }
+        groupService.update(context, parent);
+        context.restoreAuthSystemState();
+    }
+
+    @Benchmark
+    public void fullRebuild() throws SQLException {
+        groupService.rethinkGroupCache(context, true);
+    }
+}
@@ -7,17 +7,27 @@
  */
 package org.dspace.app.iiif;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.dspace.core.Context;
+import org.dspace.iiif.manifest.StoredManifest;
 import org.dspace.web.ContextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 
 /**
@@ -45,13 +55,39 @@ public class IIIFController {
      *
      * Called with GET to retrieve the manifest for a single DSpace item.
      *
+     * When the manifest store is enabled, the stored manifest is written directly to the response: with its
+     * ETag and modification date (answering conditional requests with 304 Not Modified), and as stored, gzipped,
+     * if the client accepts it.
+     *
      * @param id DSpace Item uuid
-     * @return manifest as JSON
+     * @return manifest as JSON, or null if the stored manifest was written to the response
+     * @throws IOException if the stored manifest can't be written
      */
     @RequestMapping(method = RequestMethod.GET, value = "/{id}/manifest")
-    public String findOne(@PathVariable UUID id) {
+    public String findOne(@PathVariable UUID id, WebRequest webRequest, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
         Context context = ContextUtil.obtainCurrentRequestContext();
-        return iiifFacade.getManifest(context, id);
+        StoredManifest manifest = iiifFacade.getStoredManifest(context, id);
+        if (manifest == null) {
+            return iiifFacade.getManifest(context, id);
+        }
+
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (webRequest.checkNotModified(manifest.getETag(), manifest.getLastModified())) {
+            return null;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        byte[] content;
+        if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            content = manifest.getCompressedContent();
+        } else {
+            content = manifest.getJson().getBytes(StandardCharsets.UTF_8);
+        }
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+        return null;
     }
 
     /**
@@ -111,4 +147,39 @@ public class IIIFController {
         Context context = ContextUtil.obtainCurrentRequestContext();
         return iiifFacade.getCanvas(context, id, cid);
     }
+
+    /**
+     * Whether an Accept-Encoding header accepts gzip: gzip (or any encoding, with "*") is listed with a quality
+     * value above zero.
+     *
+     * @param acceptEncoding the Accept-Encoding header, or null
+     * @return true if the response may be gzipped
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (StringUtils.isBlank(acceptEncoding)) {
+            return false;
+        }
+        Float gzip = null;
+        Float any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            float quality = 1;
+            for (int p = 1; p < parts.length; p++) {
+                String parameter = parts[p].trim();
+                if (parameter.startsWith("q=")) {
+                    quality = NumberUtils.toFloat(parameter.substring(2).trim(), 0);
+                }
+            }
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                gzip = quality;
+            } else if ("*".equals(coding)) {
+                any = quality;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
 }
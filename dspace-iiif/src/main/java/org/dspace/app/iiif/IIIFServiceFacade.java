@@ -8,10 +8,12 @@
 package org.dspace.app.iiif;
 
 import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
 
 import org.dspace.app.iiif.service.AnnotationListService;
 import org.dspace.app.iiif.service.CanvasLookupService;
+import org.dspace.app.iiif.service.ManifestPrecomputeService;
 import org.dspace.app.iiif.service.ManifestService;
 import org.dspace.app.iiif.service.SearchService;
 import org.dspace.app.iiif.service.utils.IIIFUtils;
@@ -19,6 +21,8 @@ import org.dspace.content.Item;
 import org.dspace.content.service.BitstreamService;
 import org.dspace.content.service.ItemService;
 import org.dspace.core.Context;
+import org.dspace.iiif.manifest.ManifestStore;
+import org.dspace.iiif.manifest.StoredManifest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
@@ -55,6 +59,12 @@ public class IIIFServiceFacade {
     @Autowired
     IIIFUtils utils;
 
+    @Autowired(required = false)
+    ManifestStore manifestStore;
+
+    @Autowired
+    ManifestPrecomputeService manifestPrecomputeService;
+
     /**
      * The manifest response contains sufficient information for the client to initialize itself
      * and begin to display something quickly to the user. The manifest resource represents a single
@@ -83,6 +93,25 @@ public class IIIFServiceFacade {
         return manifestService.getManifest(item, context);
     }
 
+    /**
+     * Returns the manifest for single DSpace item from the manifest store, when the store is enabled. A manifest
+     * not stored yet is generated in the background, for the next requests.
+     *
+     * @param id DSpace Item uuid
+     * @return the stored manifest, or null if the manifest must be obtained from {@link #getManifest}
+     */
+    @PreAuthorize("hasPermission(#id, 'ITEM', 'READ')")
+    public StoredManifest getStoredManifest(Context context, UUID id) {
+        if (!manifestPrecomputeService.isEnabled()) {
+            return null;
+        }
+        StoredManifest manifest = manifestStore.get(id);
+        if (manifest == null) {
+            manifestPrecomputeService.refresh(List.of(id));
+        }
+        return manifest;
+    }
+
     /**
      * The canvas represents an individual page or view and acts as a central point for
      * laying out the different content resources that make up the display. This information
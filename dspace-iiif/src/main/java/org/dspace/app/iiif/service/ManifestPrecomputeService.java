@@ -0,0 +1,283 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.iiif.service;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.app.iiif.service.utils.IIIFUtils;
+import org.dspace.authorize.AuthorizeException;
+import org.dspace.content.Item;
+import org.dspace.content.service.CollectionService;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.iiif.manifest.ManifestRefreshService;
+import org.dspace.iiif.manifest.ManifestStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.AbstractRequestAttributes;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Generates the manifests of the {@link ManifestStore} in the background, one at a time, with an anonymous
+ * context: the manifests of the items modified (as reported by the IIIF event consumer), of the items whose
+ * manifest was requested and not found in the store, and, on the "iiif.manifest.store.cron" schedule, of all
+ * the IIIF enabled items not stored yet.
+ * <p>
+ * The manifest services are request scoped, so each manifest is generated within request attributes of its
+ * own, as if it was requested.
+ */
+@Component
+public class ManifestPrecomputeService implements ManifestRefreshService, DisposableBean {
+
+    private static final Logger log = LogManager.getLogger(ManifestPrecomputeService.class);
+
+    @Autowired(required = false)
+    ManifestStore manifestStore;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    CollectionService collectionService;
+
+    @Autowired
+    ManifestService manifestService;
+
+    @Autowired
+    IIIFUtils utils;
+
+    private ExecutorService executor;
+
+    /**
+     * The items whose manifest is queued for generation
+     */
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean fillQueued = new AtomicBoolean();
+
+    /**
+     * @return whether manifests are stored
+     */
+    public boolean isEnabled() {
+        return manifestStore != null && manifestStore.isEnabled();
+    }
+
+    @Override
+    public void refresh(Collection<UUID> itemIds) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (UUID itemId : itemIds) {
+            if (queued.add(itemId)) {
+                getExecutor().execute(() -> store(itemId));
+            }
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        if (isEnabled() && fillQueued.compareAndSet(false, true)) {
+            getExecutor().execute(this::fill);
+        }
+    }
+
+    /**
+     * Store the manifests of the IIIF enabled items not stored yet.
+     */
+    @Scheduled(cron = "${iiif.manifest.store.cron:-}")
+    public void storeMissingManifests() {
+        refreshAll();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "IIIF manifest store");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Generate and store the manifest of an item, or remove it if the item is gone or no longer IIIF enabled.
+     */
+    private void store(UUID itemId) {
+        // modified again from now on: queued again
+        queued.remove(itemId);
+        Context context = new Context(Context.Mode.READ_ONLY);
+        try {
+            Item item = itemService.find(context, itemId);
+            if (item == null || !item.isArchived() || !utils.isIIIFEnabled(item)) {
+                manifestStore.remove(Set.of(itemId));
+                return;
+            }
+            String json = generate(item, context);
+            if (!queued.contains(itemId)) {
+                manifestStore.put(itemId, json);
+            }
+        } catch (Exception e) {
+            log.error("Unable to store the IIIF manifest of item {}", itemId, e);
+        } finally {
+            context.abort();
+        }
+    }
+
+    /**
+     * Store the manifests of the items enabled by their metadata or by their collection, which are not stored
+     * yet.
+     */
+    private void fill() {
+        fillQueued.set(false);
+        Context context = new Context(Context.Mode.READ_ONLY);
+        int stored = 0;
+        try {
+            try {
+                stored += fill(context, itemService.findArchivedByMetadataField(context, "dspace", "iiif", "enabled",
+                                                                                 Item.ANY));
+            } catch (IllegalArgumentException e) {
+                // the metadata field isn't registered, no item is enabled by its metadata
+                log.debug("Unable to find the IIIF enabled items", e);
+            }
+            for (org.dspace.content.Collection collection : collectionService.findAll(context)) {
+                String enabled = collectionService.getMetadataFirstValue(collection, "dspace", "iiif", "enabled",
+                                                                         Item.ANY);
+                if (StringUtils.equalsAnyIgnoreCase(enabled, "true", "yes")) {
+                    stored += fill(context, itemService.findAllByCollection(context, collection));
+                }
+            }
+            log.info("Stored {} IIIF manifests", stored);
+        } catch (SQLException | AuthorizeException e) {
+            log.error("Unable to store the IIIF manifests", e);
+        } finally {
+            context.abort();
+        }
+    }
+
+    private int fill(Context context, Iterator<Item> items) throws SQLException {
+        int stored = 0;
+        while (items.hasNext() && isEnabled()) {
+            Item item = items.next();
+            UUID itemId = item.getID();
+            try {
+                if (item.isArchived() && utils.isIIIFEnabled(item) && !queued.contains(itemId)
+                    && !manifestStore.contains(itemId)) {
+                    manifestStore.put(itemId, generate(item, context));
+                    stored++;
+                }
+            } catch (Exception e) {
+                log.error("Unable to store the IIIF manifest of item {}", itemId, e);
+            }
+            context.uncacheEntity(item);
+        }
+        return stored;
+    }
+
+    /**
+     * Generate the manifest of an item, within request attributes completed afterwards.
+     */
+    private String generate(Item item, Context context) {
+        ManifestRequestAttributes attributes = new ManifestRequestAttributes();
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            return manifestService.getManifest(item, context);
+        } finally {
+            attributes.requestCompleted();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * Request attributes holding the request scoped beans used to generate a manifest outside of a request.
+     */
+    private static class ManifestRequestAttributes extends AbstractRequestAttributes {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public Object getAttribute(String name, int scope) {
+            checkScope(scope);
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value, int scope) {
+            checkScope(scope);
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name, int scope) {
+            checkScope(scope);
+            attributes.remove(name);
+            removeRequestDestructionCallback(name);
+        }
+
+        @Override
+        public String[] getAttributeNames(int scope) {
+            checkScope(scope);
+            return attributes.keySet().toArray(new String[0]);
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback, int scope) {
+            checkScope(scope);
+            registerRequestDestructionCallback(name, callback);
+        }
+
+        @Override
+        public Object resolveReference(String key) {
+            return REFERENCE_REQUEST.equals(key) ? this : null;
+        }
+
+        @Override
+        public String getSessionId() {
+            throw new IllegalStateException("No session when generating a stored IIIF manifest");
+        }
+
+        @Override
+        public Object getSessionMutex() {
+            throw new IllegalStateException("No session when generating a stored IIIF manifest");
+        }
+
+        @Override
+        protected void updateAccessedSessionAttributes() {
+        }
+
+        private static void checkScope(int scope) {
+            if (scope != RequestAttributes.SCOPE_REQUEST) {
+                throw new IllegalStateException("No session when generating a stored IIIF manifest");
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.dspace.xoai.services.impl.cache.DSpaceEmptyCacheService;
 import org.dspace.xoai.services.impl.cache.DSpaceXOAICacheService;
 import org.dspace.xoai.services.impl.cache.DSpaceXOAIItemCacheService;
 import org.dspace.xoai.services.impl.cache.DSpaceXOAILastCompilationCacheService;
+import org.dspace.xoai.services.impl.cache.DSpaceXOAIResponseCacheService;
 import org.dspace.xoai.services.impl.config.DSpaceConfigurationService;
 import org.dspace.xoai.services.impl.context.DSpaceContextService;
 import org.dspace.xoai.services.impl.context.DSpaceXOAIManagerResolver;
@@ -77,7 +78,10 @@ public class BasicConfiguration {
     public XOAICacheService xoaiCacheService() {
         if (configurationService().getBooleanProperty("oai", "cache.enabled", true)) {
             try {
-                return new DSpaceXOAICacheService(xoaiManagerResolver().getManager());
+                if ("files".equals(configurationService().getProperty("oai", "cache.type"))) {
+                    return new DSpaceXOAICacheService(xoaiManagerResolver().getManager());
+                }
+                return new DSpaceXOAIResponseCacheService(xoaiManagerResolver().getManager());
             } catch (XOAIManagerResolverException e) {
                 log.error("Not able to start XOAI normal cache service.", e);
                 return new DSpaceEmptyCacheService();
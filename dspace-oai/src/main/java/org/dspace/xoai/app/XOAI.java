@@ -22,10 +22,22 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.xml.stream.XMLStreamException;
 
 import com.lyncode.xoai.dataprovider.exceptions.ConfigurationException;
@@ -36,16 +48,22 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrQuery.ORDER;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.client.solrj.request.CoreAdminRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentBase;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CoreAdminParams;
+import org.apache.solr.common.util.NamedList;
 import org.dspace.authorize.ResourcePolicy;
 import org.dspace.authorize.factory.AuthorizeServiceFactory;
 import org.dspace.authorize.service.AuthorizeService;
@@ -60,6 +78,7 @@ import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.content.service.ItemService;
 import org.dspace.core.Constants;
 import org.dspace.core.Context;
+import org.dspace.service.impl.HttpConnectionPoolService;
 import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.util.SolrUtils;
@@ -67,6 +86,7 @@ import org.dspace.utils.DSpace;
 import org.dspace.xoai.exceptions.CompilingException;
 import org.dspace.xoai.services.api.CollectionsService;
 import org.dspace.xoai.services.api.cache.XOAICacheService;
+import org.dspace.xoai.services.api.cache.XOAICacheTags;
 import org.dspace.xoai.services.api.cache.XOAIItemCacheService;
 import org.dspace.xoai.services.api.cache.XOAILastCompilationCacheService;
 import org.dspace.xoai.services.api.solr.SolrServerResolver;
@@ -89,6 +109,49 @@ public class XOAI {
     private final boolean verbose;
     private boolean clean;
 
+    /**
+     * Number of threads compiling the items, see {@link #index(Iterator)}
+     */
+    private int threads = 1;
+
+    /**
+     * Name of the Solr core a full import is done into, before swapping it with the OAI core. Null to import
+     * directly into the OAI core.
+     */
+    private String shadowCore;
+
+    /**
+     * The Solr core the items are imported into, the OAI core unless a full import is done into the shadow core
+     */
+    private SolrClient target;
+
+    /**
+     * Whether the target core was empty when the import started, so items don't need to be looked up in it
+     */
+    private boolean targetEmpty = false;
+
+    /**
+     * Whether the items are imported into the shadow core, which doesn't need to be committed before the swap
+     */
+    private boolean shadowImport = false;
+
+    /**
+     * The tags of the cached OAI responses depending on the items changed by an incremental import, null when all
+     * cached responses must be invalidated
+     */
+    private volatile Set<String> invalidatedCacheTags;
+
+    /**
+     * Number of tags over which all cached OAI responses are invalidated rather than the responses having the tags
+     */
+    private static final int MAX_INVALIDATED_CACHE_TAGS = 20000;
+
+    /**
+     * End of stage markers of the import pipeline
+     */
+    private static final UUID END_OF_ITEMS = new UUID(0, 0);
+    private static final SolrInputDocument END_OF_DOCUMENTS = new SolrInputDocument();
+
     @Autowired
     private SolrServerResolver solrServerResolver;
     @Autowired
@@ -106,7 +169,7 @@ public class XOAI {
 
     private List<XOAIExtensionItemCompilePlugin> extensionPlugins;
 
-    private List<String> getFileFormats(Item item) {
+    private List<String> getFileFormats(Context context, Item item) {
         List<String> formats = new ArrayList<>();
         try {
             for (Bundle b : itemService.getBundles(item, "ORIGINAL")) {
@@ -146,6 +209,21 @@ public class XOAI {
                 .getServicesByType(XOAIExtensionItemCompilePlugin.class);
     }
 
+    /**
+     * @param threads the number of threads compiling the items, at least 1
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param shadowCore the name of the Solr core a full import (with clean) is done into, before swapping it with
+     *                   the OAI core; null to import directly into the OAI core
+     */
+    public void setShadowCore(String shadowCore) {
+        this.shadowCore = StringUtils.trimToNull(shadowCore);
+    }
+
     private void println(String line) {
         System.out.println(line);
     }
@@ -153,8 +231,11 @@ public class XOAI {
     public int index() throws DSpaceSolrIndexerException {
         int result = 0;
         try {
+            target = solrServerResolver.getServer();
 
-            if (clean) {
+            if (clean && shadowCore != null) {
+                result = this.indexIntoShadowCore();
+            } else if (clean) {
                 clearIndex();
                 System.out.println("Using full import.");
                 result = this.indexAll();
@@ -165,8 +246,10 @@ public class XOAI {
                 SolrDocumentList results = DSpaceSolrSearch.query(solrServerResolver.getServer(), solrParams);
                 if (results.getNumFound() == 0) {
                     System.out.println("There are no indexed documents, using full import.");
+                    targetEmpty = true;
                     result = this.indexAll();
                 } else {
+                    invalidatedCacheTags = Collections.synchronizedSet(new HashSet<>());
                     result = this.index((Date) results.get(0).getFieldValue("item.lastmodified"));
                 }
 
@@ -187,6 +270,74 @@ public class XOAI {
         }
     }
 
+    /**
+     * Get the tags of the cached OAI responses to invalidate after the import: the responses depending on the changed
+     * items (see {@link XOAICacheTags#forItem}).
+     *
+     * @return the tags, or null if all cached responses must be invalidated (after a full import, or when too many
+     * items changed)
+     */
+    public Set<String> getInvalidatedCacheTags() {
+        return invalidatedCacheTags;
+    }
+
+    /**
+     * Do a full import into the shadow core, while the OAI core keeps serving the previous index, then swap both
+     * cores, so the OAI core serves the new index at once (and the shadow core the previous one, until the next full
+     * import). The items changed during the import are finally imported again into the OAI core.
+     *
+     * @return the number of imported items
+     */
+    private int indexIntoShadowCore() throws DSpaceSolrIndexerException, SolrServerException, IOException {
+        String oaiUrl = configurationService.getProperty("oai.solr.url");
+        String baseUrl = StringUtils.substringBeforeLast(oaiUrl, "/");
+        String oaiCore = StringUtils.substringAfterLast(oaiUrl, "/");
+
+        Date importStart = new Date();
+        try (SolrClient shadow = createSolrClient(baseUrl + "/" + shadowCore);
+             SolrClient admin = createSolrClient(baseUrl)) {
+            NamedList<Object> shadowStatus = CoreAdminRequest.getStatus(shadowCore, admin).getCoreStatus(shadowCore);
+            if (shadowStatus == null || shadowStatus.size() == 0) {
+                throw new DSpaceSolrIndexerException("The shadow core " + shadowCore + " doesn't exist in " + baseUrl
+                        + ", create it with the configuration of the " + oaiCore + " core");
+            }
+
+            target = shadow;
+            shadowImport = true;
+            clearIndex();
+            System.out.println("Using full import into the shadow core " + shadowCore + ".");
+            int result = this.indexAll();
+            shadow.commit();
+
+            CoreAdminRequest swapRequest = new CoreAdminRequest();
+            swapRequest.setCoreName(oaiCore);
+            swapRequest.setOtherCoreName(shadowCore);
+            swapRequest.setAction(CoreAdminParams.CoreAdminAction.SWAP);
+            swapRequest.process(admin);
+            System.out.println("Swapped the cores " + oaiCore + " and " + shadowCore + ".");
+        } finally {
+            target = solrServerResolver.getServer();
+            targetEmpty = false;
+            shadowImport = false;
+        }
+
+        // Items changed since the import started may have been read before the change
+        return this.index(importStart);
+    }
+
+    /**
+     * Create a client of a core of the Solr server, or of the server itself to administer its cores.
+     *
+     * @param url the URL of the core, or of the server
+     * @return the client, to be closed by the caller
+     */
+    protected SolrClient createSolrClient(String url) {
+        HttpConnectionPoolService httpConnectionPoolService = DSpaceServicesFactory.getInstance()
+                .getServiceManager()
+                .getServiceByName("solrHttpConnectionPoolService", HttpConnectionPoolService.class);
+        return new HttpSolrClient.Builder(url).withHttpClient(httpConnectionPoolService.getClient()).build();
+    }
+
     private int index(Date last) throws DSpaceSolrIndexerException, IOException {
         System.out.println("Incremental import. Searching for documents modified after: " + last.toString());
         /*
@@ -220,7 +371,7 @@ public class XOAI {
         try {
             SolrQuery params = new SolrQuery("item.willChangeStatus:true").addField("item.id").setRows(100)
                     .addSort("item.handle", SolrQuery.ORDER.asc);
-            SolrClient solrClient = solrServerResolver.getServer();
+            SolrClient solrClient = target;
 
             List<Item> items = new LinkedList<>();
             boolean done = false;
@@ -284,11 +435,14 @@ public class XOAI {
      * @return has it been indexed?
      */
     private boolean checkIfIndexed(Item item) throws IOException {
+        if (targetEmpty) {
+            return false;
+        }
         SolrQuery params = new SolrQuery("item.id:" + item.getID().toString()).addField("item.id");
         try {
-            SolrDocumentList documents = DSpaceSolrSearch.query(solrServerResolver.getServer(), params);
+            SolrDocumentList documents = DSpaceSolrSearch.query(target, params);
             return documents.getNumFound() == 1;
-        } catch (DSpaceSolrException | SolrServerException e) {
+        } catch (DSpaceSolrException e) {
             return false;
         }
     }
@@ -300,61 +454,271 @@ public class XOAI {
      * @return has it been indexed?
      */
     private boolean checkIfVisibleInOAI(Item item) throws IOException {
+        if (targetEmpty) {
+            return false;
+        }
         SolrQuery params = new SolrQuery("item.id:" + item.getID().toString()).addField("item.public");
         try {
-            SolrDocumentList documents = DSpaceSolrSearch.query(solrServerResolver.getServer(), params);
+            SolrDocumentList documents = DSpaceSolrSearch.query(target, params);
             if (documents.getNumFound() == 1) {
                 return (boolean) documents.get(0).getFieldValue("item.public");
             } else {
                 return false;
             }
-        } catch (DSpaceSolrException | SolrServerException e) {
+        } catch (DSpaceSolrException e) {
             return false;
         }
     }
 
+    /**
+     * Import the given items, through a pipeline of three stages: the items are read on the current thread, compiled
+     * into Solr documents by {@link #threads} workers (each with its own context), and written to Solr in batches of
+     * "oai.import.batch.size" documents by a writer thread. The throughput of each stage is reported at the end.
+     *
+     * @param iterator the items
+     * @return the number of items read
+     */
     private int index(Iterator<Item> iterator) throws DSpaceSolrIndexerException {
+        int batchSize = configurationService.getIntProperty("oai.import.batch.size", 1000);
+        BlockingQueue<UUID> itemIds = new ArrayBlockingQueue<>(batchSize);
+        BlockingQueue<SolrInputDocument> documents = new ArrayBlockingQueue<>(batchSize);
+        ImportStatistics statistics = new ImportStatistics();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Documents are committed with every batch, unless they are imported into the shadow core
+        boolean commitBatches = !shadowImport;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1, runnable -> {
+            Thread thread = new Thread(runnable, "oai-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int i = 0;
         try {
-            int i = 0;
-            int batchSize = configurationService.getIntProperty("oai.import.batch.size", 1000);
-            SolrClient server = solrServerResolver.getServer();
-            ArrayList<SolrInputDocument> list = new ArrayList<>();
-            while (iterator.hasNext()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < threads; w++) {
+                workers.add(executor.submit(() -> compileItems(itemIds, documents, statistics, failure)));
+            }
+            Future<?> writer = executor.submit(
+                () -> writeDocuments(documents, batchSize, commitBatches, statistics, failure));
+
+            long start = System.nanoTime();
+            while (failure.get() == null && iterator.hasNext()) {
+                Item item = iterator.next();
+                if (item.getHandle() == null) {
+                    log.warn("Skipped item without handle: " + item.getID());
+                } else if (!put(itemIds, item.getID(), failure)) {
+                    break;
+                }
+                // Uncache the item to keep memory consumption low
+                context.uncacheEntity(item);
+                i++;
+            }
+            statistics.readNanos.addAndGet(System.nanoTime() - start);
+
+            for (int w = 0; w < threads; w++) {
+                put(itemIds, END_OF_ITEMS, failure);
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            put(documents, END_OF_DOCUMENTS, failure);
+            writer.get();
+        } catch (SQLException | ExecutionException ex) {
+            failure.compareAndSet(null, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ex);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw new DSpaceSolrIndexerException(failure.get().getMessage(), failure.get());
+        }
+
+        System.out.println("Total: " + i + " items");
+        statistics.print(i, threads);
+        if (i > 0) {
+            try {
+                target.commit(true, true);
+            } catch (SolrServerException | IOException ex) {
+                throw new DSpaceSolrIndexerException(ex.getMessage(), ex);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Compile stage of the import: compile the items with the given ids until the end of the items
+     */
+    private void compileItems(BlockingQueue<UUID> itemIds, BlockingQueue<SolrInputDocument> documents,
+                              ImportStatistics statistics, AtomicReference<Throwable> failure) {
+        try (Context workerContext = new Context(Context.Mode.READ_ONLY)) {
+            UUID itemId;
+            while ((itemId = take(itemIds, failure)) != null && itemId != END_OF_ITEMS) {
+                long start = System.nanoTime();
+                SolrInputDocument document = null;
                 try {
-                    Item item = iterator.next();
-                    if (item.getHandle() == null) {
-                        log.warn("Skipped item without handle: " + item.getID());
-                    } else {
-                        list.add(this.index(item));
+                    Item item = itemService.find(workerContext, itemId);
+                    if (item != null) {
+                        document = this.index(workerContext, item);
+                        // Uncache the item to keep memory consumption low
+                        workerContext.uncacheEntity(item);
                     }
-                    // Uncache the item to keep memory consumption low
-                    context.uncacheEntity(item);
-
                 } catch (SQLException | IOException | XMLStreamException | WritingXmlException ex) {
                     log.error(ex.getMessage(), ex);
+                    statistics.failed.incrementAndGet();
                 }
-                i++;
-                if (i % 1000 == 0 && batchSize != 1000) {
-                    System.out.println(i + " items imported so far...");
-                }
-                if (i % batchSize == 0) {
-                    System.out.println(i + " items imported so far...");
-                    server.add(list);
-                    server.commit();
-                    list.clear();
+                statistics.compileNanos.addAndGet(System.nanoTime() - start);
+                if (document != null) {
+                    statistics.compiled.incrementAndGet();
+                    if (!put(documents, document, failure)) {
+                        return;
+                    }
                 }
             }
-            System.out.println("Total: " + i + " items");
-            if (i > 0) {
-                if (!list.isEmpty()) {
-                    server.add(list);
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+    }
+
+    /**
+     * Write stage of the import: add the compiled documents to Solr in batches, until the end of the documents
+     */
+    private void writeDocuments(BlockingQueue<SolrInputDocument> documents, int batchSize, boolean commitBatches,
+                                ImportStatistics statistics, AtomicReference<Throwable> failure) {
+        List<SolrInputDocument> batch = new ArrayList<>(batchSize);
+        try {
+            SolrInputDocument document;
+            do {
+                document = take(documents, failure);
+                if (document == null) {
+                    return;
+                }
+                if (document != END_OF_DOCUMENTS) {
+                    batch.add(document);
+                }
+                if (batch.size() >= batchSize || (document == END_OF_DOCUMENTS && !batch.isEmpty())) {
+                    long start = System.nanoTime();
+                    recordInvalidatedCacheTags(batch);
+                    target.add(batch);
+                    if (commitBatches) {
+                        target.commit();
+                    }
+                    statistics.writeNanos.addAndGet(System.nanoTime() - start);
+                    statistics.written.addAndGet(batch.size());
+                    statistics.batches.incrementAndGet();
+                    batch.clear();
+                    System.out.println(statistics.written.get() + " items imported so far...");
+                }
+            } while (document != END_OF_DOCUMENTS);
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+    }
+
+    /**
+     * Record the tags of the cached OAI responses depending on the items of a batch, before the batch replaces their
+     * documents: the items may have left some sets, so the sets of the previous documents are included.
+     */
+    private void recordInvalidatedCacheTags(List<SolrInputDocument> batch) throws SolrServerException, IOException {
+        Set<String> tags = invalidatedCacheTags;
+        if (tags == null) {
+            return;
+        }
+        if (tags.size() > MAX_INVALIDATED_CACHE_TAGS) {
+            invalidatedCacheTags = null;
+            return;
+        }
+        List<String> handles = new ArrayList<>(batch.size());
+        for (SolrInputDocument document : batch) {
+            String handle = (String) document.getFieldValue("item.handle");
+            handles.add(handle);
+            tags.addAll(XOAICacheTags.forItem(handle, getSetSpecs(document)));
+        }
+        SolrQuery query = new SolrQuery("{!terms f=item.handle}" + String.join(",", handles))
+                .setFields("item.handle", "item.collections", "item.communities").setRows(handles.size());
+        for (SolrDocument previous : target.query(query).getResults()) {
+            tags.addAll(XOAICacheTags.forItem((String) previous.getFieldValue("item.handle"), getSetSpecs(previous)));
+        }
+    }
+
+    private static List<String> getSetSpecs(SolrDocumentBase<?, ?> document) {
+        List<String> specs = new ArrayList<>();
+        for (String field : Arrays.asList("item.collections", "item.communities")) {
+            if (document.getFieldValues(field) != null) {
+                for (Object value : document.getFieldValues(field)) {
+                    specs.add(value.toString());
                 }
-                server.commit(true, true);
-                list.clear();
             }
-            return i;
-        } catch (SolrServerException | IOException ex) {
-            throw new DSpaceSolrIndexerException(ex.getMessage(), ex);
+        }
+        return specs;
+    }
+
+    /**
+     * Put an element in a queue of the pipeline, unless the import fails meanwhile
+     *
+     * @return whether the element was put
+     */
+    private static <T> boolean put(BlockingQueue<T> queue, T element, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        while (!queue.offer(element, 1, TimeUnit.SECONDS)) {
+            if (failure.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Take an element from a queue of the pipeline, unless the import fails meanwhile
+     *
+     * @return the element, or null if the import failed
+     */
+    private static <T> T take(BlockingQueue<T> queue, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        T element;
+        while ((element = queue.poll(1, TimeUnit.SECONDS)) == null) {
+            if (failure.get() != null) {
+                return null;
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Counters of the stages of an import
+     */
+    private static class ImportStatistics {
+        private final long start = System.nanoTime();
+        private final AtomicLong readNanos = new AtomicLong();
+        private final AtomicLong compileNanos = new AtomicLong();
+        private final AtomicLong writeNanos = new AtomicLong();
+        private final AtomicInteger compiled = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicInteger batches = new AtomicInteger();
+
+        private void print(int read, int threads) {
+            double elapsed = seconds(System.nanoTime() - start);
+            double compileSeconds = seconds(compileNanos.get());
+            System.out.println(String.format("Import took %.1f s (%.1f items/s)", elapsed, rate(read, elapsed)));
+            System.out.println(String.format("  read: %d items in %.1f s (%.1f items/s, including waits for the "
+                    + "workers)", read, seconds(readNanos.get()), rate(read, seconds(readNanos.get()))));
+            System.out.println(String.format("  compile: %d items, %d failed, by %d threads in %.1f thread-s "
+                    + "(%.1f items/s per thread)", compiled.get(), failed.get(), threads, compileSeconds,
+                    rate(compiled.get() + failed.get(), compileSeconds)));
+            System.out.println(String.format("  write: %d documents in %d batches in %.1f s (%.1f documents/s)",
+                    written.get(), batches.get(), seconds(writeNanos.get()),
+                    rate(written.get(), seconds(writeNanos.get()))));
+        }
+
+        private static double seconds(long nanos) {
+            return nanos / 1e9;
+        }
+
+        private static double rate(long count, double seconds) {
+            return seconds > 0 ? count / seconds : 0;
         }
     }
 
@@ -367,7 +731,7 @@ public class XOAI {
      * @return date
      * @throws SQLException
      */
-    private Date getMostRecentModificationDate(Item item) throws SQLException {
+    private Date getMostRecentModificationDate(Context context, Item item) throws SQLException {
         List<Date> dates = new LinkedList<>();
         List<ResourcePolicy> policies = authorizeService.getPoliciesActionFilter(context, item, Constants.READ);
         for (ResourcePolicy policy : policies) {
@@ -393,7 +757,14 @@ public class XOAI {
         return lastChange;
     }
 
-    private SolrInputDocument index(Item item)
+    /**
+     * Compile the Solr document of an item, in a worker of the import.
+     *
+     * @param context the context of the worker
+     * @param item    the item
+     * @return the document
+     */
+    protected SolrInputDocument index(Context context, Item item)
             throws SQLException, IOException, XMLStreamException, WritingXmlException {
         SolrInputDocument doc = new SolrInputDocument();
         doc.addField("item.id", item.getID().toString());
@@ -401,7 +772,7 @@ public class XOAI {
         String handle = item.getHandle();
         doc.addField("item.handle", handle);
 
-        boolean isEmbargoed = !this.isPublic(item);
+        boolean isEmbargoed = !this.isPublic(context, item);
         boolean isCurrentlyVisible = this.checkIfVisibleInOAI(item);
         boolean isIndexed = this.checkIfIndexed(item);
 
@@ -424,7 +795,7 @@ public class XOAI {
         // if the visibility of the item will change in the future due to an
         // embargo, mark it as such.
 
-        doc.addField("item.willChangeStatus", willChangeStatus(item));
+        doc.addField("item.willChangeStatus", willChangeStatus(context, item));
 
         /*
          * Mark an item as deleted not only if it is withdrawn, but also if it is made
@@ -445,7 +816,7 @@ public class XOAI {
          * date and take the most recent of those which have already passed.
          */
         doc.addField("item.lastmodified",
-                SolrUtils.getDateFormatter().format(this.getMostRecentModificationDate(item)));
+                SolrUtils.getDateFormatter().format(this.getMostRecentModificationDate(context, item)));
 
         if (item.getSubmitter() != null) {
             doc.addField("item.submitter", item.getSubmitter().getEmail());
@@ -472,7 +843,7 @@ public class XOAI {
             }
         }
 
-        for (String f : getFileFormats(item)) {
+        for (String f : getFileFormats(context, item)) {
             doc.addField("metadata.dc.format.mimetype", f);
         }
 
@@ -502,7 +873,7 @@ public class XOAI {
         return doc;
     }
 
-    private boolean willChangeStatus(Item item) throws SQLException {
+    private boolean willChangeStatus(Context context, Item item) throws SQLException {
         List<ResourcePolicy> policies = authorizeService.getPoliciesActionFilter(context, item, Constants.READ);
         for (ResourcePolicy policy : policies) {
             if ((policy.getGroup() != null) && (policy.getGroup().getName().equals("Anonymous"))) {
@@ -518,7 +889,7 @@ public class XOAI {
         return false;
     }
 
-    private boolean isPublic(Item item) {
+    private boolean isPublic(Context context, Item item) {
         boolean pub = false;
         try {
             // Check if READ access allowed on this Item
@@ -552,8 +923,9 @@ public class XOAI {
     private void clearIndex() throws DSpaceSolrIndexerException {
         try {
             System.out.println("Clearing index");
-            solrServerResolver.getServer().deleteByQuery("*:*");
-            solrServerResolver.getServer().commit();
+            target.deleteByQuery("*:*");
+            target.commit();
+            targetEmpty = true;
             System.out.println("Index cleared");
         } catch (SolrServerException | IOException ex) {
             throw new DSpaceSolrIndexerException(ex.getMessage(), ex);
@@ -567,6 +939,13 @@ public class XOAI {
         xoaiCacheService.deleteAll();
     }
 
+    private static void invalidateCache(XOAIItemCacheService xoaiItemCacheService,
+                                        XOAICacheService xoaiCacheService, Set<String> tags) throws IOException {
+        System.out.println("Invalidating the cached OAI responses depending on the imported items.");
+        xoaiItemCacheService.deleteAll();
+        xoaiCacheService.invalidate(tags);
+    }
+
     private static final String COMMAND_IMPORT = "import";
     private static final String COMMAND_CLEAN_CACHE = "clean-cache";
     private static final String COMMAND_COMPILE_ITEMS = "compile-items";
@@ -588,6 +967,9 @@ public class XOAI {
             options.addOption("c", "clear", false, "Clear index before indexing");
             options.addOption("o", "optimize", false, "Optimize index at the end");
             options.addOption("v", "verbose", false, "Verbose output");
+            options.addOption("t", "threads", true, "Number of threads compiling the items");
+            options.addOption("s", "shadow", false,
+                    "Do the full import (with -c) into the shadow core, then swap it with the OAI core");
             options.addOption("h", "help", false, "Shows some help");
             options.addOption("n", "number", true, "FOR DEVELOPMENT MUST DELETE");
             CommandLine line = parser.parse(options, argv);
@@ -621,11 +1003,20 @@ public class XOAI {
                 if (COMMAND_IMPORT.equals(command)) {
                     ctx = new Context(Context.Mode.READ_ONLY);
                     XOAI indexer = new XOAI(ctx, line.hasOption('o'), line.hasOption('c'), line.hasOption('v'));
+                    indexer.setThreads(line.hasOption('t') ? Integer.parseInt(line.getOptionValue('t'))
+                            : configurationService.getIntProperty("oai.import.threads", 1));
+                    if (line.hasOption('s')) {
+                        indexer.setShadowCore(configurationService.getProperty("oai.import.shadow.core",
+                                StringUtils.substringAfterLast(configurationService.getProperty("oai.solr.url"), "/")
+                                        + "-shadow"));
+                    }
 
                     applicationContext.getAutowireCapableBeanFactory().autowireBean(indexer);
 
                     int imported = indexer.index();
-                    if (imported > 0) {
+                    if (imported > 0 && indexer.getInvalidatedCacheTags() != null) {
+                        invalidateCache(itemCacheService, cacheService, indexer.getInvalidatedCacheTags());
+                    } else if (imported > 0) {
                         cleanCache(itemCacheService, cacheService);
                     }
                 } else if (COMMAND_CLEAN_CACHE.equals(command)) {
@@ -708,6 +1099,9 @@ public class XOAI {
             System.out.println("> Parameters:");
             System.out.println("     -o Optimize index after indexing (" + COMMAND_IMPORT + " only)");
             System.out.println("     -c Clear index (" + COMMAND_IMPORT + " only)");
+            System.out.println("     -s Import into the shadow core, then swap it with the OAI core ("
+                    + COMMAND_IMPORT + " with -c only)");
+            System.out.println("     -t <n> Number of threads compiling the items (" + COMMAND_IMPORT + " only)");
             System.out.println("     -v Verbose output");
             System.out.println("     -h Shows this text");
         } else {
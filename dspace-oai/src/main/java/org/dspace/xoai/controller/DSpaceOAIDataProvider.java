@@ -31,6 +31,7 @@ import com.lyncode.xoai.dataprovider.exceptions.WritingXmlException;
 import org.apache.logging.log4j.Logger;
 import org.dspace.core.Context;
 import org.dspace.xoai.services.api.cache.XOAICacheService;
+import org.dspace.xoai.services.api.cache.XOAICacheTags;
 import org.dspace.xoai.services.api.config.XOAIManagerResolver;
 import org.dspace.xoai.services.api.config.XOAIManagerResolverException;
 import org.dspace.xoai.services.api.context.ContextService;
@@ -107,7 +108,8 @@ public class DSpaceOAIDataProvider {
                                                                resumptionTokenFormat);
 
             OutputStream out = response.getOutputStream();
-            OAIRequestParameters parameters = new OAIRequestParameters(buildParametersMap(request));
+            Map<String, List<String>> parametersMap = buildParametersMap(request);
+            OAIRequestParameters parameters = new OAIRequestParameters(parametersMap);
 
             response.setContentType("text/xml");
             response.setCharacterEncoding("UTF-8");
@@ -116,7 +118,9 @@ public class DSpaceOAIDataProvider {
 
             if (cacheService.isActive()) {
                 if (!cacheService.hasCache(identification)) {
-                    cacheService.store(identification, dataProvider.handle(parameters));
+                    cacheService.store(identification,
+                                       XOAICacheTags.forRequest(parametersMap, resumptionTokenFormat),
+                                       dataProvider.handle(parameters));
                 }
 
                 cacheService.handle(identification, out);
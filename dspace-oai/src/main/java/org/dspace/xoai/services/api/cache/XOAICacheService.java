@@ -9,6 +9,8 @@ package org.dspace.xoai.services.api.cache;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Set;
 
 import com.lyncode.xoai.dataprovider.xml.oaipmh.OAIPMH;
 
@@ -22,7 +24,34 @@ public interface XOAICacheService {
 
     void store(String requestID, OAIPMH response) throws IOException;
 
+    /**
+     * Store a response along with the tags of what it depends on (see {@link XOAICacheTags}), so it can be
+     * invalidated by {@link #invalidate(Collection)}. Caches not supporting tags store the response as
+     * {@link #store(String, OAIPMH)} does.
+     *
+     * @param requestID the request
+     * @param tags      the tags of the response
+     * @param response  the response
+     * @throws IOException if the response can't be stored
+     */
+    default void store(String requestID, Set<String> tags, OAIPMH response) throws IOException {
+        store(requestID, response);
+    }
+
     void delete(String requestID);
 
     void deleteAll() throws IOException;
+
+    /**
+     * Invalidate the responses having any of the given tags, e.g. the responses depending on changed items. Caches
+     * not supporting tags delete all responses.
+     *
+     * @param tags the tags, see {@link XOAICacheTags}
+     * @throws IOException if the responses can't be invalidated
+     */
+    default void invalidate(Collection<String> tags) throws IOException {
+        if (!tags.isEmpty()) {
+            deleteAll();
+        }
+    }
 }
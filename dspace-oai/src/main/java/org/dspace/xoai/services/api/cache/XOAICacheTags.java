@@ -0,0 +1,113 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.services.api.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.lyncode.xoai.dataprovider.core.ResumptionToken;
+import com.lyncode.xoai.dataprovider.exceptions.BadResumptionToken;
+import com.lyncode.xoai.dataprovider.services.api.ResumptionTokenFormatter;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Tags of the cached OAI responses, naming what a response depends on so it can be invalidated when that changes:
+ * <ul>
+ *     <li>"item:[handle]" for the responses about a single item (GetRecord, ListMetadataFormats of an item)</li>
+ *     <li>"set:[spec]" for the lists of a collection or community set (ListRecords, ListIdentifiers)</li>
+ *     <li>"lists" for all other responses (lists of the whole repository or of virtual sets, ListSets...)</li>
+ * </ul>
+ * A changed item invalidates its own tag, the tags of its sets and "lists".
+ */
+public final class XOAICacheTags {
+
+    public static final String LISTS = "lists";
+
+    private static final String ITEM_PREFIX = "item:";
+    private static final String SET_PREFIX = "set:";
+
+    /**
+     * Default constructor
+     */
+    private XOAICacheTags() { }
+
+    /**
+     * Get the tags of the response to a request.
+     *
+     * @param parameters the parameters of the request
+     * @param formatter  the formatter of the resumption tokens, to find the set of a resumed list
+     * @return the tags
+     */
+    public static Set<String> forRequest(Map<String, List<String>> parameters, ResumptionTokenFormatter formatter) {
+        String verb = getParameter(parameters, "verb");
+        if ("GetRecord".equals(verb) || "ListMetadataFormats".equals(verb)) {
+            String identifier = getParameter(parameters, "identifier");
+            // identifiers are "oai:[host]:[handle]"
+            String handle = StringUtils.substringAfter(StringUtils.substringAfter(identifier, ":"), ":");
+            if (StringUtils.isNotEmpty(handle)) {
+                return Set.of(item(handle));
+            }
+        } else if ("ListRecords".equals(verb) || "ListIdentifiers".equals(verb)) {
+            String set = getParameter(parameters, "set");
+            String resumptionToken = getParameter(parameters, "resumptionToken");
+            if (resumptionToken != null) {
+                try {
+                    ResumptionToken token = formatter.parse(resumptionToken);
+                    set = token.hasSet() ? token.getSet() : null;
+                } catch (BadResumptionToken e) {
+                    set = null;
+                }
+            }
+            if (isHierarchySet(set)) {
+                return Set.of(set(set));
+            }
+        }
+        return Set.of(LISTS);
+    }
+
+    /**
+     * Get the tags invalidated by a change to an item.
+     *
+     * @param handle   the handle of the item
+     * @param setSpecs the specs of the collection and community sets of the item, before and after the change
+     * @return the tags
+     */
+    public static Set<String> forItem(String handle, Collection<String> setSpecs) {
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(item(handle));
+        for (String spec : setSpecs) {
+            tags.add(set(spec));
+        }
+        tags.add(LISTS);
+        return tags;
+    }
+
+    public static String item(String handle) {
+        return ITEM_PREFIX + handle;
+    }
+
+    public static String set(String spec) {
+        return SET_PREFIX + spec;
+    }
+
+    /**
+     * Whether a set is the set of a collection or a community, whose items are known at import; the items of the
+     * other (virtual) sets are selected by filters, so their lists are tagged with {@link #LISTS}.
+     */
+    private static boolean isHierarchySet(String spec) {
+        return spec != null && (spec.startsWith("col_") || spec.startsWith("com_"));
+    }
+
+    private static String getParameter(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
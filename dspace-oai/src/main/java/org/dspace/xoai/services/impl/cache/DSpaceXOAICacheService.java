@@ -49,7 +49,10 @@ public class DSpaceXOAICacheService implements XOAICacheService {
         return baseDir;
     }
 
-    private static String getStaticHead(XOAIManager manager, Date date) {
+    /**
+     * The head of a cached response, up to its response date (which is not cached)
+     */
+    static String getStaticHead(XOAIManager manager, Date date) {
         if (staticHead == null) {
             staticHead = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
                 + ((manager.hasStyleSheet()) ? ("<?xml-stylesheet type=\"text/xsl\" href=\""
@@ -99,6 +102,18 @@ public class DSpaceXOAICacheService implements XOAICacheService {
 
     @Override
     public void store(String requestID, OAIPMH response) throws IOException {
+        FileUtils.write(this.getCacheFile(requestID), getCachedBody(response));
+    }
+
+    /**
+     * Write a response without its head, up to its response date, so it can be cached and sent later with the head
+     * returned by {@link #getStaticHead}.
+     *
+     * @param response the response
+     * @return the response without its head
+     * @throws IOException if the response can't be written
+     */
+    static String getCachedBody(OAIPMH response) throws IOException {
         ByteArrayOutputStream output = new ByteArrayOutputStream();
         try {
             XmlOutputContext context = XmlOutputContext.emptyContext(output, Second);
@@ -114,8 +129,7 @@ public class DSpaceXOAICacheService implements XOAICacheService {
             if (pos > 0) {
                 xoaiResponse = xoaiResponse.substring(pos + (end.length()));
             }
-
-            FileUtils.write(this.getCacheFile(requestID), xoaiResponse);
+            return xoaiResponse;
         } catch (XMLStreamException e) {
             throw new IOException(e);
         } catch (WritingXmlException e) {
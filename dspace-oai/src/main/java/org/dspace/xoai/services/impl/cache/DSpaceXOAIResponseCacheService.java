@@ -0,0 +1,547 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.services.impl.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.lyncode.xoai.dataprovider.core.XOAIManager;
+import com.lyncode.xoai.dataprovider.xml.oaipmh.OAIPMH;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.util.MBeanUtils;
+import org.dspace.xoai.services.api.cache.XOAICacheService;
+import org.dspace.xoai.services.api.cache.XOAICacheTags;
+import org.dspace.xoai.services.api.config.ConfigurationService;
+import org.ehcache.Cache;
+import org.ehcache.PersistentCacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.Duration;
+import org.ehcache.expiry.Expirations;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Cache of the OAI responses in a single bounded store (an Ehcache disk store in "oai.cache.dir"/responses), rather
+ * than in one file per request.
+ * <p>
+ * The store holds up to "oai.cache.max_size" MB of responses (the most used ones are also kept on the heap, up to
+ * "oai.cache.heap_entries" responses), evicting the least used ones; a response expires "oai.cache.ttl" seconds
+ * after it was cached. The store is opened by the first OAI request and emptied when the webapp stops.
+ * <p>
+ * Each response is cached with the {@link XOAICacheTags tags} of what it depends on, so an import only invalidates
+ * the responses depending on the items it changed. Imports run in another process than the webapp: invalidations are
+ * appended to a journal ("oai.cache.dir"/responses.journal), which the webapp reads at most once per second. A cached
+ * response is invalid once any of its tags was invalidated after its request started; invalid responses are removed
+ * as they are found. A full import or "clean-cache" restarts the journal, invalidating all responses.
+ */
+public class DSpaceXOAIResponseCacheService implements XOAICacheService, XOAIResponseCacheMXBean, DisposableBean {
+
+    private static final Logger log = LogManager.getLogger(DSpaceXOAIResponseCacheService.class);
+
+    private static final String CACHE_NAME = "oai-responses";
+    private static final String STORE_DIR = "responses";
+    private static final String JOURNAL_FILE = "responses.journal";
+
+    /**
+     * The journal starts with a header identifying it, so a restarted journal is recognized
+     */
+    private static final String JOURNAL_HEADER = "oai-response-cache ";
+    private static final int JOURNAL_HEADER_LENGTH = JOURNAL_HEADER.length() + 20;
+
+    /**
+     * Journal entry invalidating all responses
+     */
+    private static final String ALL = "*";
+
+    /**
+     * Size of the journal over which it is restarted, invalidating all responses
+     */
+    private static final long MAX_JOURNAL_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Number of invalidated tags over which all responses are invalidated
+     */
+    private static final int MAX_INVALIDATED_TAGS = 100000;
+
+    private static final long JOURNAL_POLL_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    ConfigurationService configurationService;
+
+    private final XOAIManager manager;
+
+    private File directory;
+    private volatile boolean opened = false;
+    private PersistentCacheManager cacheManager;
+    private Cache<String, byte[]> cache;
+    private long ttl;
+
+    /**
+     * Incremented by each invalidation: responses are stamped with its value when their request starts
+     */
+    private final AtomicLong sequence = new AtomicLong();
+    private long allInvalidatedAt = 0;
+    /**
+     * The invalidated tags, from the least to the most recently invalidated, with their sequence and time
+     */
+    private final LinkedHashMap<String, long[]> invalidatedTags = new LinkedHashMap<>();
+
+    private String journalHeader;
+    private long journalPosition;
+    private volatile long nextJournalPoll = System.nanoTime();
+
+    /**
+     * The lookup of the request being answered by the current thread, so its response is stamped with the
+     * sequence of the start of the request and isn't read twice
+     */
+    private final ThreadLocal<Lookup> lookup = new ThreadLocal<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public DSpaceXOAIResponseCacheService(XOAIManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Open the store, with the given settings rather than the configured ones.
+     *
+     * @param directory    the cache directory
+     * @param maxSizeMB    the maximum size of the store, in MB
+     * @param heapEntries  the number of responses also kept on the heap
+     * @param ttlSeconds   the time to live of the responses, in seconds (0 for no expiry)
+     */
+    protected synchronized void init(File directory, long maxSizeMB, long heapEntries, long ttlSeconds) {
+        this.directory = directory;
+        this.ttl = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        opened = true;
+        try {
+            cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .with(CacheManagerBuilder.persistence(new File(directory, STORE_DIR)))
+                .withCache(CACHE_NAME, CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(String.class, byte[].class, ResourcePoolsBuilder
+                        .newResourcePoolsBuilder()
+                        .heap(heapEntries, EntryUnit.ENTRIES)
+                        .disk(maxSizeMB, MemoryUnit.MB, false))
+                    .withExpiry(ttlSeconds > 0
+                        ? Expirations.timeToLiveExpiration(Duration.of(ttlSeconds, TimeUnit.SECONDS))
+                        : Expirations.noExpiration()))
+                .build(true);
+            cache = cacheManager.getCache(CACHE_NAME, String.class, byte[].class);
+        } catch (RuntimeException e) {
+            log.error("Unable to open the cache of OAI responses in {}, responses won't be cached", directory, e);
+            return;
+        }
+        // the store starts empty: earlier invalidations don't matter
+        try {
+            readJournal(true);
+        } catch (IOException e) {
+            log.warn("Unable to read the journal of the cache of OAI responses", e);
+        }
+        MBeanUtils.register(this, "OAIResponseCache");
+        log.info("Caching up to {} MB of OAI responses in {}", maxSizeMB, directory);
+    }
+
+    private Cache<String, byte[]> getCache() {
+        if (!opened) {
+            synchronized (this) {
+                if (!opened) {
+                    init(getDirectory(), getLongProperty("cache.max_size", 512),
+                         getLongProperty("cache.heap_entries", 100), getLongProperty("cache.ttl", 86400));
+                }
+            }
+        }
+        return cache;
+    }
+
+    private File getDirectory() {
+        if (directory == null) {
+            directory = new File(configurationService.getProperty("oai.cache.dir"));
+        }
+        return directory;
+    }
+
+    private long getLongProperty(String key, long defaultValue) {
+        return NumberUtils.toLong(configurationService.getProperty("oai", key), defaultValue);
+    }
+
+    @Override
+    public boolean isActive() {
+        return getCache() != null;
+    }
+
+    @Override
+    public boolean hasCache(String requestID) {
+        Cache<String, byte[]> cache = getCache();
+        if (cache == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - nextJournalPoll >= 0) {
+            nextJournalPoll = now + JOURNAL_POLL_INTERVAL;
+            try {
+                readJournal(false);
+            } catch (IOException e) {
+                log.warn("Unable to read the journal of the cache of OAI responses", e);
+            }
+        }
+        long stamp = sequence.get();
+        Entry entry = Entry.decode(cache.get(requestID));
+        if (entry != null && !isValid(entry)) {
+            cache.remove(requestID);
+            staleEntries.incrementAndGet();
+            entry = null;
+        }
+        lookup.set(new Lookup(requestID, stamp, entry));
+        if (entry == null) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public void handle(String requestID, OutputStream out) throws IOException {
+        Lookup current = lookup.get();
+        lookup.remove();
+        Entry entry = current != null && current.requestID.equals(requestID) ? current.entry : null;
+        if (entry == null && getCache() != null) {
+            entry = Entry.decode(getCache().get(requestID));
+        }
+        if (entry == null) {
+            throw new IOException("The response to " + requestID + " isn't cached");
+        }
+        IOUtils.write(DSpaceXOAICacheService.getStaticHead(manager, new Date()), out, StandardCharsets.UTF_8);
+        out.write(entry.value, entry.bodyOffset, entry.value.length - entry.bodyOffset);
+    }
+
+    @Override
+    public void store(String requestID, OAIPMH response) throws IOException {
+        store(requestID, Set.of(XOAICacheTags.LISTS), response);
+    }
+
+    @Override
+    public void store(String requestID, Set<String> tags, OAIPMH response) throws IOException {
+        store(requestID, tags, DSpaceXOAICacheService.getCachedBody(response));
+    }
+
+    /**
+     * Store the body of a response, as returned by {@link DSpaceXOAICacheService#getCachedBody}.
+     *
+     * @param requestID the request
+     * @param tags      the tags of the response
+     * @param body      the body of the response
+     * @throws IOException if the response can't be encoded
+     */
+    protected void store(String requestID, Set<String> tags, String body) throws IOException {
+        Cache<String, byte[]> cache = getCache();
+        if (cache == null) {
+            return;
+        }
+        Lookup current = lookup.get();
+        long stamp = current != null && current.requestID.equals(requestID) ? current.stamp : sequence.get();
+        Entry entry = Entry.encode(stamp, tags, body.getBytes(StandardCharsets.UTF_8));
+        cache.put(requestID, entry.value);
+        lookup.set(new Lookup(requestID, stamp, entry));
+    }
+
+    @Override
+    public void delete(String requestID) {
+        if (getCache() != null) {
+            getCache().remove(requestID);
+        }
+    }
+
+    @Override
+    public void deleteAll() throws IOException {
+        writeJournal(List.of(ALL), true);
+        if (opened) {
+            readJournal(false);
+        }
+    }
+
+    @Override
+    public void invalidate(Collection<String> tags) throws IOException {
+        if (tags.isEmpty()) {
+            return;
+        }
+        writeJournal(tags, false);
+        if (opened) {
+            readJournal(false);
+        }
+    }
+
+    @Override
+    public void invalidateAll() throws IOException {
+        deleteAll();
+    }
+
+    /**
+     * Whether none of the tags of a cached response was invalidated since its request started
+     */
+    private synchronized boolean isValid(Entry entry) {
+        if (entry.stamp < allInvalidatedAt) {
+            return false;
+        }
+        for (String tag : entry.tags) {
+            long[] invalidation = invalidatedTags.get(tag);
+            if (invalidation != null && entry.stamp < invalidation[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void applyInvalidation(String tag) {
+        invalidations.incrementAndGet();
+        if (ALL.equals(tag) || invalidatedTags.size() >= MAX_INVALIDATED_TAGS) {
+            allInvalidatedAt = sequence.incrementAndGet();
+            invalidatedTags.clear();
+            if (cache != null) {
+                cache.clear();
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        invalidatedTags.remove(tag);
+        invalidatedTags.put(tag, new long[] {sequence.incrementAndGet(), now});
+
+        // the responses cached before the eldest invalidations have expired since (with a margin for the requests
+        // which started before an invalidation but were cached after it)
+        if (ttl > 0) {
+            Iterator<long[]> iterator = invalidatedTags.values().iterator();
+            while (iterator.hasNext() && iterator.next()[1] < now - 2 * ttl) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Apply the invalidations appended to the journal since it was last read.
+     *
+     * @param skip whether to skip the invalidations in the journal rather than apply them
+     */
+    private synchronized void readJournal(boolean skip) throws IOException {
+        File journal = new File(getDirectory(), JOURNAL_FILE);
+        if (!journal.exists()) {
+            if (journalHeader != null) {
+                applyInvalidation(ALL);
+                journalHeader = null;
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.READ);
+             FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+            long size = channel.size();
+            if (size < JOURNAL_HEADER_LENGTH) {
+                return;
+            }
+            String header = read(channel, 0, JOURNAL_HEADER_LENGTH);
+            if (!header.equals(journalHeader) || size < journalPosition) {
+                if (journalHeader != null && !skip) {
+                    // restarted journal
+                    applyInvalidation(ALL);
+                }
+                journalHeader = header;
+                journalPosition = JOURNAL_HEADER_LENGTH;
+            }
+            if (skip) {
+                journalPosition = size;
+                return;
+            }
+            if (size > journalPosition) {
+                for (String tag : read(channel, journalPosition, (int) (size - journalPosition)).split("\n")) {
+                    if (!tag.isEmpty()) {
+                        applyInvalidation(tag);
+                    }
+                }
+                journalPosition = size;
+            }
+        }
+    }
+
+    /**
+     * Append invalidations to the journal.
+     *
+     * @param tags    the invalidated tags
+     * @param restart whether to restart the journal (when all responses are invalidated)
+     */
+    private synchronized void writeJournal(Collection<String> tags, boolean restart) throws IOException {
+        File journal = new File(getDirectory(), JOURNAL_FILE);
+        Files.createDirectories(journal.getParentFile().toPath());
+        try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            long size = channel.size();
+            StringBuilder entries = new StringBuilder();
+            if (restart || size < JOURNAL_HEADER_LENGTH || size > MAX_JOURNAL_SIZE) {
+                if (size > MAX_JOURNAL_SIZE) {
+                    tags = List.of(ALL);
+                }
+                channel.truncate(0);
+                size = 0;
+                entries.append(JOURNAL_HEADER)
+                       .append(String.format("%020d", ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)));
+            }
+            for (String tag : tags) {
+                entries.append('\n').append(tag.replace('\n', ' '));
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(entries.toString().getBytes(StandardCharsets.UTF_8));
+            long position = size;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        }
+    }
+
+    private static String read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void destroy() {
+        if (cacheManager != null) {
+            MBeanUtils.unregister("OAIResponseCache");
+            cacheManager.close();
+            cacheManager = null;
+            cache = null;
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public long getStaleCount() {
+        return staleEntries.get();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    @Override
+    public synchronized int getInvalidatedTagCount() {
+        return invalidatedTags.size();
+    }
+
+    /**
+     * A cached response: the stamp of its request, its tags and its body
+     */
+    private static class Entry {
+        private final long stamp;
+        private final Set<String> tags;
+        private final byte[] value;
+        private final int bodyOffset;
+
+        private Entry(long stamp, Set<String> tags, byte[] value, int bodyOffset) {
+            this.stamp = stamp;
+            this.tags = tags;
+            this.value = value;
+            this.bodyOffset = bodyOffset;
+        }
+
+        private static Entry encode(long stamp, Set<String> tags, byte[] body) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(stamp);
+            out.writeInt(tags.size());
+            for (String tag : tags) {
+                out.writeUTF(tag);
+            }
+            int bodyOffset = out.size();
+            out.write(body);
+            out.flush();
+            return new Entry(stamp, tags, bytes.toByteArray(), bodyOffset);
+        }
+
+        private static Entry decode(byte[] value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+                long stamp = in.readLong();
+                int count = in.readInt();
+                Set<String> tags = new HashSet<>(count);
+                for (int i = 0; i < count; i++) {
+                    tags.add(in.readUTF());
+                }
+                return new Entry(stamp, tags, value, value.length - in.available());
+            } catch (IOException e) {
+                log.warn("Ignoring an unreadable cached OAI response", e);
+                return null;
+            }
+        }
+    }
+
+    private static class Lookup {
+        private final String requestID;
+        private final long stamp;
+        private final Entry entry;
+
+        private Lookup(String requestID, long stamp, Entry entry) {
+            this.requestID = requestID;
+            this.stamp = stamp;
+            this.entry = entry;
+        }
+    }
+}
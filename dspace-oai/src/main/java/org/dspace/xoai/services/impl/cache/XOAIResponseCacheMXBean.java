@@ -0,0 +1,52 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.services.impl.cache;
+
+import java.io.IOException;
+
+/**
+ * MBean type exposing the metrics of the {@link DSpaceXOAIResponseCacheService}.
+ */
+public interface XOAIResponseCacheMXBean {
+    /**
+     * @return the number of requests answered from the cache
+     */
+    public long getHitCount();
+
+    /**
+     * @return the number of requests whose response had to be computed
+     */
+    public long getMissCount();
+
+    /**
+     * @return the ratio of requests answered from the cache
+     */
+    public double getHitRate();
+
+    /**
+     * @return the number of cached responses found invalidated (counted as misses)
+     */
+    public long getStaleCount();
+
+    /**
+     * @return the number of invalidations (of a tag or of all responses) applied to the cache
+     */
+    public long getInvalidationCount();
+
+    /**
+     * @return the number of tags currently invalidated, which cached responses are checked against
+     */
+    public int getInvalidatedTagCount();
+
+    /**
+     * Invalidate all cached responses.
+     *
+     * @throws IOException if the invalidation can't be recorded
+     */
+    public void invalidateAll() throws IOException;
+}
@@ -0,0 +1,145 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.tests.unit.services.impl.cache;
+
+import static org.hamcrest.CoreMatchers.endsWith;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.lyncode.xoai.dataprovider.core.XOAIManager;
+import org.dspace.xoai.services.api.cache.XOAICacheTags;
+import org.dspace.xoai.services.impl.cache.DSpaceXOAIResponseCacheService;
+import org.dspace.xoai.services.impl.xoai.DSpaceResumptionTokenFormatter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DSpaceXOAIResponseCacheServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestCacheService underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        underTest = new TestCacheService(folder.newFolder("oai"));
+    }
+
+    @After
+    public void cleanup() {
+        underTest.destroy();
+    }
+
+    @Test
+    public void storedResponseIsServed() throws Exception {
+        assertThat(underTest.hasCache("request"), is(false));
+        underTest.store("request", Set.of(XOAICacheTags.LISTS), "<body/>");
+        assertThat(underTest.hasCache("request"), is(true));
+        assertThat(handle("request"), endsWith("</responseDate><body/>"));
+
+        assertThat(underTest.getHitCount(), is(1L));
+        assertThat(underTest.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void invalidationOnlyRemovesTaggedResponses() throws Exception {
+        cache("record", XOAICacheTags.item("123/1"));
+        cache("otherRecord", XOAICacheTags.item("123/2"));
+        cache("set", XOAICacheTags.set("col_123_10"));
+        cache("otherSet", XOAICacheTags.set("col_123_11"));
+        cache("list", XOAICacheTags.LISTS);
+
+        underTest.invalidate(XOAICacheTags.forItem("123/1", List.of("col_123_10")));
+
+        assertThat(underTest.hasCache("record"), is(false));
+        assertThat(underTest.hasCache("set"), is(false));
+        assertThat(underTest.hasCache("list"), is(false));
+        assertThat(underTest.hasCache("otherRecord"), is(true));
+        assertThat(underTest.hasCache("otherSet"), is(true));
+        assertThat(underTest.getStaleCount(), is(3L));
+    }
+
+    @Test
+    public void responseComputedBeforeInvalidationIsNotServed() throws Exception {
+        assertThat(underTest.hasCache("record"), is(false));
+        // the item changes while its response is computed
+        underTest.invalidate(Set.of(XOAICacheTags.item("123/1")));
+        underTest.store("record", Set.of(XOAICacheTags.item("123/1")), "<old/>");
+
+        assertThat(underTest.hasCache("record"), is(false));
+        cache("record", XOAICacheTags.item("123/1"));
+        assertThat(underTest.hasCache("record"), is(true));
+    }
+
+    @Test
+    public void deleteAllRemovesAllResponses() throws Exception {
+        cache("record", XOAICacheTags.item("123/1"));
+        cache("set", XOAICacheTags.set("col_123_10"));
+
+        underTest.deleteAll();
+
+        assertThat(underTest.hasCache("record"), is(false));
+        assertThat(underTest.hasCache("set"), is(false));
+        cache("set", XOAICacheTags.set("col_123_10"));
+        assertThat(underTest.hasCache("set"), is(true));
+    }
+
+    @Test
+    public void requestTags() {
+        DSpaceResumptionTokenFormatter formatter = new DSpaceResumptionTokenFormatter();
+        assertThat(XOAICacheTags.forRequest(Map.of("verb", List.of("GetRecord"),
+                                                   "identifier", List.of("oai:example.org:123/1")), formatter),
+                   is(Set.of("item:123/1")));
+        assertThat(XOAICacheTags.forRequest(Map.of("verb", List.of("ListRecords"),
+                                                   "set", List.of("col_123_10")), formatter),
+                   is(Set.of("set:col_123_10")));
+        assertThat(XOAICacheTags.forRequest(Map.of("verb", List.of("ListIdentifiers"),
+                                                   "resumptionToken", List.of("oai_dc///com_123_1/100")), formatter),
+                   is(Set.of("set:com_123_1")));
+        assertThat(XOAICacheTags.forRequest(Map.of("verb", List.of("ListRecords"),
+                                                   "set", List.of("driver")), formatter),
+                   is(Set.of(XOAICacheTags.LISTS)));
+        assertThat(XOAICacheTags.forRequest(Map.of("verb", List.of("Identify")), formatter),
+                   is(Set.of(XOAICacheTags.LISTS)));
+    }
+
+    private void cache(String requestID, String tag) throws IOException {
+        underTest.hasCache(requestID);
+        underTest.store(requestID, Set.of(tag), "<" + requestID + "/>");
+    }
+
+    private String handle(String requestID) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        underTest.handle(requestID, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static class TestCacheService extends DSpaceXOAIResponseCacheService {
+        TestCacheService(File directory) {
+            super(mock(XOAIManager.class));
+            init(directory, 10, 10, 3600);
+        }
+
+        @Override
+        public void store(String requestID, Set<String> tags, String body) throws IOException {
+            super.store(requestID, tags, body);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import static org.dspace.app.rest.utils.ContextUtil.obtainContext;
 import static org.dspace.app.rest.utils.RegexUtils.REGEX_REQUESTMAPPING_IDENTIFIER_AS_UUID;
 import static org.springframework.web.bind.annotation.RequestMethod.PUT;
 
+import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.dspace.app.rest.converter.ConverterService;
 import org.dspace.app.rest.exception.DSpaceBadRequestException;
 import org.dspace.app.rest.model.BitstreamRest;
 import org.dspace.app.rest.model.hateoas.BitstreamResource;
+import org.dspace.app.rest.utils.BitstreamContentSender;
 import org.dspace.app.rest.utils.ContextUtil;
 import org.dspace.app.rest.utils.HttpHeadersInitializer;
 import org.dspace.app.rest.utils.Utils;
@@ -152,18 +154,53 @@ public class BitstreamRestController {
                 httpHeadersInitializer.withDisposition(HttpHeadersInitializer.CONTENT_DISPOSITION_ATTACHMENT);
             }
 
-            org.dspace.app.rest.utils.BitstreamResource bitstreamResource =
-                new org.dspace.app.rest.utils.BitstreamResource(name, uuid,
-                    currentUser != null ? currentUser.getID() : null,
-                    context.getSpecialGroupUuids(), citationEnabledForBitstream);
-
-            //We have all the data we need, close the connection to the database so that it doesn't stay open during
-            //download/streaming
-            context.complete();
+            if (!httpHeadersInitializer.isValid()) {
+                context.complete();
+                return null;
+            }
 
-            //Send the data
-            if (httpHeadersInitializer.isValid()) {
+            //Use the cached cited document when there is a cover page, unless the cache is disabled
+            File citedDocument = null;
+            boolean generateCoverPage = false;
+            if (citationEnabledForBitstream) {
+                try {
+                    citedDocument = citationDocumentService.getCachedCitedDocument(context, bit);
+                    generateCoverPage = citedDocument == null;
+                } catch (Exception e) {
+                    //Send the original bitstream without the cover page
+                    log.error("Unable to create the cited document of bitstream " + uuid, e);
+                }
+            }
+            org.dspace.app.rest.utils.BitstreamResource bitstreamResource = citedDocument != null
+                ? new org.dspace.app.rest.utils.BitstreamResource(name, uuid, citedDocument)
+                : new org.dspace.app.rest.utils.BitstreamResource(name, uuid,
+                    currentUser != null ? currentUser.getID() : null,
+                    context.getSpecialGroupUuids(), generateCoverPage);
+
+            //Unless a cover page is generated, send the content (or the requested range of it) ourselves, without
+            //copying local files through the heap nor reading the bytes before the range from the asset store
+            try (BitstreamContentSender contentSender = generateCoverPage ? null :
+                citedDocument != null
+                    //The cited document changes with the item, so If-Range never matches the bitstream checksum
+                    ? BitstreamContentSender.forRequest(request, response, citedDocument.length(), null, null,
+                                                        BUFFER_SIZE)
+                    : BitstreamContentSender.forRequest(request, response, bit, lastModified, BUFFER_SIZE)) {
+                if (contentSender != null && citedDocument != null) {
+                    contentSender.open(citedDocument);
+                } else if (contentSender != null) {
+                    contentSender.open(context, bit);
+                }
+
+                //We have all the data we need, close the connection to the database so that it doesn't stay open
+                //during download/streaming
+                context.complete();
+
+                //Send the data
                 HttpHeaders httpHeaders = httpHeadersInitializer.initialiseHeaders();
+                if (contentSender != null) {
+                    contentSender.send(httpHeaders);
+                    return null;
+                }
                 return ResponseEntity.ok().headers(httpHeaders).body(bitstreamResource);
             }
 
@@ -8,6 +8,8 @@
 package org.dspace.app.rest.authorization;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.dspace.app.rest.model.BaseObjectRest;
 import org.dspace.app.rest.model.RestAddressableModel;
@@ -35,6 +37,27 @@ public interface AuthorizationFeature {
      */
     boolean isAuthorized(Context context, BaseObjectRest object) throws SQLException;
 
+    /**
+     * Check if the eperson in the provided context, or the anonymous user if not loggedin, has access to the feature
+     * for each of the requested objects. The default implementation checks the objects one by one; features which
+     * can evaluate many objects at once (e.g. prefetching their policies) should override it.
+     *
+     * @param context
+     *            the DSpace Context
+     * @param objects
+     *            the objects target by the feature, all NOT null and of a supported type
+     * @return the objects the user associated with the context has access to the feature for, in the given order
+     */
+    default List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects) throws SQLException {
+        List<BaseObjectRest> authorized = new ArrayList<>();
+        for (BaseObjectRest object : objects) {
+            if (isAuthorized(context, object)) {
+                authorized.add(object);
+            }
+        }
+        return authorized;
+    }
+
     /**
      * Return the name of the feature
      * 
@@ -36,6 +36,22 @@ public interface AuthorizationFeatureService {
      */
     boolean isAuthorized(Context context, AuthorizationFeature feature, BaseObjectRest object) throws SQLException;
 
+    /**
+     * Check if the eperson in the provided context, or the anonymous user if not loggedin, has access to the requested
+     * feature for each of the requested objects, letting the feature evaluate them all at once
+     *
+     * @param context
+     *            the DSpace Context
+     * @param feature
+     *            the Authorization Feature to check
+     * @param objects
+     *            the objects target by the feature. Null objects, and objects of a type not supported by the feature,
+     *            are never authorized
+     * @return the objects the user has access to the feature for, in the given order
+     */
+    List<BaseObjectRest> findAuthorized(Context context, AuthorizationFeature feature, List<BaseObjectRest> objects)
+        throws SQLException;
+
     /**
      * Get all the authorization features defined in the system
      *
@@ -8,7 +8,12 @@
 package org.dspace.app.rest.authorization;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
 import org.dspace.app.rest.model.BaseObjectRest;
 import org.dspace.app.rest.security.DSpaceRestPermission;
@@ -55,17 +60,64 @@ public class AuthorizeServiceRestUtil {
 
         EPerson ePerson = context.getCurrentUser();
 
-        // If the item is still inprogress we can process here only the READ permission.
-        // Other actions need to be evaluated against the wrapper object (workspace or workflow item)
-        if (dSpaceObject instanceof Item) {
-            Item item = (Item) dSpaceObject;
-            if (!DSpaceRestPermission.READ.equals(dSpaceRestPermission)
-                && (itemService.isInProgressSubmission(context, item) || Objects.nonNull(item.getTemplateItemOf()))) {
-                return false;
-            }
+        if (isWrappedItem(context, dSpaceObject, dSpaceRestPermission)) {
+            return false;
         }
 
         return authorizeService.authorizeActionBoolean(context, ePerson, dSpaceObject,
             dSpaceRestPermission.getDspaceApiActionId(), true);
     }
+
+    /**
+     * Batch version of {@link #authorizeActionBoolean}: keep the rest objects on which the logged in ePerson can
+     * perform the given action, evaluating the policies of all the objects at once.
+     *
+     * @param context               DSpace context
+     * @param objects               The Rest objects to test the action against
+     * @param dSpaceRestPermission  The permission to check
+     * @return The objects on which the action is allowed, in the given order
+     * @throws SQLException
+     */
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects,
+                                               DSpaceRestPermission dSpaceRestPermission)
+        throws SQLException {
+
+        List<DSpaceObject> dSpaceObjects = new ArrayList<>(objects.size());
+        for (BaseObjectRest object : objects) {
+            DSpaceObject dSpaceObject = (DSpaceObject) utils.getDSpaceAPIObjectFromRest(context, object);
+            if (isWrappedItem(context, dSpaceObject, dSpaceRestPermission)) {
+                dSpaceObject = null;
+            }
+            dSpaceObjects.add(dSpaceObject);
+        }
+
+        Set<UUID> authorizedIds = new HashSet<>();
+        for (DSpaceObject dSpaceObject : authorizeService.filterAuthorized(context, dSpaceObjects,
+                dSpaceRestPermission.getDspaceApiActionId(), true)) {
+            authorizedIds.add(dSpaceObject.getID());
+        }
+
+        List<BaseObjectRest> authorized = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            if (dSpaceObjects.get(i) != null && authorizedIds.contains(dSpaceObjects.get(i).getID())) {
+                authorized.add(objects.get(i));
+            }
+        }
+        return authorized;
+    }
+
+    /**
+     * If the item is still inprogress we can process here only the READ permission.
+     * Other actions need to be evaluated against the wrapper object (workspace or workflow item)
+     */
+    private boolean isWrappedItem(Context context, DSpaceObject dSpaceObject,
+                                  DSpaceRestPermission dSpaceRestPermission) throws SQLException {
+        if (dSpaceObject instanceof Item && !DSpaceRestPermission.READ.equals(dSpaceRestPermission)) {
+            Item item = (Item) dSpaceObject;
+            // an archived item can't be a workspace or workflow item, no need to look for them
+            return Objects.nonNull(item.getTemplateItemOf())
+                || (!item.isArchived() && itemService.isInProgressSubmission(context, item));
+        }
+        return false;
+    }
 }
@@ -8,6 +8,10 @@
 package org.dspace.app.rest.authorization.impl;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.dspace.app.rest.authorization.AuthorizationFeature;
 import org.dspace.app.rest.authorization.AuthorizationFeatureDocumentation;
@@ -20,6 +24,7 @@ import org.dspace.app.rest.utils.Utils;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.content.Collection;
 import org.dspace.content.Community;
+import org.dspace.content.DSpaceObject;
 import org.dspace.content.Item;
 import org.dspace.core.Context;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -63,6 +68,36 @@ public class AdministratorOfFeature implements AuthorizationFeature {
         return authService.isAdmin(context);
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects) throws SQLException {
+        List<DSpaceObject> dSpaceObjects = new ArrayList<>(objects.size());
+        for (BaseObjectRest object : objects) {
+            if (object instanceof CommunityRest || object instanceof CollectionRest || object instanceof ItemRest) {
+                dSpaceObjects.add((DSpaceObject) utils.getDSpaceAPIObjectFromRest(context, object));
+            } else {
+                dSpaceObjects.add(null);
+            }
+        }
+        Set<DSpaceObject> administered = new HashSet<>(authService.filterAdmin(context, dSpaceObjects));
+        Boolean siteAdmin = null;
+        List<BaseObjectRest> authorized = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            boolean admin;
+            if (dSpaceObjects.get(i) != null) {
+                admin = administered.contains(dSpaceObjects.get(i));
+            } else {
+                if (siteAdmin == null) {
+                    siteAdmin = authService.isAdmin(context);
+                }
+                admin = siteAdmin;
+            }
+            if (admin) {
+                authorized.add(objects.get(i));
+            }
+        }
+        return authorized;
+    }
+
     @Override
     public String[] getSupportedTypes() {
         return new String[]{
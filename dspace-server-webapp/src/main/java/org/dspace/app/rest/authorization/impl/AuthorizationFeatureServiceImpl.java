@@ -8,6 +8,7 @@
 package org.dspace.app.rest.authorization.impl;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -52,6 +53,25 @@ public class AuthorizationFeatureServiceImpl implements AuthorizationFeatureServ
         return feature.isAuthorized(context, object);
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, AuthorizationFeature feature,
+                                               List<BaseObjectRest> objects) throws SQLException {
+        if (feature == null) {
+            return new ArrayList<>();
+        }
+
+        // the authorization interface require that the objects are not null
+        List<BaseObjectRest> supported = objects.stream()
+                .filter(object -> object != null
+                        && ArrayUtils.contains(feature.getSupportedTypes(), object.getUniqueType()))
+                .collect(Collectors.toList());
+        if (supported.isEmpty()) {
+            return supported;
+        }
+
+        return feature.findAuthorized(context, supported);
+    }
+
     @Override
     public List<AuthorizationFeature> findAll() {
         return features;
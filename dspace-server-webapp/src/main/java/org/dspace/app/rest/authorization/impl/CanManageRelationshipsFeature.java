@@ -7,6 +7,10 @@
  */
 package org.dspace.app.rest.authorization.impl;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.dspace.app.rest.authorization.AuthorizationFeature;
 import org.dspace.app.rest.authorization.AuthorizationFeatureDocumentation;
@@ -49,6 +53,23 @@ public class CanManageRelationshipsFeature implements AuthorizationFeature {
         return false;
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects) throws SQLException {
+        List<DSpaceObject> dSpaceObjects = new ArrayList<>(objects.size());
+        for (BaseObjectRest object : objects) {
+            dSpaceObjects.add((DSpaceObject) utils.getDSpaceAPIObjectFromRest(context, object));
+        }
+        Set<DSpaceObject> authorized =
+                new HashSet<>(authorizeService.filterAuthorized(context, dSpaceObjects, Constants.WRITE, true));
+        List<BaseObjectRest> result = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            if (authorized.contains(dSpaceObjects.get(i))) {
+                result.add(objects.get(i));
+            }
+        }
+        return result;
+    }
+
     @Override
     public String[] getSupportedTypes() {
         return new String[]{
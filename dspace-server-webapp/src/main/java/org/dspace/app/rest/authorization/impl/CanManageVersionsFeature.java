@@ -7,8 +7,12 @@
  */
 package org.dspace.app.rest.authorization.impl;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.dspace.app.rest.authorization.AuthorizationFeature;
 import org.dspace.app.rest.authorization.AuthorizationFeatureDocumentation;
@@ -59,6 +63,24 @@ public class CanManageVersionsFeature implements AuthorizationFeature {
         return false;
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects) throws SQLException {
+        boolean isEnabled = configurationService.getBooleanProperty("versioning.enabled", true);
+        if (!isEnabled || Objects.isNull(context.getCurrentUser())) {
+            return new ArrayList<>();
+        }
+        List<UUID> ids = objects.stream()
+                                .map(object -> UUID.fromString(((ItemRest) object).getUuid()))
+                                .collect(Collectors.toList());
+        Set<UUID> administered = authorizeService.filterAdmin(context, itemService.findByIds(context, ids))
+                                                 .stream()
+                                                 .map(Item::getID)
+                                                 .collect(Collectors.toSet());
+        return objects.stream()
+                      .filter(object -> administered.contains(UUID.fromString(((ItemRest) object).getUuid())))
+                      .collect(Collectors.toList());
+    }
+
     @Override
     public String[] getSupportedTypes() {
         return new String[]{
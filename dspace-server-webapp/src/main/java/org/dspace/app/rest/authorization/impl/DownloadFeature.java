@@ -8,6 +8,7 @@
 package org.dspace.app.rest.authorization.impl;
 
 import java.sql.SQLException;
+import java.util.List;
 
 import org.dspace.app.rest.authorization.AuthorizationFeature;
 import org.dspace.app.rest.authorization.AuthorizationFeatureDocumentation;
@@ -42,6 +43,11 @@ public class DownloadFeature implements AuthorizationFeature {
         return false;
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects) throws SQLException {
+        return authorizeServiceRestUtil.findAuthorized(context, objects, DSpaceRestPermission.READ);
+    }
+
     @Override
     public String[] getSupportedTypes() {
         return new String[]{
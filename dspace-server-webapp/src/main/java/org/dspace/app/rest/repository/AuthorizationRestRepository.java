@@ -13,7 +13,13 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -218,18 +224,57 @@ public class AuthorizationRestRepository extends DSpaceRestRepository<Authorizat
             .map(uuid -> utils.getBaseObjectRestFromTypeAndUUID(context, type, uuid))
             .collect(Collectors.toList());
 
-        objects.forEach(object ->
-            featureNames.forEach(featureName -> {
-                try {
-                    authorizations.addAll(authorizationsForObject(context, user, featureName, object));
-                } catch (Exception ex) {
-                    log.error("An error occurred during authorizations check");
-                    throw new RuntimeException(ex);
+        // check each feature against all the objects at once, so that it can evaluate them in bulk
+        Map<String, List<AuthorizationFeature>> features = new LinkedHashMap<>();
+        Map<AuthorizationFeature, Set<BaseObjectRest>> authorizedObjects = new IdentityHashMap<>();
+        try {
+            for (String featureName : featureNames) {
+                List<AuthorizationFeature> namedFeatures = findFeatures(featureName, objects);
+                features.put(featureName, namedFeatures);
+                for (AuthorizationFeature feature : namedFeatures) {
+                    if (!authorizedObjects.containsKey(feature)) {
+                        Set<BaseObjectRest> authorized = Collections.newSetFromMap(new IdentityHashMap<>());
+                        authorized.addAll(authorizationFeatureService.findAuthorized(context, feature, objects));
+                        authorizedObjects.put(feature, authorized);
+                    }
                 }
-            }));
+            }
+        } catch (Exception ex) {
+            log.error("An error occurred during authorizations check");
+            throw new RuntimeException(ex);
+        }
+
+        for (BaseObjectRest object : objects) {
+            for (String featureName : featureNames) {
+                for (AuthorizationFeature feature : features.get(featureName)) {
+                    if (authorizedObjects.get(feature).contains(object)) {
+                        authorizations.add(new Authorization(user, feature, object));
+                    }
+                }
+            }
+        }
         return authorizations;
     }
 
+    /**
+     * Get the feature with the given name, or all the features applying to the objects if no name is given.
+     *
+     * @param featureName the name of the feature, may be blank
+     * @param objects     the objects, all of the same type (null entries are ignored)
+     * @return the features, empty if there is no feature with the given name
+     */
+    private List<AuthorizationFeature> findFeatures(String featureName, List<BaseObjectRest> objects) {
+        if (isNotBlank(featureName)) {
+            AuthorizationFeature feature = authorizationFeatureService.find(featureName);
+            return feature == null ? emptyList() : singletonList(feature);
+        }
+        return objects.stream()
+            .filter(Objects::nonNull)
+            .findFirst()
+            .map(object -> authorizationFeatureService.findByResourceType(object.getUniqueType()))
+            .orElse(emptyList());
+    }
+
     private List<Authorization> findAuthorizationsForUri(
         Context context,
         EPerson user,
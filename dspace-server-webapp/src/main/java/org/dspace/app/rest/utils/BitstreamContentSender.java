@@ -0,0 +1,292 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.rest.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.catalina.Globals;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.dspace.authorize.AuthorizeException;
+import org.dspace.content.Bitstream;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.BitstreamService;
+import org.dspace.core.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+/**
+ * Sends the content of a bitstream, or a single range of it, straight to the response, rather than through a
+ * {@link BitstreamResource} and Spring's message converters (which copy the whole stream through the heap and
+ * read a range by skipping all the bytes before it).
+ * <p>
+ * When the asset store keeps the bitstream as a local file, the file is sent with sendfile if the servlet container
+ * supports it (Tomcat with a NIO connector), or else with {@link FileChannel#transferTo}. Otherwise only the
+ * requested range is retrieved from the asset store. A cached cited document (with a citation cover page) may be sent
+ * in place of the content of the bitstream, see {@link #open(File)}.
+ * <p>
+ * Requests for multiple ranges are left to Spring, see {@link #forRequest}.
+ */
+public class BitstreamContentSender implements Closeable {
+
+    protected final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private static final String RANGE = "Range";
+    private static final String IF_RANGE = "If-Range";
+    private static final String CONTENT_RANGE = "Content-Range";
+
+    private final BitstreamService bitstreamService = ContentServiceFactory.getInstance().getBitstreamService();
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final long size;
+    private final int bufferSize;
+
+    /**
+     * The requested range, the whole bitstream when not partial
+     */
+    private long start;
+    private long length;
+    private boolean partial = false;
+    private boolean satisfiable = true;
+
+    private File file;
+    private FileChannel channel;
+    private InputStream stream;
+
+    private BitstreamContentSender(HttpServletRequest request, HttpServletResponse response, long size,
+                                   int bufferSize) {
+        this.request = request;
+        this.response = response;
+        this.size = size;
+        this.bufferSize = bufferSize;
+        this.start = 0;
+        this.length = size;
+    }
+
+    /**
+     * Prepare to send the content of a bitstream in answer to a GET request, with or without a single range.
+     *
+     * @param request      the request
+     * @param response     the response
+     * @param bitstream    the bitstream
+     * @param lastModified the last modification date of the bitstream, if known
+     * @param bufferSize   the size of the buffer used when copying a stream
+     * @return the sender, or null if the request must be answered through Spring (HEAD or multiple ranges)
+     */
+    public static BitstreamContentSender forRequest(HttpServletRequest request, HttpServletResponse response,
+                                                    Bitstream bitstream, Long lastModified, int bufferSize) {
+        return forRequest(request, response, bitstream.getSizeBytes(), bitstream.getChecksum(), lastModified,
+                          bufferSize);
+    }
+
+    /**
+     * Prepare to send some content in answer to a GET request, with or without a single range.
+     *
+     * @param request      the request
+     * @param response     the response
+     * @param size         the size of the content
+     * @param checksum     the checksum (entity tag) of the content, if known
+     * @param lastModified the last modification date of the content, if known
+     * @param bufferSize   the size of the buffer used when copying a stream
+     * @return the sender, or null if the request must be answered through Spring (HEAD or multiple ranges)
+     */
+    public static BitstreamContentSender forRequest(HttpServletRequest request, HttpServletResponse response,
+                                                    long size, String checksum, Long lastModified,
+                                                    int bufferSize) {
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+        BitstreamContentSender sender = new BitstreamContentSender(request, response, size, bufferSize);
+        String rangeHeader = request.getHeader(RANGE);
+        if (StringUtils.isBlank(rangeHeader) || !matchesIfRange(request, checksum, lastModified)) {
+            return sender;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            sender.satisfiable = false;
+            return sender;
+        }
+        if (ranges.size() > 1) {
+            return null;
+        }
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            long first;
+            long last;
+            try {
+                first = range.getRangeStart(size);
+                last = Math.min(range.getRangeEnd(size), size - 1);
+            } catch (IllegalArgumentException e) {
+                sender.satisfiable = false;
+                return sender;
+            }
+            if (first >= size || first > last) {
+                sender.satisfiable = false;
+                return sender;
+            }
+            sender.partial = true;
+            sender.start = first;
+            sender.length = last - first + 1;
+        }
+        return sender;
+    }
+
+    /**
+     * The Range header is ignored when an If-Range header doesn't match the current version of the bitstream
+     */
+    private static boolean matchesIfRange(HttpServletRequest request, String checksum, Long lastModified) {
+        String ifRange = request.getHeader(IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Only strong entity tags are allowed in If-Range
+            return checksum != null && ifRange.equals("\"" + checksum + "\"");
+        }
+        try {
+            long date = request.getDateHeader(IF_RANGE);
+            return lastModified != null && date != -1 && lastModified / 1000 == date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Open the content to send, while the context is still available.
+     *
+     * @param context   the DSpace context
+     * @param bitstream the bitstream
+     * @throws IOException        if the content can't be opened
+     * @throws SQLException       if database error
+     * @throws AuthorizeException if the current user may not read the bitstream
+     */
+    public void open(Context context, Bitstream bitstream) throws IOException, SQLException, AuthorizeException {
+        if (!satisfiable || length == 0) {
+            return;
+        }
+        file = bitstreamService.getLocalFile(context, bitstream);
+        if (file == null) {
+            stream = partial ? bitstreamService.retrieve(context, bitstream, start, length)
+                : bitstreamService.retrieve(context, bitstream);
+        }
+    }
+
+    /**
+     * Open a file to send, such as a cached file, in place of the content of the bitstream. The file is opened right
+     * away, as it may be removed (e.g. evicted from the cache) before the content is sent.
+     *
+     * @param file the file, holding the content whose size was given to {@link #forRequest}
+     * @throws IOException if the file can't be opened
+     */
+    public void open(File file) throws IOException {
+        if (!satisfiable || length == 0) {
+            return;
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Send the headers and the content.
+     *
+     * @param headers the headers prepared by the {@link HttpHeadersInitializer}
+     * @throws IOException if the content can't be read or sent
+     */
+    public void send(HttpHeaders headers) throws IOException {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey())) {
+                    response.setContentType(value);
+                } else if (HttpHeaders.ETAG.equalsIgnoreCase(header.getKey()) && !value.startsWith("\"")) {
+                    response.addHeader(header.getKey(), "\"" + value + "\"");
+                } else {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+
+        if (!satisfiable) {
+            response.setHeader(CONTENT_RANGE, "bytes */" + size);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+        response.setContentLengthLong(length);
+
+        if (channel != null) {
+            transfer(channel);
+        } else if (file != null) {
+            sendFile();
+        } else if (stream != null) {
+            OutputStream out = response.getOutputStream();
+            IOUtils.copyLarge(stream, out, new byte[bufferSize]);
+            out.flush();
+        }
+    }
+
+    private void sendFile() throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            // Tomcat sends the file once the request is processed
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, start);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, start + length);
+            return;
+        }
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            transfer(fileChannel);
+        }
+    }
+
+    private void transfer(FileChannel source) throws IOException {
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long sent = source.transferTo(position, remaining, target);
+            if (sent <= 0 && position >= source.size()) {
+                throw new IOException("Unexpected end of the content at " + position);
+            }
+            position += sent;
+            remaining -= sent;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -8,6 +8,8 @@
 package org.dspace.app.rest.utils;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
@@ -41,6 +43,7 @@ public class BitstreamResource extends AbstractResource {
     private UUID currentUserUUID;
     private boolean shouldGenerateCoverPage;
     private byte[] file;
+    private File citedDocument;
     private Set<UUID> currentSpecialGroups;
 
     private BitstreamService bitstreamService = ContentServiceFactory.getInstance().getBitstreamService();
@@ -58,6 +61,16 @@ public class BitstreamResource extends AbstractResource {
         this.shouldGenerateCoverPage = shouldGenerateCoverPage;
     }
 
+    /**
+     * Create a resource sending the given cited document (with a cover page), already generated and cached, in
+     * place of the content of the bitstream.
+     */
+    public BitstreamResource(String name, UUID uuid, File citedDocument) {
+        this.name = name;
+        this.uuid = uuid;
+        this.citedDocument = citedDocument;
+    }
+
     /**
      * Get Potential cover page by array, this method should only be called when a coverpage should be generated
      * In case of failure the original file will be returned
@@ -87,6 +100,9 @@ public class BitstreamResource extends AbstractResource {
 
     @Override
     public InputStream getInputStream() throws IOException {
+        if (citedDocument != null) {
+            return new FileInputStream(citedDocument);
+        }
         try (Context context = initializeContext()) {
 
             Bitstream bitstream = bitstreamService.find(context, uuid);
@@ -112,6 +128,9 @@ public class BitstreamResource extends AbstractResource {
 
     @Override
     public long contentLength() throws IOException {
+        if (citedDocument != null) {
+            return citedDocument.length();
+        }
         try (Context context = initializeContext()) {
             Bitstream bitstream = bitstreamService.find(context, uuid);
             if (shouldGenerateCoverPage) {
@@ -0,0 +1,160 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Load test of bitstream downloads, measuring the throughput of a running server for concurrent full downloads and
+ * for video-like seeks (requests for a random range of the bitstream).
+ * <p>
+ * Skipped unless the URL of the content of a (preferably large) bitstream is given, e.g.:
+ * <pre>
+ * mvn test -DskipUnitTests=false -Dtest=BitstreamDownloadLoadTest \
+ *     -Dloadtest.url=http://localhost:8080/server/api/core/bitstreams/[uuid]/content \
+ *     -Dloadtest.threads=32 -Dloadtest.duration=60 -Dloadtest.rangeSize=1048576
+ * </pre>
+ * The "loadtest.authorization" property may give the Authorization header to use for restricted bitstreams.
+ */
+public class BitstreamDownloadLoadTest {
+
+    private static final Logger log = LogManager.getLogger(BitstreamDownloadLoadTest.class);
+
+    private String url;
+    private String authorization;
+    private int threads;
+    private int duration;
+    private long rangeSize;
+    private HttpClient client;
+
+    @Before
+    public void setUp() {
+        url = System.getProperty("loadtest.url");
+        assumeTrue("No loadtest.url given, skipping the load test", StringUtils.isNotBlank(url));
+        authorization = System.getProperty("loadtest.authorization");
+        threads = Integer.getInteger("loadtest.threads", 16);
+        duration = Integer.getInteger("loadtest.duration", 30);
+        rangeSize = Long.getLong("loadtest.rangeSize", 1024 * 1024);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @Test
+    public void fullDownloads() throws Exception {
+        run("full downloads", size -> null);
+    }
+
+    @Test
+    public void seeks() throws Exception {
+        run("seeks", size -> {
+            long start = ThreadLocalRandom.current().nextLong(Math.max(1, size - rangeSize));
+            return new long[] {start, Math.min(size, start + rangeSize) - 1};
+        });
+    }
+
+    /**
+     * Chooses the range to request, null for the whole bitstream
+     */
+    private interface RangeChooser {
+        long[] choose(long size);
+    }
+
+    private void run(String name, RangeChooser rangeChooser) throws Exception {
+        long size = send(null);
+        AtomicLong requests = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(duration);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                while (System.nanoTime() < end && errors.isEmpty()) {
+                    try {
+                        long requestStart = System.nanoTime();
+                        bytes.addAndGet(send(rangeChooser.choose(size)));
+                        latencies.add(System.nanoTime() - requestStart);
+                        requests.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.add(e);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration + 60L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+        Collections.sort(latencies);
+        log.info(String.format("%s of %d bytes with %d threads: %d requests in %.1f s, %.1f requests/s, %.1f MB/s, "
+                                   + "latency p50 %.1f ms, p99 %.1f ms", name, size, threads, requests.get(),
+                               elapsed, requests.get() / elapsed, bytes.get() / elapsed / 1024 / 1024,
+                               percentile(latencies, 0.5), percentile(latencies, 0.99)));
+    }
+
+    /**
+     * Send a request and read the response
+     *
+     * @return the number of bytes received
+     */
+    private long send(long[] range) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        if (range != null) {
+            builder.header("Range", "bytes=" + range[0] + "-" + range[1]);
+        }
+        HttpResponse<InputStream> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(range == null ? 200 : 206, response.statusCode());
+        long received = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = response.body()) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                received += read;
+            }
+        }
+        if (range != null) {
+            assertEquals(range[1] - range[0] + 1, received);
+        }
+        return received;
+    }
+
+    private double percentile(List<Long> sortedLatencies, double percentile) {
+        if (sortedLatencies.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedLatencies.size() - 1, Math.round(percentile * sortedLatencies.size()));
+        return sortedLatencies.get(index) / 1e6;
+    }
+}
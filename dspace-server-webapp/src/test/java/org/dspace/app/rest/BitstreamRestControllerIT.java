@@ -28,6 +28,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.springframework.data.rest.webmvc.RestMediaTypes.TEXT_URI_LIST_VALUE;
@@ -47,6 +48,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.UUID;
 
 import org.apache.commons.io.IOUtils;
@@ -302,6 +304,96 @@ public class BitstreamRestControllerIT extends AbstractControllerIntegrationTest
             checkNumberOfStatsRecords(bitstream, 0);
     }
 
+    @Test
+    public void retrieveSuffixRangeBitstream() throws Exception {
+        bitstream = createPublicBitstream("0123456789");
+
+        //We download the last 3 bytes of the bitstream
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .header("Range", "bytes=-3"))
+                   .andExpect(status().is(206))
+                   .andExpect(header().longValue("Content-Length", 3))
+                   .andExpect(header().string("Content-Range", "bytes 7-9/10"))
+                   .andExpect(header().string("ETag", "\"" + bitstream.getChecksum() + "\""))
+                   .andExpect(content().bytes("789".getBytes()));
+    }
+
+    @Test
+    public void retrieveUnsatisfiableRangeBitstream() throws Exception {
+        bitstream = createPublicBitstream("0123456789");
+
+        //The range starts after the end of the bitstream
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .header("Range", "bytes=10-"))
+                   .andExpect(status().is(416))
+                   .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    public void retrieveRangeBitstreamWithIfRange() throws Exception {
+        bitstream = createPublicBitstream("0123456789");
+
+        //The range is sent when the If-Range header matches the ETag
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .header("Range", "bytes=1-3")
+                                .header("If-Range", "\"" + bitstream.getChecksum() + "\""))
+                   .andExpect(status().is(206))
+                   .andExpect(content().bytes("123".getBytes()));
+
+        //The whole bitstream is sent when the If-Range header doesn't match the ETag
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .header("Range", "bytes=1-3")
+                                .header("If-Range", "\"outdated\""))
+                   .andExpect(status().isOk())
+                   .andExpect(header().longValue("Content-Length", 10))
+                   .andExpect(content().bytes("0123456789".getBytes()));
+    }
+
+    @Test
+    public void retrieveRangeBitstreamReadsOnlyTheRange() throws Exception {
+        bitstream = createPublicBitstream("0123456789");
+
+        //Simulate an asset store without local files
+        var bitstreamStorageService = StorageServiceFactory.getInstance().getBitstreamStorageService();
+        var bitstreamStorageServiceSpy = spy(bitstreamStorageService);
+        ReflectionTestUtils.setField(bitstreamService, "bitstreamStorageService", bitstreamStorageServiceSpy);
+        doReturn(null).when(bitstreamStorageServiceSpy).getLocalFile(any(), eq(bitstream));
+
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .header("Range", "bytes=4-6"))
+                   .andExpect(status().is(206))
+                   .andExpect(header().longValue("Content-Length", 3))
+                   .andExpect(header().string("Content-Range", "bytes 4-6/10"))
+                   .andExpect(content().bytes("456".getBytes()));
+
+        //Only the range is retrieved from the asset store
+        Mockito.verify(bitstreamStorageServiceSpy, times(1)).retrieve(any(), eq(bitstream), eq(4L), eq(3L));
+        Mockito.verify(bitstreamStorageServiceSpy, never()).retrieve(any(), eq(bitstream));
+    }
+
+    private Bitstream createPublicBitstream(String bitstreamContent) throws Exception {
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context)
+                                          .withName("Parent Community")
+                                          .build();
+        Collection col1 = CollectionBuilder.createCollection(context, parentCommunity).withName("Collection 1").build();
+        Bitstream publicBitstream;
+        try (InputStream is = IOUtils.toInputStream(bitstreamContent, CharEncoding.UTF_8)) {
+            Item publicItem1 = ItemBuilder.createItem(context, col1)
+                                          .withTitle("Public item 1")
+                                          .withIssueDate("2017-10-17")
+                                          .build();
+            publicBitstream = BitstreamBuilder
+                .createBitstream(context, publicItem1, is)
+                .withName("Test bitstream")
+                .withDescription("This is a bitstream to test range requests")
+                .withMimeType("text/plain")
+                .build();
+        }
+        context.restoreAuthSystemState();
+        return publicBitstream;
+    }
+
     @Test
     public void testBitstreamName() throws Exception {
 
@@ -1115,6 +1207,8 @@ public class BitstreamRestControllerIT extends AbstractControllerIntegrationTest
         var bitstreamStorageServiceSpy = spy(bitstreamStorageService);
         ReflectionTestUtils.setField(bitstreamService, "bitstreamStorageService", bitstreamStorageServiceSpy);
         doReturn(inputStreamSpy).when(bitstreamStorageServiceSpy).retrieve(any(), eq(bitstream));
+        //Local files are sent without opening a stream, simulate an asset store without local files
+        doReturn(null).when(bitstreamStorageServiceSpy).getLocalFile(any(), eq(bitstream));
 
         //** WHEN **
         //We download the bitstream
@@ -1178,4 +1272,56 @@ public class BitstreamRestControllerIT extends AbstractControllerIntegrationTest
         Mockito.verify(inputStreamSpy, times(1)).close();
     }
 
+
+    @Test
+    public void retrieveCitationCoverpageFromCache() throws Exception {
+        configurationService.setProperty("citation-page.enable_globally", true);
+        citationDocumentService.afterPropertiesSet();
+        context.turnOffAuthorisationSystem();
+
+        parentCommunity = CommunityBuilder.createCommunity(context)
+            .withName("Parent Community")
+            .build();
+
+        Collection col1 =
+            CollectionBuilder.createCollection(context, parentCommunity).withName("Collection 1").build();
+
+        File originalPdf = new File(testProps.getProperty("test.bitstream"));
+
+        try (InputStream is = new FileInputStream(originalPdf)) {
+
+            Item publicItem1 = ItemBuilder.createItem(context, col1)
+                    .withTitle("Public item citation cover page cache test")
+                    .withIssueDate("2017-10-17")
+                    .build();
+
+            bitstream = BitstreamBuilder
+                    .createBitstream(context, publicItem1, is)
+                    .withName("Test bitstream")
+                    .withMimeType("application/pdf")
+                    .build();
+        }
+        context.restoreAuthSystemState();
+
+        var bitstreamStorageService = StorageServiceFactory.getInstance().getBitstreamStorageService();
+        var bitstreamStorageServiceSpy = spy(bitstreamStorageService);
+        ReflectionTestUtils.setField(bitstreamService, "bitstreamStorageService", bitstreamStorageServiceSpy);
+
+        byte[] content = getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(65, getNumberOfPdfPages(content));
+
+        //A range of the cited document is served from the cached document, without generating it again
+        byte[] range = getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                               .header("Range", "bytes=100-199"))
+            .andExpect(status().is(206))
+            .andExpect(header().string("Content-Length", "100"))
+            .andExpect(header().string("Content-Range", "bytes 100-199/" + content.length))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(range, equalTo(Arrays.copyOfRange(content, 100, 200)));
+
+        Mockito.verify(bitstreamStorageServiceSpy, times(1)).retrieve(any(), eq(bitstream));
+    }
+
 }
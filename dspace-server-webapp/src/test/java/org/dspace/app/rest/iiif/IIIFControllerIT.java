@@ -7,18 +7,27 @@
  */
 package org.dspace.app.rest.iiif;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 import javax.ws.rs.core.MediaType;
 
 import org.apache.commons.codec.CharEncoding;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.dspace.app.rest.test.AbstractControllerIntegrationTest;
 import org.dspace.builder.BitstreamBuilder;
@@ -33,10 +42,12 @@ import org.dspace.content.Item;
 import org.dspace.content.service.ItemService;
 import org.dspace.eperson.EPerson;
 import org.dspace.eperson.Group;
+import org.dspace.iiif.manifest.ManifestStore;
 import org.dspace.services.ConfigurationService;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
 
 public class IIIFControllerIT extends AbstractControllerIntegrationTest {
 
@@ -48,6 +59,9 @@ public class IIIFControllerIT extends AbstractControllerIntegrationTest {
     @Autowired
     private ConfigurationService configurationService;
 
+    @Autowired
+    private ManifestStore manifestStore;
+
     @Test
     public void disabledTest() throws Exception {
         context.turnOffAuthorisationSystem();
@@ -1290,4 +1304,138 @@ public class IIIFControllerIT extends AbstractControllerIntegrationTest {
                    .andExpect(jsonPath("$.metadata[0].value", is("Public item (revised)")));
     }
 
+    @Test
+    public void findOneFromManifestStore() throws Exception {
+        File storeDir = Files.createTempDirectory("iiif-manifests").toFile();
+        try {
+            configurationService.setProperty("iiif.manifest.store.enabled", true);
+            configurationService.setProperty("iiif.manifest.store.dir", storeDir.getAbsolutePath());
+
+            Item publicItem1 = createIIIFItemWithImages("Public item 1", 2);
+            String url = "/iiif/" + publicItem1.getID() + "/manifest";
+
+            // Not stored yet: generated for the request, and stored in the background
+            getClient().perform(get(url))
+                       .andExpect(status().isOk())
+                       .andExpect(header().doesNotExist("ETag"))
+                       .andExpect(jsonPath("$.metadata[0].value", is("Public item 1")));
+            waitForStoredManifest(publicItem1.getID());
+
+            // Stored, and sent as stored to clients accepting gzip
+            MvcResult result = getClient().perform(get(url).header("Accept-Encoding", "deflate, gzip"))
+                                          .andExpect(status().isOk())
+                                          .andExpect(header().string("Content-Encoding", "gzip"))
+                                          .andExpect(header().string("Vary", "Accept-Encoding"))
+                                          .andExpect(header().exists("ETag"))
+                                          .andExpect(header().exists("Last-Modified"))
+                                          .andReturn();
+            String json = gunzip(result.getResponse().getContentAsByteArray());
+            assertThat(json, containsString("/iiif/" + publicItem1.getID() + "/canvas/c1"));
+            String eTag = result.getResponse().getHeader("ETag");
+            String lastModified = result.getResponse().getHeader("Last-Modified");
+
+            // Decompressed for the other clients, including those refusing gzip with a zero quality value
+            getClient().perform(get(url))
+                       .andExpect(status().isOk())
+                       .andExpect(header().doesNotExist("Content-Encoding"))
+                       .andExpect(header().string("ETag", eTag))
+                       .andExpect(jsonPath("$.metadata[0].value", is("Public item 1")))
+                       .andExpect(jsonPath("$.sequences[0].canvases.length()", Matchers.equalTo(2)));
+            getClient().perform(get(url).header("Accept-Encoding", "gzip;q=0, identity"))
+                       .andExpect(status().isOk())
+                       .andExpect(header().doesNotExist("Content-Encoding"))
+                       .andExpect(jsonPath("$.metadata[0].value", is("Public item 1")));
+            getClient().perform(get(url).header("Accept-Encoding", "*;q=0.5"))
+                       .andExpect(status().isOk())
+                       .andExpect(header().string("Content-Encoding", "gzip"));
+
+            // Conditional requests
+            getClient().perform(get(url).header("If-None-Match", eTag))
+                       .andExpect(status().isNotModified());
+            getClient().perform(get(url).header("If-Modified-Since", lastModified))
+                       .andExpect(status().isNotModified());
+            getClient().perform(get(url).header("If-None-Match", "\"other\""))
+                       .andExpect(status().isOk());
+        } finally {
+            FileUtils.deleteQuietly(storeDir);
+        }
+    }
+
+    @Test
+    public void manifestStoreFollowsItemUpdatesAndBitstreamDeletions() throws Exception {
+        File storeDir = Files.createTempDirectory("iiif-manifests").toFile();
+        try {
+            configurationService.setProperty("iiif.manifest.store.enabled", true);
+            configurationService.setProperty("iiif.manifest.store.dir", storeDir.getAbsolutePath());
+
+            Item publicItem1 = createIIIFItemWithImages("Public item 1", 1);
+            Item publicItem2 = createIIIFItemWithImages("Public item 2", 2);
+            for (Item item : new Item[] {publicItem1, publicItem2}) {
+                getClient().perform(get("/iiif/" + item.getID() + "/manifest")).andExpect(status().isOk());
+                waitForStoredManifest(item.getID());
+            }
+            String token = getAuthToken(admin.getEmail(), password);
+
+            // The item update removes its stored manifest
+            getClient(token).perform(patch("/api/core/items/" + publicItem1.getID())
+                                .content("[{\"op\": \"replace\",\"path\": \"/metadata/dc.title/0/value\","
+                                             + "\"value\": \"Public item (revised)\"}]")
+                                .contentType(MediaType.APPLICATION_JSON_PATCH_JSON))
+                            .andExpect(status().isOk());
+            getClient().perform(get("/iiif/" + publicItem1.getID() + "/manifest"))
+                       .andExpect(status().isOk())
+                       .andExpect(jsonPath("$.metadata[0].value", is("Public item (revised)")));
+
+            // The bitstream deletion only removes the stored manifest of its item
+            waitForStoredManifest(publicItem1.getID());
+            context.turnOffAuthorisationSystem();
+            Bitstream bitstream = publicItem2.getBundles("ORIGINAL").get(0).getBitstreams().get(1);
+            context.restoreAuthSystemState();
+            getClient(token).perform(delete("/api/core/bitstreams/" + bitstream.getID()))
+                            .andExpect(status().isNoContent());
+            assertThat(manifestStore.contains(publicItem1.getID()), is(true));
+            getClient().perform(get("/iiif/" + publicItem2.getID() + "/manifest"))
+                       .andExpect(status().isOk())
+                       .andExpect(jsonPath("$.sequences[0].canvases.length()", Matchers.equalTo(1)));
+        } finally {
+            FileUtils.deleteQuietly(storeDir);
+        }
+    }
+
+    private Item createIIIFItemWithImages(String title, int images) throws Exception {
+        context.turnOffAuthorisationSystem();
+        if (parentCommunity == null) {
+            parentCommunity = CommunityBuilder.createCommunity(context).withName("Parent Community").build();
+        }
+        Collection col1 = CollectionBuilder.createCollection(context, parentCommunity).withName("Collection")
+                                           .build();
+        Item item = ItemBuilder.createItem(context, col1)
+                               .withTitle(title)
+                               .withIssueDate("2017-10-17")
+                               .enableIIIF()
+                               .build();
+        for (int i = 0; i < images; i++) {
+            try (InputStream is = IOUtils.toInputStream("ThisIsSomeDummyText" + i, CharEncoding.UTF_8)) {
+                BitstreamBuilder.createBitstream(context, item, is)
+                                .withName("Bitstream" + i + ".jpg")
+                                .withMimeType("image/jpeg")
+                                .build();
+            }
+        }
+        context.restoreAuthSystemState();
+        return item;
+    }
+
+    private void waitForStoredManifest(UUID itemId) throws InterruptedException {
+        for (int i = 0; i < 300 && !manifestStore.contains(itemId); i++) {
+            Thread.sleep(100);
+        }
+        assertThat("Manifest of " + itemId + " stored", manifestStore.contains(itemId), is(true));
+    }
+
+    private static String gunzip(byte[] content) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 }
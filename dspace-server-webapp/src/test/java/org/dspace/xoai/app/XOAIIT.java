@@ -0,0 +1,384 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.xml.stream.XMLStreamException;
+
+import com.lyncode.xoai.dataprovider.exceptions.WritingXmlException;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.client.solrj.request.CoreAdminRequest;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CoreAdminParams;
+import org.apache.solr.core.CoreContainer;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.solr.MockSolrServer;
+import org.dspace.xoai.services.api.CollectionsService;
+import org.dspace.xoai.services.api.cache.XOAIItemCacheService;
+import org.dspace.xoai.services.api.cache.XOAILastCompilationCacheService;
+import org.dspace.xoai.services.api.solr.SolrServerResolver;
+import org.dspace.xoai.services.impl.DSpaceCollectionsService;
+import org.dspace.xoai.services.impl.cache.DSpaceXOAIItemCacheService;
+import org.dspace.xoai.services.impl.cache.DSpaceXOAILastCompilationCacheService;
+import org.dspace.xoai.services.impl.config.DSpaceConfigurationService;
+import org.dspace.xoai.solr.exceptions.DSpaceSolrIndexerException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Integration tests of the import of the items into the OAI core by {@link XOAI}, into an embedded Solr server.
+ */
+public class XOAIIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final String OAI_CORE = "oai";
+    private static final String SHADOW_CORE = "oai-shadow";
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final ConfigurationService configurationService =
+        DSpaceServicesFactory.getInstance().getConfigurationService();
+
+    private MockSolrServer oaiSolr;
+    private CoreContainer coreContainer;
+    private AnnotationConfigApplicationContext applicationContext;
+    private File shadowInstanceDir;
+    private boolean swapped;
+    private final List<Context> indexerContexts = new ArrayList<>();
+
+    private Collection collection;
+    private Item withdrawn;
+    private Item undiscoverable;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        oaiSolr = new MockSolrServer(OAI_CORE);
+        oaiSolr.reset();
+        coreContainer = ((EmbeddedSolrServer) oaiSolr.getSolrServer()).getCoreContainer();
+        configurationService.setProperty("oai.solr.url", "http://localhost:8983/solr/" + OAI_CORE);
+        // several batches per import
+        configurationService.setProperty("oai.import.batch.size", 3);
+
+        applicationContext = new AnnotationConfigApplicationContext();
+        applicationContext.register(TestConfiguration.class);
+        applicationContext.getBeanFactory().registerSingleton("solrServerResolver",
+            (SolrServerResolver) () -> oaiSolr.getSolrServer());
+        applicationContext.refresh();
+
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        for (int i = 0; i < 10; i++) {
+            ItemBuilder.createItem(context, collection).withTitle("Item " + i).withAuthor("Author " + i)
+                       .withIssueDate("2022-0" + (i % 9 + 1)).withSubject("Subject " + i % 3).build();
+        }
+        withdrawn = ItemBuilder.createItem(context, collection).withTitle("Withdrawn").withdrawn().build();
+        undiscoverable = ItemBuilder.createItem(context, collection).withTitle("Undiscoverable")
+                                    .makeUnDiscoverable().build();
+        context.restoreAuthSystemState();
+    }
+
+    @After
+    @Override
+    public void destroy() throws Exception {
+        try {
+            if (shadowInstanceDir != null) {
+                if (swapped) {
+                    swap();
+                }
+                CoreAdminRequest.unloadCore(SHADOW_CORE, true, true, oaiSolr.getSolrServer());
+                FileUtils.deleteQuietly(shadowInstanceDir);
+            }
+            oaiSolr.reset();
+            oaiSolr.getSolrServer().commit();
+        } finally {
+            for (Context indexerContext : indexerContexts) {
+                indexerContext.abort();
+            }
+            oaiSolr.destroy();
+            applicationContext.close();
+            configurationService.setProperty("oai.import.batch.size", null);
+            super.destroy();
+        }
+    }
+
+    @Test
+    public void testParallelImportGivesTheSameDocumentsAsSequentialImport() throws Exception {
+        assertEquals(12, createIndexer(1).index());
+        Map<String, SolrDocument> sequential = findDocuments(oaiSolr.getSolrServer());
+        assertEquals(12, sequential.size());
+        assertEquals(Boolean.TRUE, sequential.get(withdrawn.getHandle()).getFieldValue("item.deleted"));
+        assertEquals(Boolean.TRUE, sequential.get(undiscoverable.getHandle()).getFieldValue("item.deleted"));
+
+        assertEquals(12, createIndexer(4).index());
+        Map<String, SolrDocument> parallel = findDocuments(oaiSolr.getSolrServer());
+        assertEquals(sequential.keySet(), parallel.keySet());
+        for (Map.Entry<String, SolrDocument> document : sequential.entrySet()) {
+            assertEquals(document.getKey(), fieldValues(document.getValue()),
+                         fieldValues(parallel.get(document.getKey())));
+        }
+    }
+
+    @Test
+    public void testItemFailingToCompileIsSkipped() throws Exception {
+        Item failing = findItem("Item 4");
+        XOAI indexer = new EmbeddedXOAI() {
+            @Override
+            protected SolrInputDocument index(Context context, Item item)
+                throws SQLException, IOException, XMLStreamException, WritingXmlException {
+                if (item.getID().equals(failing.getID())) {
+                    throw new IOException("Unable to compile " + item.getID());
+                }
+                return super.index(context, item);
+            }
+        };
+
+        // the items read, not the items written
+        assertEquals(12, autowire(indexer, 3).index());
+        Map<String, SolrDocument> documents = findDocuments(oaiSolr.getSolrServer());
+        assertEquals(11, documents.size());
+        assertFalse(documents.containsKey(failing.getHandle()));
+    }
+
+    @Test(timeout = 120000)
+    public void testUnexpectedFailureOfAWorkerStopsTheImport() throws Exception {
+        Item failing = findItem("Item 4");
+        XOAI indexer = new EmbeddedXOAI() {
+            @Override
+            protected SolrInputDocument index(Context context, Item item)
+                throws SQLException, IOException, XMLStreamException, WritingXmlException {
+                if (item.getID().equals(failing.getID())) {
+                    throw new IllegalStateException("Unexpected failure");
+                }
+                return super.index(context, item);
+            }
+        };
+
+        try {
+            autowire(indexer, 3).index();
+            fail("The import should fail");
+        } catch (DSpaceSolrIndexerException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testMissingShadowCoreLeavesTheOAICoreUntouched() throws Exception {
+        assertEquals(12, createIndexer(2).index());
+        Map<String, SolrDocument> before = findDocuments(oaiSolr.getSolrServer());
+
+        context.turnOffAuthorisationSystem();
+        ItemBuilder.createItem(context, collection).withTitle("Added").build();
+        context.restoreAuthSystemState();
+
+        XOAI indexer = createIndexer(2);
+        indexer.setShadowCore("oai-missing");
+        try {
+            indexer.index();
+            fail("The import should fail without the shadow core");
+        } catch (DSpaceSolrIndexerException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("oai-missing"));
+        }
+
+        Map<String, SolrDocument> after = findDocuments(oaiSolr.getSolrServer());
+        assertEquals(before.keySet(), after.keySet());
+    }
+
+    @Test
+    public void testShadowImportIsSwappedAndCaughtUp() throws Exception {
+        createShadowCore();
+        assertEquals(12, createIndexer(2).index());
+
+        // changed while the shadow core is filled, after its document is compiled
+        Item changed = findItem("Item 7");
+        AtomicBoolean changing = new AtomicBoolean(true);
+        XOAI indexer = new EmbeddedXOAI() {
+            @Override
+            protected SolrInputDocument index(Context context, Item item)
+                throws SQLException, IOException, XMLStreamException, WritingXmlException {
+                SolrInputDocument document = super.index(context, item);
+                if (item.getID().equals(changed.getID()) && changing.getAndSet(false)) {
+                    changeTitle(item.getID(), "Changed during the import");
+                }
+                return document;
+            }
+        };
+        indexer.setShadowCore(SHADOW_CORE);
+        autowire(indexer, 2).index();
+        swapped = true;
+        assertFalse(changing.get());
+
+        Map<String, SolrDocument> documents = findDocuments(oaiSolr.getSolrServer());
+        assertEquals(12, documents.size());
+        assertEquals("Changed during the import",
+                     documents.get(changed.getHandle()).getFirstValue("metadata.dc.title"));
+
+        // the shadow core now serves the previous import
+        try (SolrClient shadow = new EmbeddedSolrServer(coreContainer, SHADOW_CORE)) {
+            Map<String, SolrDocument> previous = findDocuments(shadow);
+            assertEquals(12, previous.size());
+            assertEquals("Item 7", previous.get(changed.getHandle()).getFirstValue("metadata.dc.title"));
+        }
+    }
+
+    private XOAI createIndexer(int threads) {
+        return autowire(new EmbeddedXOAI(), threads);
+    }
+
+    private XOAI autowire(XOAI indexer, int threads) {
+        indexer.setThreads(threads);
+        applicationContext.getAutowireCapableBeanFactory().autowireBean(indexer);
+        return indexer;
+    }
+
+    private Context readOnlyContext() {
+        Context indexerContext = new Context(Context.Mode.READ_ONLY);
+        indexerContexts.add(indexerContext);
+        return indexerContext;
+    }
+
+    private Item findItem(String title) throws SQLException {
+        Item item = itemService.findArchivedByMetadataField(context, "dc", "title", null, title).next();
+        assertNotNull(item);
+        return item;
+    }
+
+    private void changeTitle(UUID itemId, String title) throws SQLException {
+        Context changeContext = new Context();
+        try {
+            changeContext.turnOffAuthorisationSystem();
+            Item item = itemService.find(changeContext, itemId);
+            itemService.clearMetadata(changeContext, item, "dc", "title", null, Item.ANY);
+            itemService.addMetadata(changeContext, item, "dc", "title", null, null, title);
+            itemService.update(changeContext, item);
+            changeContext.complete();
+        } catch (Exception e) {
+            changeContext.abort();
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * Create the shadow core, with the configuration of the OAI core
+     */
+    private void createShadowCore() throws Exception {
+        File solrHome = new File(getDspaceDir(), "solr");
+        shadowInstanceDir = new File(solrHome, SHADOW_CORE);
+        FileUtils.copyDirectory(new File(solrHome, OAI_CORE + File.separator + "conf"),
+                                new File(shadowInstanceDir, "conf"));
+        CoreAdminRequest.Create create = new CoreAdminRequest.Create();
+        create.setCoreName(SHADOW_CORE);
+        create.setInstanceDir(shadowInstanceDir.getAbsolutePath());
+        create.process(oaiSolr.getSolrServer());
+    }
+
+    private void swap() throws Exception {
+        CoreAdminRequest swapRequest = new CoreAdminRequest();
+        swapRequest.setCoreName(OAI_CORE);
+        swapRequest.setOtherCoreName(SHADOW_CORE);
+        swapRequest.setAction(CoreAdminParams.CoreAdminAction.SWAP);
+        swapRequest.process(oaiSolr.getSolrServer());
+        swapped = false;
+    }
+
+    private static Map<String, SolrDocument> findDocuments(SolrClient solr) throws Exception {
+        Map<String, SolrDocument> documents = new HashMap<>();
+        for (SolrDocument document : solr.query(new SolrQuery("*:*").setRows(1000)).getResults()) {
+            assertNull(documents.put((String) document.getFieldValue("item.handle"), document));
+        }
+        return documents;
+    }
+
+    private static Map<String, Object> fieldValues(SolrDocument document) {
+        Map<String, Object> values = new HashMap<>();
+        for (String field : document.getFieldNames()) {
+            // set by Solr
+            if (!"_version_".equals(field)) {
+                values.put(field, document.getFieldValues(field));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * A full import (with clean), into the cores of the embedded Solr server
+     */
+    private class EmbeddedXOAI extends XOAI {
+
+        EmbeddedXOAI() {
+            super(readOnlyContext(), false, true, false);
+        }
+
+        @Override
+        protected SolrClient createSolrClient(String url) {
+            // the core admin requests are served whatever the core
+            return new EmbeddedSolrServer(coreContainer, StringUtils.substringAfterLast(url, "/"));
+        }
+    }
+
+    /**
+     * The beans of the OAI import, but the Solr server resolver, registered by the test
+     */
+    @Configuration
+    static class TestConfiguration {
+
+        @Bean
+        public org.dspace.xoai.services.api.config.ConfigurationService configurationService() {
+            return new DSpaceConfigurationService();
+        }
+
+        @Bean
+        public XOAILastCompilationCacheService xoaiLastCompilationCacheService() {
+            return new DSpaceXOAILastCompilationCacheService();
+        }
+
+        @Bean
+        public XOAIItemCacheService xoaiItemCacheService() {
+            return new DSpaceXOAIItemCacheService();
+        }
+
+        @Bean
+        public CollectionsService collectionsService() {
+            return new DSpaceCollectionsService();
+        }
+    }
+}